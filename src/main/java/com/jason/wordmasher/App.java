@@ -3,9 +3,21 @@ package com.jason.wordmasher;
 import org.apache.commons.lang.StringUtils;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * A Java / Maven coding exercise that mashes random words together in interesting ways.
@@ -24,6 +36,8 @@ public class App {
     private static File wordsFile;
     private static File specialCharactersFile;
     private static File outputFile = new File("output.txt");
+    private static boolean wordsFromStdin = false;
+    private static boolean outputToStdout = false;
     private static int numberOfFrankenwordsToCreate = 0;
 
     // Logging
@@ -35,24 +49,85 @@ public class App {
     // Misc variables
     private static boolean SPACES_REQUESTED = false;
     private static boolean SPECIAL_CHARS_REQUESTED = false;
-    private static char[] specialCharacters;
     private static final int MAX_CANDIDATE_WORD_LENGTH = 10;
     private static final int MAX_ONE_IN_N_CHANCE = 100;
     private static final int MAX_WHILE = 1000;
+    private static final int MAX_DECORATION_TRIES = 10;
     private static final int MIN_CANDIDATE_WORD_LENGTH = 2;
     private static final int MIN_WORDS_TO_MASH = 1;
+    private static final int WEIRD_CAPITALIZATION_CHANCE = 11; // 1 in 11 characters uppercased
     private static final String NIGO_MESSAGE = "The program arguments do not appear to be in good order. " +
             "Please see README for program usage.";
-    private static List<String> wordsToUse;
+    private static final AtomicReference<WordIndex> WORD_INDEX = new AtomicReference<>();
+    private static volatile SessionRegistry SESSIONS = new SessionRegistry(WORD_INDEX);
+    static final TraceRing TRACE = new TraceRing(TraceRing.DEFAULT_CAPACITY);
+    private static final String DEFAULT_SESSION_ID = "default";
+    private static final ThreadLocal<Prng> RANDOM = ThreadLocal.withInitial(() ->
+            new Prng(ThreadLocalRandom.current().nextLong()));
+    private static final int DEFAULT_CHECKPOINT_EVERY = 100;
     private static List<String> usedWords = new ArrayList<>();
     private static String errorMessage;
     static boolean ARGS_ARE_IN_GOOD_ORDER = false;
+    static volatile Blocklist blocklist;
+    static volatile boolean useSyllables;
+    static volatile int[] lengthRange; // parsed LENGTH_ARG {min, max}, or null if not received
     static final int MAX_FRANKENWORDS = 1000;
     static final int MAX_WORDS_TO_MASH = 10;
+    static final int MAX_WORDS_PER_FRANKENWORD = 3;
     static final String NUM_TO_PRINT_ARG = "-numtoprint";
     static final String SPACES_ARG = "-addspaces";
     static final String SPECIAL_CHARS_FILE_ARG = "-specialcharsfile";
     static final String WORDS_FILE_ARG = "-wordsfile";
+    static final String STDIO = "-"; // in place of a file name: read stdin, or write stdout
+
+    // Extended program arguments (not counted against the 4 - 7 core args)
+    static Map<String, String> extendedArgs = new HashMap<>();
+    static final String ASCII_ONLY_ARG = "-asciionly";
+    static final String BENCH_ARG = "-bench";
+    static final String BENCH_ITERATIONS_ARG = "-benchiterations";
+    static final String BENCH_WARMUP_ARG = "-benchwarmup";
+    static final String BLOCKLIST_ARG = "-blocklist";
+    static final String CHECKPOINT_ARG = "-checkpoint";
+    static final String CHECKPOINT_EVERY_ARG = "-checkpointevery";
+    static final String COLUMNAR_ARG = "-columnar";
+    static final String CONTAINS_ARG = "-contains";
+    static final String EXCLUDE_FILE_ARG = "-excludefile";
+    static final String LENGTH_ARG = "-length";
+    static final String MAX_WORD_LENGTH_ARG = "-maxwordlength";
+    static final String MIN_WORD_LENGTH_ARG = "-minwordlength";
+    static final String MMAP_ARG = "-mmap";
+    static final String OUTPUT_FILE_ARG = "-outputfile";
+    static final String POOL_HIGH_ARG = "-poolhigh";
+    static final String POOL_LOW_ARG = "-poollow";
+    static final String PREFIX_ARG = "-prefix";
+    static final String PREGENERATE_ARG = "-pregenerate";
+    static final String REGEX_ARG = "-regex";
+    static final String REJECT_REAL_WORDS_ARG = "-rejectrealwords";
+    static final String RESUME_ARG = "-resume";
+    static final String SEED_ARG = "-seed";
+    static final String SESSION_IDLE_ARG = "-sessionidle";
+    static final String SESSION_MEMORY_ARG = "-sessionmemory";
+    static final String START_INDEX_ARG = "-startindex";
+    static final String STREAM_ARG = "-stream";
+    static final String SUFFIX_ARG = "-suffix";
+    static final String SYLLABLES_ARG = "-syllables";
+    static final String THREADS_ARG = "-threads";
+    static final String TRACE_ARG = "-trace";
+    static final String UNIQUE_ARG = "-unique";
+    static final String WATCH_ARG = "-watch";
+    static final String WORKERS_ARG = "-workers";
+    static final List<String> EXTENDED_FLAGS = new ArrayList<>(Arrays.asList(WATCH_ARG, PREGENERATE_ARG,
+            RESUME_ARG, UNIQUE_ARG, MMAP_ARG, REJECT_REAL_WORDS_ARG, ASCII_ONLY_ARG,
+            SYLLABLES_ARG, STREAM_ARG, BENCH_ARG, TRACE_ARG, COLUMNAR_ARG));
+    static final List<String> EXTENDED_OPTIONS = new ArrayList<>(Arrays.asList(POOL_LOW_ARG, POOL_HIGH_ARG,
+            CHECKPOINT_ARG, CHECKPOINT_EVERY_ARG, THREADS_ARG, SEED_ARG, START_INDEX_ARG, WORKERS_ARG, PREFIX_ARG,
+            CONTAINS_ARG, SUFFIX_ARG, LENGTH_ARG, MIN_WORD_LENGTH_ARG, MAX_WORD_LENGTH_ARG, REGEX_ARG,
+            EXCLUDE_FILE_ARG, BLOCKLIST_ARG, OUTPUT_FILE_ARG, BENCH_WARMUP_ARG, BENCH_ITERATIONS_ARG,
+            SESSION_IDLE_ARG, SESSION_MEMORY_ARG));
+    static final int MAX_THREADS = 256;
+    static final int MAX_WORKERS = 64;
+    static final int MAX_SESSION_IDLE_SECONDS = 7 * 24 * 60 * 60;
+    static final int MAX_SESSION_MEMORY_MEGABYTES = 1024 * 1024;
 
     /**
      * Main program method.
@@ -62,14 +137,94 @@ public class App {
     public static void main(String[] args) {
         startLog();
         if(parseArgs(args)) {
+            DictionaryWatcher watcher = null;
+            FrankenwordPool pool = null;
             try {
-                wordsToUse = readFileIntoListOfStrings(wordsFile);
-                specialCharacters = readFileIntoCharArray(specialCharactersFile);
-                printFrankenwords(makeFrankenwords());
-                print("\n" + outputFile.getName() + " has been created.");
+                if(!extendedArgsAreCompatible(extendedArgs)
+                        || (wordsFromStdin && !wordsFromStdinIsCompatible(extendedArgs))) {
+                    throw new IllegalStateException(errorMessage);
+                }
+                lengthRange = extendedArgs.containsKey(LENGTH_ARG) ? getLengthRange() : null;
+                SESSIONS = new SessionRegistry(WORD_INDEX, getSessionIdleTimeoutMillis(), getSessionMemoryBudgetBytes(),
+                        System::currentTimeMillis);
+                Function<List<String>, WordFilter> eligibilityFilter = getEligibilityFilter();
+                List<String> words;
+                if(extendedArgs.containsKey(STREAM_ARG)) {
+                    words = sampleWords();
+                } else {
+                    words = wordsFromStdin ? readStdinIntoListOfStrings() : readFileIntoListOfStrings(wordsFile);
+                }
+                WORD_INDEX.set(new WordIndex(words, readFileIntoCharArray(specialCharactersFile), eligibilityFilter));
+                if(WORD_INDEX.get().eligibleCount() == 0) {
+                    errorMessage = "Error: no words in " + (wordsFromStdin ? "stdin" : wordsFile.getName())
+                            + " pass the eligibility filters.";
+                    logEntry(errorMessage);
+                    throw new IllegalStateException(errorMessage);
+                }
+                useSyllables = extendedArgs.containsKey(SYLLABLES_ARG);
+                warmUp(WORD_INDEX.get());
+                if(extendedArgs.containsKey(BLOCKLIST_ARG)) {
+                    blocklist = new Blocklist(readFileIntoListOfStrings(new File(extendedArgs.get(BLOCKLIST_ARG))));
+                }
+                if(extendedArgs.containsKey(WATCH_ARG)) {
+                    watcher = new DictionaryWatcher(wordsFile, specialCharactersFile, WORD_INDEX, eligibilityFilter);
+                    watcher.start();
+                }
+                if(extendedArgs.containsKey(PREGENERATE_ARG)) {
+                    pool = new FrankenwordPool(App::generateFrankenword,
+                            getExtendedInt(POOL_LOW_ARG, FrankenwordPool.DEFAULT_LOW_WATERMARK, 0, MAX_FRANKENWORDS),
+                            getExtendedInt(POOL_HIGH_ARG, FrankenwordPool.DEFAULT_HIGH_WATERMARK, 1,
+                                    MAX_FRANKENWORDS));
+                    pool.prime(SPACES_REQUESTED, SPECIAL_CHARS_REQUESTED);
+                }
+                if(extendedArgs.containsKey(BENCH_ARG)) {
+                    runBenchmarks();
+                } else if(extendedArgs.containsKey(CHECKPOINT_ARG)) {
+                    printFrankenwordsWithCheckpoints(new File(extendedArgs.get(CHECKPOINT_ARG)),
+                            extendedArgs.containsKey(RESUME_ARG));
+                } else if(extendedArgs.containsKey(UNIQUE_ARG)) {
+                    printFrankenwords(makeUniqueFrankenwords(WORD_INDEX.get(),
+                            extendedArgs.containsKey(SEED_ARG) ? getSeed() : random().nextLong(),
+                            getExtendedInt(START_INDEX_ARG, 0, 0, Integer.MAX_VALUE), numberOfFrankenwordsToCreate,
+                            getExtendedInt(THREADS_ARG, 1, 1, MAX_THREADS), SPACES_REQUESTED,
+                            SPECIAL_CHARS_REQUESTED));
+                } else if(extendedArgs.containsKey(WORKERS_ARG)) {
+                    printFrankenwords(new DistributedCoordinator(WORD_INDEX.get(), wordsFile,
+                            SPECIAL_CHARS_REQUESTED ? specialCharactersFile : null, SPACES_REQUESTED,
+                            extendedArgs.containsKey(SEED_ARG) ? getSeed() : random().nextLong(),
+                            getExtendedInt(WORKERS_ARG, 1, 1, MAX_WORKERS), DistributedCoordinator.processLauncher())
+                            .run(numberOfFrankenwordsToCreate));
+                } else if(extendedArgs.containsKey(SEED_ARG)) {
+                    printFrankenwords(makeSeededFrankenwords(WORD_INDEX.get(), getSeed(),
+                            numberOfFrankenwordsToCreate, getExtendedInt(THREADS_ARG, 1, 1, MAX_THREADS),
+                            SPACES_REQUESTED, SPECIAL_CHARS_REQUESTED));
+                } else if(extendedArgs.containsKey(THREADS_ARG)) {
+                    printFrankenwordsInParallel(getExtendedInt(THREADS_ARG, 1, 1, MAX_THREADS));
+                } else if(extendedArgs.containsKey(COLUMNAR_ARG) && columnarIsSupported()) {
+                    printFrankenwordsInColumns();
+                } else if(outputToStdout) {
+                    printFrankenwordsToStdout(pool);
+                } else {
+                    printFrankenwords(makeFrankenwords(pool));
+                }
+                if(extendedArgs.containsKey(BENCH_ARG)) {
+                    print("\n" + Benchmark.OUTPUT_FILE_NAME + " has been created.");
+                } else if(!outputToStdout) {
+                    print("\n" + outputFile.getName() + " has been created.");
+                }
+                if(extendedArgs.containsKey(TRACE_ARG)) {
+                    dumpTrace("requested with " + TRACE_ARG);
+                }
                 logEntry("Program finished.");
             } catch (Exception e) {
                 handleMainException(e);
+            } finally {
+                if(pool != null) {
+                    pool.close();
+                }
+                if(watcher != null) {
+                    watcher.close();
+                }
             }
         }
     }
@@ -102,6 +257,7 @@ public class App {
             }
             logEntry("*** END STACKTRACE ***");
         }
+        dumpTrace("the program failed");
 
         // Break the news to the user.
         String time = new SimpleDateFormat("kk:mm:ss").format(new Date());
@@ -116,9 +272,9 @@ public class App {
 
 
     /**
-     * Open a new logging session. Create a new /log directory as needed.
+     * Open a new logging session. Create a new /log directory as needed. Called first by every entry point.
      */
-    private static void startLog() { // can be functionally tested
+    static void startLog() { // can be functionally tested
         File dir = new File("logs");
         if(!dir.exists()) {
             if(!dir.mkdir()) {
@@ -133,7 +289,7 @@ public class App {
      *
      * @param log the log entry
      */
-    private static void logEntry(String log) throws IllegalStateException { // can be functionally tested
+    static void logEntry(String log) throws IllegalStateException { // can be functionally tested
         if(!StringUtils.isBlank(log)) {
             try {
                 FileWriter fw;
@@ -141,6 +297,11 @@ public class App {
                 PrintWriter out;
                 String time;
                 if (!LOG_FILE.exists()){
+                    // An entry point that did not call startLog may be running outside the repo root.
+                    File dir = LOG_FILE.getParentFile();
+                    if(dir != null && !dir.exists() && !dir.mkdirs()) {
+                        print("WARN: unable to create directory '" + dir + "'.");
+                    }
                     if(LOG_FILE.createNewFile()) {
                         fw = new FileWriter(LOG_FILE);
                         bw = new BufferedWriter(fw);
@@ -165,6 +326,19 @@ public class App {
         }
     }
 
+    /**
+     * Decode the trace ring (see TraceRing) into the log, oldest record first, in a single log entry.
+     *
+     * @param reason Why the trace is being dumped
+     */
+    static void dumpTrace(String reason) { // can be functionally tested
+        List<String> lines = TRACE.decode();
+        String lineSeparator = System.lineSeparator();
+        logEntry("*** BEGIN TRACE (" + reason + "; the last " + lines.size() + " of " + TRACE.written()
+                + " records) ***" + lineSeparator + String.join(lineSeparator, lines) + lineSeparator
+                + "*** END TRACE ***");
+    }
+
     /**
      * @return today's date in the format YYYY-MM-DD
      */
@@ -204,17 +378,213 @@ public class App {
      */
     private static boolean parseArgs(String[] args) { // all sub-components individually tested
         List<String> argsList = new ArrayList<>(Arrays.asList(args));
-        ListIterator<String> iterator = argsList.listIterator();
-        while (iterator.hasNext()) {
-            iterator.set(iterator.next().toLowerCase());
+        lowerCaseArgNames(argsList);
+        extendedArgs = extractExtendedArgs(argsList);
+        if(extendedArgs != null && extendedArgs.containsKey(OUTPUT_FILE_ARG)) {
+            outputToStdout = STDIO.equals(extendedArgs.get(OUTPUT_FILE_ARG));
+            if(!outputToStdout) {
+                outputFile = new File(extendedArgs.get(OUTPUT_FILE_ARG));
+            }
         }
-        return(correctNumberOfArgsReceived(argsList) &&
+        return(extendedArgs != null &&
+                correctNumberOfArgsReceived(argsList) &&
                 !illegalArgsReceived(argsList) &&
                 minimumRequiredArgsReceived(argsList) &&
                 argsAreInGoodOrder(argsList) &&
                 populateClassMemberVariables(argsList));
     }
 
+    /**
+     * Lower-cases the names of program arguments, so -WordsFile works as -wordsfile, but leaves the values of options
+     * as they are: file names, patterns and the like are case sensitive.
+     *
+     * @param argsList The program arguments to process, in place
+     */
+    static void lowerCaseArgNames(List<String> argsList) { // tested
+        List<String> options = new ArrayList<>(EXTENDED_OPTIONS);
+        options.addAll(Arrays.asList(WORDS_FILE_ARG, SPECIAL_CHARS_FILE_ARG, NUM_TO_PRINT_ARG));
+        ListIterator<String> iterator = argsList.listIterator();
+        while(iterator.hasNext()) {
+            String name = iterator.next().toLowerCase(Locale.ROOT);
+            if(options.contains(name)) {
+                iterator.set(name);
+                if(iterator.hasNext()) {
+                    iterator.next();
+                }
+            } else if(name.equals(SPACES_ARG) || EXTENDED_FLAGS.contains(name)) {
+                iterator.set(name);
+            }
+        }
+    }
+
+    /**
+     * Removes extended program arguments (see EXTENDED_FLAGS and EXTENDED_OPTIONS) from the args list, leaving only
+     * the core args for the remaining validation steps. Extended flags map to an empty string, extended options map
+     * to the arg that follows them.
+     *
+     * @param argsList The program arguments to process. Extended args are removed in place.
+     * @return         A map of extended args to their values, or null if an extended option is missing its value.
+     */
+    static Map<String, String> extractExtendedArgs(List<String> argsList) { // tested
+        Map<String, String> extracted = new HashMap<>();
+        if(argsList == null) {
+            return extracted;
+        }
+        ListIterator<String> iterator = argsList.listIterator();
+        while(iterator.hasNext()) {
+            String arg = iterator.next();
+            if(EXTENDED_FLAGS.contains(arg)) {
+                extracted.put(arg, "");
+                iterator.remove();
+            } else if(EXTENDED_OPTIONS.contains(arg)) {
+                iterator.remove();
+                if(!iterator.hasNext()) {
+                    logEntry("Error: App.extractExtendedArgs found no value for the extended arg " + arg + ".");
+                    print(NIGO_MESSAGE);
+                    return null;
+                }
+                extracted.put(arg, iterator.next());
+                iterator.remove();
+            }
+        }
+        return extracted;
+    }
+
+    /**
+     * Checks that the extended program arguments make sense together.
+     *
+     * @param extended The extended args to analyze
+     * @return         True if the extended args are compatible, false otherwise.
+     */
+    static boolean extendedArgsAreCompatible(Map<String, String> extended) { // tested
+        if(extended.containsKey(RESUME_ARG) && !extended.containsKey(CHECKPOINT_ARG)) {
+            errorMessage = "Error: " + RESUME_ARG + " requires " + CHECKPOINT_ARG + ".";
+            logEntry(errorMessage);
+            return false;
+        }
+        // Pool threads and parallel workers draw from their own PRNGs, which a checkpoint cannot capture. A seeded
+        // run brings its own parallelism (-threads or -workers) and its own reproducibility, so it stands alone too.
+        List<String> exclusive = Arrays.asList(PREGENERATE_ARG, CHECKPOINT_ARG, THREADS_ARG, WORKERS_ARG);
+        String found = null;
+        for(String arg : exclusive) {
+            if(extended.containsKey(arg)) {
+                if(found != null) {
+                    errorMessage = "Error: " + found + " cannot be combined with " + arg + ".";
+                    logEntry(errorMessage);
+                    return false;
+                }
+                found = arg;
+            }
+        }
+        for(String arg : Arrays.asList(SEED_ARG, UNIQUE_ARG)) {
+            boolean parallel = THREADS_ARG.equals(found) || (WORKERS_ARG.equals(found) && arg.equals(SEED_ARG));
+            if(extended.containsKey(arg) && found != null && !parallel) {
+                errorMessage = "Error: " + arg + " cannot be combined with " + found + ".";
+                logEntry(errorMessage);
+                return false;
+            }
+        }
+        // Constrained and exact-length frankenwords claim their words through a session, which these modes do not use.
+        for(String constraint : Arrays.asList(PREFIX_ARG, CONTAINS_ARG, SUFFIX_ARG, LENGTH_ARG)) {
+            for(String arg : Arrays.asList(SEED_ARG, UNIQUE_ARG, THREADS_ARG, WORKERS_ARG)) {
+                if(extended.containsKey(constraint) && extended.containsKey(arg)) {
+                    errorMessage = "Error: " + constraint + " cannot be combined with " + arg + ".";
+                    logEntry(errorMessage);
+                    return false;
+                }
+            }
+        }
+        for(String constraint : Arrays.asList(PREFIX_ARG, CONTAINS_ARG, SUFFIX_ARG)) {
+            if(extended.containsKey(constraint) && extended.containsKey(LENGTH_ARG)) {
+                errorMessage = "Error: " + constraint + " cannot be combined with " + LENGTH_ARG + ".";
+                logEntry(errorMessage);
+                return false;
+            }
+        }
+        // Constrained and exact-length frankenwords cut their own subwords, without makeSubword.
+        for(String constraint : Arrays.asList(PREFIX_ARG, CONTAINS_ARG, SUFFIX_ARG, LENGTH_ARG)) {
+            if(extended.containsKey(constraint) && extended.containsKey(SYLLABLES_ARG)) {
+                errorMessage = "Error: " + SYLLABLES_ARG + " cannot be combined with " + constraint + ".";
+                logEntry(errorMessage);
+                return false;
+            }
+        }
+        if(extended.containsKey(MMAP_ARG) && extended.containsKey(CHECKPOINT_ARG)) {
+            errorMessage = "Error: " + MMAP_ARG + " cannot be combined with " + CHECKPOINT_ARG + ".";
+            logEntry(errorMessage);
+            return false;
+        }
+        // Both write the output file in place, which stdout cannot do.
+        for(String arg : Arrays.asList(MMAP_ARG, CHECKPOINT_ARG)) {
+            if(STDIO.equals(extended.get(OUTPUT_FILE_ARG)) && extended.containsKey(arg)) {
+                errorMessage = "Error: " + OUTPUT_FILE_ARG + " " + STDIO + " cannot be combined with " + arg + ".";
+                logEntry(errorMessage);
+                return false;
+            }
+        }
+        // A streamed sample holds just enough words for this run: it cannot be reloaded, shared with workers, resumed,
+        // run ahead of by a pool, thinned out by a filter the sampling pass did not apply, or searched for words of
+        // one particular shape.
+        for(String arg : Arrays.asList(WATCH_ARG, WORKERS_ARG, CHECKPOINT_ARG, PREGENERATE_ARG, ASCII_ONLY_ARG,
+                REGEX_ARG, EXCLUDE_FILE_ARG, PREFIX_ARG, CONTAINS_ARG, SUFFIX_ARG, LENGTH_ARG)) {
+            if(extended.containsKey(STREAM_ARG) && extended.containsKey(arg)) {
+                errorMessage = "Error: " + STREAM_ARG + " cannot be combined with " + arg + ".";
+                logEntry(errorMessage);
+                return false;
+            }
+        }
+        // The benchmark is a mode of its own, and always generates on one thread from fresh sessions.
+        for(String arg : Arrays.asList(PREGENERATE_ARG, CHECKPOINT_ARG, THREADS_ARG, WORKERS_ARG, UNIQUE_ARG,
+                SEED_ARG)) {
+            if(extended.containsKey(BENCH_ARG) && extended.containsKey(arg)) {
+                errorMessage = "Error: " + BENCH_ARG + " cannot be combined with " + arg + ".";
+                logEntry(errorMessage);
+                return false;
+            }
+        }
+        // Columnar batches claim and mash their own words, on one thread, and write whole batches at a time.
+        for(String arg : Arrays.asList(PREGENERATE_ARG, CHECKPOINT_ARG, THREADS_ARG, WORKERS_ARG, UNIQUE_ARG,
+                SEED_ARG, MMAP_ARG, PREFIX_ARG, CONTAINS_ARG, SUFFIX_ARG, LENGTH_ARG, SYLLABLES_ARG,
+                REJECT_REAL_WORDS_ARG, BLOCKLIST_ARG)) {
+            if(extended.containsKey(COLUMNAR_ARG) && extended.containsKey(arg)) {
+                errorMessage = "Error: " + COLUMNAR_ARG + " cannot be combined with " + arg + ".";
+                logEntry(errorMessage);
+                return false;
+            }
+        }
+        for(String arg : Arrays.asList(BENCH_WARMUP_ARG, BENCH_ITERATIONS_ARG)) {
+            if(extended.containsKey(arg) && !extended.containsKey(BENCH_ARG)) {
+                errorMessage = "Error: " + arg + " requires " + BENCH_ARG + ".";
+                logEntry(errorMessage);
+                return false;
+            }
+        }
+        if(extended.containsKey(START_INDEX_ARG) && !extended.containsKey(UNIQUE_ARG)) {
+            errorMessage = "Error: " + START_INDEX_ARG + " requires " + UNIQUE_ARG + ".";
+            logEntry(errorMessage);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks that the extended program arguments can be used with words read from stdin. Stdin can only be read
+     * once, so it cannot be watched for changes or handed to worker processes.
+     *
+     * @param extended The extended args to analyze
+     * @return         True if the extended args are compatible with stdin, false otherwise.
+     */
+    static boolean wordsFromStdinIsCompatible(Map<String, String> extended) { // tested
+        for(String arg : Arrays.asList(WATCH_ARG, WORKERS_ARG)) {
+            if(extended.containsKey(arg)) {
+                errorMessage = "Error: " + WORDS_FILE_ARG + " " + STDIO + " cannot be combined with " + arg + ".";
+                logEntry(errorMessage);
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Determines if an acceptable number of program arguments were received.
      *
@@ -250,7 +620,7 @@ public class App {
         List<String> acceptableArgs = new ArrayList<>(Arrays.asList(WORDS_FILE_ARG, SPECIAL_CHARS_FILE_ARG,
                 NUM_TO_PRINT_ARG, SPACES_ARG));
         for(String s : argsList) {
-            if(s.charAt(0) == '-') {
+            if(isDashArg(s)) {
                 if(!acceptableArgs.contains(s)) {
                     logEntry("Error: App.illegalArgsReceived determined that arg " + s + " is illegal.");
                     print("One or more illegal arguments were received. Please see README for usage.");
@@ -295,7 +665,7 @@ public class App {
         // Only loop through argsList.size() - 1 to prevent index out of bounds exceptions.
         for(int i = 0; i < argsList.size() - 1; i++) {
             String thisArg = argsList.get(i);
-            if(thisArg.charAt(0) == '-' && (argsList.get(i + 1).charAt(0) == '-')) {
+            if(isDashArg(thisArg) && isDashArg(argsList.get(i + 1))) {
                 if(!thisArg.equals(SPACES_ARG)) {
                     logEntry("Error: App.argsAreInGoodOrder found that a dash arg is followed by another dash arg, " +
                             "and the first dash arg is not " + SPACES_ARG + ". Offending arg: " + thisArg);
@@ -306,7 +676,7 @@ public class App {
             }
         }
         String lastArg = argsList.get(argsList.size() - 1);
-        if(lastArg.charAt(0) == '-' && !lastArg.equals(SPACES_ARG)) {
+        if(isDashArg(lastArg) && !lastArg.equals(SPACES_ARG)) {
             logEntry("Error: App.argsAreInGoodOrder found that the last arg is a dash arg, and it is not " +
                     SPACES_ARG + ": " + lastArg);
             logEntry(NIGO_MESSAGE);
@@ -317,6 +687,16 @@ public class App {
         return true;
     }
 
+    /**
+     * Determines whether an arg is a dash arg. STDIO ("-") is a file name, not a dash arg.
+     *
+     * @param arg The arg to analyze
+     * @return    True if the arg is a dash arg, false otherwise.
+     */
+    static boolean isDashArg(String arg) { // tested
+        return arg.charAt(0) == '-' && !arg.equals(STDIO);
+    }
+
     /**
      * Populate class member variables.
      *
@@ -330,6 +710,11 @@ public class App {
         // argsList.get(i + 1) will not throw an index out of bounds exception if ARGS_ARE_IN_GOOD_ORDER.
         for(int i = 0; i < argsList.size(); i++) {
             if(argsList.get(i).equals(WORDS_FILE_ARG)) {
+                wordsFromStdin = argsList.get(i + 1).equals(STDIO);
+                if(wordsFromStdin) {
+                    wordsFile = null;
+                    continue;
+                }
                 wordsFile = makeNewFile(argsList.get(i + 1)); // testing is handled by makeNewFile
                 if(wordsFile == null) {
                     logEntry("Error (App.parseArgs): App.makeNewFile returned null when attempting to populate " +
@@ -413,6 +798,150 @@ public class App {
         return returnInt;
     }
 
+    /**
+     * Parse the integer value of an extended program argument.
+     *
+     * @param arg          The extended arg to look up
+     * @param defaultValue The value to use if the arg was not received
+     * @param min          The minimum legal value (inclusive)
+     * @param max          The maximum legal value (inclusive)
+     * @return             The parsed value, or defaultValue if the arg was not received.
+     */
+    static int getExtendedInt(String arg, int defaultValue, int min, int max) throws IllegalStateException { // tested
+        String value = extendedArgs.get(arg);
+        if(value == null) {
+            return defaultValue;
+        }
+        int returnInt;
+        try {
+            returnInt = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            returnInt = min - 1;
+        }
+        if(returnInt < min || returnInt > max) {
+            errorMessage = "Error: App.getExtendedInt received an illegal value for " + arg + ": " + value
+                    + ". Must be an integer in the range [" + min + ", " + max + "].";
+            logEntry(errorMessage);
+            throw new IllegalStateException(errorMessage);
+        }
+        return returnInt;
+    }
+
+    /**
+     * Parse the seed of a seeded run. Any string is a legal seed: integer-parsable strings are used as is, anything
+     * else is hashed.
+     *
+     * @return the seed
+     */
+    static long getSeed() { // tested
+        String value = extendedArgs.get(SEED_ARG);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return Prng.mix(value.hashCode());
+        }
+    }
+
+    /**
+     * Parse SESSION_IDLE_ARG, given in seconds.
+     *
+     * @return how long a session may sit idle before it is evicted, in milliseconds
+     */
+    static long getSessionIdleTimeoutMillis() throws IllegalStateException { // tested
+        int defaultSeconds = (int) (SessionRegistry.DEFAULT_IDLE_TIMEOUT_MILLIS / 1000);
+        return getExtendedInt(SESSION_IDLE_ARG, defaultSeconds, 1, MAX_SESSION_IDLE_SECONDS) * 1000L;
+    }
+
+    /**
+     * Parse SESSION_MEMORY_ARG, given in megabytes.
+     *
+     * @return the memory all sessions together may hold before the least recently used are evicted, in bytes
+     */
+    static long getSessionMemoryBudgetBytes() throws IllegalStateException { // tested
+        int defaultMegabytes = (int) (SessionRegistry.DEFAULT_MEMORY_BUDGET_BYTES >> 20);
+        return (long) getExtendedInt(SESSION_MEMORY_ARG, defaultMegabytes, 1, MAX_SESSION_MEMORY_MEGABYTES) << 20;
+    }
+
+    /**
+     * Parse LENGTH_ARG: either an exact length ("12") or an inclusive range ("10-14"), within
+     * [3, SpanPlanner.MAX_LENGTH]. Called once, before anything is generated (see lengthRange).
+     *
+     * @return {min, max}
+     */
+    static int[] getLengthRange() throws IllegalStateException { // tested
+        String value = extendedArgs.get(LENGTH_ARG);
+        int[] range;
+        try {
+            int dash = value.indexOf('-', 1);
+            if(dash < 0) {
+                int length = Integer.parseInt(value);
+                range = new int[] {length, length};
+            } else {
+                range = new int[] {Integer.parseInt(value.substring(0, dash)),
+                        Integer.parseInt(value.substring(dash + 1))};
+            }
+        } catch (NumberFormatException e) {
+            range = null;
+        }
+        if(range == null || range[0] < 3 || range[1] < range[0] || range[1] > SpanPlanner.MAX_LENGTH) {
+            errorMessage = "Error: " + LENGTH_ARG + " must be a length or a range of lengths between 3 and "
+                    + SpanPlanner.MAX_LENGTH + ", e.g. 12 or 10-14.";
+            logEntry(errorMessage);
+            throw new IllegalStateException(errorMessage);
+        }
+        return range;
+    }
+
+    /**
+     * Build the eligibility filter requested by MIN_WORD_LENGTH_ARG, MAX_WORD_LENGTH_ARG, ASCII_ONLY_ARG, REGEX_ARG
+     * and EXCLUDE_FILE_ARG: a word must pass all of them. The regex is matched against whole words, ignoring case.
+     * The exclude file is read once, here, and reused by every rebuild.
+     *
+     * @return A function building the filter for a list of words, or null if no filter was requested.
+     */
+    static Function<List<String>, WordFilter> getEligibilityFilter() throws IllegalStateException { // tested
+        int minLength = getExtendedInt(MIN_WORD_LENGTH_ARG, WordIndex.MIN_ELIGIBLE_LENGTH,
+                WordIndex.MIN_ELIGIBLE_LENGTH, WordIndex.MAX_ELIGIBLE_LENGTH);
+        int maxLength = getExtendedInt(MAX_WORD_LENGTH_ARG, WordIndex.MAX_ELIGIBLE_LENGTH,
+                WordIndex.MIN_ELIGIBLE_LENGTH, WordIndex.MAX_ELIGIBLE_LENGTH);
+        if(minLength > maxLength) {
+            errorMessage = "Error: " + MIN_WORD_LENGTH_ARG + " cannot be greater than " + MAX_WORD_LENGTH_ARG + ".";
+            logEntry(errorMessage);
+            throw new IllegalStateException(errorMessage);
+        }
+        boolean asciiOnly = extendedArgs.containsKey(ASCII_ONLY_ARG);
+        Pattern regex = null;
+        if(extendedArgs.containsKey(REGEX_ARG)) {
+            try {
+                regex = Pattern.compile(extendedArgs.get(REGEX_ARG), Pattern.CASE_INSENSITIVE);
+            } catch (PatternSyntaxException e) {
+                errorMessage = "Error: " + REGEX_ARG + " received an illegal pattern: " + e.getDescription() + ".";
+                logEntry(errorMessage);
+                throw new IllegalStateException(errorMessage);
+            }
+        }
+        List<String> excluded = extendedArgs.containsKey(EXCLUDE_FILE_ARG)
+                ? readFileIntoListOfStrings(new File(extendedArgs.get(EXCLUDE_FILE_ARG))) : null;
+        if(minLength == WordIndex.MIN_ELIGIBLE_LENGTH && maxLength == WordIndex.MAX_ELIGIBLE_LENGTH && !asciiOnly
+                && regex == null && excluded == null) {
+            return null;
+        }
+        Pattern pattern = regex;
+        return words -> {
+            WordFilter filter = WordFilter.lengthBetween(words, minLength, maxLength);
+            if(asciiOnly) {
+                filter = filter.and(WordFilter.asciiLettersOnly(words));
+            }
+            if(pattern != null) {
+                filter = filter.and(WordFilter.matching(words, pattern));
+            }
+            if(excluded != null) {
+                filter = filter.and(WordFilter.excluding(words, excluded));
+            }
+            return filter;
+        };
+    }
+
     /**
      * Reads contents of a file into a list of strings.
      *
@@ -421,8 +950,10 @@ public class App {
      */
     static List<String> readFileIntoListOfStrings(File file) throws IllegalStateException { // tested
         List<String> returnList = new ArrayList<>();
-        try {
-            BufferedReader br = new BufferedReader(new FileReader(file));
+        PipelineEvents.DictionaryLoad event = new PipelineEvents.DictionaryLoad();
+        event.begin();
+        // Close the reader when done; hot reloads may call this many times in one session.
+        try(BufferedReader br = new BufferedReader(new FileReader(file))) {
             String line;
             while(!StringUtils.isBlank(line = br.readLine())) {
                 returnList.add(line);
@@ -432,10 +963,79 @@ public class App {
             logEntry(errorMessage);
             throw new IllegalStateException(errorMessage);
         }
+        PipelineEvents.endLoad(event, file.getName(), returnList.size(), file.length());
+        TRACE.record(TraceRing.Code.DICTIONARY_LOADED, returnList.size(), file.length(), 0);
         logEntry("The file " + file.getName() + " has been read into a string list.");
         return returnList;
     }
 
+    /**
+     * Reads stdin into a list of strings, stopping at the end of the stream or the first blank line, like
+     * readFileIntoListOfStrings.
+     *
+     * @return List of strings from stdin
+     */
+    private static List<String> readStdinIntoListOfStrings() { // can be functionally tested
+        List<String> returnList;
+        PipelineEvents.DictionaryLoad event = new PipelineEvents.DictionaryLoad();
+        event.begin();
+        try {
+            returnList = ChannelLineReader.readLines(Channels.newChannel(System.in),
+                    ChannelLineReader.DEFAULT_BUFFER_SIZE);
+        } catch (IOException e) {
+            errorMessage = "Error: App.readStdinIntoListOfStrings threw an IO exception: " + e.getMessage();
+            logEntry(errorMessage);
+            throw new IllegalStateException(errorMessage);
+        }
+        PipelineEvents.endLoad(event, "stdin", returnList.size(), 0);
+        TRACE.record(TraceRing.Code.DICTIONARY_LOADED, returnList.size(), 0, 0);
+        logEntry("stdin has been read into a string list.");
+        return returnList;
+    }
+
+    /**
+     * Reads a uniform random sample of the eligible words in the words file (or stdin), with room for
+     * MAX_WORDS_PER_FRANKENWORD words per requested frankenword, in one pass. Memory use depends on the number of
+     * frankenwords requested, not on the size of the words file. With SEED_ARG the sample is reproducible.
+     *
+     * @return The sampled words
+     */
+    private static List<String> sampleWords() { // can be functionally tested
+        int minLength = getExtendedInt(MIN_WORD_LENGTH_ARG, WordIndex.MIN_ELIGIBLE_LENGTH,
+                WordIndex.MIN_ELIGIBLE_LENGTH, WordIndex.MAX_ELIGIBLE_LENGTH);
+        int maxLength = getExtendedInt(MAX_WORD_LENGTH_ARG, WordIndex.MAX_ELIGIBLE_LENGTH,
+                WordIndex.MIN_ELIGIBLE_LENGTH, WordIndex.MAX_ELIGIBLE_LENGTH);
+        int size = MAX_WORDS_PER_FRANKENWORD * numberOfFrankenwordsToCreate;
+        Random sampleRandom = extendedArgs.containsKey(SEED_ARG) ? new Prng(Prng.mix(getSeed())) : random();
+        List<String> returnList;
+        PipelineEvents.DictionaryLoad event = new PipelineEvents.DictionaryLoad();
+        event.begin();
+        try {
+            if(wordsFromStdin) {
+                returnList = ReservoirSampler.sample(Channels.newChannel(System.in), size, minLength, maxLength,
+                        sampleRandom, ReservoirSampler.DEFAULT_BUFFER_SIZE);
+            } else {
+                try(FileChannel channel = FileChannel.open(wordsFile.toPath())) {
+                    returnList = ReservoirSampler.sample(channel, size, minLength, maxLength, sampleRandom,
+                            ReservoirSampler.DEFAULT_BUFFER_SIZE);
+                }
+            }
+        } catch (IOException e) {
+            errorMessage = "Error: App.sampleWords threw an IO exception: " + e.getMessage();
+            logEntry(errorMessage);
+            throw new IllegalStateException(errorMessage);
+        }
+        if(returnList.isEmpty()) {
+            errorMessage = "Error: App.sampleWords found no eligible words.";
+            logEntry(errorMessage);
+            throw new IllegalStateException(errorMessage);
+        }
+        PipelineEvents.endLoad(event, (wordsFromStdin ? "stdin" : wordsFile.getName()) + " (sampled)",
+                returnList.size(), wordsFromStdin ? 0 : wordsFile.length());
+        TRACE.record(TraceRing.Code.DICTIONARY_LOADED, returnList.size(), wordsFromStdin ? 0 : wordsFile.length(), 0);
+        return returnList;
+    }
+
     /**
      * Reads contents of a file into a char array. Blows up if any of the lines in the file have length > 1.
      *
@@ -473,19 +1073,23 @@ public class App {
 
 
     /**
-     * Make a list of frankenwords using getWordsToMash.
+     * Make a list of frankenwords, either from the pre-generation pool or using generateFrankenword.
      *
-     * @return a list of frankenwords
+     * @param pool The pre-generation pool to take from (can be null)
+     * @return     a list of frankenwords
      */
-    private static List<String> makeFrankenwords() { // can be functionally tested
+    private static List<String> makeFrankenwords(FrankenwordPool pool) { // can be functionally tested
         List<String> outputList = new ArrayList<>();
-        int numberOfWordsToMash;
-        List<String> wordsToMash;
+        PipelineEvents.Batch event = new PipelineEvents.Batch();
+        event.begin();
+        TRACE.record(TraceRing.Code.BATCH_STARTED, numberOfFrankenwordsToCreate, 0, 0);
         String frankenword;
         for(int i = 0; i < numberOfFrankenwordsToCreate; i++) {
-            numberOfWordsToMash = oneInNChance(2) ? 2 : 3;
-            wordsToMash = getWordsToMash(numberOfWordsToMash, wordsToUse, null);
-            frankenword = makeFrankenword(wordsToMash);
+            if(pool != null) {
+                frankenword = pool.take(SPACES_REQUESTED, SPECIAL_CHARS_REQUESTED);
+            } else {
+                frankenword = generateFrankenword(SPACES_REQUESTED, SPECIAL_CHARS_REQUESTED);
+            }
             if(StringUtils.isBlank(frankenword)) {
                 errorMessage = "Error: App.wordsToMash returned a null or empty frankenword to App.makeFrankenwords.";
                 logEntry(errorMessage);
@@ -493,62 +1097,945 @@ public class App {
             }
             outputList.add(frankenword);
         }
+        PipelineEvents.endBatch(event, pool != null ? "pregenerated" : "sequential", outputList.size());
         return outputList;
     }
 
     /**
-     * Prints a list of frankenwords to the output file. (Will overwrite existing file of the same name.)
+     * Benchmark the generation pipeline (see Benchmark) for each of the four combinations of spaces and special
+     * characters in regression_tests.txt, and print the results. Every batch goes through the normal output path,
+     * into Benchmark.OUTPUT_FILE_NAME. The combinations with special characters need SPECIAL_CHARS_FILE_ARG. With
+     * COLUMNAR_ARG, the batches are made in columns (see Benchmark.runColumnar) and written straight from the arena.
+     */
+    private static void runBenchmarks() { // can be functionally tested
+        int warmup = getExtendedInt(BENCH_WARMUP_ARG, Benchmark.DEFAULT_WARMUP_ITERATIONS, 0, 100000);
+        int measured = getExtendedInt(BENCH_ITERATIONS_ARG, Benchmark.DEFAULT_MEASURED_ITERATIONS, 1, 100000);
+        File benchFile = new File(Benchmark.OUTPUT_FILE_NAME);
+        String[] names = {"ONE (EVERYTHING)", "TWO (WITH SPACES, NO SPECIAL CHARS)",
+                "THREE (WITH SPECIAL CHARS, NO SPACES)", "FOUR (NO SPECIAL CHARS OR SPACES)"};
+        boolean[] spaces = {true, true, false, false};
+        boolean[] specialCharacters = {true, false, true, false};
+        boolean columnar = extendedArgs.containsKey(COLUMNAR_ARG) && columnarIsSupported();
+        print("Benchmarking " + (columnar ? "columnar " : "") + "batches of " + numberOfFrankenwordsToCreate +
+                " frankenwords: " + warmup + " warmup and " + measured + " measured batches per combination.\n");
+        for(int k = 0; k < names.length; k++) {
+            if(specialCharacters[k] && !SPECIAL_CHARS_REQUESTED) {
+                print(names[k] + "\n  skipped: needs " + SPECIAL_CHARS_FILE_ARG + "\n");
+                continue;
+            }
+            Benchmark.Result result;
+            if(columnar) {
+                result = Benchmark.runColumnar(names[k] + " COLUMNAR", WORD_INDEX.get(), numberOfFrankenwordsToCreate,
+                        spaces[k], specialCharacters[k], warmup, measured, arena -> writeArena(arena, benchFile));
+            } else {
+                result = Benchmark.run(names[k], WORD_INDEX.get(), numberOfFrankenwordsToCreate, spaces[k],
+                        specialCharacters[k], warmup, measured,
+                        frankenwords -> printFrankenwords(frankenwords, benchFile));
+            }
+            logEntry("Benchmark " + result.format());
+            print(result.format() + "\n");
+        }
+    }
+
+    /**
+     * Check whether COLUMNAR_ARG can be honoured: the eligible words and special characters must be ASCII. If not,
+     * log it; the frankenwords are then made one at a time instead.
      *
-     * @param frankenwords The list of frankenwords to print.
+     * @return True if the dictionary can be generated from in columnar batches, false otherwise.
      */
-    private static void printFrankenwords(List<String> frankenwords) { // can be functionally tested
-        if(frankenwords == null || frankenwords.isEmpty()) {
-            errorMessage = "Error: App.printFrankenwords received a null or empty list.";
-            logEntry(errorMessage);
-            throw new IllegalStateException(errorMessage);
+    private static boolean columnarIsSupported() {
+        if(ColumnarGenerator.supports(WORD_INDEX.get())) {
+            return true;
         }
-        try {
-            PrintWriter out = new PrintWriter(outputFile);
-            for(String s : frankenwords) {
-                out.println(s);
+        logEntry(COLUMNAR_ARG + " needs ASCII words and special characters; making frankenwords one at a time.");
+        return false;
+    }
+
+    /**
+     * Make frankenwords in columnar batches of ColumnarGenerator.DEFAULT_BATCH_SIZE, and write each batch straight
+     * from its arena to the output file or stdout. A hot-reloaded dictionary is picked up between batches. Stops
+     * early, without an error, if the reader of stdout goes away.
+     */
+    private static void printFrankenwordsInColumns() { // can be functionally tested
+        SessionRegistry.Session session = SESSIONS.get(DEFAULT_SESSION_ID);
+        CharArena arena = new CharArena(false);
+        ColumnarGenerator generator = null;
+        int remaining = numberOfFrankenwordsToCreate;
+        try(FileOutputStream file = outputToStdout ? null : new FileOutputStream(outputFile);
+            ChannelOutputWriter out = file == null ? newStdoutWriter() :
+                    new ChannelOutputWriter(file.getChannel(), ChannelOutputWriter.DEFAULT_BUFFER_SIZE)) {
+            while(remaining > 0 && out.isOpen()) {
+                WordIndex index = WORD_INDEX.get();
+                if(generator == null || generator.index != index) {
+                    generator = new ColumnarGenerator(index, SPACES_REQUESTED, SPECIAL_CHARS_REQUESTED, random());
+                }
+                int n = Math.min(remaining, ColumnarGenerator.DEFAULT_BATCH_SIZE);
+                generator.generate(n, session, arena);
+                out.append(arena);
+                remaining -= n;
             }
-            out.close();
         } catch (IOException e) {
-            errorMessage = "Error: App.printFrankenwords threw an IO exception: " + e.getMessage();
+            errorMessage = "Error: App.printFrankenwordsInColumns threw an IO exception: " + e.getMessage();
             logEntry(errorMessage);
             throw new IllegalStateException(errorMessage);
         }
     }
 
     /**
-     * Make a frankenword from a list of words to mash.
+     * Make frankenwords one at a time, either from the pre-generation pool or using generateFrankenword, and print
+     * each to stdout as it is made. Stops early, without an error, if the reader of stdout goes away.
      *
-     * @param wordsToMash The words to mash
-     * @return            The frankenword
+     * @param pool The pre-generation pool to take from (can be null)
      */
-    private static String makeFrankenword(List<String> wordsToMash) { // can be functionally tested
-        if(wordsToMash == null || wordsToMash.size() < 2) {
-            errorMessage = "Error: App.makeFrankenword received an illegal argument.";
+    private static void printFrankenwordsToStdout(FrankenwordPool pool) { // can be functionally tested
+        PipelineEvents.Batch event = new PipelineEvents.Batch();
+        event.begin();
+        TRACE.record(TraceRing.Code.BATCH_STARTED, numberOfFrankenwordsToCreate, 0, 0);
+        int i = 0;
+        try(ChannelOutputWriter out = newStdoutWriter()) {
+            for(; i < numberOfFrankenwordsToCreate && out.isOpen(); i++) {
+                String frankenword = pool != null ? pool.take(SPACES_REQUESTED, SPECIAL_CHARS_REQUESTED) :
+                        generateFrankenword(SPACES_REQUESTED, SPECIAL_CHARS_REQUESTED);
+                if(StringUtils.isBlank(frankenword)) {
+                    errorMessage = "Error: App.wordsToMash returned a null or empty frankenword to " +
+                            "App.printFrankenwordsToStdout.";
+                    logEntry(errorMessage);
+                    throw new IllegalStateException(errorMessage);
+                }
+                out.append(frankenword);
+            }
+        }
+        PipelineEvents.endBatch(event, "stdout", i);
+    }
+
+    /**
+     * @return a new writer to stdout (bypassing System.out and its per-line flushing)
+     */
+    private static ChannelOutputWriter newStdoutWriter() {
+        return new ChannelOutputWriter(Channels.newChannel(new FileOutputStream(FileDescriptor.out)),
+                ChannelOutputWriter.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Make a reproducible list of frankenwords. Frankenword i is made entirely from the PRNG stream keyed by
+     * (seed, i), and from words taken from a fixed, seed-shuffled order of the eligible words: frankenword i may
+     * only use the words in positions 3i, 3i + 1, and 3i + 2. The output is therefore byte-identical for a given
+     * seed and dictionary, whether it is made on 1 thread or 64.
+     *
+     * @param index                The dictionary snapshot to use for the whole run
+     * @param seed                 The seed
+     * @param count                The number of frankenwords to make
+     * @param threads              The number of threads to use
+     * @param addSpaces            Whether spaces may be added
+     * @param addSpecialCharacters Whether special characters may be added
+     * @return                     a list of frankenwords
+     */
+    static List<String> makeSeededFrankenwords(WordIndex index, long seed, int count, int threads, boolean addSpaces,
+                                               boolean addSpecialCharacters) throws IllegalStateException { // tested
+        if((long) count * MAX_WORDS_PER_FRANKENWORD > index.eligibleCount()) {
+            errorMessage = "Error: App.makeSeededFrankenwords needs " + MAX_WORDS_PER_FRANKENWORD + " eligible " +
+                    "words per frankenword, but the dictionary only has " + index.eligibleCount() + ".";
             logEntry(errorMessage);
             throw new IllegalStateException(errorMessage);
         }
-        String frankenword = mashWords(wordsToMash);
-        if(frankenword.length() < 3) {
-            frankenword += getRandomCharacter();
+        logEntry("Making " + count + " frankenwords from seed " + seed + ".");
+        int[] order = ConcurrentSampler.shuffledSlots(index.eligibleCount(), new Prng(seed));
+        char[] specialCharacters = addSpecialCharacters ? index.specialCharacters : null;
+        String[] frankenwords = new String[count];
+        Dawg realWords = realWordsFilter(index);
+        PipelineEvents.Batch event = new PipelineEvents.Batch();
+        event.begin();
+        TRACE.record(TraceRing.Code.BATCH_STARTED, count, 0, 0);
+        forEachIndexInParallel(count, threads, (worker, i) -> frankenwords[i] = makeSeededFrankenword(index, order,
+                seed, i, specialCharacters, addSpaces, realWords));
+        PipelineEvents.endBatch(event, "seeded", count);
+        return new ArrayList<>(Arrays.asList(frankenwords));
+    }
+
+    /**
+     * Make output i of a seeded run. It depends only on the arguments, which is what lets DistributedWorker make any
+     * range of a seeded run in another process.
+     *
+     * @param index             The dictionary snapshot
+     * @param order             The seed-shuffled eligible slots (see ConcurrentSampler.shuffledSlots)
+     * @param seed              The seed
+     * @param i                 The output index
+     * @param specialCharacters The special characters to use (null if not requested)
+     * @param addSpaces         Whether spaces may be added
+     * @param realWords         The real words to reject (null if not requested)
+     * @return                  The frankenword
+     */
+    static String makeSeededFrankenword(WordIndex index, int[] order, long seed, long i, char[] specialCharacters,
+                                        boolean addSpaces, Dawg realWords) throws IllegalStateException {
+        Prng random = random();
+        long saved = random.getState();
+        random.setState(Prng.streamState(seed, i));
+        try {
+            int[] slots = new int[oneInNChance(2) ? 2 : 3];
+            System.arraycopy(order, (int) (i * MAX_WORDS_PER_FRANKENWORD), slots, 0, slots.length);
+            return makeFrankenword(wordsAt(index, slots), breaksAt(index, slots), specialCharacters, addSpaces,
+                    realWords);
+        } finally {
+            random.setState(saved);
         }
-        if(oneInNChance(2)) {
-            frankenword = addStandardCapitalization(frankenword);
-        } else {
-            frankenword = addWeirdCapitalization(frankenword);
+    }
+
+    /**
+     * Make frankenwords [start, start + count) of a run that never tracks used words. Output i takes its words from
+     * CombinationPermutation.slotsFor(i) and its randomness from the PRNG stream keyed by (key, i), so no two
+     * outputs of the run share the same set of words, memory use does not grow with the size of the run, and any
+     * range of outputs can be made on its own, on any core or process.
+     *
+     * Unlike the other modes, a word may appear in more than one output; only the combination of words is unique.
+     *
+     * @param index                The dictionary snapshot to use for the whole run
+     * @param key                  The permutation key
+     * @param start                The first output index to make
+     * @param count                The number of frankenwords to make
+     * @param threads              The number of threads to use
+     * @param addSpaces            Whether spaces may be added
+     * @param addSpecialCharacters Whether special characters may be added
+     * @return                     a list of frankenwords
+     */
+    static List<String> makeUniqueFrankenwords(WordIndex index, long key, long start, int count, int threads,
+                                               boolean addSpaces, boolean addSpecialCharacters)
+            throws IllegalStateException { // tested
+        CombinationPermutation permutation = new CombinationPermutation(index.eligibleCount(), key);
+        if(start + count > permutation.capacity()) {
+            errorMessage = "Error: App.makeUniqueFrankenwords can make at most " + permutation.capacity() +
+                    " distinct frankenwords from this dictionary.";
+            logEntry(errorMessage);
+            throw new IllegalStateException(errorMessage);
+        }
+        logEntry("Making frankenwords [" + start + ", " + (start + count) + ") from key " + key + ".");
+        char[] specialCharacters = addSpecialCharacters ? index.specialCharacters : null;
+        Dawg realWords = realWordsFilter(index);
+        String[] frankenwords = new String[count];
+        PipelineEvents.Batch event = new PipelineEvents.Batch();
+        event.begin();
+        TRACE.record(TraceRing.Code.BATCH_STARTED, count, 0, 0);
+        forEachIndexInParallel(count, threads, (worker, i) -> {
+            Prng random = random();
+            long saved = random.getState();
+            random.setState(Prng.streamState(key, start + i));
+            try {
+                int[] slots = permutation.slotsFor(start + i);
+                frankenwords[i] = makeFrankenword(wordsAt(index, slots), breaksAt(index, slots), specialCharacters,
+                        addSpaces, realWords);
+            } finally {
+                random.setState(saved);
+            }
+        });
+        PipelineEvents.endBatch(event, "unique", count);
+        return new ArrayList<>(Arrays.asList(frankenwords));
+    }
+
+    /**
+     * A unit of parallel work: make output i on a given worker.
+     */
+    interface IndexedTask {
+        void run(int worker, int i);
+    }
+
+    /**
+     * Run a task for every output index in [0, count) on several threads. Workers pull indices from a shared atomic
+     * counter. With one thread, the task runs on the calling thread.
+     *
+     * @param count   The number of indices
+     * @param threads The number of threads to use
+     * @param task    The task to run for each index
+     */
+    private static void forEachIndexInParallel(int count, int threads, IndexedTask task) throws IllegalStateException {
+        if(threads == 1) {
+            for(int i = 0; i < count; i++) {
+                task.run(0, i);
+            }
+            return;
+        }
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for(int t = 0; t < threads; t++) {
+                final int worker = t;
+                workers.add(executor.submit(() -> {
+                    int i;
+                    while((i = next.getAndIncrement()) < count) {
+                        task.run(worker, i);
+                    }
+                }));
+            }
+            for(Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (Exception e) {
+            errorMessage = "Error: App.forEachIndexInParallel failed: " + e.getMessage();
+            logEntry(errorMessage);
+            throw new IllegalStateException(errorMessage, e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Make frankenwords on several threads at once and print them to the output file. With MMAP_ARG, each thread
+     * appends its frankenwords straight to the mapped output file as it makes them (in no particular order);
+     * otherwise they are collected in output order and printed at the end.
+     *
+     * @param threads The number of threads to use
+     */
+    private static void printFrankenwordsInParallel(int threads) { // can be functionally tested
+        if(extendedArgs.containsKey(MMAP_ARG)) {
+            try(MappedOutputWriter out = new MappedOutputWriter(outputFile, numberOfFrankenwordsToCreate)) {
+                try {
+                    makeFrankenwordsInParallel(threads, (frankenword, i) -> out.append(frankenword));
+                } catch (RuntimeException e) {
+                    // Another thread may still be part way through its line.
+                    out.abort();
+                    throw e;
+                }
+            }
+            return;
+        }
+        String[] frankenwords = new String[numberOfFrankenwordsToCreate];
+        makeFrankenwordsInParallel(threads, (frankenword, i) -> frankenwords[i] = frankenword);
+        printFrankenwords(Arrays.asList(frankenwords));
+    }
+
+    /**
+     * Make frankenwords on several threads at once. Words are claimed through a ConcurrentSampler, so no word is ever
+     * used twice and no lock is taken on the claim path.
+     *
+     * @param threads The number of threads to use
+     * @param sink    Receives each frankenword and its output index, on the thread that made it
+     */
+    private static void makeFrankenwordsInParallel(int threads,
+                                                   ObjIntConsumer<String> sink) { // can be functionally tested
+        WordIndex index = WORD_INDEX.get();
+        ConcurrentSampler sampler = new ConcurrentSampler(index, threads, random());
+        char[] specialCharacters = SPECIAL_CHARS_REQUESTED ? index.specialCharacters : null;
+        Dawg realWords = realWordsFilter(index);
+        PipelineEvents.Batch event = new PipelineEvents.Batch();
+        event.begin();
+        TRACE.record(TraceRing.Code.BATCH_STARTED, numberOfFrankenwordsToCreate, 0, 0);
+        forEachIndexInParallel(numberOfFrankenwordsToCreate, threads, (shard, i) -> {
+            int[] claimed = new int[oneInNChance(2) ? 2 : 3];
+            sampler.claim(shard, claimed);
+            sink.accept(makeFrankenword(wordsAt(index, claimed), breaksAt(index, claimed), specialCharacters,
+                    SPACES_REQUESTED, realWords), i);
+        });
+        PipelineEvents.endBatch(event, "parallel", numberOfFrankenwordsToCreate);
+    }
+
+    /**
+     * Generates frankenwords straight into the output file, writing a checkpoint every CHECKPOINT_EVERY_ARG words.
+     * When resuming, the output file is truncated to the length recorded in the checkpoint and the run continues
+     * from there with the checkpointed PRNG state and used words, producing exactly what the uninterrupted run would
+     * have produced.
+     *
+     * The output is flushed and forced to disk before each checkpoint is written, so a checkpoint never points past
+     * output that a machine crash could lose. A resume refuses an output file that is missing or shorter than the
+     * checkpoint says, rather than padding it and carrying on into a corrupt file.
+     *
+     * @param checkpointFile The checkpoint file
+     * @param resume         Whether to resume from the checkpoint file
+     */
+    private static void printFrankenwordsWithCheckpoints(File checkpointFile,
+                                                         boolean resume) { // can be functionally tested
+        int every = getExtendedInt(CHECKPOINT_EVERY_ARG, DEFAULT_CHECKPOINT_EVERY, 1, MAX_FRANKENWORDS);
+        SessionRegistry.Session session = SESSIONS.get(DEFAULT_SESSION_ID);
+        Prng random = random();
+        int produced = 0;
+        long offset = 0;
+        if(resume) {
+            Checkpoint checkpoint = Checkpoint.read(checkpointFile);
+            if(checkpoint.dictionaryFingerprint != WORD_INDEX.get().fingerprint
+                    || checkpoint.total != numberOfFrankenwordsToCreate || checkpoint.spaces != SPACES_REQUESTED
+                    || checkpoint.specialCharacters != SPECIAL_CHARS_REQUESTED) {
+                errorMessage = "Error: App.printFrankenwordsWithCheckpoints found that " + checkpointFile.getName()
+                        + " was written for a different dictionary or different program arguments.";
+                logEntry(errorMessage);
+                throw new IllegalStateException(errorMessage);
+            }
+            random.setState(checkpoint.prngState);
+            session.restoreUsedBits(checkpoint.usedBits);
+            produced = checkpoint.produced;
+            offset = checkpoint.outputOffset;
+            logEntry("Resuming from " + checkpointFile.getName() + " after " + produced + " frankenwords.");
+        }
+        try(RandomAccessFile file = new RandomAccessFile(outputFile, "rw")) {
+            if(file.length() < offset) {
+                errorMessage = "Error: App.printFrankenwordsWithCheckpoints found that " + outputFile.getName()
+                        + " is shorter than " + checkpointFile.getName() + " says (" + file.length() + " < " + offset
+                        + " bytes), so the run cannot be resumed.";
+                logEntry(errorMessage);
+                throw new IllegalStateException(errorMessage);
+            }
+            file.setLength(offset);
+            FileChannel channel = file.getChannel();
+            channel.position(offset);
+            Writer out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel)));
+            String lineSeparator = System.lineSeparator();
+            while(produced < numberOfFrankenwordsToCreate) {
+                String frankenword = generateFrankenword(session, SPACES_REQUESTED, SPECIAL_CHARS_REQUESTED);
+                if(StringUtils.isBlank(frankenword)) {
+                    errorMessage = "Error: App.generateFrankenword returned a null or empty frankenword to " +
+                            "App.printFrankenwordsWithCheckpoints.";
+                    logEntry(errorMessage);
+                    throw new IllegalStateException(errorMessage);
+                }
+                out.write(frankenword);
+                out.write(lineSeparator);
+                produced++;
+                if(produced % every == 0 || produced == numberOfFrankenwordsToCreate) {
+                    PipelineEvents.OutputFlush flush = new PipelineEvents.OutputFlush();
+                    flush.begin();
+                    long flushedBefore = offset;
+                    out.flush();
+                    channel.force(false);
+                    offset = channel.position();
+                    PipelineEvents.endFlush(flush, outputFile.getName(), offset - flushedBefore);
+                    TRACE.record(TraceRing.Code.OUTPUT_FLUSHED, offset - flushedBefore, 0, 0);
+                    new Checkpoint(session.dictionaryFingerprint(), numberOfFrankenwordsToCreate, produced,
+                            channel.position(), random.getState(), SPACES_REQUESTED, SPECIAL_CHARS_REQUESTED,
+                            session.usedBits()).write(checkpointFile);
+                    TRACE.record(TraceRing.Code.CHECKPOINT_WRITTEN, produced, offset, 0);
+                }
+            }
+            out.close();
+        } catch (IOException e) {
+            errorMessage = "Error: App.printFrankenwordsWithCheckpoints threw an IO exception: " + e.getMessage();
+            logEntry(errorMessage);
+            throw new IllegalStateException(errorMessage);
+        }
+    }
+
+    /**
+     * Make a single frankenword for the default session. Safe to call from several threads at once.
+     *
+     * @param addSpaces            Whether spaces may be added
+     * @param addSpecialCharacters Whether special characters may be added
+     * @return                     The frankenword
+     */
+    static String generateFrankenword(boolean addSpaces, boolean addSpecialCharacters) {
+        return generateFrankenword(SESSIONS.get(DEFAULT_SESSION_ID), addSpaces, addSpecialCharacters);
+    }
+
+    /**
+     * Make a single frankenword from words the session has not used before, picked out of the current dictionary
+     * snapshot. Safe to call from several threads at once.
+     *
+     * @param session              The session whose words must not repeat
+     * @param addSpaces            Whether spaces may be added
+     * @param addSpecialCharacters Whether special characters may be added
+     * @return                     The frankenword
+     */
+    static String generateFrankenword(SessionRegistry.Session session, boolean addSpaces,
+                                      boolean addSpecialCharacters) {
+        // Take one snapshot per word; a hot reload may swap in a new index between words, never during one.
+        return generateFrankenword(session, WORD_INDEX.get(), addSpaces, addSpecialCharacters);
+    }
+
+    /**
+     * Make a single frankenword from words the session has not used before, picked out of a dictionary snapshot.
+     * Safe to call from several threads at once.
+     *
+     * @param session              The session whose words must not repeat
+     * @param index                The dictionary snapshot
+     * @param addSpaces            Whether spaces may be added
+     * @param addSpecialCharacters Whether special characters may be added
+     * @return                     The frankenword
+     */
+    static String generateFrankenword(SessionRegistry.Session session, WordIndex index, boolean addSpaces,
+                                      boolean addSpecialCharacters) {
+        int[] range = lengthRange;
+        if(range != null) {
+            return makeFrankenwordOfLength(session, index, getRandomIntInInclusiveRange(range[0], range[1]),
+                    addSpaces, addSpecialCharacters);
+        }
+        if(extendedArgs.containsKey(PREFIX_ARG) || extendedArgs.containsKey(CONTAINS_ARG)
+                || extendedArgs.containsKey(SUFFIX_ARG)) {
+            return makeConstrainedFrankenword(session, index, extendedArgs.get(PREFIX_ARG),
+                    extendedArgs.get(CONTAINS_ARG), extendedArgs.get(SUFFIX_ARG), addSpaces, addSpecialCharacters);
+        }
+        int[] slots = session.claimSlots(oneInNChance(2) ? 2 : 3, index);
+        return makeFrankenword(wordsAt(index, slots), breaksAt(index, slots),
+                addSpecialCharacters ? index.specialCharacters : null, addSpaces, realWordsFilter(index));
+    }
+
+    /**
+     * Make a single frankenword that starts with a prefix, contains a string, and/or ends with a suffix (ignoring
+     * case), from words the session has not used before.
+     *
+     * Rather than generating and discarding, each constraint is met inside its own subword: the prefix in the first,
+     * the suffix in the last, and the contained string in one of the others. For each, a random occurrence of the
+     * pattern is picked straight out of the snapshot's SuffixIndex, and the subword span is chosen around it: starting
+     * at it for a prefix, ending at it for a suffix, and covering it for a contained string. The other words and
+     * spans are picked as usual. Special characters and spaces are only kept if they leave the constraints intact.
+     *
+     * @param session              The session whose words must not repeat
+     * @param index                The dictionary snapshot
+     * @param prefix               The prefix (null for none)
+     * @param contains             The string to contain (null for none)
+     * @param suffix               The suffix (null for none)
+     * @param addSpaces            Whether spaces may be added
+     * @param addSpecialCharacters Whether special characters may be added
+     * @return                     The frankenword
+     */
+    static String makeConstrainedFrankenword(SessionRegistry.Session session, WordIndex index, String prefix,
+                                             String contains, String suffix, boolean addSpaces,
+                                             boolean addSpecialCharacters) throws IllegalStateException { // tested
+        for(String pattern : Arrays.asList(prefix, contains, suffix)) {
+            if(pattern != null && (pattern.isEmpty() || pattern.length() > WordIndex.MAX_ELIGIBLE_LENGTH)) {
+                errorMessage = "Error: Constraints must be 1 to " + WordIndex.MAX_ELIGIBLE_LENGTH + " characters long.";
+                logEntry(errorMessage);
+                throw new IllegalStateException(errorMessage);
+            }
+        }
+        int constraints = (prefix == null ? 0 : 1) + (contains == null ? 0 : 1) + (suffix == null ? 0 : 1);
+        int numberOfWordsToMash = Math.max(constraints, oneInNChance(2) ? 2 : 3);
+        String[] patterns = new String[numberOfWordsToMash];
+        if(prefix != null) {
+            patterns[0] = prefix;
+        }
+        if(suffix != null) {
+            patterns[numberOfWordsToMash - 1] = suffix;
+        }
+        if(contains != null) {
+            int position;
+            do {
+                position = getRandomIntInInclusiveRange(0, numberOfWordsToMash - 1);
+            } while(patterns[position] != null);
+            patterns[position] = contains;
+        }
+
+        // Claim the constrained words first, at a random occurrence of their pattern, then the rest as usual.
+        SuffixIndex suffixIndex = index.suffixIndex();
+        String[] words = new String[numberOfWordsToMash];
+        int[] offsets = new int[numberOfWordsToMash];
+        int unconstrained = 0;
+        for(int w = 0; w < numberOfWordsToMash; w++) {
+            if(patterns[w] == null) {
+                unconstrained++;
+                continue;
+            }
+            int[] range = suffixIndex.range(patterns[w]);
+            if(range[0] == range[1]) {
+                errorMessage = "Error: No eligible word contains \"" + patterns[w] + "\".";
+                logEntry(errorMessage);
+                throw new IllegalStateException(errorMessage);
+            }
+            int i = 0;
+            while(words[w] == null) {
+                int position = suffixIndex.position(getRandomIntInInclusiveRange(range[0], range[1] - 1));
+                int slot = suffixIndex.slotAt(position);
+                if(session.claimSlot(slot, index)) {
+                    words[w] = index.words.get(index.eligible[slot]);
+                    offsets[w] = suffixIndex.offsetAt(position, slot);
+                }
+                i++;
+                if(i > MAX_WHILE) {
+                    errorMessage = "Error: Ran out of unused words containing \"" + patterns[w] + "\".";
+                    logEntry(errorMessage);
+                    throw new IllegalStateException(errorMessage);
+                }
+            }
+        }
+        if(unconstrained > 0) {
+            Iterator<String> claimed = session.claim(unconstrained, index).iterator();
+            for(int w = 0; w < numberOfWordsToMash; w++) {
+                if(words[w] == null) {
+                    words[w] = claimed.next();
+                }
+            }
+        }
+
+        char[] specialCharacters = addSpecialCharacters ? index.specialCharacters : null;
+        Dawg realWords = realWordsFilter(index);
+        int i = 0;
+        while(true) {
+            StringBuilder mashedWord = new StringBuilder();
+            int firstSubwordLength = 0;
+            for(int w = 0; w < numberOfWordsToMash; w++) {
+                String word = words[w];
+                if(patterns[w] == null) {
+                    mashedWord.append(makeSubword(word, getRandomIntInInclusiveRange(1, 3)));
+                } else {
+                    int first = offsets[w];
+                    int last = offsets[w] + patterns[w].length() - 1;
+                    boolean isPrefix = prefix != null && w == 0;
+                    boolean isSuffix = suffix != null && w == numberOfWordsToMash - 1;
+                    int begin = isPrefix ? first : getRandomIntInInclusiveRange(0, first);
+                    int end = isSuffix ? last : getRandomIntInInclusiveRange(last, word.length() - 1);
+                    mashedWord.append(substringInclusive(word, begin, end));
+                }
+                if(w == 0) {
+                    firstSubwordLength = mashedWord.length();
+                }
+            }
+            if(mashedWord.length() < 3) {
+                // Pad between subwords, where no constraint lives.
+                mashedWord.insert(firstSubwordLength, getRandomCharacter());
+            }
+            String frankenword = addCapitalization(mashedWord.toString());
+            for(int tries = 0; tries < MAX_DECORATION_TRIES; tries++) {
+                String decorated = addDecorations(frankenword, specialCharacters, addSpaces);
+                if(meetsConstraints(decorated, prefix, contains, suffix)) {
+                    frankenword = decorated;
+                    break;
+                }
+            }
+            if(!isRejected(frankenword, realWords)) {
+                return frankenword;
+            }
+            i++;
+            if(i > MAX_WHILE) {
+                errorMessage = "Error: App.makeConstrainedFrankenword could not avoid making a real or blocked word in "
+                        + MAX_WHILE + " tries.";
+                logEntry(errorMessage);
+                throw new IllegalStateException(errorMessage);
+            }
+        }
+    }
+
+    /**
+     * Make a single frankenword of an exact length (spaces and special characters included), from words the session
+     * has not used before.
+     *
+     * Spaces are decided first, since they are the only decoration that adds characters. The SpanPlanner then picks
+     * subword lengths that add up to the rest, and a word long enough for each subword, so the frankenword comes out
+     * the right length the first time.
+     *
+     * @param session              The session whose words must not repeat
+     * @param index                The dictionary snapshot
+     * @param length               The length
+     * @param addSpaces            Whether spaces may be added
+     * @param addSpecialCharacters Whether special characters may be added
+     * @return                     The frankenword
+     */
+    static String makeFrankenwordOfLength(SessionRegistry.Session session, WordIndex index, int length,
+                                          boolean addSpaces, boolean addSpecialCharacters)
+            throws IllegalStateException { // tested
+        int spaces = 0;
+        if(addSpaces && oneInNChance(4)) {
+            if(length - 2 > 6 && oneInNChance(2)) {
+                spaces = 2;
+            } else if(length - 1 >= 3) {
+                spaces = 1;
+            }
         }
-        if(SPECIAL_CHARS_REQUESTED) {
+        int letters = length - spaces;
+        SpanPlanner planner = index.spanPlanner();
+        int numberOfWordsToMash = oneInNChance(2) ? 2 : 3;
+        if(!planner.canPlan(numberOfWordsToMash, letters)) {
+            numberOfWordsToMash = numberOfWordsToMash == 2 ? 3 : 2;
+        }
+        if(letters < 3 || !planner.canPlan(numberOfWordsToMash, letters)) {
+            errorMessage = "Error: No frankenword of length " + length + " can be made from this dictionary.";
+            logEntry(errorMessage);
+            throw new IllegalStateException(errorMessage);
+        }
+        int[] spans = planner.planSpans(numberOfWordsToMash, letters, random());
+        String[] words = new String[numberOfWordsToMash];
+        for(int w = 0; w < numberOfWordsToMash; w++) {
+            int i = 0;
+            while(words[w] == null) {
+                int[] slots = planner.slotsByLength[planner.pickWordLength(spans[w], random())];
+                int slot = slots[getRandomIntInInclusiveRange(0, slots.length - 1)];
+                if(session.claimSlot(slot, index)) {
+                    words[w] = index.words.get(index.eligible[slot]);
+                }
+                i++;
+                if(i > MAX_WHILE) {
+                    errorMessage = "Error: Ran out of unused words for a frankenword of length " + length + ".";
+                    logEntry(errorMessage);
+                    throw new IllegalStateException(errorMessage);
+                }
+            }
+        }
+
+        char[] specialCharacters = addSpecialCharacters ? index.specialCharacters : null;
+        Dawg realWords = realWordsFilter(index);
+        int i = 0;
+        while(true) {
+            StringBuilder mashedWord = new StringBuilder(length);
+            for(int w = 0; w < numberOfWordsToMash; w++) {
+                int begin = getRandomIntInInclusiveRange(0, words[w].length() - spans[w]);
+                mashedWord.append(words[w], begin, begin + spans[w]);
+            }
+            String frankenword = addCapitalization(mashedWord.toString());
+            if(specialCharacters != null && specialCharacters.length > 0 && oneInNChance(4)) {
+                frankenword = addSpecialCharacters(frankenword, specialCharacters);
+            }
+            if(spaces == 1) {
+                frankenword = breakInTwo(frankenword);
+            } else if(spaces == 2) {
+                frankenword = breakInThree(frankenword);
+            }
+            if(!isRejected(frankenword, realWords)) {
+                return frankenword;
+            }
+            i++;
+            if(i > MAX_WHILE) {
+                errorMessage = "Error: App.makeFrankenwordOfLength could not avoid making a real or blocked word in "
+                        + MAX_WHILE + " tries.";
+                logEntry(errorMessage);
+                throw new IllegalStateException(errorMessage);
+            }
+        }
+    }
+
+    /**
+     * Check a frankenword against the constraints, ignoring case.
+     *
+     * @param frankenword The frankenword
+     * @param prefix      The prefix (null for none)
+     * @param contains    The string to contain (null for none)
+     * @param suffix      The suffix (null for none)
+     * @return            True if the frankenword meets every constraint, false otherwise.
+     */
+    static boolean meetsConstraints(String frankenword, String prefix, String contains, String suffix) { // tested
+        String lowerCase = frankenword.toLowerCase(Locale.ROOT);
+        return (prefix == null || lowerCase.startsWith(prefix.toLowerCase(Locale.ROOT)))
+                && (contains == null || lowerCase.contains(contains.toLowerCase(Locale.ROOT)))
+                && (suffix == null || lowerCase.endsWith(suffix.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Prints a list of frankenwords to the output file. (Will overwrite existing file of the same name.)
+     *
+     * @param frankenwords The list of frankenwords to print.
+     */
+    private static void printFrankenwords(List<String> frankenwords) { // can be functionally tested
+        if(frankenwords == null || frankenwords.isEmpty()) {
+            errorMessage = "Error: App.printFrankenwords received a null or empty list.";
+            logEntry(errorMessage);
+            throw new IllegalStateException(errorMessage);
+        }
+        if(outputToStdout) {
+            try(ChannelOutputWriter out = newStdoutWriter()) {
+                for(String s : frankenwords) {
+                    if(!out.append(s)) {
+                        break;
+                    }
+                }
+            }
+            return;
+        }
+        printFrankenwords(frankenwords, outputFile);
+    }
+
+    /**
+     * Prints a list of frankenwords to a file. (Will overwrite existing file of the same name.)
+     *
+     * @param frankenwords The list of frankenwords to print.
+     * @param file         The file to print to
+     */
+    private static void printFrankenwords(List<String> frankenwords, File file) { // can be functionally tested
+        PipelineEvents.OutputFlush event = new PipelineEvents.OutputFlush();
+        event.begin();
+        if(extendedArgs.containsKey(MMAP_ARG)) {
+            try(MappedOutputWriter out = new MappedOutputWriter(file, frankenwords.size())) {
+                for(String s : frankenwords) {
+                    out.append(s);
+                }
+            }
+            PipelineEvents.endFlush(event, file.getName(), file.length());
+            TRACE.record(TraceRing.Code.OUTPUT_FLUSHED, file.length(), 0, 0);
+            return;
+        }
+        try {
+            PrintWriter out = new PrintWriter(file);
+            for(String s : frankenwords) {
+                out.println(s);
+            }
+            out.close();
+            PipelineEvents.endFlush(event, file.getName(), file.length());
+            TRACE.record(TraceRing.Code.OUTPUT_FLUSHED, file.length(), 0, 0);
+        } catch (IOException e) {
+            errorMessage = "Error: App.printFrankenwords threw an IO exception: " + e.getMessage();
+            logEntry(errorMessage);
+            throw new IllegalStateException(errorMessage);
+        }
+    }
+
+    /**
+     * Writes a columnar batch to a file, straight from its arena. (Will overwrite existing file of the same name.)
+     *
+     * @param arena The batch to write
+     * @param file  The file to write to
+     */
+    private static void writeArena(CharArena arena, File file) { // can be functionally tested
+        PipelineEvents.OutputFlush event = new PipelineEvents.OutputFlush();
+        event.begin();
+        try(FileOutputStream out = new FileOutputStream(file)) {
+            ByteBuffer bytes = ByteBuffer.wrap(arena.chars, 0, arena.size());
+            while(bytes.hasRemaining()) {
+                out.getChannel().write(bytes);
+            }
+        } catch (IOException e) {
+            errorMessage = "Error: App.writeArena threw an IO exception: " + e.getMessage();
+            logEntry(errorMessage);
+            throw new IllegalStateException(errorMessage);
+        }
+        PipelineEvents.endFlush(event, file.getName(), arena.size());
+        TRACE.record(TraceRing.Code.OUTPUT_FLUSHED, arena.size(), 0, 0);
+    }
+
+    /**
+     * Build the lazy structures of a dictionary snapshot that the received args will need, so they are built at load
+     * time (or on the DictionaryWatcher thread after a reload) rather than by the first generating thread while the
+     * others wait for it.
+     *
+     * @param index The dictionary snapshot
+     */
+    static void warmUp(WordIndex index) {
+        if(extendedArgs.containsKey(SYLLABLES_ARG)) {
+            index.syllableBreaks();
+        }
+        if(extendedArgs.containsKey(REJECT_REAL_WORDS_ARG)) {
+            index.realWords();
+        }
+        if(extendedArgs.containsKey(PREFIX_ARG) || extendedArgs.containsKey(CONTAINS_ARG)
+                || extendedArgs.containsKey(SUFFIX_ARG)) {
+            index.suffixIndex();
+        }
+        if(extendedArgs.containsKey(LENGTH_ARG)) {
+            index.spanPlanner();
+        }
+    }
+
+    /**
+     * Get the real words to reject for a dictionary snapshot, if REJECT_REAL_WORDS_ARG was received.
+     *
+     * @param index The dictionary snapshot
+     * @return      The real words to reject (null if not requested)
+     */
+    static Dawg realWordsFilter(WordIndex index) {
+        return extendedArgs.containsKey(REJECT_REAL_WORDS_ARG) ? index.realWords() : null;
+    }
+
+    /**
+     * Check whether a frankenword must be thrown away: it is a real word (if real words are rejected), or it contains
+     * a substring from the blocklist (if one was loaded).
+     *
+     * @param frankenword The frankenword to check
+     * @param realWords   The real words to reject (null if not requested)
+     * @return            True if the frankenword must be made again, false otherwise.
+     */
+    static boolean isRejected(String frankenword, Dawg realWords) { // tested
+        Blocklist blocked = blocklist;
+        return (realWords != null && realWords.contains(frankenword))
+                || (blocked != null && blocked.matches(frankenword));
+    }
+
+    /**
+     * Make a frankenword from a list of words to mash. If it comes out as a real word or a blocked one, mash the same
+     * words again.
+     *
+     * @param wordsToMash       The words to mash
+     * @param breaks            The syllable breaks of the words to mash (null if not requested; see breaksAt)
+     * @param specialCharacters The special characters to use (null if not requested)
+     * @param addSpaces         Whether spaces may be added
+     * @param realWords         The real words to reject (null if not requested)
+     * @return                  The frankenword
+     */
+    private static String makeFrankenword(List<String> wordsToMash, int[] breaks, char[] specialCharacters,
+                                          boolean addSpaces, Dawg realWords) { // can be functionally tested
+        if(wordsToMash == null || wordsToMash.size() < 2) {
+            errorMessage = "Error: App.makeFrankenword received an illegal argument.";
+            logEntry(errorMessage);
+            throw new IllegalStateException(errorMessage);
+        }
+        String frankenword = makeFrankenword(wordsToMash, breaks, specialCharacters, addSpaces);
+        int i = 0;
+        while(isRejected(frankenword, realWords)) {
+            i++;
+            if(i > MAX_WHILE) {
+                errorMessage = "Error: App.makeFrankenword could not avoid making a real or blocked word from "
+                        + wordsToMash + " in " + MAX_WHILE + " tries.";
+                logEntry(errorMessage);
+                throw new IllegalStateException(errorMessage);
+            }
+            frankenword = makeFrankenword(wordsToMash, breaks, specialCharacters, addSpaces);
+        }
+        PipelineEvents.retries("makeFrankenword", 1, i + 1);
+        TRACE.record(TraceRing.Code.FRANKENWORD_MADE, frankenword.length(), i, 0);
+        return frankenword;
+    }
+
+    /**
+     * Make one attempt at a frankenword from a list of words to mash.
+     *
+     * @param wordsToMash       The words to mash
+     * @param breaks            The syllable breaks of the words to mash (null if not requested)
+     * @param specialCharacters The special characters to use (null if not requested)
+     * @param addSpaces         Whether spaces may be added
+     * @return                  The frankenword
+     */
+    private static String makeFrankenword(List<String> wordsToMash, int[] breaks, char[] specialCharacters,
+                                          boolean addSpaces) { // can be functionally tested
+        boolean sampled = PipelineEvents.sampleStages();
+        PipelineEvents.FrankenwordStage stage = PipelineEvents.beginStage(sampled);
+        String frankenword = mashWords(wordsToMash, breaks);
+        if(frankenword.length() < 3) {
+            frankenword += getRandomCharacter();
+        }
+        PipelineEvents.endStage(stage, "mash", frankenword);
+        stage = PipelineEvents.beginStage(sampled);
+        frankenword = addCapitalization(frankenword);
+        PipelineEvents.endStage(stage, "capitalization", frankenword);
+        return addDecorations(frankenword, specialCharacters, addSpaces, sampled);
+    }
+
+    /**
+     * Add standard or weird capitalization (50 / 50).
+     *
+     * @param frankenword The frankenword
+     * @return            The capitalized frankenword
+     */
+    private static String addCapitalization(String frankenword) {
+        if(oneInNChance(2)) {
+            return addStandardCapitalization(frankenword);
+        }
+        return addWeirdCapitalization(frankenword);
+    }
+
+    /**
+     * Maybe add special characters (1 in 4), then maybe add spaces (1 in 4).
+     *
+     * @param frankenword       The frankenword
+     * @param specialCharacters The special characters to use (null if not requested)
+     * @param addSpaces         Whether spaces may be added
+     * @return                  The decorated frankenword
+     */
+    private static String addDecorations(String frankenword, char[] specialCharacters, boolean addSpaces) {
+        return addDecorations(frankenword, specialCharacters, addSpaces, false);
+    }
+
+    /**
+     * Maybe add special characters (1 in 4), then maybe add spaces (1 in 4), timing each if the frankenword is
+     * sampled (see PipelineEvents.sampleStages).
+     *
+     * @param frankenword       The frankenword
+     * @param specialCharacters The special characters to use (null if not requested)
+     * @param addSpaces         Whether spaces may be added
+     * @param sampled           Whether to time the stages
+     * @return                  The decorated frankenword
+     */
+    private static String addDecorations(String frankenword, char[] specialCharacters, boolean addSpaces,
+                                         boolean sampled) {
+        PipelineEvents.FrankenwordStage stage = PipelineEvents.beginStage(sampled);
+        if(specialCharacters != null) {
             if(specialCharacters.length > 0) {
                 if(oneInNChance(4)) {
                     frankenword = addSpecialCharacters(frankenword, specialCharacters);
                 }
             }
         }
-        if(SPACES_REQUESTED) {
+        PipelineEvents.endStage(stage, "special characters", frankenword);
+        stage = PipelineEvents.beginStage(sampled);
+        if(addSpaces) {
             if(oneInNChance(4)) {
                 if(frankenword.length() > 6) {
                     if(oneInNChance(2)) {
@@ -561,19 +2048,22 @@ public class App {
                 }
             }
         }
+        PipelineEvents.endStage(stage, "spaces", frankenword);
         return frankenword;
     }
 
     /**
-     * Get a list of words to mash from wordsToUse.
+     * Get a list of words to mash from wordsToUse. Synchronized so that concurrent callers never claim the same
+     * word. (The main program path uses the WordIndex overload below, with per-session uniqueness.)
      *
      * @param numberOfWordsToMash The number of words to mash
      * @param wordsToUse          wordsToUse mock for testing
      * @param usedWords_          usedWords mock (can be null if not unit testing)
      * @return                    A list of words to mash
      */
-    static List<String> getWordsToMash(int numberOfWordsToMash, List<String> wordsToUse,
-                                       List<String> usedWords_) throws IllegalStateException { // tested
+    static synchronized List<String> getWordsToMash(int numberOfWordsToMash, List<String> wordsToUse,
+                                                    List<String> usedWords_)
+            throws IllegalStateException { // tested
         if(numberOfWordsToMash < MIN_WORDS_TO_MASH || numberOfWordsToMash > MAX_WORDS_TO_MASH) {
             errorMessage = "Error: App.getWordsToMash received an illegal int: "
                     + numberOfWordsToMash + ".";
@@ -621,6 +2111,68 @@ public class App {
         return wordsToMash;
     }
 
+    /**
+     * Get a list of words to mash from the eligible words of a dictionary snapshot (see getSlotsToMash).
+     *
+     * @param numberOfWordsToMash The number of words to mash
+     * @param index               The dictionary snapshot to draw from
+     * @param usedEligible        The eligible slots already used (updated in place)
+     * @return                    A list of words to mash
+     */
+    static List<String> getWordsToMash(int numberOfWordsToMash, WordIndex index, BitSet usedEligible)
+            throws IllegalStateException { // tested
+        return wordsAt(index, getSlotsToMash(numberOfWordsToMash, index, usedEligible));
+    }
+
+    /**
+     * Get the eligible slots of words to mash from a dictionary snapshot. Only eligible words are drawn, so no draw
+     * is wasted on a word of the wrong length.
+     *
+     * Not synchronized; callers own the usedEligible bitset (see SessionRegistry.Session.claimSlots).
+     *
+     * @param numberOfWordsToMash The number of words to mash
+     * @param index               The dictionary snapshot to draw from
+     * @param usedEligible        The eligible slots already used (updated in place)
+     * @return                    The eligible slots of the words to mash
+     */
+    static int[] getSlotsToMash(int numberOfWordsToMash, WordIndex index, BitSet usedEligible)
+            throws IllegalStateException { // tested
+        if(numberOfWordsToMash < MIN_WORDS_TO_MASH || numberOfWordsToMash > MAX_WORDS_TO_MASH) {
+            errorMessage = "Error: App.getWordsToMash received an illegal int: "
+                    + numberOfWordsToMash + ".";
+            logEntry(errorMessage);
+            throw new IllegalStateException(errorMessage);
+        }
+        if(index == null || index.eligibleCount() == 0 || usedEligible == null) {
+            errorMessage = "Error: getWordsToMash received a null index, an index with no eligible words, " +
+                    "or a null bitset.";
+            logEntry(errorMessage);
+            throw new IllegalStateException(errorMessage);
+        }
+        int[] slots = new int[numberOfWordsToMash];
+        int claimed = 0;
+        int i = 0;
+        while(claimed < numberOfWordsToMash) {
+            int slot = getRandomIntInInclusiveRange(0, index.eligibleCount() - 1);
+            if(!usedEligible.get(slot)) {
+                usedEligible.set(slot);
+                slots[claimed++] = slot;
+            }
+            i++;
+            if(i > MAX_WHILE) {
+                TRACE.record(TraceRing.Code.WORDS_DRAWN, numberOfWordsToMash, i, index.eligibleCount());
+                errorMessage = "Error: A while loop in getWordsToMash exceeded " + MAX_WHILE + " iterations.";
+                logEntry(errorMessage);
+                throw new IllegalStateException(errorMessage);
+            }
+        }
+        PipelineEvents.retries("getWordsToMash", numberOfWordsToMash, i);
+        if(i > numberOfWordsToMash) {
+            TRACE.record(TraceRing.Code.WORDS_DRAWN, numberOfWordsToMash, i, index.eligibleCount());
+        }
+        return slots;
+    }
+
     /**
      * Mash together a list of words.
      *
@@ -628,22 +2180,40 @@ public class App {
      * @return            The mashed word
      */
     static String mashWords(List<String> wordsToMash) throws IllegalStateException { // tested
-        if(wordsToMash == null || (wordsToMash.size() != 2 && wordsToMash.size() != 3)) {
+        return mashWords(wordsToMash, null);
+    }
+
+    /**
+     * Mash together a list of words, cutting each only at its syllable breaks if they are given.
+     *
+     * @param wordsToMash The list of words to mash (shuffled in place)
+     * @param breaks      The syllable breaks of each word (null to cut anywhere; shuffled along with the words)
+     * @return            The mashed word
+     */
+    static String mashWords(List<String> wordsToMash, int[] breaks) throws IllegalStateException { // tested
+        if(wordsToMash == null || (wordsToMash.size() != 2 && wordsToMash.size() != 3)
+                || (breaks != null && breaks.length != wordsToMash.size())) {
             errorMessage = "Error: App.mashWords received an illegal argument.";
             logEntry(errorMessage);
             throw new IllegalStateException(errorMessage);
         }
         StringBuilder mashedWord = new StringBuilder("");
-        List<Integer> oneTwoThree = new ArrayList<>();
-        for(int i = 1; i < 4; i++) {
-            oneTwoThree.add(i);
+        // Shuffle the words, and their breaks with them, as Collections.shuffle does.
+        Random random = random();
+        for(int i = wordsToMash.size(); i > 1; i--) {
+            int j = random.nextInt(i);
+            Collections.swap(wordsToMash, i - 1, j);
+            if(breaks != null) {
+                int swap = breaks[i - 1];
+                breaks[i - 1] = breaks[j];
+                breaks[j] = swap;
+            }
         }
-        Collections.shuffle(wordsToMash);
-        for(String s : wordsToMash) {
+        for(int w = 0; w < wordsToMash.size(); w++) {
             // Let int n be 1, 2, or 3 at random
-            Collections.shuffle(oneTwoThree);
-            int n = oneTwoThree.get(0);
-            mashedWord.append(makeSubword(s, n));
+            int n = getRandomIntInInclusiveRange(1, 3);
+            String s = wordsToMash.get(w);
+            mashedWord.append(breaks == null ? makeSubword(s, n) : makeSubword(s, n, breaks[w]));
         }
         return mashedWord.toString();
     }
@@ -706,6 +2276,10 @@ public class App {
             }
             whileCount++;
         }
+        PipelineEvents.retries("addSpecialCharacters", charsToUse, whileCount);
+        if(whileCount > charsToUse) {
+            TRACE.record(TraceRing.Code.SPECIAL_CHARACTERS_ADDED, charsToUse, whileCount, frankenWord.length());
+        }
         return frankenBuilder.toString();
     }
 
@@ -722,11 +2296,9 @@ public class App {
             throw new IllegalStateException(errorMessage);
         }
         if(oneInNChance(2)) {
-            String firstLetter = frankenword.substring(0, 1).toUpperCase();
-            String restOfLetters = frankenword.substring(1).toLowerCase();
-            return firstLetter + restOfLetters;
+            return CaseTransform.capitalize(frankenword);
         } else {
-            return frankenword.toLowerCase();
+            return CaseTransform.toLowerCase(frankenword);
         }
     }
 
@@ -742,17 +2314,7 @@ public class App {
             logEntry(errorMessage);
             throw new IllegalStateException(errorMessage);
         }
-        frankenword = frankenword.toLowerCase();
-        char[] frankenwordCharArray = frankenword.toCharArray();
-        char[] returnArray = new char[frankenwordCharArray.length];
-        for(int i = 0; i < frankenwordCharArray.length; i++) {
-            if(oneInNChance(11)) {
-                returnArray[i] = Character.toUpperCase(frankenwordCharArray[i]);
-            } else {
-                returnArray[i] = Character.toLowerCase(frankenwordCharArray[i]);
-            }
-        }
-        return String.valueOf(returnArray);
+        return CaseTransform.randomCase(frankenword, random(), WEIRD_CAPITALIZATION_CHANCE);
     }
 
     /**
@@ -799,6 +2361,66 @@ public class App {
         throw new IllegalStateException(errorMessage);
     }
 
+    /**
+     * Makes a subword like makeSubword(word, n), but only starts and ends it at syllable breaks.
+     *
+     * @param word   The word to use
+     * @param n      Which subword pattern to use
+     * @param breaks The word's syllable breaks (see SyllableBreaks)
+     * @return       The subword
+     */
+    static String makeSubword(String word, int n, int breaks) throws IllegalStateException { // tested
+        if(StringUtils.isBlank(word) || word.length() < MIN_CANDIDATE_WORD_LENGTH
+                || word.length() > MAX_CANDIDATE_WORD_LENGTH || (breaks & 1) == 0 || breaks >>> word.length() != 1) {
+            errorMessage = "Error: makeSubword received an illegal word or breaks.";
+            logEntry(errorMessage);
+            throw new IllegalStateException(errorMessage);
+        }
+        int end = 1 << word.length();
+        switch(n) {
+            case(1): {
+                return word.substring(0, SyllableBreaks.randomBreak(breaks & ~1));
+            }
+            case(2): {
+                return word.substring(SyllableBreaks.randomBreak(breaks & ~end));
+            }
+            case(3): {
+                int begin = SyllableBreaks.randomBreak(breaks & ~end);
+                return word.substring(begin, SyllableBreaks.randomBreak(breaks & -(2 << begin)));
+            }
+        }
+        errorMessage = "Error: makeSubword received an illegal 2nd argument. Must be 1, 2, or 3.";
+        logEntry(errorMessage);
+        throw new IllegalStateException(errorMessage);
+    }
+
+    /**
+     * @return the words at some eligible slots of a dictionary snapshot, as a list to mash
+     */
+    static List<String> wordsAt(WordIndex index, int[] slots) {
+        List<String> words = new ArrayList<>(slots.length);
+        for(int slot : slots) {
+            words.add(index.words.get(index.eligible[slot]));
+        }
+        return words;
+    }
+
+    /**
+     * @return the syllable breaks of the words at some eligible slots of a dictionary snapshot (see
+     *         WordIndex.syllableBreaks), or null if SYLLABLES_ARG was not requested
+     */
+    static int[] breaksAt(WordIndex index, int[] slots) {
+        if(!useSyllables) {
+            return null;
+        }
+        int[] table = index.syllableBreaks();
+        int[] breaks = new int[slots.length];
+        for(int w = 0; w < slots.length; w++) {
+            breaks[w] = table[slots[w]];
+        }
+        return breaks;
+    }
+
 
     //**************************//
     //***** HELPER METHODS *****//
@@ -891,16 +2513,7 @@ public class App {
             logEntry(errorMessage);
             throw new IllegalStateException(errorMessage);
         }
-        List<Boolean> bools = new ArrayList<>();
-        for(int i = 0; i < n; i++) {
-            if(i == 0) {
-                bools.add(true);
-            } else {
-                bools.add(false);
-            }
-        }
-        Collections.shuffle(bools);
-        return bools.get(0);
+        return random().nextInt(n) == 0;
     }
 
     /**
@@ -911,18 +2524,17 @@ public class App {
     static String getRandomCharacter() { // tested
         String alphabet = "abcdefghijklmnopqrstuvwxyz";
         int N = alphabet.length();
-        Random r = new Random();
-        char randChar = alphabet.charAt(r.nextInt(N));
+        char randChar = alphabet.charAt(random().nextInt(N));
         return Character.toString(randChar);
     }
 
     /**
-     * Shortcut to System.out.println
+     * Shortcut to System.out.println, or to System.err.println when the frankenwords are going to stdout.
      *
      * @param s String to print
      */
     static void print(String s) {
-        System.out.println(s);
+        (outputToStdout ? System.err : System.out).println(s);
     }
 
     /**
@@ -933,6 +2545,15 @@ public class App {
      * @return    The chosen pseudorandom number
      */
     static int getRandomIntInInclusiveRange(int min, int max) { // tested
-        return ThreadLocalRandom.current().nextInt(min, max + 1);
+        return min + random().nextInt(max - min + 1);
+    }
+
+    /**
+     * All of the program's randomness comes from here, so that a run can be checkpointed and resumed.
+     *
+     * @return this thread's PRNG
+     */
+    static Prng random() {
+        return RANDOM.get();
     }
 }
\ No newline at end of file
@@ -0,0 +1,238 @@
+package com.jason.wordmasher;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Capitalization and special characters for a whole batch of frankenwords at once, for batch output.
+ *
+ * The batch is packed into one byte[] of ASCII characters, each frankenword at an offset with a length (whatever is
+ * between frankenwords, e.g. line separators, is left alone). Instead of a random draw per character, a pass of
+ * random bytes ("noise") is drawn for the whole batch, a few draws per frankenword decide what kind of
+ * capitalization and special characters it gets, and then each transform is one pass over the whole buffer:
+ *
+ * - capitalization lowercases every letter and uppercases the letters whose noise byte is below a threshold. Weird
+ *   capitalization keeps its noise, so about 1 letter in 11 is uppercased; standard capitalization overwrites the
+ *   frankenword's noise so that either no letter or only the first is uppercased.
+ * - special characters are written into a substitution buffer at the chosen indices, and a pass replaces each byte
+ *   whose substitution is not 0.
+ *
+ * The chances are those of App.addCapitalization and App.addDecorations, except that weird capitalization uppercases
+ * a letter with chance 23 / 256 rather than 1 / 11. The draws differ from the per-frankenword path, so a seeded run
+ * does not make the same frankenwords through both.
+ *
+ * The passes are done by Kernels: VectorKernels (jdk.incubator.vector) when the JVM was started with
+ * --add-modules jdk.incubator.vector and the CPU has SIMD registers of at least 128 bits (SSE/AVX on x86, NEON on
+ * ARM), ScalarKernels otherwise. Both give the same bytes.
+ */
+final class BatchDecorator {
+
+    static final int WEIRD_THRESHOLD = 23; // noise bytes (unsigned) below this uppercase a letter: 23 / 256 ~ 1 / 11
+    static final int MIN_LENGTH = 3;       // as App.addCapitalization and App.addSpecialCharacters
+
+    private static final byte NEVER = (byte) 0xFF;
+    private static final byte ALWAYS = 0;
+
+    /**
+     * The passes over a packed batch. Implementations must give the same bytes.
+     */
+    interface Kernels {
+
+        /**
+         * Lowercase every ASCII letter from data[from] to data[to - 1], then uppercase each letter whose noise byte
+         * (unsigned) is below threshold. Other bytes are left alone.
+         */
+        void capitalize(byte[] data, byte[] noise, int from, int to, int threshold);
+
+        /**
+         * Replace each byte from data[from] to data[to - 1] whose substitution is not 0 with its substitution.
+         */
+        void substitute(byte[] data, byte[] substitutions, int from, int to);
+
+        /**
+         * @return a name for logs and benchmarks
+         */
+        String name();
+    }
+
+    /**
+     * Kernels one byte at a time.
+     */
+    static final class ScalarKernels implements Kernels {
+
+        @Override
+        public void capitalize(byte[] data, byte[] noise, int from, int to, int threshold) { // tested
+            for(int i = from; i < to; i++) {
+                int b = data[i];
+                if(b >= 'A' && b <= 'Z') {
+                    b |= 0x20;
+                }
+                if(b >= 'a' && b <= 'z' && (noise[i] & 0xFF) < threshold) {
+                    b &= ~0x20;
+                }
+                data[i] = (byte) b;
+            }
+        }
+
+        @Override
+        public void substitute(byte[] data, byte[] substitutions, int from, int to) { // tested
+            for(int i = from; i < to; i++) {
+                if(substitutions[i] != 0) {
+                    data[i] = substitutions[i];
+                }
+            }
+        }
+
+        @Override
+        public String name() {
+            return "scalar";
+        }
+    }
+
+    static final Kernels KERNELS = loadKernels();
+
+    private final Kernels kernels;
+    private final byte[] specialCharacters;
+    private byte[] noise = new byte[0];
+    private byte[] substitutions = new byte[0];
+
+    /**
+     * @param specialCharacters The special characters to use (null if not requested); see supports
+     */
+    BatchDecorator(char[] specialCharacters) throws IllegalStateException {
+        this(specialCharacters, KERNELS);
+    }
+
+    /**
+     * @param specialCharacters The special characters to use (null if not requested); see supports
+     * @param kernels           The kernels to use
+     */
+    BatchDecorator(char[] specialCharacters, Kernels kernels) throws IllegalStateException {
+        if(!supports(specialCharacters) || kernels == null) {
+            throw new IllegalStateException("Error: BatchDecorator received an illegal argument.");
+        }
+        this.kernels = kernels;
+        if(specialCharacters == null || specialCharacters.length == 0) {
+            this.specialCharacters = null;
+        } else {
+            this.specialCharacters = new byte[specialCharacters.length];
+            for(int i = 0; i < specialCharacters.length; i++) {
+                this.specialCharacters[i] = (byte) specialCharacters[i];
+            }
+        }
+    }
+
+    /**
+     * @return whether special characters can be packed: all ASCII and none of them NUL (null is fine)
+     */
+    static boolean supports(char[] specialCharacters) { // tested
+        if(specialCharacters != null) {
+            for(char c : specialCharacters) {
+                if(c == 0 || c > 127) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Add capitalization and maybe special characters to each frankenword of a packed batch, in place.
+     *
+     * @param data    The packed frankenwords (ASCII)
+     * @param offsets The offset of each frankenword in data, in increasing order
+     * @param lengths The length of each frankenword (at least MIN_LENGTH)
+     * @param count   The number of frankenwords
+     * @param random  The source of randomness
+     */
+    void decorate(byte[] data, int[] offsets, int[] lengths, int count, Random random)
+            throws IllegalStateException { // tested
+        if(count == 0) {
+            return;
+        }
+        int end = offsets[count - 1] + lengths[count - 1];
+        if(end > data.length) {
+            throw new IllegalStateException("Error: BatchDecorator.decorate received a frankenword past the data.");
+        }
+        if(noise.length < end) {
+            noise = new byte[Math.max(end, noise.length * 2)];
+            substitutions = new byte[noise.length];
+        }
+        fillNoise(random, end);
+        boolean substituted = false;
+        for(int k = 0; k < count; k++) {
+            int offset = offsets[k];
+            int length = lengths[k];
+            if(length < MIN_LENGTH) {
+                throw new IllegalStateException("Error: BatchDecorator.decorate received a frankenword of length " +
+                        length + ".");
+            }
+            if(random.nextInt(2) == 0) {
+                // Standard capitalization: "Eclipse" or "eclipse".
+                Arrays.fill(noise, offset, offset + length, NEVER);
+                if(random.nextInt(2) == 0) {
+                    noise[offset] = ALWAYS;
+                }
+            }
+            if(specialCharacters != null && random.nextInt(4) == 0) {
+                int first = random.nextInt(length);
+                substitutions[offset + first] = specialCharacters[random.nextInt(specialCharacters.length)];
+                if(length >= 6 && random.nextInt(2) == 0) {
+                    int second = random.nextInt(length - 1);
+                    if(second >= first) {
+                        second++;
+                    }
+                    substitutions[offset + second] = specialCharacters[random.nextInt(specialCharacters.length)];
+                }
+                substituted = true;
+            }
+        }
+        kernels.capitalize(data, noise, offsets[0], end, WEIRD_THRESHOLD);
+        if(substituted) {
+            kernels.substitute(data, substitutions, offsets[0], end);
+            Arrays.fill(substitutions, offsets[0], end, (byte) 0);
+        }
+    }
+
+    /**
+     * @return the name of the kernels in use
+     */
+    String kernelsName() {
+        return kernels.name();
+    }
+
+    /**
+     * Fill noise[0] to noise[end - 1] with random bytes, eight per draw.
+     */
+    private void fillNoise(Random random, int end) {
+        int i = 0;
+        for(; i + 8 <= end; i += 8) {
+            long bits = random.nextLong();
+            for(int b = 0; b < 8; b++) {
+                noise[i + b] = (byte) (bits >>> (b << 3));
+            }
+        }
+        long bits = random.nextLong();
+        for(; i < end; i++, bits >>>= 8) {
+            noise[i] = (byte) bits;
+        }
+    }
+
+    /**
+     * @return VectorKernels if the incubator module is present and the CPU can use it, otherwise ScalarKernels
+     */
+    private static Kernels loadKernels() {
+        if(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                Kernels vector = (Kernels) Class.forName("com.jason.wordmasher.VectorKernels")
+                        .getDeclaredConstructor().newInstance();
+                if(VectorKernels.worthUsing()) {
+                    return vector;
+                }
+            } catch (ReflectiveOperationException | LinkageError e) {
+                App.logEntry("Vector kernels are not available, using scalar kernels: " + e);
+            }
+        }
+        return new ScalarKernels();
+    }
+}
@@ -0,0 +1,221 @@
+package com.jason.wordmasher;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * A macro benchmark of the whole generation pipeline (see App.BENCH_ARG), meant to be run from the shipped jar on
+ * the hardware being measured.
+ *
+ * One iteration makes a batch of frankenwords the way a normal run does, one generateFrankenword call per word, and
+ * hands the batch to the output path. Warmup iterations give the JIT time to compile the hot code and are thrown
+ * away. The measured iterations record the latency of every word and of every whole batch (output included) in
+ * LatencyHistograms. Where the JVM can report the bytes allocated by a thread, they are used to work out the bytes
+ * allocated per word. Every iteration gets a fresh session, so a benchmark never runs out of unused words.
+ *
+ * runColumnar measures the same thing for ColumnarGenerator, which makes a whole batch into a CharArena at once. It
+ * has no per-word latency, only per-batch.
+ */
+final class Benchmark {
+
+    static final String OUTPUT_FILE_NAME = "bench_output.txt";
+    static final int DEFAULT_WARMUP_ITERATIONS = 5;
+    static final int DEFAULT_MEASURED_ITERATIONS = 20;
+
+    /**
+     * The measurements of one benchmark.
+     */
+    static final class Result {
+        final String name;
+        final LatencyHistogram perWord = new LatencyHistogram();
+        final LatencyHistogram perBatch = new LatencyHistogram();
+        long words = 0;
+        long nanos = 0;
+        long allocatedBytes = -1; // -1 if the JVM cannot measure allocation
+
+        Result(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return the frankenwords made per second, output included
+         */
+        double wordsPerSecond() {
+            return nanos == 0 ? 0 : words * 1e9 / nanos;
+        }
+
+        /**
+         * @return a human-readable summary of the measurements
+         */
+        String format() {
+            StringBuilder s = new StringBuilder(name).append('\n');
+            s.append(String.format(Locale.ROOT, "  throughput: %,.0f words/s (%d words in %d batches)%n",
+                    wordsPerSecond(), words, perBatch.count()));
+            s.append(perWord.count() == 0 ? "  per word: not measured (made a batch at a time)" :
+                    formatLatencies("per word", perWord)).append('\n');
+            s.append(formatLatencies("per batch", perBatch)).append('\n');
+            s.append(allocatedBytes < 0 ? "  allocation: not measurable on this JVM" :
+                    String.format(Locale.ROOT, "  allocation: %,.0f bytes/word", (double) allocatedBytes / words));
+            return s.toString();
+        }
+
+        private static String formatLatencies(String label, LatencyHistogram histogram) {
+            return String.format(Locale.ROOT, "  %s: p50 %s, p99 %s, p99.9 %s, max %s", label,
+                    formatNanos(histogram.percentile(50)), formatNanos(histogram.percentile(99)),
+                    formatNanos(histogram.percentile(99.9)), formatNanos(histogram.max()));
+        }
+    }
+
+    private Benchmark() {
+    }
+
+    /**
+     * Run one benchmark.
+     *
+     * @param name                 The name to report
+     * @param index                The dictionary snapshot
+     * @param batchSize            The number of frankenwords per iteration
+     * @param addSpaces            Whether spaces may be added
+     * @param addSpecialCharacters Whether special characters may be added
+     * @param warmupIterations     The number of iterations to run before measuring
+     * @param measuredIterations   The number of iterations to measure
+     * @param output               The output path each batch is handed to
+     * @return                     The measurements
+     */
+    static Result run(String name, WordIndex index, int batchSize, boolean addSpaces, boolean addSpecialCharacters,
+                      int warmupIterations, int measuredIterations,
+                      Consumer<List<String>> output) throws IllegalStateException { // tested
+        if(index == null || batchSize < 1 || warmupIterations < 0 || measuredIterations < 1 || output == null) {
+            throw new IllegalStateException("Error: Benchmark.run received an illegal argument.");
+        }
+        SessionRegistry sessions = new SessionRegistry(new AtomicReference<>(index));
+        Result result = new Result(name);
+        for(int i = 0; i < warmupIterations; i++) {
+            runBatch(sessions, "warmup-" + i, index, batchSize, addSpaces, addSpecialCharacters, output, null);
+        }
+        com.sun.management.ThreadMXBean allocation = allocationCounter();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = allocation == null ? 0 : allocation.getThreadAllocatedBytes(threadId);
+        for(int i = 0; i < measuredIterations; i++) {
+            long start = System.nanoTime();
+            runBatch(sessions, "measured-" + i, index, batchSize, addSpaces, addSpecialCharacters, output,
+                    result.perWord);
+            long elapsed = System.nanoTime() - start;
+            result.perBatch.record(elapsed);
+            result.nanos += elapsed;
+            result.words += batchSize;
+        }
+        if(allocation != null) {
+            result.allocatedBytes = allocation.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        }
+        return result;
+    }
+
+    /**
+     * Run one benchmark of columnar generation.
+     *
+     * @param name                 The name to report
+     * @param index                The dictionary snapshot (see ColumnarGenerator.supports)
+     * @param batchSize            The number of frankenwords per iteration
+     * @param addSpaces            Whether spaces may be added
+     * @param addSpecialCharacters Whether special characters may be added
+     * @param warmupIterations     The number of iterations to run before measuring
+     * @param measuredIterations   The number of iterations to measure
+     * @param output               The output path each batch is handed to
+     * @return                     The measurements
+     */
+    static Result runColumnar(String name, WordIndex index, int batchSize, boolean addSpaces,
+                              boolean addSpecialCharacters, int warmupIterations, int measuredIterations,
+                              Consumer<CharArena> output) throws IllegalStateException { // tested
+        if(index == null || batchSize < 1 || warmupIterations < 0 || measuredIterations < 1 || output == null) {
+            throw new IllegalStateException("Error: Benchmark.runColumnar received an illegal argument.");
+        }
+        SessionRegistry sessions = new SessionRegistry(new AtomicReference<>(index));
+        ColumnarGenerator generator = new ColumnarGenerator(index, addSpaces, addSpecialCharacters, App.random());
+        CharArena arena = new CharArena(false);
+        Result result = new Result(name);
+        com.sun.management.ThreadMXBean allocation = allocationCounter();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = 0;
+        for(int i = 0; i < warmupIterations + measuredIterations; i++) {
+            if(i == warmupIterations) {
+                allocatedBefore = allocation == null ? 0 : allocation.getThreadAllocatedBytes(threadId);
+            }
+            String sessionId = "columnar-" + i;
+            long start = System.nanoTime();
+            try {
+                generator.generate(batchSize, sessions.get(sessionId), arena);
+            } finally {
+                sessions.remove(sessionId);
+            }
+            output.accept(arena);
+            if(i >= warmupIterations) {
+                long elapsed = System.nanoTime() - start;
+                result.perBatch.record(elapsed);
+                result.nanos += elapsed;
+                result.words += batchSize;
+            }
+        }
+        if(allocation != null) {
+            result.allocatedBytes = allocation.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        }
+        return result;
+    }
+
+    /**
+     * Make one batch with a fresh session, recording the latency of each word if asked to, and output it.
+     */
+    private static void runBatch(SessionRegistry sessions, String sessionId, WordIndex index, int batchSize,
+                                 boolean addSpaces, boolean addSpecialCharacters, Consumer<List<String>> output,
+                                 LatencyHistogram perWord) {
+        SessionRegistry.Session session = sessions.get(sessionId);
+        List<String> batch = new ArrayList<>(batchSize);
+        PipelineEvents.Batch event = new PipelineEvents.Batch();
+        event.begin();
+        App.TRACE.record(TraceRing.Code.BATCH_STARTED, batchSize, 0, 0);
+        try {
+            for(int k = 0; k < batchSize; k++) {
+                long start = System.nanoTime();
+                batch.add(App.generateFrankenword(session, index, addSpaces, addSpecialCharacters));
+                if(perWord != null) {
+                    perWord.record(System.nanoTime() - start);
+                }
+            }
+        } finally {
+            sessions.remove(sessionId);
+        }
+        PipelineEvents.endBatch(event, "bench", batch.size());
+        output.accept(batch);
+    }
+
+    /**
+     * @return the JVM's counter of the bytes each thread has allocated, or null if it has none
+     */
+    static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        return threads instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemoryEnabled()
+                ? (com.sun.management.ThreadMXBean) threads : null;
+    }
+
+    /**
+     * @return a duration in the most readable unit
+     */
+    static String formatNanos(long nanos) { // tested
+        if(nanos < 1000) {
+            return nanos + " ns";
+        }
+        if(nanos < 1000 * 1000) {
+            return String.format(Locale.ROOT, "%.1f us", nanos / 1e3);
+        }
+        if(nanos < 1000L * 1000 * 1000) {
+            return String.format(Locale.ROOT, "%.1f ms", nanos / 1e6);
+        }
+        return String.format(Locale.ROOT, "%.2f s", nanos / 1e9);
+    }
+}
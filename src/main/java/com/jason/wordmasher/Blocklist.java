@@ -0,0 +1,185 @@
+package com.jason.wordmasher;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An Aho–Corasick automaton over a list of forbidden substrings. Used to reject frankenwords that contain any of
+ * them.
+ *
+ * Matching ignores case and spaces, so the spaces added by breakInTwo and breakInThree cannot hide a forbidden
+ * substring. Only the characters that appear in the patterns get their own column in the transition table; every
+ * other character shares column 0, which always leads back to the root. The failure links are folded into the table
+ * when it is built, so the automaton is a full DFA: a scan takes exactly one table lookup per character, never
+ * follows a failure link, allocates nothing, and takes the same time whether there are ten patterns or 100,000.
+ */
+final class Blocklist {
+
+    private final char[] columnOf;
+    private final int columns;
+    private final int[] next;
+    private final long[] matching;
+
+    /**
+     * Build the automaton for a list of forbidden substrings.
+     *
+     * @param patterns The forbidden substrings (any case; spaces are ignored, and blank patterns are skipped)
+     */
+    Blocklist(List<String> patterns) throws IllegalStateException {
+        if(patterns == null) {
+            throw new IllegalStateException("Error: Blocklist received a null list of patterns.");
+        }
+        String[] folded = new String[patterns.size()];
+        char maxChar = 0;
+        for(int p = 0; p < folded.length; p++) {
+            folded[p] = fold(patterns.get(p));
+            for(int i = 0; i < folded[p].length(); i++) {
+                maxChar = (char) Math.max(maxChar, folded[p].charAt(i));
+            }
+        }
+        columnOf = new char[maxChar + 1];
+        int columnCount = 1;
+        for(String pattern : folded) {
+            for(int i = 0; i < pattern.length(); i++) {
+                if(columnOf[pattern.charAt(i)] == 0) {
+                    columnOf[pattern.charAt(i)] = (char) columnCount++;
+                }
+            }
+        }
+        columns = columnCount;
+
+        // Build the trie. State 0 is the root; since no edge ever leads to the root, 0 also means "no edge yet".
+        int[] trie = new int[columns * 64];
+        long[] accepting = new long[1];
+        int states = 1;
+        for(String pattern : folded) {
+            if(pattern.isEmpty()) {
+                continue;
+            }
+            int state = 0;
+            for(int i = 0; i < pattern.length(); i++) {
+                int cell = state * columns + columnOf[pattern.charAt(i)];
+                if(trie[cell] == 0) {
+                    if((states + 1) * columns > trie.length) {
+                        trie = Arrays.copyOf(trie, trie.length * 2);
+                    }
+                    trie[cell] = states++;
+                }
+                state = trie[cell];
+            }
+            if(state >>> 6 >= accepting.length) {
+                accepting = Arrays.copyOf(accepting, Math.max(accepting.length * 2, (state >>> 6) + 1));
+            }
+            accepting[state >>> 6] |= 1L << state;
+        }
+        trie = Arrays.copyOf(trie, states * columns);
+        accepting = Arrays.copyOf(accepting, (states + 63) / 64);
+
+        // Breadth first, fill each missing edge with the edge its failure state takes, and mark every state whose
+        // failure chain reaches a pattern as accepting. A state's failure state is shallower, so its row is complete.
+        int[] fail = new int[states];
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        for(int c = 1; c < columns; c++) {
+            if(trie[c] != 0) {
+                queue[tail++] = trie[c];
+            }
+        }
+        while(head < tail) {
+            int state = queue[head++];
+            for(int c = 1; c < columns; c++) {
+                int cell = state * columns + c;
+                int child = trie[cell];
+                int failNext = trie[fail[state] * columns + c];
+                if(child == 0) {
+                    trie[cell] = failNext;
+                } else {
+                    fail[child] = failNext;
+                    if((accepting[failNext >>> 6] & (1L << failNext)) != 0) {
+                        accepting[child >>> 6] |= 1L << child;
+                    }
+                    queue[tail++] = child;
+                }
+            }
+        }
+
+        // Renumber the states breadth first. Scans spend nearly all their time in the shallow states, which then
+        // share a few cache lines at the start of the table instead of being spread across all of it.
+        int[] renumbered = new int[states];
+        for(int k = 0; k < tail; k++) {
+            renumbered[queue[k]] = k + 1;
+        }
+        next = new int[trie.length];
+        matching = new long[accepting.length];
+        for(int state = 0; state < states; state++) {
+            int row = renumbered[state] * columns;
+            for(int c = 0; c < columns; c++) {
+                next[row + c] = renumbered[trie[state * columns + c]];
+            }
+            if((accepting[state >>> 6] & (1L << state)) != 0) {
+                matching[renumbered[state] >>> 6] |= 1L << renumbered[state];
+            }
+        }
+    }
+
+    /**
+     * Check whether a string contains any forbidden substring, ignoring case and spaces.
+     *
+     * @param s The string to check
+     * @return  True if the string contains a forbidden substring, false otherwise.
+     */
+    boolean matches(CharSequence s) { // tested
+        int state = 0;
+        for(int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if(c == ' ') {
+                continue;
+            }
+            c = fold(c);
+            state = next[state * columns + (c < columnOf.length ? columnOf[c] : 0)];
+            if(isMatching(state)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of states
+     */
+    int stateCount() {
+        return next.length / columns;
+    }
+
+    /**
+     * @return the approximate number of bytes held by the automaton's arrays
+     */
+    long memoryBytes() {
+        return 2L * columnOf.length + 4L * next.length + 8L * matching.length;
+    }
+
+    private boolean isMatching(int state) {
+        return (matching[state >>> 6] & (1L << state)) != 0;
+    }
+
+    /**
+     * Lower-case a pattern and drop its spaces, exactly as matches() treats the strings it scans.
+     */
+    private static String fold(String pattern) {
+        StringBuilder folded = new StringBuilder(pattern.length());
+        for(int i = 0; i < pattern.length(); i++) {
+            if(pattern.charAt(i) != ' ') {
+                folded.append(fold(pattern.charAt(i)));
+            }
+        }
+        return folded.toString();
+    }
+
+    private static char fold(char c) {
+        if(c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+}
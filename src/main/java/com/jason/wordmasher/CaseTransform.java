@@ -0,0 +1,137 @@
+package com.jason.wordmasher;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * The case changes of App.addStandardCapitalization and App.addWeirdCapitalization, done without the default locale
+ * (String.toLowerCase() turns "I" into a dotless i under a Turkish locale) and without intermediate Strings.
+ *
+ * A word is checked for non-ASCII characters in one pass. An ASCII word, which is every word of english_words.txt, is
+ * mapped through 128-entry tables into a byte[] that the result String is made from (Strings keep ASCII text as bytes,
+ * so the bytes are copied, not decoded). Any other word takes a slower path, a code point at a time, with Locale.ROOT.
+ */
+final class CaseTransform {
+
+    private static final int ASCII = 128;
+    private static final byte[] LOWER = new byte[ASCII];
+    private static final byte[] UPPER = new byte[ASCII];
+
+    static {
+        for(int c = 0; c < ASCII; c++) {
+            LOWER[c] = (byte) (c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c);
+            UPPER[c] = (byte) (c >= 'a' && c <= 'z' ? c - ('a' - 'A') : c);
+        }
+    }
+
+    private CaseTransform() {
+    }
+
+    /**
+     * @return whether every character of a word is ASCII
+     */
+    static boolean isAscii(String word) { // tested
+        for(int i = 0; i < word.length(); i++) {
+            if(word.charAt(i) >= ASCII) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lowercase a word, e.g. "EcLiPSE" --> "eclipse".
+     *
+     * @param word The word
+     * @return     The lowercased word (the word itself if it has nothing to lowercase)
+     */
+    static String toLowerCase(String word) { // tested
+        return map(word, false);
+    }
+
+    /**
+     * Uppercase the first letter of a word and lowercase the rest, e.g. "eCLIPSE" --> "Eclipse".
+     *
+     * @param word The word (not empty)
+     * @return     The capitalized word (the word itself if it is already capitalized)
+     */
+    static String capitalize(String word) { // tested
+        return map(word, true);
+    }
+
+    /**
+     * Lowercase a word, uppercasing its first character if asked to. The first pass finds the first character that
+     * changes, so a word with nothing to change is returned as is; a non-ASCII character sends the whole word to
+     * mapSlowly.
+     */
+    private static String map(String word, boolean capitalizeFirst) {
+        int length = word.length();
+        int upperBefore = capitalizeFirst ? 1 : 0;
+        int i = 0;
+        for(; i < length; i++) {
+            char c = word.charAt(i);
+            if(c >= ASCII) {
+                return mapSlowly(word, capitalizeFirst);
+            }
+            if((i < upperBefore ? UPPER[c] : LOWER[c]) != c) {
+                break;
+            }
+        }
+        if(i == length) {
+            return word;
+        }
+        byte[] bytes = new byte[length];
+        for(int k = 0; k < i; k++) {
+            bytes[k] = (byte) word.charAt(k);
+        }
+        for(; i < length; i++) {
+            char c = word.charAt(i);
+            if(c >= ASCII) {
+                return mapSlowly(word, capitalizeFirst);
+            }
+            bytes[i] = i < upperBefore ? UPPER[c] : LOWER[c];
+        }
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * map for words that are not all ASCII: a code point at a time, with Locale.ROOT.
+     */
+    private static String mapSlowly(String word, boolean capitalizeFirst) {
+        if(!capitalizeFirst) {
+            return word.toLowerCase(Locale.ROOT);
+        }
+        int first = Character.charCount(word.codePointAt(0));
+        return word.substring(0, first).toUpperCase(Locale.ROOT) + word.substring(first).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Lowercase a word, then uppercase each character with a 1 in n chance, e.g. "eclipse" --> "ecLipsE". Makes one
+     * draw (random.nextInt(n)) per character of an ASCII word, as App.oneInNChance would, or per code point of the
+     * lowercased word otherwise.
+     *
+     * @param word   The word
+     * @param random The source of randomness
+     * @param n      The chance, 1 in n, of uppercasing each character
+     * @return       The transformed word
+     */
+    static String randomCase(String word, Random random, int n) { // tested
+        if(!isAscii(word)) {
+            String lower = word.toLowerCase(Locale.ROOT);
+            StringBuilder builder = new StringBuilder(lower.length());
+            for(int i = 0; i < lower.length(); ) {
+                int codePoint = lower.codePointAt(i);
+                builder.appendCodePoint(random.nextInt(n) == 0 ? Character.toUpperCase(codePoint) : codePoint);
+                i += Character.charCount(codePoint);
+            }
+            return builder.toString();
+        }
+        byte[] bytes = new byte[word.length()];
+        for(int i = 0; i < bytes.length; i++) {
+            char c = word.charAt(i);
+            bytes[i] = random.nextInt(n) == 0 ? UPPER[c] : LOWER[c];
+        }
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,77 @@
+package com.jason.wordmasher;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads lines from a channel (e.g. stdin) into a list of strings, the way App.readFileIntoListOfStrings reads a file.
+ *
+ * The channel is read in large chunks into one direct buffer, and lines are split off as each chunk arrives, so a
+ * dictionary piped in from another program is parsed while it is still being written and is never held twice. Lines
+ * end at "\n", "\r\n" or "\r", and each line is decoded with the default charset (like FileReader). Reading stops at
+ * the end of the stream or at the first blank line, whichever comes first.
+ */
+final class ChannelLineReader {
+
+    static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private ChannelLineReader() {
+    }
+
+    /**
+     * Read lines from a channel until the end of the stream or the first blank line. Does not close the channel.
+     *
+     * @param channel    The channel to read
+     * @param bufferSize The size of the direct read buffer
+     * @return           The lines read, without line endings
+     */
+    static List<String> readLines(ReadableByteChannel channel, int bufferSize) throws IOException { // tested
+        if(channel == null || bufferSize < 1) {
+            throw new IllegalStateException("Error: ChannelLineReader received an illegal argument.");
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        List<String> lines = new ArrayList<>();
+        byte[] line = new byte[64];
+        int length = 0;
+        boolean afterCarriageReturn = false;
+        while(channel.read(buffer) != -1) {
+            buffer.flip();
+            while(buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if(b == '\n' || b == '\r') {
+                    // The "\n" of a "\r\n" ends nothing; the "\r" already ended the line.
+                    if(b == '\n' && afterCarriageReturn) {
+                        afterCarriageReturn = false;
+                        continue;
+                    }
+                    afterCarriageReturn = b == '\r';
+                    String s = new String(line, 0, length, Charset.defaultCharset());
+                    if(StringUtils.isBlank(s)) {
+                        return lines;
+                    }
+                    lines.add(s);
+                    length = 0;
+                } else {
+                    afterCarriageReturn = false;
+                    if(length == line.length) {
+                        line = Arrays.copyOf(line, length * 2);
+                    }
+                    line[length++] = b;
+                }
+            }
+            buffer.clear();
+        }
+        String last = new String(line, 0, length, Charset.defaultCharset());
+        if(!StringUtils.isBlank(last)) {
+            lines.add(last);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,146 @@
+package com.jason.wordmasher;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Writes frankenwords, one per line, to a channel (e.g. stdout) through one large direct buffer.
+ *
+ * Lines are encoded like MappedOutputWriter encodes them: ASCII byte for byte, anything else with the default
+ * charset, each followed by the platform line separator. The buffer is only written out when it is full or on
+ * flush, so a run makes a handful of system calls instead of one per line.
+ *
+ * The JVM ignores SIGPIPE, so when the reading end of a pipe goes away (e.g. "| head" has all it wants) the next
+ * write fails with an IOException instead of killing the process. The writer treats that as the end of the output:
+ * it logs once, stops writing, and from then on append returns false so the caller can stop making frankenwords.
+ * Not thread safe.
+ */
+final class ChannelOutputWriter implements Closeable {
+
+    static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(Charset.defaultCharset());
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private boolean open = true;
+
+    /**
+     * Create a new writer.
+     *
+     * @param channel    The channel to write to
+     * @param bufferSize The size of the direct write buffer
+     */
+    ChannelOutputWriter(WritableByteChannel channel, int bufferSize) throws IllegalStateException {
+        if(channel == null || bufferSize < 1) {
+            throw new IllegalStateException("Error: ChannelOutputWriter received an illegal argument.");
+        }
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Append a line.
+     *
+     * @param line The line to append (without a line separator)
+     * @return     True if the output is still open, false once the reader has gone away.
+     */
+    boolean append(String line) { // tested
+        int length = line.length();
+        boolean ascii = length + LINE_SEPARATOR.length <= buffer.capacity();
+        for(int i = 0; i < length && ascii; i++) {
+            ascii = line.charAt(i) < 0x80;
+        }
+        if(ascii) {
+            if(length + LINE_SEPARATOR.length > buffer.remaining()) {
+                flush();
+            }
+            if(open) {
+                for(int i = 0; i < length; i++) {
+                    buffer.put((byte) line.charAt(i));
+                }
+                buffer.put(LINE_SEPARATOR);
+            }
+        } else {
+            put(line.getBytes(Charset.defaultCharset()));
+            put(LINE_SEPARATOR);
+        }
+        return open;
+    }
+
+    /**
+     * Append a whole batch of lines straight from the arena, which already holds them with their line separators.
+     *
+     * @param arena The batch to append
+     * @return      True if the output is still open, false once the reader has gone away.
+     */
+    boolean append(CharArena arena) { // tested
+        put(arena.chars, 0, arena.size());
+        return open;
+    }
+
+    /**
+     * Write out everything buffered so far.
+     *
+     * @return True if the output is still open, false once the reader has gone away.
+     */
+    boolean flush() { // tested
+        PipelineEvents.OutputFlush event = new PipelineEvents.OutputFlush();
+        event.begin();
+        buffer.flip();
+        int bytes = buffer.remaining();
+        writeFully(buffer);
+        buffer.clear();
+        PipelineEvents.endFlush(event, "channel", bytes);
+        App.TRACE.record(TraceRing.Code.OUTPUT_FLUSHED, bytes, 0, 0);
+        return open;
+    }
+
+    /**
+     * @return true until a write fails
+     */
+    boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Flush the buffer. The channel is left open, since it belongs to the caller (and is usually stdout).
+     */
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private void put(byte[] bytes) {
+        put(bytes, 0, bytes.length);
+    }
+
+    private void put(byte[] bytes, int offset, int length) {
+        if(length > buffer.remaining()) {
+            flush();
+        }
+        if(!open) {
+            return;
+        }
+        if(length > buffer.capacity()) {
+            writeFully(ByteBuffer.wrap(bytes, offset, length));
+        } else {
+            buffer.put(bytes, offset, length);
+        }
+    }
+
+    private void writeFully(ByteBuffer bytes) {
+        try {
+            while(open && bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException e) {
+            open = false;
+            App.logEntry("ChannelOutputWriter stopped writing: the output was closed by its reader (" + e.getMessage()
+                    + ").");
+        }
+    }
+}
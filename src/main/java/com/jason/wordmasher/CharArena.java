@@ -0,0 +1,102 @@
+package com.jason.wordmasher;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A reusable batch of frankenwords, stored as columns instead of one String each (see ColumnarGenerator).
+ *
+ * The frankenwords are ASCII, so the arena holds one byte per character: all of them back to back in chars, each
+ * followed by the platform line separator, so chars[0] to chars[size() - 1] is exactly what goes into the output.
+ * The columns give each frankenword's offset and length (without the separator) and, if asked for, the eligible
+ * slots (see WordIndex.eligible) of the words it was mashed from: MAX_SOURCES per frankenword, -1 where unused.
+ *
+ * The arrays only grow, so after the first few batches generating into an arena allocates nothing. Not thread safe.
+ */
+final class CharArena {
+
+    static final int MAX_SOURCES = 3;
+    static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(Charset.defaultCharset());
+
+    byte[] chars = new byte[0];
+    int[] offsets = new int[0];
+    int[] lengths = new int[0];
+    int[] sources; // null unless tracked
+    private final boolean trackSources;
+    private int count = 0;
+    private int size = 0;
+
+    /**
+     * @param trackSources Whether to record the words each frankenword was mashed from
+     */
+    CharArena(boolean trackSources) {
+        this.trackSources = trackSources;
+        this.sources = trackSources ? new int[0] : null;
+    }
+
+    /**
+     * Empty the arena and make room for a batch. Called by the generator before it fills the arena.
+     *
+     * @param frankenwords The number of frankenwords in the batch
+     * @param bytes        An upper bound on the bytes they take, separators included
+     */
+    void reset(int frankenwords, int bytes) {
+        if(offsets.length < frankenwords) {
+            offsets = new int[frankenwords];
+            lengths = new int[frankenwords];
+            if(trackSources) {
+                sources = new int[frankenwords * MAX_SOURCES];
+            }
+        }
+        if(chars.length < bytes) {
+            chars = new byte[bytes];
+        }
+        count = 0;
+        size = 0;
+    }
+
+    /**
+     * Mark the batch as filled. Called by the generator once offsets, lengths and chars are written.
+     *
+     * @param frankenwords The number of frankenwords
+     * @param bytes        The number of bytes of chars used, separators included
+     */
+    void filled(int frankenwords, int bytes) {
+        count = frankenwords;
+        size = bytes;
+    }
+
+    /**
+     * @return whether source words are recorded
+     */
+    boolean tracksSources() {
+        return trackSources;
+    }
+
+    /**
+     * @return the number of frankenwords in the batch
+     */
+    int count() {
+        return count;
+    }
+
+    /**
+     * @return the number of bytes of chars in use, separators included
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Copy out one frankenword, for consumers that need a String.
+     *
+     * @param k The frankenword's position in the batch
+     * @return  The frankenword
+     */
+    String get(int k) throws IllegalStateException { // tested
+        if(k < 0 || k >= count) {
+            throw new IllegalStateException("Error: CharArena.get received an illegal index: " + k + ".");
+        }
+        return new String(chars, offsets[k], lengths[k], StandardCharsets.ISO_8859_1);
+    }
+}
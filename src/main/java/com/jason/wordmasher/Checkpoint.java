@@ -0,0 +1,110 @@
+package com.jason.wordmasher;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * The state needed to resume a generation run: the PRNG state, the used-word bitmap, the number of frankenwords
+ * produced so far, and the output file length at the time they were all flushed.
+ *
+ * Checkpoints are small and written atomically (write a temp file, then rename over the old checkpoint), so a run
+ * that dies mid-write leaves the previous checkpoint intact.
+ */
+final class Checkpoint {
+
+    private static final int MAGIC = 0x574d4350; // "WMCP"
+    private static final int VERSION = 1;
+
+    final long dictionaryFingerprint;
+    final int total;
+    final int produced;
+    final long outputOffset;
+    final long prngState;
+    final boolean spaces;
+    final boolean specialCharacters;
+    final long[] usedBits;
+
+    /**
+     * Create a new checkpoint.
+     *
+     * @param dictionaryFingerprint WordIndex.fingerprint of the dictionary the used bits refer to
+     * @param total                 The number of frankenwords the run was asked for
+     * @param produced              The number of frankenwords written so far
+     * @param outputOffset          The output file length after the last written frankenword
+     * @param prngState             The PRNG state after the last written frankenword
+     * @param spaces                Whether the run adds spaces
+     * @param specialCharacters     Whether the run adds special characters
+     * @param usedBits              The used-word bitmap (see BitSet.toLongArray)
+     */
+    Checkpoint(long dictionaryFingerprint, int total, int produced, long outputOffset, long prngState,
+               boolean spaces, boolean specialCharacters, long[] usedBits) {
+        this.dictionaryFingerprint = dictionaryFingerprint;
+        this.total = total;
+        this.produced = produced;
+        this.outputOffset = outputOffset;
+        this.prngState = prngState;
+        this.spaces = spaces;
+        this.specialCharacters = specialCharacters;
+        this.usedBits = usedBits;
+    }
+
+    /**
+     * Write a checkpoint to a file atomically.
+     *
+     * @param file The checkpoint file (replaced if it exists)
+     */
+    void write(File file) throws IllegalStateException { // tested
+        File temp = new File(file.getAbsoluteFile().getParentFile(), file.getName() + ".tmp");
+        try {
+            try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(dictionaryFingerprint);
+                out.writeInt(total);
+                out.writeInt(produced);
+                out.writeLong(outputOffset);
+                out.writeLong(prngState);
+                out.writeBoolean(spaces);
+                out.writeBoolean(specialCharacters);
+                out.writeInt(usedBits.length);
+                for(long bits : usedBits) {
+                    out.writeLong(bits);
+                }
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error: Checkpoint.write threw an IO exception: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Read a checkpoint from a file.
+     *
+     * @param file The checkpoint file
+     * @return     The checkpoint
+     */
+    static Checkpoint read(File file) throws IllegalStateException { // tested
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if(in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IllegalStateException("Error: " + file.getName() + " is not a WordMasher checkpoint.");
+            }
+            long dictionaryFingerprint = in.readLong();
+            int total = in.readInt();
+            int produced = in.readInt();
+            long outputOffset = in.readLong();
+            long prngState = in.readLong();
+            boolean spaces = in.readBoolean();
+            boolean specialCharacters = in.readBoolean();
+            long[] usedBits = new long[in.readInt()];
+            for(int i = 0; i < usedBits.length; i++) {
+                usedBits[i] = in.readLong();
+            }
+            return new Checkpoint(dictionaryFingerprint, total, produced, outputOffset, prngState, spaces,
+                    specialCharacters, usedBits);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error: Checkpoint.read threw an IO exception: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.jason.wordmasher;
+
+import java.util.Random;
+
+/**
+ * Makes frankenwords a batch at a time into a CharArena, one stage at a time over the whole batch, instead of one
+ * String (and a handful of intermediate Strings) per frankenword (see App.COLUMNAR_ARG).
+ *
+ * The eligible words of the snapshot are packed once into a single byte[]. A batch then goes through four tight
+ * loops: claim the words of every frankenword; mash them into a work buffer; capitalize and add special characters
+ * to the whole buffer at once (see BatchDecorator); and copy the batch into the arena, adding spaces and line
+ * separators on the way. The chances are those of App.makeFrankenword (except as noted in BatchDecorator), but the
+ * draws are made in a different order, so this is only used for unseeded runs.
+ *
+ * Words are claimed through a session, so they never repeat within it. A generator belongs to one dictionary snapshot
+ * and can serve any number of sessions, one batch at a time. Only works on dictionaries whose eligible words and
+ * special characters are ASCII (see supports). Not thread safe; use one generator per thread.
+ */
+final class ColumnarGenerator {
+
+    static final int DEFAULT_BATCH_SIZE = 4096;
+
+    // The longest frankenword: three whole eligible words, plus two spaces and a line separator.
+    private static final int MAX_MASHED_LENGTH = CharArena.MAX_SOURCES * WordIndex.MAX_ELIGIBLE_LENGTH;
+    private static final int MAX_LINE_LENGTH = MAX_MASHED_LENGTH + 2 + CharArena.LINE_SEPARATOR.length;
+    private static final int MAX_CLAIM_TRIES = 1000; // as App.MAX_WHILE
+
+    final WordIndex index;
+    private final boolean addSpaces;
+    private final Random random;
+    private final BatchDecorator decorator;
+    private final byte[] packed;        // the eligible words, back to back
+    private final int[] packedOffsets;  // by eligible slot, with a final entry for the end
+    private byte[] work = new byte[0];
+    private int[] claimed = new int[0];
+
+    /**
+     * @param index                The dictionary snapshot (see supports)
+     * @param addSpaces            Whether spaces may be added
+     * @param addSpecialCharacters Whether special characters may be added
+     * @param random               The source of randomness
+     */
+    ColumnarGenerator(WordIndex index, boolean addSpaces, boolean addSpecialCharacters, Random random)
+            throws IllegalStateException {
+        if(index == null || random == null || !supports(index)) {
+            throw new IllegalStateException("Error: ColumnarGenerator received an illegal argument.");
+        }
+        this.index = index;
+        this.addSpaces = addSpaces;
+        this.random = random;
+        this.decorator = new BatchDecorator(addSpecialCharacters ? index.specialCharacters : null);
+        packedOffsets = new int[index.eligibleCount() + 1];
+        int total = 0;
+        for(int slot = 0; slot < index.eligibleCount(); slot++) {
+            packedOffsets[slot] = total;
+            total += index.words.get(index.eligible[slot]).length();
+        }
+        packedOffsets[index.eligibleCount()] = total;
+        packed = new byte[total];
+        for(int slot = 0; slot < index.eligibleCount(); slot++) {
+            String word = index.words.get(index.eligible[slot]);
+            for(int i = 0; i < word.length(); i++) {
+                packed[packedOffsets[slot] + i] = (byte) word.charAt(i);
+            }
+        }
+    }
+
+    /**
+     * @return whether a snapshot's eligible words and special characters are all ASCII, as a CharArena needs
+     */
+    static boolean supports(WordIndex index) { // tested
+        for(int position : index.eligible) {
+            if(!CaseTransform.isAscii(index.words.get(position))) {
+                return false;
+            }
+        }
+        return BatchDecorator.supports(index.specialCharacters);
+    }
+
+    /**
+     * Make a batch of frankenwords, replacing whatever the arena held.
+     *
+     * @param n       The number of frankenwords
+     * @param session The session whose words must not repeat
+     * @param out     The arena to fill
+     */
+    void generate(int n, SessionRegistry.Session session, CharArena out) throws IllegalStateException { // tested
+        if(n < 1 || session == null || out == null) {
+            throw new IllegalStateException("Error: ColumnarGenerator.generate received an illegal argument.");
+        }
+        PipelineEvents.Batch event = new PipelineEvents.Batch();
+        event.begin();
+        App.TRACE.record(TraceRing.Code.BATCH_STARTED, n, 0, 0);
+        out.reset(n, n * MAX_LINE_LENGTH);
+        if(claimed.length < n * CharArena.MAX_SOURCES) {
+            claimed = new int[n * CharArena.MAX_SOURCES];
+            work = new byte[n * MAX_MASHED_LENGTH];
+        }
+        claim(n, session);
+        if(out.tracksSources()) {
+            System.arraycopy(claimed, 0, out.sources, 0, n * CharArena.MAX_SOURCES);
+        }
+        mash(n, out.offsets, out.lengths);
+        decorator.decorate(work, out.offsets, out.lengths, n, random);
+        out.filled(n, separate(n, out));
+        PipelineEvents.endBatch(event, "columnar", n);
+    }
+
+    /**
+     * Stage 1: claim two or three unused words for each frankenword, as App.getWordsToMash does.
+     */
+    private void claim(int n, SessionRegistry.Session session) {
+        int eligible = index.eligibleCount();
+        for(int k = 0; k < n; k++) {
+            int base = k * CharArena.MAX_SOURCES;
+            int words = random.nextInt(2) == 0 ? 2 : 3;
+            int tries = 0;
+            for(int w = 0; w < CharArena.MAX_SOURCES; w++) {
+                if(w >= words) {
+                    claimed[base + w] = -1;
+                    continue;
+                }
+                int slot;
+                do {
+                    if(++tries > MAX_CLAIM_TRIES) {
+                        App.TRACE.record(TraceRing.Code.WORDS_DRAWN, words, tries, eligible);
+                        throw new IllegalStateException("Error: ColumnarGenerator could not claim " + words +
+                                " unused words in " + MAX_CLAIM_TRIES + " tries.");
+                    }
+                    slot = random.nextInt(eligible);
+                } while(!session.claimSlot(slot, index));
+                claimed[base + w] = slot;
+            }
+            PipelineEvents.retries("ColumnarGenerator.claim", words, tries);
+        }
+    }
+
+    /**
+     * Stage 2: mash each frankenword's words, in random order, into the work buffer, as App.mashWords and
+     * App.makeSubword do. Frankenwords shorter than 3 get a random letter, as in App.makeFrankenword.
+     */
+    private void mash(int n, int[] offsets, int[] lengths) {
+        int end = 0;
+        for(int k = 0; k < n; k++) {
+            int base = k * CharArena.MAX_SOURCES;
+            int words = claimed[base + 2] < 0 ? 2 : 3;
+            // Shuffle the words, as Collections.shuffle does.
+            for(int i = words; i > 1; i--) {
+                int j = random.nextInt(i);
+                int swap = claimed[base + i - 1];
+                claimed[base + i - 1] = claimed[base + j];
+                claimed[base + j] = swap;
+            }
+            offsets[k] = end;
+            for(int w = 0; w < words; w++) {
+                int slot = claimed[base + w];
+                int from = packedOffsets[slot];
+                int length = packedOffsets[slot + 1] - from;
+                int begin;
+                int last;
+                switch(1 + random.nextInt(3)) {
+                    case 1:
+                        begin = 0;
+                        last = random.nextInt(length);
+                        break;
+                    case 2:
+                        begin = random.nextInt(length);
+                        last = length - 1;
+                        break;
+                    default:
+                        begin = random.nextInt(length);
+                        last = begin + random.nextInt(length - begin);
+                }
+                System.arraycopy(packed, from + begin, work, end, last - begin + 1);
+                end += last - begin + 1;
+            }
+            if(end - offsets[k] < BatchDecorator.MIN_LENGTH) {
+                work[end++] = (byte) ('a' + random.nextInt(26));
+            }
+            lengths[k] = end - offsets[k];
+        }
+    }
+
+    /**
+     * Stage 4: copy the frankenwords from the work buffer into the arena, each followed by a line separator, maybe
+     * breaking it in two or three with spaces as App.breakInTwo and App.breakInThree do.
+     *
+     * @return the number of bytes written
+     */
+    private int separate(int n, CharArena out) {
+        byte[] chars = out.chars;
+        int[] offsets = out.offsets;
+        int[] lengths = out.lengths;
+        int end = 0;
+        for(int k = 0; k < n; k++) {
+            int from = offsets[k];
+            int length = lengths[k];
+            int first = length;  // where to put spaces, or length for none
+            int second = length;
+            if(addSpaces && random.nextInt(4) == 0) {
+                if(length > 6 && random.nextInt(2) != 0) {
+                    int split = 3 + random.nextInt(length - 6);
+                    first = 1 + random.nextInt(split - 1);
+                    second = split + 1 + random.nextInt(length - split - 1);
+                } else {
+                    first = 1 + random.nextInt(length - 1);
+                }
+            }
+            offsets[k] = end;
+            System.arraycopy(work, from, chars, end, first);
+            end += first;
+            if(first < length) {
+                chars[end++] = ' ';
+                System.arraycopy(work, from + first, chars, end, second - first);
+                end += second - first;
+                if(second < length) {
+                    chars[end++] = ' ';
+                    System.arraycopy(work, from + second, chars, end, length - second);
+                    end += length - second;
+                }
+            }
+            lengths[k] = end - offsets[k];
+            System.arraycopy(CharArena.LINE_SEPARATOR, 0, chars, end, CharArena.LINE_SEPARATOR.length);
+            end += CharArena.LINE_SEPARATOR.length;
+        }
+        return end;
+    }
+}
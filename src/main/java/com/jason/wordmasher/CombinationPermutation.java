@@ -0,0 +1,154 @@
+package com.jason.wordmasher;
+
+/**
+ * Maps output index i straight to a distinct combination of 2 or 3 eligible words, in a pseudorandom order, with no
+ * state beyond a key.
+ *
+ * Even outputs use pairs and odd outputs use triples, which keeps the 50 / 50 split of App.makeFrankenwords.
+ * Within each half, i / 2 is run through a keyed Feistel permutation over the number of possible combinations
+ * (cycle-walking any value that falls outside it back in), and the result is unranked into a sorted combination of
+ * eligible slots with the combinatorial number system. A permutation never maps two inputs to the same output, so no
+ * two outputs share the same set of words, and any range of i can be made independently on any core or process.
+ */
+final class CombinationPermutation {
+
+    private static final int ROUNDS = 6;
+
+    private final int eligibleCount;
+    private final Feistel pairs;
+    private final Feistel triples;
+
+    /**
+     * Create a new permutation.
+     *
+     * @param eligibleCount The number of eligible words
+     * @param key           The permutation key (e.g. the seed of the run)
+     */
+    CombinationPermutation(int eligibleCount, long key) throws IllegalStateException {
+        if(eligibleCount < 3) {
+            throw new IllegalStateException("Error: CombinationPermutation needs at least 3 eligible words.");
+        }
+        this.eligibleCount = eligibleCount;
+        try {
+            pairs = new Feistel(choose(eligibleCount, 2), Prng.mix(key));
+            triples = new Feistel(choose(eligibleCount, 3), Prng.mix(~key));
+        } catch (ArithmeticException e) {
+            throw new IllegalStateException("Error: CombinationPermutation cannot count the combinations of "
+                    + eligibleCount + " eligible words in a long.");
+        }
+    }
+
+    /**
+     * @return the number of outputs that can be made before a combination would repeat
+     */
+    long capacity() {
+        return Math.min(pairs.domain, triples.domain) * 2;
+    }
+
+    /**
+     * Get the eligible slots for output i, in ascending order.
+     *
+     * @param i The output index
+     * @return  2 eligible slots for even i, 3 for odd i
+     */
+    int[] slotsFor(long i) throws IllegalStateException { // tested
+        if(i < 0 || i >= capacity()) {
+            throw new IllegalStateException("Error: CombinationPermutation output index out of range: " + i);
+        }
+        if(i % 2 == 0) {
+            return unrank(pairs.permute(i / 2), 2);
+        }
+        return unrank(triples.permute(i / 2), 3);
+    }
+
+    /**
+     * Unrank a combination with the combinatorial number system: rank r maps to the unique c_k > ... > c_1 with
+     * r = C(c_k, k) + ... + C(c_1, 1).
+     *
+     * @param rank The rank, in [0, C(eligibleCount, k))
+     * @param k    The size of the combination
+     * @return     The combination, in ascending order
+     */
+    int[] unrank(long rank, int k) { // tested
+        int[] combination = new int[k];
+        int upper = eligibleCount;
+        for(int size = k; size >= 1; size--) {
+            // Largest c < upper with C(c, size) <= rank.
+            int lo = size - 1;
+            int hi = upper - 1;
+            while(lo < hi) {
+                int mid = (int) (((long) lo + hi + 1) >>> 1);
+                if(choose(mid, size) <= rank) {
+                    lo = mid;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            combination[size - 1] = lo;
+            rank -= choose(lo, size);
+            upper = lo;
+        }
+        return combination;
+    }
+
+    /**
+     * @return n choose k for k in {1, 2, 3}
+     */
+    static long choose(long n, int k) throws ArithmeticException {
+        if(n < k) {
+            return 0;
+        }
+        switch(k) {
+            case(1):
+                return n;
+            case(2):
+                return Math.multiplyExact(n, n - 1) / 2;
+            default:
+                return Math.multiplyExact(Math.multiplyExact(n, n - 1) / 2, n - 2) / 3;
+        }
+    }
+
+    /**
+     * A keyed, balanced Feistel network over the smallest even number of bits that covers the domain, with
+     * cycle-walking to restrict it to [0, domain).
+     */
+    static final class Feistel {
+        final long domain;
+        private final int halfBits;
+        private final long halfMask;
+        private final long[] roundKeys = new long[ROUNDS];
+
+        Feistel(long domain, long key) {
+            this.domain = domain;
+            int bits = Math.max(2, 64 - Long.numberOfLeadingZeros(Math.max(1, domain - 1)));
+            halfBits = (bits + 1) / 2;
+            halfMask = (1L << halfBits) - 1;
+            Prng prng = new Prng(key);
+            for(int r = 0; r < ROUNDS; r++) {
+                roundKeys[r] = prng.nextLong();
+            }
+        }
+
+        /**
+         * @param x A value in [0, domain)
+         * @return  Its image under the permutation, also in [0, domain)
+         */
+        long permute(long x) {
+            do {
+                x = encrypt(x);
+            } while(x >= domain);
+            return x;
+        }
+
+        private long encrypt(long x) {
+            long left = x >>> halfBits;
+            long right = x & halfMask;
+            for(long roundKey : roundKeys) {
+                long next = left ^ (Prng.mix(right ^ roundKey) & halfMask);
+                left = right;
+                right = next;
+            }
+            return (left << halfBits) | right;
+        }
+    }
+}
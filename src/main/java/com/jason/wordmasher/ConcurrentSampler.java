@@ -0,0 +1,150 @@
+package com.jason.wordmasher;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hands out eligible word slots to several threads at once without ever handing out the same slot twice, and
+ * without a lock anywhere on the claim path.
+ *
+ * The eligible slots are Fisher-Yates shuffled once up front and split into one contiguous shard per thread. Each
+ * shard is described by a packed long cursor (low end in the high 32 bits, high end in the low 32 bits). A thread
+ * claims from the low end of its own shard with a single CAS. When its shard runs dry, it steals the upper half of
+ * a neighbour's remaining range with a CAS on the neighbour's cursor and carries on from there. Owner and thieves
+ * always CAS the same long, so a slot can never be taken by both.
+ */
+final class ConcurrentSampler {
+
+    private final int[] slots;
+    private final AtomicLongArray cursors;
+
+    /**
+     * Create a new sampler over all eligible slots of a dictionary snapshot.
+     *
+     * @param index  The dictionary snapshot
+     * @param shards The number of shards (normally one per thread)
+     * @param random The PRNG to shuffle with
+     */
+    ConcurrentSampler(WordIndex index, int shards, Random random) throws IllegalStateException {
+        if(index == null || shards < 1 || random == null) {
+            throw new IllegalStateException("Error: ConcurrentSampler received an illegal argument.");
+        }
+        int count = index.eligibleCount();
+        slots = shuffledSlots(count, random);
+        cursors = new AtomicLongArray(shards);
+        for(int shard = 0; shard < shards; shard++) {
+            int lo = (int) ((long) count * shard / shards);
+            int hi = (int) ((long) count * (shard + 1) / shards);
+            cursors.set(shard, pack(lo, hi));
+        }
+    }
+
+    /**
+     * Fisher-Yates shuffle the slots [0, count).
+     *
+     * @param count  The number of slots
+     * @param random The PRNG to shuffle with
+     * @return       The shuffled slots
+     */
+    static int[] shuffledSlots(int count, Random random) { // tested
+        int[] slots = new int[count];
+        for(int i = 0; i < count; i++) {
+            slots[i] = i;
+        }
+        for(int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = slots[i];
+            slots[i] = slots[j];
+            slots[j] = swap;
+        }
+        return slots;
+    }
+
+    /**
+     * @return the number of shards
+     */
+    int shards() {
+        return cursors.length();
+    }
+
+    /**
+     * Claim eligible slots for the calling thread, stealing from other shards when its own shard runs dry.
+     *
+     * @param shard The calling thread's shard
+     * @param out   Filled with the claimed slots (its length is the number of slots to claim)
+     */
+    void claim(int shard, int[] out) throws IllegalStateException {
+        int filled = 0;
+        while(filled < out.length) {
+            long cursor = cursors.get(shard);
+            int lo = low(cursor);
+            int hi = high(cursor);
+            if(lo >= hi) {
+                if(!steal(shard)) {
+                    String errorMessage = "Error: ConcurrentSampler ran out of unused words.";
+                    App.logEntry(errorMessage);
+                    throw new IllegalStateException(errorMessage);
+                }
+                continue;
+            }
+            int take = Math.min(out.length - filled, hi - lo);
+            if(cursors.compareAndSet(shard, cursor, pack(lo + take, hi))) {
+                System.arraycopy(slots, lo, out, filled, take);
+                filled += take;
+            }
+        }
+    }
+
+    /**
+     * @return the number of slots not yet claimed (a snapshot; may be stale by the time it returns)
+     */
+    int remaining() {
+        int remaining = 0;
+        for(int shard = 0; shard < cursors.length(); shard++) {
+            long cursor = cursors.get(shard);
+            remaining += Math.max(0, high(cursor) - low(cursor));
+        }
+        return remaining;
+    }
+
+    /**
+     * Steal the upper half of the first non-empty shard after the thief's own, and install it as the thief's shard.
+     * Only the owner ever grows a shard, and only while it is empty, so nobody else touches it in the meantime.
+     *
+     * @param thief The shard of the stealing thread (must be empty)
+     * @return      True if a range was stolen, false if every shard is empty.
+     */
+    private boolean steal(int thief) {
+        int shards = cursors.length();
+        for(int offset = 1; offset < shards; offset++) {
+            int victim = (thief + offset) % shards;
+            while(true) {
+                long cursor = cursors.get(victim);
+                int lo = low(cursor);
+                int hi = high(cursor);
+                int remaining = hi - lo;
+                if(remaining <= 0) {
+                    break;
+                }
+                int take = (remaining + 1) / 2;
+                if(cursors.compareAndSet(victim, cursor, pack(lo, hi - take))) {
+                    cursors.set(thief, pack(hi - take, hi));
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static long pack(int lo, int hi) {
+        return ((long) lo << 32) | (hi & 0xffffffffL);
+    }
+
+    private static int low(long cursor) {
+        return (int) (cursor >>> 32);
+    }
+
+    private static int high(long cursor) {
+        return (int) cursor;
+    }
+}
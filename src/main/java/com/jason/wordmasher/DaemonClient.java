@@ -0,0 +1,147 @@
+package com.jason.wordmasher;
+
+import java.io.*;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A thin client for FrankenwordDaemon. Forwards App argument lists over the daemon's Unix-domain socket and streams
+ * the frankenwords back.
+ *
+ * Requests may be pipelined: send as many as needed, then receive their results in the order they were sent. (The
+ * daemon answers a connection's requests in order, and requests are small, so a client only has to stop sending to
+ * read once it has thousands of requests in flight.) Not thread safe.
+ */
+final class DaemonClient implements Closeable {
+
+    static final String SEPARATOR_ARG = "--";
+
+    private final SocketChannel channel;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final String workingDirectory = Paths.get("").toAbsolutePath().toString();
+    private int nextRequestId = 0;
+
+    /**
+     * Connect to a daemon.
+     *
+     * @param socketPath The path of the daemon's socket file
+     */
+    DaemonClient(Path socketPath) throws IOException {
+        channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath));
+        in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+    }
+
+    /**
+     * Client entry point. Prints the frankenwords to stdout, and any error to stderr.
+     *
+     * @param args Optionally FrankenwordDaemon.SOCKET_ARG and the socket path, then the App argument list. Several
+     *             argument lists separated by SEPARATOR_ARG are sent as pipelined requests.
+     */
+    public static void main(String[] args) {
+        App.startLog();
+        int first = 0;
+        Path socketPath = FrankenwordDaemon.DEFAULT_SOCKET;
+        if(args.length >= 2 && args[0].equals(FrankenwordDaemon.SOCKET_ARG)) {
+            socketPath = Paths.get(args[1]);
+            first = 2;
+        }
+        List<List<String>> requests = new ArrayList<>();
+        requests.add(new ArrayList<>());
+        for(int i = first; i < args.length; i++) {
+            if(args[i].equals(SEPARATOR_ARG)) {
+                requests.add(new ArrayList<>());
+            } else {
+                requests.get(requests.size() - 1).add(args[i]);
+            }
+        }
+        try(DaemonClient client = new DaemonClient(socketPath);
+            ChannelOutputWriter stdout = new ChannelOutputWriter(Channels.newChannel(
+                    new FileOutputStream(FileDescriptor.out)), ChannelOutputWriter.DEFAULT_BUFFER_SIZE)) {
+            List<Integer> ids = new ArrayList<>();
+            for(List<String> request : requests) {
+                ids.add(client.send(request));
+            }
+            for(int id : ids) {
+                client.receive(id, stdout::append);
+            }
+        } catch (IOException e) {
+            System.err.println("Error: no WordMasher daemon is listening at " + socketPath + " (" + e.getMessage()
+                    + "). Start one with FrankenwordDaemon.");
+            System.exit(1);
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Send a request without waiting for its results.
+     *
+     * @param args The App argument list
+     * @return     The request id, to pass to receive
+     */
+    int send(List<String> args) throws IOException, IllegalStateException { // tested
+        if(args.size() > 255) {
+            throw new IllegalStateException("Error: DaemonClient can send at most 255 arguments.");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream request = new DataOutputStream(bytes);
+        int id = nextRequestId++;
+        request.writeByte(FrankenwordDaemon.REQUEST);
+        request.writeInt(id);
+        request.writeUTF(workingDirectory);
+        request.writeByte(args.size());
+        for(String arg : args) {
+            request.writeUTF(arg);
+        }
+        FrankenwordDaemon.writeFrame(bytes, out);
+        out.flush();
+        return id;
+    }
+
+    /**
+     * Receive the results of the oldest request not yet received.
+     *
+     * @param id   The id returned by send for that request
+     * @param sink Receives each frankenword as it arrives
+     */
+    void receive(int id, Consumer<String> sink) throws IOException, IllegalStateException { // tested
+        while(true) {
+            int length = in.readInt();
+            if(length < 1 || length > FrankenwordDaemon.MAX_FRAME_BYTES) {
+                throw new IOException("illegal frame length " + length);
+            }
+            byte[] frame = new byte[length];
+            in.readFully(frame);
+            DataInputStream response = new DataInputStream(new ByteArrayInputStream(frame));
+            byte type = response.readByte();
+            if(response.readInt() != id) {
+                throw new IOException("the daemon answered requests out of order");
+            }
+            if(type == FrankenwordDaemon.RESULT) {
+                for(int k = response.readUnsignedShort(); k > 0; k--) {
+                    sink.accept(response.readUTF());
+                }
+            } else if(type == FrankenwordDaemon.DONE) {
+                return;
+            } else if(type == FrankenwordDaemon.FAILED) {
+                throw new IllegalStateException(response.readUTF());
+            } else {
+                throw new IOException("unknown message from the daemon: " + type);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
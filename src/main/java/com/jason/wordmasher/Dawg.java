@@ -0,0 +1,226 @@
+package com.jason.wordmasher;
+
+import java.util.*;
+
+/**
+ * A minimal acyclic automaton (DAWG) accepting exactly the words of a dictionary, case-insensitively. Used to reject
+ * frankenwords that come out as real words.
+ *
+ * Built with the incremental algorithm of Daciuk et al. for sorted input, which shares common suffixes as well as
+ * common prefixes, so the automaton is much smaller than a trie (and far smaller than a HashSet of the words). Once
+ * built, it is frozen into flat arrays: state s owns the edges [firstEdge[s], firstEdge[s + 1]), sorted by label, and
+ * accepting states are marked in a bitmap. A lookup walks one edge per character with a binary search over that
+ * state's labels, and allocates nothing.
+ */
+final class Dawg {
+
+    private final int[] firstEdge;
+    private final char[] labels;
+    private final int[] targets;
+    private final long[] accepting;
+
+    /**
+     * Build the automaton for a list of words.
+     *
+     * @param words The words to accept (any case, any order, duplicates allowed)
+     */
+    Dawg(List<String> words) throws IllegalStateException {
+        if(words == null) {
+            throw new IllegalStateException("Error: Dawg received a null list of words.");
+        }
+        String[] sorted = new String[words.size()];
+        for(int i = 0; i < sorted.length; i++) {
+            sorted[i] = lowerCase(words.get(i));
+        }
+        Arrays.sort(sorted);
+
+        Node root = new Node();
+        Map<Node, Node> register = new HashMap<>();
+        String previous = "";
+        for(String word : sorted) {
+            if(word.equals(previous)) {
+                continue;
+            }
+            int prefix = 0;
+            Node last = root;
+            while(prefix < word.length() && prefix < previous.length()
+                    && word.charAt(prefix) == previous.charAt(prefix)) {
+                last = last.lastChild();
+                prefix++;
+            }
+            if(last.size > 0) {
+                replaceOrRegister(last, register);
+            }
+            for(int i = prefix; i < word.length(); i++) {
+                Node next = new Node();
+                last.add(word.charAt(i), next);
+                last = next;
+            }
+            last.accepting = true;
+            previous = word;
+        }
+        if(root.size > 0) {
+            replaceOrRegister(root, register);
+        }
+
+        // Freeze: number the states breadth first from the root, then lay their edges out in that order.
+        Map<Node, Integer> ids = new IdentityHashMap<>();
+        List<Node> states = new ArrayList<>();
+        ids.put(root, 0);
+        states.add(root);
+        int edges = 0;
+        for(int s = 0; s < states.size(); s++) {
+            Node state = states.get(s);
+            edges += state.size;
+            for(int e = 0; e < state.size; e++) {
+                if(!ids.containsKey(state.targets[e])) {
+                    ids.put(state.targets[e], states.size());
+                    states.add(state.targets[e]);
+                }
+            }
+        }
+        firstEdge = new int[states.size() + 1];
+        labels = new char[edges];
+        targets = new int[edges];
+        accepting = new long[(states.size() + 63) / 64];
+        int edge = 0;
+        for(int s = 0; s < states.size(); s++) {
+            Node state = states.get(s);
+            firstEdge[s] = edge;
+            if(state.accepting) {
+                accepting[s >>> 6] |= 1L << s;
+            }
+            for(int e = 0; e < state.size; e++) {
+                labels[edge] = state.labels[e];
+                targets[edge] = ids.get(state.targets[e]);
+                edge++;
+            }
+        }
+        firstEdge[states.size()] = edge;
+    }
+
+    /**
+     * Check whether a string is one of the dictionary's words, ignoring case.
+     *
+     * @param s The string to check
+     * @return  True if the string is a word, false otherwise.
+     */
+    boolean contains(CharSequence s) { // tested
+        int state = 0;
+        for(int i = 0; i < s.length(); i++) {
+            char c = Character.toLowerCase(s.charAt(i));
+            int lo = firstEdge[state];
+            int hi = firstEdge[state + 1] - 1;
+            int found = -1;
+            while(lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if(labels[mid] < c) {
+                    lo = mid + 1;
+                } else if(labels[mid] > c) {
+                    hi = mid - 1;
+                } else {
+                    found = mid;
+                    break;
+                }
+            }
+            if(found < 0) {
+                return false;
+            }
+            state = targets[found];
+        }
+        return (accepting[state >>> 6] & (1L << state)) != 0;
+    }
+
+    /**
+     * @return the number of states
+     */
+    int stateCount() {
+        return firstEdge.length - 1;
+    }
+
+    /**
+     * @return the approximate number of bytes held by the automaton's arrays
+     */
+    long memoryBytes() {
+        return 4L * firstEdge.length + 2L * labels.length + 4L * targets.length + 8L * accepting.length;
+    }
+
+    /**
+     * Lower-case a word character by character, exactly as contains() does, so both always agree.
+     */
+    private static String lowerCase(String word) {
+        char[] chars = word.toCharArray();
+        for(int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Minimize the most recently added path below a state: once a state's last child can no longer change, either
+     * replace it with an equivalent registered state or register it.
+     */
+    private static void replaceOrRegister(Node state, Map<Node, Node> register) {
+        Node child = state.lastChild();
+        if(child.size > 0) {
+            replaceOrRegister(child, register);
+        }
+        Node equivalent = register.get(child);
+        if(equivalent != null) {
+            state.targets[state.size - 1] = equivalent;
+        } else {
+            register.put(child, child);
+        }
+    }
+
+    /**
+     * A state under construction. Two registered states are equal if they agree on acceptance, labels, and (already
+     * minimized, so compared by identity) targets.
+     */
+    private static final class Node {
+        boolean accepting;
+        char[] labels = new char[2];
+        Node[] targets = new Node[2];
+        int size;
+
+        void add(char label, Node target) {
+            if(size == labels.length) {
+                labels = Arrays.copyOf(labels, size * 2);
+                targets = Arrays.copyOf(targets, size * 2);
+            }
+            labels[size] = label;
+            targets[size] = target;
+            size++;
+        }
+
+        Node lastChild() {
+            return targets[size - 1];
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof Node)) {
+                return false;
+            }
+            Node other = (Node) o;
+            if(accepting != other.accepting || size != other.size) {
+                return false;
+            }
+            for(int e = 0; e < size; e++) {
+                if(labels[e] != other.labels[e] || targets[e] != other.targets[e]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = accepting ? 1 : 0;
+            for(int e = 0; e < size; e++) {
+                hash = 31 * (31 * hash + labels[e]) + System.identityHashCode(targets[e]);
+            }
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.jason.wordmasher;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Watches the words file and special characters file for changes, and rebuilds the WordIndex on a background
+ * thread whenever one of them is modified.
+ *
+ * A rebuilt index is published with a single atomic reference swap. Generation never waits on a rebuild: readers
+ * take a snapshot from the reference and keep using it, and the old snapshot is released once no reader holds it.
+ * If a rebuild fails (e.g. the file is caught half-written), the error is logged and the old index stays in place.
+ */
+final class DictionaryWatcher implements Closeable {
+
+    // Editors often fire several events for one save. Wait this long for the dust to settle before rebuilding.
+    private static final long SETTLE_MILLIS = 100;
+
+    private final File wordsFile;
+    private final File specialCharactersFile;
+    private final AtomicReference<WordIndex> target;
+    private final Function<List<String>, WordFilter> filter;
+    private final WatchService watchService;
+    private final Set<Path> watchedFiles = new HashSet<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    /**
+     * Create a new watcher. Call start() to begin watching.
+     *
+     * @param wordsFile             The words file to watch
+     * @param specialCharactersFile The special characters file to watch (can be null)
+     * @param target                The reference to publish rebuilt indices to
+     */
+    DictionaryWatcher(File wordsFile, File specialCharactersFile, AtomicReference<WordIndex> target)
+            throws IllegalStateException {
+        this(wordsFile, specialCharactersFile, target, null);
+    }
+
+    /**
+     * Create a new watcher that reapplies an eligibility filter on every rebuild. Call start() to begin watching.
+     *
+     * @param wordsFile             The words file to watch
+     * @param specialCharactersFile The special characters file to watch (can be null)
+     * @param target                The reference to publish rebuilt indices to
+     * @param filter                Builds the extra eligibility filter for each rebuilt index (can be null)
+     */
+    DictionaryWatcher(File wordsFile, File specialCharactersFile, AtomicReference<WordIndex> target,
+                      Function<List<String>, WordFilter> filter) throws IllegalStateException {
+        if(wordsFile == null || target == null) {
+            throw new IllegalStateException("Error: DictionaryWatcher received an illegal argument.");
+        }
+        this.wordsFile = wordsFile;
+        this.specialCharactersFile = specialCharactersFile;
+        this.target = target;
+        this.filter = filter;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            register(wordsFile);
+            if(specialCharactersFile != null) {
+                register(specialCharactersFile);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Error: DictionaryWatcher was unable to watch the dictionary files: "
+                    + e.getMessage());
+        }
+        thread = new Thread(this::watch, "wordmasher-dictionary-watcher");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Start watching on a background daemon thread.
+     */
+    void start() {
+        thread.start();
+        App.logEntry("DictionaryWatcher started watching " + wordsFile.getName() + ".");
+    }
+
+    /**
+     * Stop watching. Does not block on an in-progress rebuild.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            App.logEntry("DictionaryWatcher was unable to close its watch service: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Build a new index from the current contents of the dictionary files, along with the lazy structures the run
+     * needs (see App.warmUp), so nothing is left for the generating threads to build once it is published.
+     *
+     * @return the new index
+     */
+    WordIndex rebuild() throws IllegalStateException {
+        WordIndex index = new WordIndex(App.readFileIntoListOfStrings(wordsFile),
+                App.readFileIntoCharArray(specialCharactersFile), filter);
+        App.warmUp(index);
+        return index;
+    }
+
+    /**
+     * Register the parent directory of a file with the watch service. (WatchService only watches directories.)
+     *
+     * @param file The file to watch
+     */
+    private void register(File file) throws IOException {
+        Path path = file.getAbsoluteFile().toPath().normalize();
+        path.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        watchedFiles.add(path);
+    }
+
+    /**
+     * Background loop: wait for events on the watched files, then rebuild and swap.
+     */
+    private void watch() {
+        while(running) {
+            try {
+                WatchKey key = watchService.take();
+                boolean changed = drain(key);
+
+                // Coalesce the burst of events a single save tends to produce.
+                WatchKey next;
+                while((next = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(next);
+                }
+                if(changed) {
+                    swap();
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drain the events of a watch key and reset it. Each event is resolved against the directory of its key, so a file
+     * that merely shares its name with a watched file in another directory does not count.
+     *
+     * @param key The key to drain
+     * @return    True if any of the events touched a watched file, false otherwise.
+     */
+    private boolean drain(WatchKey key) {
+        boolean changed = false;
+        Path directory = (Path) key.watchable();
+        for(WatchEvent<?> event : key.pollEvents()) {
+            Object context = event.context();
+            if(context instanceof Path && watchedFiles.contains(directory.resolve((Path) context))) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * Rebuild the index and publish it. Keeps the old index if the rebuild fails.
+     */
+    private void swap() {
+        try {
+            WordIndex index = rebuild();
+            target.set(index);
+            App.logEntry("DictionaryWatcher swapped in a new index with " + index.eligibleCount()
+                    + " eligible words.");
+        } catch (RuntimeException e) {
+            App.logEntry("DictionaryWatcher kept the old index; rebuild failed: " + e.getMessage());
+        }
+    }
+}
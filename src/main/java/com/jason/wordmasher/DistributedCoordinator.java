@@ -0,0 +1,448 @@
+package com.jason.wordmasher;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spreads a generation run over several worker processes on the same machine.
+ *
+ * The run is cut into tasks. Each task owns a disjoint range of output indices and a disjoint range of eligible
+ * word slots three times as long, so workers never need to ask anyone which words are still free: the no-reuse
+ * guarantee holds across the whole cluster by construction. Workers connect back over loopback TCP, take tasks one
+ * at a time, and stream the frankenwords of each task back as they are made.
+ *
+ * The slots are positions in the seed-shuffled order of App.makeSeededFrankenwords, so the run makes exactly what a
+ * -seed run with the same seed makes. Every task is fully determined by the seed and its ranges: if a worker dies or
+ * goes quiet partway through a task, the coordinator throws away that task's partial results, starts a replacement
+ * worker, and hands the same task to the next free worker, which makes exactly the same frankenwords.
+ *
+ * Each worker is launched with an id, which it sends back first thing. A worker that exits, or has not connected
+ * within CONNECT_TIMEOUT_MILLIS, before its id comes back is lost just like one that dies mid-task.
+ *
+ * A worker that fails on purpose is different: it reports FAILED (e.g. because the words file changed since the
+ * coordinator loaded it), and a replacement would only fail the same way. So the coordinator stops the run instead.
+ */
+final class DistributedCoordinator {
+
+    // Protocol: coordinator -> worker
+    static final byte CONFIG = 1;
+    static final byte TASK = 2;
+    static final byte SHUTDOWN = 3;
+
+    // Protocol: worker -> coordinator
+    static final byte HELLO = 10;
+    static final byte RESULT = 11;
+    static final byte DONE = 12;
+    static final byte FAILED = 13;
+    static final byte READY = 14;
+
+    private static final int TASKS_PER_WORKER = 4;
+    private static final int SOCKET_TIMEOUT_MILLIS = 60 * 1000;
+    private static final int CONNECT_TIMEOUT_MILLIS = 30 * 1000;
+    private static final int SHUTDOWN_GRACE_MILLIS = 1000;
+
+    /**
+     * Starts a worker that will connect back to the coordinator. Injectable for testing.
+     */
+    interface WorkerLauncher {
+        /**
+         * @param port The coordinator's port on the loopback address
+         * @param id   The id the worker must send back when it connects
+         * @return     A future that completes when the worker exits; cancelling it stops the worker
+         */
+        CompletableFuture<?> launch(int port, int id) throws IOException;
+    }
+
+    /**
+     * One launched worker. Whichever comes first of its id coming back, its exit, or its connect deadline settles it.
+     */
+    private static final class Launch {
+        final long connectBy = System.currentTimeMillis() + CONNECT_TIMEOUT_MILLIS;
+        final AtomicBoolean settled = new AtomicBoolean();
+        CompletableFuture<?> exit;
+
+        /**
+         * @return whether this call settled the launch
+         */
+        boolean settle() {
+            return settled.compareAndSet(false, true);
+        }
+    }
+
+    /**
+     * A contiguous slice of the run.
+     */
+    static final class Task {
+        final int id;
+        final long start;
+        final int count;
+        final int slotLo;
+        final int slotHi;
+
+        Task(int id, long start, int count, int slotLo, int slotHi) {
+            this.id = id;
+            this.start = start;
+            this.count = count;
+            this.slotLo = slotLo;
+            this.slotHi = slotHi;
+        }
+    }
+
+    private final WordIndex index;
+    private final File wordsFile;
+    private final File specialCharactersFile;
+    private final boolean addSpaces;
+    private final long seed;
+    private final int workers;
+    private final WorkerLauncher launcher;
+
+    /**
+     * Create a new coordinator.
+     *
+     * @param index                 The coordinator's own copy of the dictionary (workers must load the same one)
+     * @param wordsFile             The words file for the workers to load
+     * @param specialCharactersFile The special characters file for the workers to load (null if not requested)
+     * @param addSpaces             Whether spaces may be added
+     * @param seed                  The seed of the run
+     * @param workers               The number of workers
+     * @param launcher              Starts the workers
+     */
+    DistributedCoordinator(WordIndex index, File wordsFile, File specialCharactersFile, boolean addSpaces, long seed,
+                           int workers, WorkerLauncher launcher) throws IllegalStateException {
+        if(index == null || wordsFile == null || workers < 1 || launcher == null) {
+            throw new IllegalStateException("Error: DistributedCoordinator received an illegal argument.");
+        }
+        this.index = index;
+        this.wordsFile = wordsFile;
+        this.specialCharactersFile = specialCharactersFile;
+        this.addSpaces = addSpaces;
+        this.seed = seed;
+        this.workers = workers;
+        this.launcher = launcher;
+    }
+
+    /**
+     * A launcher that starts each worker as a separate JVM with the coordinator's own class path.
+     *
+     * @return the launcher
+     */
+    static WorkerLauncher processLauncher() {
+        return (port, id) -> {
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+            Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    DistributedWorker.class.getName(), Integer.toString(port), Integer.toString(id))
+                    .inheritIO()
+                    .start();
+            CompletableFuture<Process> exit = new CompletableFuture<>();
+            process.onExit().thenAccept(exit::complete);
+            exit.whenComplete((p, e) -> {
+                if(exit.isCancelled()) {
+                    process.destroy();
+                }
+            });
+            return exit;
+        };
+    }
+
+    /**
+     * Cut a run into tasks with disjoint output ranges and disjoint slot ranges.
+     *
+     * @param count         The number of frankenwords in the run
+     * @param eligibleCount The number of eligible words
+     * @param tasks         The number of tasks to cut the run into (fewer if the run is small)
+     * @return              The tasks
+     */
+    static List<Task> plan(int count, int eligibleCount, int tasks) throws IllegalStateException { // tested
+        if((long) count * App.MAX_WORDS_PER_FRANKENWORD > eligibleCount) {
+            throw new IllegalStateException("Error: DistributedCoordinator needs " + App.MAX_WORDS_PER_FRANKENWORD
+                    + " eligible words per frankenword, but the dictionary only has " + eligibleCount + ".");
+        }
+        tasks = Math.max(1, Math.min(tasks, count));
+        List<Task> plan = new ArrayList<>();
+        for(int t = 0; t < tasks; t++) {
+            int start = (int) ((long) count * t / tasks);
+            int end = (int) ((long) count * (t + 1) / tasks);
+            plan.add(new Task(t, start, end - start, start * App.MAX_WORDS_PER_FRANKENWORD,
+                    end * App.MAX_WORDS_PER_FRANKENWORD));
+        }
+        return plan;
+    }
+
+    /**
+     * Run the whole job and collect the results in output order.
+     *
+     * @param count The number of frankenwords to make
+     * @return      The frankenwords
+     */
+    List<String> run(int count) throws IllegalStateException {
+        List<Task> plan = plan(count, index.eligibleCount(), workers * TASKS_PER_WORKER);
+        ExecutorService handlers = Executors.newCachedThreadPool();
+
+        try(ServerSocket server = new ServerSocket(0, workers, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(SOCKET_TIMEOUT_MILLIS);
+            Run run = new Run(plan, count, server.getLocalPort());
+            for(int w = 0; w < workers; w++) {
+                run.launch();
+            }
+            handlers.execute(() -> {
+                while(!server.isClosed()) {
+                    try {
+                        Socket socket = server.accept();
+                        handlers.execute(() -> serve(socket, run));
+                    } catch (SocketTimeoutException e) {
+                        // keep waiting; a dead cluster is caught below
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+            try {
+                long deadline = System.currentTimeMillis() + (long) SOCKET_TIMEOUT_MILLIS * (plan.size() + 1);
+                while(!run.finished.await(100, TimeUnit.MILLISECONDS)) {
+                    if(run.failure != null) {
+                        throw new IllegalStateException("Error: DistributedCoordinator stopped the run: "
+                                + run.failure);
+                    }
+                    run.giveUpOnLateWorkers();
+                    if(run.alive.get() == 0 || System.currentTimeMillis() > deadline) {
+                        throw new IllegalStateException("Error: DistributedCoordinator gave up with "
+                                + run.finished.getCount() + " tasks unfinished (see log).");
+                    }
+                }
+                return new ArrayList<>(Arrays.asList(run.results));
+            } finally {
+                run.stopUnconnectedWorkers();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Error: DistributedCoordinator threw an IO exception: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Error: DistributedCoordinator was interrupted.");
+        } finally {
+            // Let every connected worker see that the run is over and be told to shut down, rather than hanging up
+            // on it mid-conversation.
+            handlers.shutdown();
+            try {
+                handlers.awaitTermination(SHUTDOWN_GRACE_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            handlers.shutdownNow();
+        }
+    }
+
+    /**
+     * The state of one run, shared by its connection handlers.
+     */
+    private final class Run {
+        final BlockingQueue<Task> pending;
+        final CountDownLatch finished;
+        final String[] results;
+        final AtomicInteger restartsLeft = new AtomicInteger(workers * 2);
+        final AtomicInteger alive = new AtomicInteger(workers);
+        final List<Launch> launches = new CopyOnWriteArrayList<>();
+        final int port;
+        volatile String failure;
+
+        Run(List<Task> plan, int count, int port) {
+            this.pending = new LinkedBlockingQueue<>(plan);
+            this.finished = new CountDownLatch(plan.size());
+            this.results = new String[count];
+            this.port = port;
+        }
+
+        /**
+         * Start a worker and watch for it exiting before it connects.
+         */
+        synchronized void launch() throws IOException {
+            Launch launch = new Launch();
+            launches.add(launch);
+            try {
+                launch.exit = launcher.launch(port, launches.size() - 1);
+            } catch (IOException e) {
+                launch.settle();
+                throw e;
+            }
+            launch.exit.whenComplete((result, e) -> {
+                if(launch.settle()) {
+                    lost(null, "worker exited before connecting");
+                }
+            });
+        }
+
+        /**
+         * @return whether the worker with this id was launched by this run and not yet given up on
+         */
+        boolean connect(int id) {
+            return id >= 0 && id < launches.size() && launches.get(id).settle();
+        }
+
+        /**
+         * Count workers that have not connected in time as lost, and stop them.
+         */
+        synchronized void giveUpOnLateWorkers() {
+            long now = System.currentTimeMillis();
+            for(Launch launch : launches) {
+                if(now > launch.connectBy && launch.settle()) {
+                    launch.exit.cancel(true);
+                    lost(null, "worker did not connect within " + CONNECT_TIMEOUT_MILLIS + " ms");
+                }
+            }
+        }
+
+        /**
+         * Stop workers launched as replacements that had not connected by the end of the run.
+         */
+        synchronized void stopUnconnectedWorkers() {
+            for(Launch launch : launches) {
+                if(launch.settle()) {
+                    launch.exit.cancel(true);
+                }
+            }
+        }
+
+        /**
+         * Stop the run because a worker reported a failure that a replacement would run into as well.
+         *
+         * @param reason What the worker reported
+         */
+        synchronized void fail(String reason) {
+            if(failure == null) {
+                failure = reason;
+                App.logEntry("DistributedCoordinator is stopping the run: " + reason);
+            }
+        }
+
+        /**
+         * Put a lost worker's task back on the queue and start a replacement, up to a limit. The accounting is done
+         * before anything is logged, so a failure to log cannot leave the run waiting on a worker that is gone.
+         *
+         * @param task   The task the worker was working on (null if none)
+         * @param reason Why the worker was lost
+         */
+        void lost(Task task, String reason) {
+            if(task != null) {
+                pending.add(task);
+            }
+            String outcome = "";
+            boolean replaced = false;
+            if(finished.getCount() > 0 && failure == null && restartsLeft.getAndDecrement() > 0) {
+                try {
+                    launch();
+                    replaced = true;
+                } catch (IOException e) {
+                    outcome = " (could not start a replacement worker: " + e.getMessage() + ")";
+                }
+            }
+            if(!replaced) {
+                alive.decrementAndGet();
+            }
+            App.logEntry("DistributedCoordinator lost a worker: " + reason + outcome);
+        }
+    }
+
+    /**
+     * Feed tasks to one connected worker until every task is finished, then shut it down. If the worker is lost, put
+     * its current task back on the queue and start a replacement (see Run.lost). If it reports a failure, stop the run
+     * (see Run.fail).
+     */
+    private void serve(Socket socket, Run run) {
+        Task task = null;
+        boolean connected = false;
+        try(Socket s = socket) {
+            s.setSoTimeout(SOCKET_TIMEOUT_MILLIS);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+            if(in.readByte() != HELLO || !run.connect(in.readInt())) {
+                // Not a worker of this run, or one already counted as lost; its replacement is on the way.
+                return;
+            }
+            connected = true;
+            out.writeByte(CONFIG);
+            out.writeUTF(wordsFile.getAbsolutePath());
+            out.writeUTF(specialCharactersFile == null ? "" : specialCharactersFile.getAbsolutePath());
+            out.writeBoolean(addSpaces);
+            out.writeBoolean(App.extendedArgs.containsKey(App.REJECT_REAL_WORDS_ARG));
+            out.writeBoolean(App.extendedArgs.containsKey(App.SYLLABLES_ARG));
+            String blocklistPath = App.extendedArgs.get(App.BLOCKLIST_ARG);
+            out.writeUTF(blocklistPath == null ? "" : new File(blocklistPath).getAbsolutePath());
+            out.writeLong(index.fingerprint);
+            out.writeLong(seed);
+            out.writeInt(index.eligibleCount());
+            for(int position : index.eligible) {
+                out.writeInt(position);
+            }
+            out.flush();
+            byte reply = in.readByte();
+            if(reply == FAILED) {
+                run.fail("a worker could not load the dictionary: " + in.readUTF());
+                return;
+            } else if(reply != READY) {
+                throw new IllegalStateException("worker broke protocol after its config");
+            }
+            while(run.finished.getCount() > 0 && run.failure == null) {
+                task = run.pending.poll(100, TimeUnit.MILLISECONDS);
+                if(task == null) {
+                    continue;
+                }
+                out.writeByte(TASK);
+                out.writeInt(task.id);
+                out.writeLong(task.start);
+                out.writeInt(task.count);
+                out.writeInt(task.slotLo);
+                out.writeInt(task.slotHi);
+                out.flush();
+                String[] partial = receive(in, task, run);
+                if(partial == null) {
+                    return;
+                }
+                System.arraycopy(partial, 0, run.results, (int) task.start, partial.length);
+                task = null;
+                run.finished.countDown();
+            }
+            out.writeByte(SHUTDOWN);
+            out.flush();
+        } catch (IOException | IllegalStateException e) {
+            if(connected) {
+                run.lost(task, e.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Receive the results of one task. Partial results are only returned once the whole task is done.
+     *
+     * @return the results, or null if the worker reported a failure (the run is then stopped)
+     */
+    private String[] receive(DataInputStream in, Task task, Run run) throws IOException {
+        String[] partial = new String[task.count];
+        int received = 0;
+        while(true) {
+            byte type = in.readByte();
+            if(type == RESULT) {
+                if(received == task.count) {
+                    throw new IllegalStateException("worker sent too many results for task " + task.id);
+                }
+                partial[received++] = in.readUTF();
+            } else if(type == DONE && in.readInt() == task.id && received == task.count) {
+                return partial;
+            } else if(type == FAILED) {
+                run.fail("a worker failed task " + task.id + ": " + in.readUTF());
+                return null;
+            } else {
+                throw new IllegalStateException("worker broke protocol on task " + task.id);
+            }
+        }
+    }
+}
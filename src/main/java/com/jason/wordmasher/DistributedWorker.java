@@ -0,0 +1,133 @@
+package com.jason.wordmasher;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * One worker of a distributed run (see DistributedCoordinator). Connects to the coordinator on loopback, loads the
+ * same dictionary, checks that its fingerprint matches the coordinator's, and then makes whatever tasks it is given
+ * until it is told to shut down. A failure it can tell the coordinator about (a dictionary it cannot load or that
+ * does not match, or a task it cannot make) is reported as FAILED rather than by dying, so the coordinator stops the
+ * run instead of starting replacements that would fail the same way.
+ *
+ * Output i of a task is App.makeSeededFrankenword(i), so a distributed run makes exactly what a -seed run with the
+ * same seed makes, and a task redone after a lost worker comes out the same the second time.
+ */
+final class DistributedWorker {
+
+    private static final int FLUSH_EVERY = 64;
+
+    private DistributedWorker() {
+    }
+
+    /**
+     * Worker process entry point.
+     *
+     * @param args The coordinator's port and this worker's id
+     */
+    public static void main(String[] args) {
+        try {
+            run(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+        } catch (Exception e) {
+            System.err.println("Error: DistributedWorker failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Connect to the coordinator and make tasks until it says to shut down.
+     *
+     * @param port     The coordinator's port on the loopback address
+     * @param workerId The id the coordinator launched this worker with
+     */
+    static void run(int port, int workerId) throws IOException {
+        try(Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeByte(DistributedCoordinator.HELLO);
+            out.writeInt(workerId);
+            out.flush();
+            if(in.readByte() != DistributedCoordinator.CONFIG) {
+                throw new IOException("expected a config from the coordinator");
+            }
+            String wordsPath = in.readUTF();
+            String specialCharactersPath = in.readUTF();
+            boolean addSpaces = in.readBoolean();
+            boolean rejectRealWords = in.readBoolean();
+            boolean useSyllables = in.readBoolean();
+            String blocklistPath = in.readUTF();
+            long fingerprint = in.readLong();
+            long seed = in.readLong();
+            int[] eligible = new int[in.readInt()];
+            for(int k = 0; k < eligible.length; k++) {
+                eligible[k] = in.readInt();
+            }
+
+            File specialCharactersFile = specialCharactersPath.isEmpty() ? null : new File(specialCharactersPath);
+            WordIndex index;
+            try {
+                // Take the coordinator's eligible words as they are, so its eligibility filters need not be resent.
+                index = new WordIndex(App.readFileIntoListOfStrings(new File(wordsPath)),
+                        App.readFileIntoCharArray(specialCharactersFile),
+                        words -> WordFilter.ofPositions(words.size(), eligible));
+                if(useSyllables) {
+                    App.useSyllables = true;
+                    index.syllableBreaks();
+                }
+                if(!blocklistPath.isEmpty()) {
+                    App.blocklist = new Blocklist(App.readFileIntoListOfStrings(new File(blocklistPath)));
+                }
+            } catch (IllegalStateException e) {
+                fail(out, e.getMessage());
+                return;
+            }
+            if(index.fingerprint != fingerprint) {
+                fail(out, "the words file changed since the coordinator loaded it");
+                return;
+            }
+            out.writeByte(DistributedCoordinator.READY);
+            out.flush();
+            int[] order = ConcurrentSampler.shuffledSlots(index.eligibleCount(), new Prng(seed));
+            char[] specialCharacters = specialCharactersFile == null ? null : index.specialCharacters;
+            Dawg realWords = rejectRealWords ? index.realWords() : null;
+
+            while(true) {
+                byte type = in.readByte();
+                if(type == DistributedCoordinator.SHUTDOWN) {
+                    return;
+                }
+                if(type != DistributedCoordinator.TASK) {
+                    throw new IOException("unknown message from the coordinator: " + type);
+                }
+                int id = in.readInt();
+                long start = in.readLong();
+                int count = in.readInt();
+                int slotLo = in.readInt();
+                int slotHi = in.readInt();
+                if(slotLo != start * App.MAX_WORDS_PER_FRANKENWORD
+                        || slotHi != (start + count) * App.MAX_WORDS_PER_FRANKENWORD || slotHi > order.length) {
+                    fail(out, "task " + id + " has slots that do not match its outputs");
+                    return;
+                }
+                for(int k = 0; k < count; k++) {
+                    out.writeByte(DistributedCoordinator.RESULT);
+                    out.writeUTF(App.makeSeededFrankenword(index, order, seed, start + k, specialCharacters,
+                            addSpaces, realWords));
+                    if((k + 1) % FLUSH_EVERY == 0) {
+                        out.flush();
+                    }
+                }
+                out.writeByte(DistributedCoordinator.DONE);
+                out.writeInt(id);
+                out.flush();
+            }
+        }
+    }
+
+    private static void fail(DataOutputStream out, String message) throws IOException {
+        out.writeByte(DistributedCoordinator.FAILED);
+        out.writeUTF(message);
+        out.flush();
+    }
+}
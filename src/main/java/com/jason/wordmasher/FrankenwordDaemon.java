@@ -0,0 +1,399 @@
+package com.jason.wordmasher;
+
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A resident process that keeps dictionaries loaded and makes frankenwords for DaemonClient over a Unix-domain socket,
+ * so a short job pays for neither JVM startup nor loading the words file.
+ *
+ * A request carries the client's working directory and the exact App argument list (-wordsfile, -numtoprint,
+ * -specialcharsfile, -addspaces). Each words file / special characters file pair is loaded once and kept warm; it is
+ * loaded again only if either file has changed since. Every request gets its own session, so a request never reuses a
+ * word, just like a run of App.
+ *
+ * Frames are length-prefixed. A client may send any number of requests without waiting (pipelining). Each connection
+ * is served on its own thread, and requests on one connection are answered in order: zero or more RESULT frames of
+ * frankenwords, then DONE or FAILED. Responses are only flushed when no further request is already waiting.
+ */
+final class FrankenwordDaemon implements Closeable {
+
+    // Protocol: client -> daemon
+    static final byte REQUEST = 1;
+
+    // Protocol: daemon -> client
+    static final byte RESULT = 11;
+    static final byte DONE = 12;
+    static final byte FAILED = 13;
+
+    static final String SOCKET_ARG = "-socket";
+    static final Path DEFAULT_SOCKET = Paths.get(System.getProperty("java.io.tmpdir"), "wordmasher.sock");
+    static final int MAX_FRAME_BYTES = 64 * 1024;
+
+    private static final int WORDS_PER_RESULT = 64;
+
+    /**
+     * A loaded dictionary and the sessions of the requests using it.
+     */
+    private static final class WarmDictionary {
+        final File wordsFile;
+        final File specialCharactersFile;
+        final long stamp;
+        final AtomicReference<WordIndex> index;
+        final SessionRegistry sessions;
+
+        WarmDictionary(File wordsFile, File specialCharactersFile, long idleTimeoutMillis, long memoryBudgetBytes)
+                throws IllegalStateException {
+            this.wordsFile = wordsFile;
+            this.specialCharactersFile = specialCharactersFile;
+            this.stamp = stamp(wordsFile, specialCharactersFile);
+            this.index = new AtomicReference<>(new WordIndex(App.readFileIntoListOfStrings(wordsFile),
+                    App.readFileIntoCharArray(specialCharactersFile)));
+            this.sessions = new SessionRegistry(index, idleTimeoutMillis, memoryBudgetBytes, System::currentTimeMillis);
+            App.logEntry("FrankenwordDaemon loaded " + wordsFile.getName() + ".");
+        }
+
+        boolean isCurrent() {
+            return stamp == stamp(wordsFile, specialCharactersFile);
+        }
+
+        private static long stamp(File wordsFile, File specialCharactersFile) {
+            long stamp = wordsFile.lastModified() * 31 + wordsFile.length();
+            if(specialCharactersFile != null) {
+                stamp = stamp * 31 + specialCharactersFile.lastModified() * 31 + specialCharactersFile.length();
+            }
+            return stamp;
+        }
+    }
+
+    /**
+     * One parsed request.
+     */
+    static final class Job {
+        final File wordsFile;
+        final File specialCharactersFile;
+        final int count;
+        final boolean addSpaces;
+
+        Job(File wordsFile, File specialCharactersFile, int count, boolean addSpaces) {
+            this.wordsFile = wordsFile;
+            this.specialCharactersFile = specialCharactersFile;
+            this.count = count;
+            this.addSpaces = addSpaces;
+        }
+    }
+
+    private final Path socketPath;
+    private final ServerSocketChannel server;
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "FrankenwordDaemon-connection");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, WarmDictionary> dictionaries = new ConcurrentHashMap<>();
+    private final AtomicLong nextSessionId = new AtomicLong();
+    private final long idleTimeoutMillis;
+    private final long memoryBudgetBytes;
+
+    /**
+     * Bind a new daemon to a socket, with the default session idle timeout and memory budget.
+     *
+     * @param socketPath The path of the socket file
+     */
+    FrankenwordDaemon(Path socketPath) throws IOException {
+        this(socketPath, SessionRegistry.DEFAULT_IDLE_TIMEOUT_MILLIS, SessionRegistry.DEFAULT_MEMORY_BUDGET_BYTES);
+    }
+
+    /**
+     * Bind a new daemon to a socket. A socket file left behind by a daemon that is no longer running is replaced;
+     * any other file at the path is left alone.
+     *
+     * @param socketPath        The path of the socket file
+     * @param idleTimeoutMillis Evict sessions idle for longer than this (see SessionRegistry)
+     * @param memoryBudgetBytes The memory the sessions of each loaded dictionary may hold (see SessionRegistry)
+     */
+    FrankenwordDaemon(Path socketPath, long idleTimeoutMillis, long memoryBudgetBytes) throws IOException {
+        if(socketPath == null) {
+            throw new IllegalStateException("Error: FrankenwordDaemon received a null socket path.");
+        }
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        if(Files.exists(socketPath, LinkOption.NOFOLLOW_LINKS)) {
+            if(!Files.readAttributes(socketPath, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).isOther()) {
+                String errorMessage = "Error: " + socketPath + " exists and is not a socket.";
+                App.logEntry(errorMessage);
+                throw new IllegalStateException(errorMessage);
+            }
+            boolean listening;
+            try {
+                SocketChannel.open(UnixDomainSocketAddress.of(socketPath)).close();
+                listening = true;
+            } catch (IOException e) {
+                listening = false;
+            }
+            if(listening) {
+                String errorMessage = "Error: a daemon is already listening at " + socketPath + ".";
+                App.logEntry(errorMessage);
+                throw new IllegalStateException(errorMessage);
+            }
+            Files.delete(socketPath);
+        }
+        this.socketPath = socketPath;
+        this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socketPath));
+        App.logEntry("FrankenwordDaemon listening at " + socketPath + ".");
+    }
+
+    /**
+     * Daemon entry point.
+     *
+     * @param args Optionally SOCKET_ARG and the path of the socket file (default DEFAULT_SOCKET), App.SESSION_IDLE_ARG
+     *             and seconds, App.SESSION_MEMORY_ARG and megabytes
+     */
+    public static void main(String[] args) {
+        App.startLog();
+        Path socketPath = DEFAULT_SOCKET;
+        try {
+            App.extendedArgs = new HashMap<>();
+            for(int i = 0; i < args.length; i += 2) {
+                String name = args[i].toLowerCase(Locale.ROOT);
+                if(i + 1 == args.length) {
+                    throw new IllegalStateException("Error: " + args[i] + " needs a value.");
+                } else if(name.equals(SOCKET_ARG)) {
+                    socketPath = Paths.get(args[i + 1]);
+                } else if(name.equals(App.SESSION_IDLE_ARG) || name.equals(App.SESSION_MEMORY_ARG)) {
+                    App.extendedArgs.put(name, args[i + 1]);
+                } else {
+                    throw new IllegalStateException("Error: " + args[i] + " is not supported by the daemon.");
+                }
+            }
+            FrankenwordDaemon daemon = new FrankenwordDaemon(socketPath, App.getSessionIdleTimeoutMillis(),
+                    App.getSessionMemoryBudgetBytes());
+            Runtime.getRuntime().addShutdownHook(new Thread(daemon::close));
+            App.print("WordMasher daemon listening at " + socketPath + ".");
+            daemon.serve();
+        } catch (Exception e) {
+            App.logEntry(e.getMessage());
+            System.err.println("Error: FrankenwordDaemon failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Accept connections until the daemon is closed.
+     */
+    void serve() throws IOException {
+        while(true) {
+            SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            }
+            connections.execute(() -> handle(channel));
+        }
+    }
+
+    /**
+     * Stop accepting connections and remove the socket file.
+     */
+    @Override
+    public void close() {
+        try {
+            server.close();
+            Files.deleteIfExists(socketPath);
+        } catch (IOException e) {
+            App.logEntry("FrankenwordDaemon could not remove " + socketPath + ": " + e.getMessage());
+        }
+        connections.shutdownNow();
+    }
+
+    /**
+     * Serve one connection: answer its requests in order until the client hangs up.
+     */
+    private void handle(SocketChannel channel) {
+        try(SocketChannel open = channel) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(open)));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(open)));
+            while(true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                if(length < 1 || length > MAX_FRAME_BYTES) {
+                    throw new IOException("illegal frame length " + length);
+                }
+                byte[] frame = new byte[length];
+                in.readFully(frame);
+                DataInputStream request = new DataInputStream(new ByteArrayInputStream(frame));
+                if(request.readByte() != REQUEST) {
+                    throw new IOException("expected a request");
+                }
+                int id = request.readInt();
+                String workingDirectory = request.readUTF();
+                List<String> args = new ArrayList<>();
+                for(int k = request.readUnsignedByte(); k > 0; k--) {
+                    args.add(request.readUTF());
+                }
+                answer(id, workingDirectory, args, out);
+                if(in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            App.logEntry("FrankenwordDaemon dropped a connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Make the frankenwords of one request and write them out, or write why the request failed.
+     */
+    private void answer(int id, String workingDirectory, List<String> args, DataOutputStream out)
+            throws IOException {
+        List<String> chunk = new ArrayList<>(WORDS_PER_RESULT);
+        try {
+            Job job = parse(workingDirectory, args);
+            WarmDictionary dictionary = dictionary(job);
+            String sessionId = "daemon-" + nextSessionId.getAndIncrement();
+            SessionRegistry.Session session = dictionary.sessions.get(sessionId);
+            PipelineEvents.Batch event = new PipelineEvents.Batch();
+            event.begin();
+            App.TRACE.record(TraceRing.Code.BATCH_STARTED, job.count, 0, 0);
+            try {
+                for(int k = 0; k < job.count; k++) {
+                    chunk.add(App.generateFrankenword(session, dictionary.index.get(), job.addSpaces,
+                            job.specialCharactersFile != null));
+                    if(chunk.size() == WORDS_PER_RESULT || k == job.count - 1) {
+                        writeResult(id, chunk, out);
+                        chunk.clear();
+                    }
+                }
+            } finally {
+                dictionary.sessions.remove(sessionId);
+            }
+            PipelineEvents.endBatch(event, "daemon", job.count);
+        } catch (IllegalStateException e) {
+            App.dumpTrace("daemon request " + id + " failed");
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream failed = new DataOutputStream(bytes);
+            failed.writeByte(FAILED);
+            failed.writeInt(id);
+            failed.writeUTF(e.getMessage() == null ? "unknown error" : e.getMessage());
+            writeFrame(bytes, out);
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream done = new DataOutputStream(bytes);
+        done.writeByte(DONE);
+        done.writeInt(id);
+        writeFrame(bytes, out);
+    }
+
+    /**
+     * Parse an App argument list the way App does (argument names are lower-cased, values are not), resolving file
+     * names against the client's working directory. Only the core arguments are supported.
+     *
+     * @param workingDirectory The client's working directory
+     * @param args             The App argument list
+     * @return                 The job
+     */
+    static Job parse(String workingDirectory, List<String> args) throws IllegalStateException { // tested
+        File wordsFile = null;
+        File specialCharactersFile = null;
+        int count = -1;
+        boolean addSpaces = false;
+        for(int i = 0; i < args.size(); i++) {
+            String arg = args.get(i).toLowerCase(Locale.ROOT);
+            if(arg.equals(App.SPACES_ARG)) {
+                addSpaces = true;
+                continue;
+            }
+            if(i + 1 == args.size()) {
+                throw new IllegalStateException("Error: " + arg + " is missing its value, or is not supported by " +
+                        "the daemon.");
+            }
+            String value = args.get(++i);
+            if(arg.equals(App.WORDS_FILE_ARG)) {
+                wordsFile = App.makeNewFile(resolve(workingDirectory, value));
+                if(wordsFile == null) {
+                    throw new IllegalStateException("Error: the words file " + value + " is missing or empty.");
+                }
+            } else if(arg.equals(App.SPECIAL_CHARS_FILE_ARG)) {
+                specialCharactersFile = App.makeNewFile(resolve(workingDirectory, value));
+                if(specialCharactersFile == null) {
+                    throw new IllegalStateException("Error: the special characters file " + value + " is missing " +
+                            "or empty.");
+                }
+            } else if(arg.equals(App.NUM_TO_PRINT_ARG)) {
+                count = App.getNumberOfFrankenwordsToCreate(value);
+                if(count == -1) {
+                    throw new IllegalStateException("Error: " + App.NUM_TO_PRINT_ARG + " must be from 1 to " +
+                            App.MAX_FRANKENWORDS + ".");
+                }
+            } else {
+                throw new IllegalStateException("Error: " + arg + " is not supported by the daemon.");
+            }
+        }
+        if(wordsFile == null || count == -1) {
+            throw new IllegalStateException("Error: the arguments " + App.WORDS_FILE_ARG + " and " +
+                    App.NUM_TO_PRINT_ARG + " are required.");
+        }
+        return new Job(wordsFile, specialCharactersFile, count, addSpaces);
+    }
+
+    /**
+     * Get the warm dictionary for a job, loading it if it is not loaded yet or its files have changed.
+     */
+    private WarmDictionary dictionary(Job job) throws IllegalStateException {
+        String key = job.wordsFile.getAbsolutePath() + File.pathSeparator
+                + (job.specialCharactersFile == null ? "" : job.specialCharactersFile.getAbsolutePath());
+        return dictionaries.compute(key, (k, warm) -> warm != null && warm.isCurrent() ? warm :
+                new WarmDictionary(job.wordsFile, job.specialCharactersFile, idleTimeoutMillis, memoryBudgetBytes));
+    }
+
+    private static String resolve(String workingDirectory, String fileName) {
+        return Paths.get(workingDirectory).resolve(fileName).toString();
+    }
+
+    private static void writeResult(int id, List<String> words, DataOutputStream out) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream result = new DataOutputStream(bytes);
+        result.writeByte(RESULT);
+        result.writeInt(id);
+        result.writeShort(words.size());
+        for(String word : words) {
+            result.writeUTF(word);
+        }
+        writeFrame(bytes, out);
+    }
+
+    /**
+     * Write one frame: its length, then its bytes.
+     */
+    static void writeFrame(ByteArrayOutputStream frame, DataOutputStream out) throws IOException {
+        out.writeInt(frame.size());
+        frame.writeTo(out);
+    }
+}
@@ -0,0 +1,170 @@
+package com.jason.wordmasher;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded, lock-free pool of ready-made frankenwords, kept topped up by background threads.
+ *
+ * There is one pool per configuration (spaces on or off, special characters on or off). Consumers take from a pool
+ * in O(1). When a pool drops below its low watermark, a refill task is scheduled on the spare cores and generates
+ * frankenwords until the pool reaches its high watermark. A consumer that finds a pool empty generates a
+ * frankenword inline rather than waiting.
+ *
+ * A configuration is only refilled after it has been primed or taken from at least once, so configurations that are
+ * never requested never use up dictionary words.
+ */
+final class FrankenwordPool implements Closeable {
+
+    static final int DEFAULT_LOW_WATERMARK = 64;
+    static final int DEFAULT_HIGH_WATERMARK = 256;
+    private static final int CONFIGURATIONS = 4;
+
+    /**
+     * Generates a single frankenword for a given configuration. Must be safe to call from several threads at once.
+     */
+    interface Generator {
+        String generate(boolean addSpaces, boolean addSpecialCharacters);
+    }
+
+    private final Generator generator;
+    private final int lowWatermark;
+    private final int highWatermark;
+    private final ExecutorService refillers;
+    private final List<Queue<String>> pools;
+    private final AtomicInteger[] sizes;
+    private final AtomicBoolean[] refilling;
+    private volatile boolean closed = false;
+
+    /**
+     * Create a new pool.
+     *
+     * @param generator     Generates frankenwords for the refill threads (and for consumers of an empty pool)
+     * @param lowWatermark  Schedule a refill when a pool falls below this size
+     * @param highWatermark Refill a pool up to this size
+     */
+    FrankenwordPool(Generator generator, int lowWatermark, int highWatermark) throws IllegalStateException {
+        if(generator == null || lowWatermark < 0 || highWatermark < 1 || lowWatermark >= highWatermark) {
+            throw new IllegalStateException("Error: FrankenwordPool received an illegal argument.");
+        }
+        this.generator = generator;
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        pools = new ArrayList<>(CONFIGURATIONS);
+        sizes = new AtomicInteger[CONFIGURATIONS];
+        refilling = new AtomicBoolean[CONFIGURATIONS];
+        for(int i = 0; i < CONFIGURATIONS; i++) {
+            pools.add(new ConcurrentLinkedQueue<>());
+            sizes[i] = new AtomicInteger();
+            refilling[i] = new AtomicBoolean();
+        }
+
+        // Leave one core for the consumer.
+        int threads = Math.max(1, Math.min(CONFIGURATIONS, Runtime.getRuntime().availableProcessors() - 1));
+        refillers = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "wordmasher-pool-refill-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Start filling the pool for a configuration ahead of the first take.
+     *
+     * @param addSpaces            Whether the pooled frankenwords have spaces added
+     * @param addSpecialCharacters Whether the pooled frankenwords have special characters added
+     */
+    void prime(boolean addSpaces, boolean addSpecialCharacters) {
+        scheduleRefill(configuration(addSpaces, addSpecialCharacters));
+    }
+
+    /**
+     * Take a frankenword from the pool. Never blocks; generates inline if the pool is empty.
+     *
+     * @param addSpaces            Whether the frankenword should have spaces added
+     * @param addSpecialCharacters Whether the frankenword should have special characters added
+     * @return                     The frankenword
+     */
+    String take(boolean addSpaces, boolean addSpecialCharacters) {
+        int config = configuration(addSpaces, addSpecialCharacters);
+        String frankenword = pools.get(config).poll();
+        int size = frankenword == null ? sizes[config].get() : sizes[config].decrementAndGet();
+        if(size < lowWatermark) {
+            scheduleRefill(config);
+        }
+        return frankenword != null ? frankenword : generator.generate(addSpaces, addSpecialCharacters);
+    }
+
+    /**
+     * @param addSpaces            Whether the pooled frankenwords have spaces added
+     * @param addSpecialCharacters Whether the pooled frankenwords have special characters added
+     * @return                     The number of ready frankenwords in the pool for a configuration
+     */
+    int size(boolean addSpaces, boolean addSpecialCharacters) {
+        return sizes[configuration(addSpaces, addSpecialCharacters)].get();
+    }
+
+    /**
+     * Stop the refill threads. Frankenwords still in the pool are discarded.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        refillers.shutdownNow();
+    }
+
+    /**
+     * Schedule a refill for a configuration unless one is already scheduled or running.
+     *
+     * @param config The configuration to refill
+     */
+    private void scheduleRefill(int config) {
+        if(!closed && refilling[config].compareAndSet(false, true)) {
+            refillers.execute(() -> refill(config));
+        }
+    }
+
+    /**
+     * Generate frankenwords for a configuration until its pool reaches the high watermark.
+     *
+     * @param config The configuration to refill
+     */
+    private void refill(int config) {
+        boolean addSpaces = (config & 1) != 0;
+        boolean addSpecialCharacters = (config & 2) != 0;
+        try {
+            while(!closed && sizes[config].get() < highWatermark) {
+                String frankenword = generator.generate(addSpaces, addSpecialCharacters);
+                // Count it before it becomes visible, so a take that polls it cannot decrement the size below zero.
+                sizes[config].incrementAndGet();
+                pools.get(config).offer(frankenword);
+            }
+        } catch (RuntimeException e) {
+            // Most likely the dictionary ran out of unused words. Consumers will hit the same error inline.
+            App.logEntry("FrankenwordPool stopped refilling: " + e.getMessage());
+        } finally {
+            refilling[config].set(false);
+        }
+    }
+
+    /**
+     * @return the pool slot for a configuration
+     */
+    private static int configuration(boolean addSpaces, boolean addSpecialCharacters) {
+        return (addSpaces ? 1 : 0) | (addSpecialCharacters ? 2 : 0);
+    }
+}
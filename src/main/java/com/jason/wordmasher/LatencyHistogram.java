@@ -0,0 +1,108 @@
+package com.jason.wordmasher;
+
+/**
+ * A log-linear histogram of latencies in nanoseconds, in the style of HdrHistogram.
+ *
+ * Values below 2 * SUB_BUCKETS are counted exactly. Above that, every power of two is split into SUB_BUCKETS equal
+ * sub-buckets, so a recorded value is only ever rounded by less than 1 / SUB_BUCKETS (about 3%), whether it is 100
+ * nanoseconds or 100 seconds. Recording is one leading-zero count, a shift and an array increment; nothing is
+ * allocated after construction. Not thread safe.
+ */
+final class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[(64 - SUB_BUCKET_BITS) * SUB_BUCKETS];
+    private long count = 0;
+    private long total = 0;
+    private long min = Long.MAX_VALUE;
+    private long max = 0;
+
+    /**
+     * Record one value.
+     *
+     * @param nanos The value (negative values are recorded as 0)
+     */
+    void record(long nanos) { // tested
+        long value = Math.max(0, nanos);
+        counts[indexOf(value)]++;
+        count++;
+        total += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * @return the number of values recorded
+     */
+    long count() {
+        return count;
+    }
+
+    /**
+     * @return the largest value recorded (exact), or 0 if none
+     */
+    long max() {
+        return max;
+    }
+
+    /**
+     * @return the smallest value recorded (exact), or 0 if none
+     */
+    long min() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * @return the mean of the values recorded (exact), or 0 if none
+     */
+    double mean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * Get a percentile: the smallest value that at least that percentage of the recorded values do not exceed,
+     * rounded up to the top of its bucket (but never past the largest value recorded).
+     *
+     * @param percentile The percentile, from 0 to 100
+     * @return           The value at the percentile, or 0 if no values were recorded
+     */
+    long percentile(double percentile) { // tested
+        if(count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+        long seen = 0;
+        for(int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if(seen >= rank) {
+                return Math.min(highestValueOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return the bucket of a value
+     */
+    static int indexOf(long value) {
+        if(value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * @return the largest value that falls in a bucket
+     */
+    static long highestValueOf(int index) {
+        if(index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long top = (index & (SUB_BUCKETS - 1)) + SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+}
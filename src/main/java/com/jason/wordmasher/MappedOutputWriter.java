@@ -0,0 +1,248 @@
+package com.jason.wordmasher;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes frankenwords, one per line, straight into a memory-mapped output file.
+ *
+ * The file is preallocated to an estimated size and mapped in large windows. A writer reserves room for its line
+ * with a single atomic add on the shared cursor, then encodes the line into its reserved region with absolute puts,
+ * so any number of threads may append at once without a lock (lines land in reservation order). A window is only
+ * mapped as far as the estimate reaches (but at least MIN_MAPPING_SIZE); a write past the end of its mapping remaps
+ * the window twice as large, up to the full window size, which grows the file. So a small run never grows the file
+ * much past its estimate. On close the file is truncated to the bytes actually written. If an append failed after
+ * reserving its room, or the run was aborted, the file may hold a gap of NUL bytes, so it is deleted instead.
+ *
+ * The mappings are dropped before the file is truncated or deleted. Some platforms (Windows) refuse either while a
+ * mapping is still open, and a mapping is only released once its buffer is garbage collected, so close collects and
+ * retries a few times before giving up.
+ *
+ * Lines are encoded like PrintWriter would encode them: the platform line separator, and the default charset for
+ * any character outside ASCII (ASCII is copied byte for byte without going through an encoder).
+ */
+final class MappedOutputWriter implements Closeable {
+
+    static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+    static final int ESTIMATED_BYTES_PER_LINE = 24;
+    static final int MIN_MAPPING_SIZE = 64 * 1024;
+
+    private static final int UNMAP_ATTEMPTS = 5;
+    private static final long UNMAP_RETRY_MILLIS = 100;
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(Charset.defaultCharset());
+
+    private final File output;
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final int windowSize;
+    private final long estimatedSize;
+    private final AtomicLong cursor = new AtomicLong();
+    private volatile MappedByteBuffer[] windows = new MappedByteBuffer[0];
+    private volatile boolean aborted = false;
+
+    /**
+     * A file operation that may fail while the file is still mapped.
+     */
+    private interface FileAction {
+        void run() throws IOException;
+    }
+
+    /**
+     * Create a new writer. Truncates the file if it exists.
+     *
+     * @param output        The output file
+     * @param estimatedSize The number of bytes to preallocate
+     * @param windowSize    The size of each mapped window
+     */
+    MappedOutputWriter(File output, long estimatedSize, int windowSize) throws IllegalStateException {
+        if(output == null || estimatedSize < 0 || windowSize < 1) {
+            throw new IllegalStateException("Error: MappedOutputWriter received an illegal argument.");
+        }
+        this.output = output;
+        this.windowSize = windowSize;
+        this.estimatedSize = estimatedSize;
+        try {
+            file = new RandomAccessFile(output, "rw");
+            channel = file.getChannel();
+            channel.truncate(0);
+            file.setLength(estimatedSize);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error: MappedOutputWriter threw an IO exception: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Create a new writer sized for a number of frankenwords.
+     *
+     * @param output The output file
+     * @param lines  The number of frankenwords that will be written
+     */
+    MappedOutputWriter(File output, int lines) throws IllegalStateException {
+        this(output, (long) lines * ESTIMATED_BYTES_PER_LINE, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Append a line. Safe to call from several threads at once. If the append fails, the output is aborted.
+     *
+     * @param line The line to append (without a line separator)
+     */
+    void append(String line) throws IllegalStateException { // tested
+        try {
+            write(line);
+        } catch (RuntimeException e) {
+            aborted = true;
+            throw e;
+        }
+    }
+
+    /**
+     * Mark the output as incomplete, so close deletes the file rather than keeping it.
+     */
+    void abort() { // tested
+        aborted = true;
+    }
+
+    /**
+     * @return the number of bytes reserved so far
+     */
+    long size() {
+        return cursor.get();
+    }
+
+    /**
+     * Truncate the file to the bytes actually written and close it, or delete it if the output was aborted. Call only
+     * after every append has returned.
+     */
+    @Override
+    public void close() throws IllegalStateException {
+        windows = new MappedByteBuffer[0];
+        try {
+            if(aborted) {
+                file.close();
+                whenUnmapped(() -> Files.deleteIfExists(output.toPath()));
+                App.logEntry("MappedOutputWriter deleted the incomplete " + output.getName() + ".");
+            } else {
+                whenUnmapped(() -> channel.truncate(cursor.get()));
+                file.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Error: MappedOutputWriter threw an IO exception: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Run a file operation, and if it fails, give the garbage collector a chance to release dropped mappings before
+     * trying again.
+     *
+     * @param action The file operation
+     */
+    private static void whenUnmapped(FileAction action) throws IOException {
+        for(int attempt = 1; ; attempt++) {
+            try {
+                action.run();
+                return;
+            } catch (IOException e) {
+                if(attempt == UNMAP_ATTEMPTS) {
+                    throw e;
+                }
+                System.gc();
+                try {
+                    Thread.sleep(UNMAP_RETRY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reserve room for a line and encode it there.
+     *
+     * @param line The line to write (without a line separator)
+     */
+    private void write(String line) throws IllegalStateException {
+        int length = line.length();
+        boolean ascii = true;
+        for(int i = 0; i < length && ascii; i++) {
+            ascii = line.charAt(i) < 0x80;
+        }
+        if(!ascii) {
+            byte[] encoded = line.getBytes(Charset.defaultCharset());
+            long start = cursor.getAndAdd(encoded.length + LINE_SEPARATOR.length);
+            for(int i = 0; i < encoded.length; i++) {
+                put(start + i, encoded[i]);
+            }
+            putLineSeparator(start + encoded.length);
+            return;
+        }
+        long start = cursor.getAndAdd(length + LINE_SEPARATOR.length);
+        long end = start + length;
+        if(start / windowSize == (end + LINE_SEPARATOR.length - 1) / windowSize) {
+            // The usual case: the whole line fits in one window.
+            int offset = (int) (start % windowSize);
+            MappedByteBuffer window = window(start / windowSize, offset + length + LINE_SEPARATOR.length);
+            for(int i = 0; i < length; i++) {
+                window.put(offset + i, (byte) line.charAt(i));
+            }
+            for(int i = 0; i < LINE_SEPARATOR.length; i++) {
+                window.put(offset + length + i, LINE_SEPARATOR[i]);
+            }
+            return;
+        }
+        for(int i = 0; i < length; i++) {
+            put(start + i, (byte) line.charAt(i));
+        }
+        putLineSeparator(end);
+    }
+
+    private void putLineSeparator(long position) throws IllegalStateException {
+        for(int i = 0; i < LINE_SEPARATOR.length; i++) {
+            put(position + i, LINE_SEPARATOR[i]);
+        }
+    }
+
+    private void put(long position, byte b) throws IllegalStateException {
+        int offset = (int) (position % windowSize);
+        window(position / windowSize, offset + 1).put(offset, b);
+    }
+
+    /**
+     * Get a mapped window that reaches at least a given offset, mapping or remapping it (and growing the file) as
+     * needed. A remapped window maps the same file region as before, so writes through the old mapping still land.
+     *
+     * @param index  The window
+     * @param needed The number of bytes from the start of the window that must be mapped
+     */
+    private MappedByteBuffer window(long index, int needed) throws IllegalStateException {
+        MappedByteBuffer[] mapped = windows;
+        if(index < mapped.length && mapped[(int) index] != null && mapped[(int) index].capacity() >= needed) {
+            return mapped[(int) index];
+        }
+        synchronized(this) {
+            // Copy on write, so that readers only ever see a fully built array through the volatile field.
+            mapped = Arrays.copyOf(windows, (int) Math.max(index + 1, windows.length));
+            MappedByteBuffer window = mapped[(int) index];
+            if(window == null || window.capacity() < needed) {
+                long start = index * windowSize;
+                long size = window == null ? Math.max(estimatedSize - start, MIN_MAPPING_SIZE)
+                        : 2L * window.capacity();
+                size = Math.max(needed, Math.min(size, windowSize));
+                try {
+                    mapped[(int) index] = channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Error: MappedOutputWriter could not map its output file: "
+                            + e.getMessage());
+                }
+            }
+            windows = mapped;
+            return mapped[(int) index];
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.jason.wordmasher;
+
+import jdk.jfr.*;
+
+/**
+ * Java Flight Recorder events for each stage of the pipeline, so a recording shows what the program was doing and
+ * not just anonymous App frames. All of them are in the WordMasher category.
+ *
+ * Events for work done once per run or per batch (loading, indexing, batches, output flushes) are recorded whenever
+ * they are enabled. The per-frankenword events are kept cheap enough to leave on: only one frankenword in
+ * STAGE_SAMPLE_INTERVAL has its stages timed, and a timed stage is only recorded if it took longer than the
+ * FrankenwordStage threshold (10 us by default; change it in a .jfc settings file). A retry loop is only recorded
+ * once it needed RETRY_BURST_THRESHOLD retries. With no recording running, each check is a disabled event the JIT
+ * compiles down to nothing. None of the events draw random numbers, so seeded output is unchanged.
+ */
+final class PipelineEvents {
+
+    static final int STAGE_SAMPLE_INTERVAL = 64; // a power of two
+    static final int RETRY_BURST_THRESHOLD = 8;
+
+    // Picks the frankenwords whose stages are timed. Updated without synchronization on purpose: a lost update only
+    // moves the next sample by one frankenword.
+    private static int stageSampleCounter = 0;
+
+    @Name("com.jason.wordmasher.DictionaryLoad")
+    @Label("Dictionary Load")
+    @Category("WordMasher")
+    @Description("A words file, or stdin, read into memory")
+    static final class DictionaryLoad extends Event {
+        @Label("Source")
+        String source;
+
+        @Label("Words")
+        int words;
+
+        @Label("Bytes")
+        @Description("The size of the source, or 0 if unknown")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("com.jason.wordmasher.IndexBuild")
+    @Label("Index Build")
+    @Category("WordMasher")
+    @Description("A WordIndex snapshot built from the loaded words")
+    static final class IndexBuild extends Event {
+        @Label("Words")
+        int words;
+
+        @Label("Eligible Words")
+        int eligible;
+    }
+
+    @Name("com.jason.wordmasher.FrankenwordStage")
+    @Label("Frankenword Stage")
+    @Category("WordMasher")
+    @Description("One stage of making a sampled frankenword: mash, capitalization, special characters or spaces")
+    @Threshold("10 us")
+    static final class FrankenwordStage extends Event {
+        @Label("Stage")
+        String stage;
+
+        @Label("Length")
+        @Description("The length of the frankenword after the stage")
+        int length;
+    }
+
+    @Name("com.jason.wordmasher.RetryBurst")
+    @Label("Retry Burst")
+    @Category("WordMasher")
+    @Description("A retry loop that needed many attempts, e.g. drawing unused words from a nearly used-up dictionary")
+    static final class RetryBurst extends Event {
+        @Label("Site")
+        String site;
+
+        @Label("Wanted")
+        @Description("The number of successful attempts the loop needed")
+        int wanted;
+
+        @Label("Attempts")
+        int attempts;
+    }
+
+    @Name("com.jason.wordmasher.OutputFlush")
+    @Label("Output Flush")
+    @Category("WordMasher")
+    @Description("Frankenwords written out to a file, stdout or a pipe")
+    static final class OutputFlush extends Event {
+        @Label("Target")
+        String target;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("com.jason.wordmasher.Batch")
+    @Label("Batch")
+    @Category("WordMasher")
+    @Description("A batch of frankenwords made")
+    static final class Batch extends Event {
+        @Label("Mode")
+        String mode;
+
+        @Label("Frankenwords")
+        int frankenwords;
+    }
+
+    private PipelineEvents() {
+    }
+
+    /**
+     * Decide whether to time the stages of the next frankenword.
+     *
+     * @return true for one frankenword in STAGE_SAMPLE_INTERVAL while FrankenwordStage is being recorded
+     */
+    static boolean sampleStages() {
+        return new FrankenwordStage().isEnabled() && (++stageSampleCounter & (STAGE_SAMPLE_INTERVAL - 1)) == 0;
+    }
+
+    /**
+     * Start timing a stage.
+     *
+     * @param sampled Whether the frankenword is sampled (see sampleStages)
+     * @return        The started event, or null if the frankenword is not sampled
+     */
+    static FrankenwordStage beginStage(boolean sampled) {
+        if(!sampled) {
+            return null;
+        }
+        FrankenwordStage event = new FrankenwordStage();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Finish timing a stage, and record it if it took longer than the threshold.
+     *
+     * @param event       The event returned by beginStage (can be null)
+     * @param stage       The name of the stage
+     * @param frankenword The frankenword after the stage
+     */
+    static void endStage(FrankenwordStage event, String stage, String frankenword) {
+        if(event != null) {
+            event.end();
+            if(event.shouldCommit()) {
+                event.stage = stage;
+                event.length = frankenword.length();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Finish and record a dictionary load started with begin().
+     *
+     * @param event  The event
+     * @param source The name of the file read, or "stdin"
+     * @param words  The number of words kept
+     * @param bytes  The size of the source (0 if unknown)
+     */
+    static void endLoad(DictionaryLoad event, String source, int words, long bytes) {
+        event.end();
+        if(event.shouldCommit()) {
+            event.source = source;
+            event.words = words;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    /**
+     * Finish and record a batch started with begin().
+     *
+     * @param event        The event
+     * @param mode         How the batch was made
+     * @param frankenwords The number of frankenwords made
+     */
+    static void endBatch(Batch event, String mode, int frankenwords) {
+        event.end();
+        if(event.shouldCommit()) {
+            event.mode = mode;
+            event.frankenwords = frankenwords;
+            event.commit();
+        }
+    }
+
+    /**
+     * Finish and record an output flush started with begin().
+     *
+     * @param event  The event
+     * @param target What was written to
+     * @param bytes  The number of bytes written
+     */
+    static void endFlush(OutputFlush event, String target, long bytes) {
+        event.end();
+        if(event.shouldCommit()) {
+            event.target = target;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    /**
+     * Record a retry loop, if it needed at least RETRY_BURST_THRESHOLD retries.
+     *
+     * @param site     The method the loop is in
+     * @param wanted   The number of successful attempts the loop needed
+     * @param attempts The number of attempts it made
+     */
+    static void retries(String site, int wanted, int attempts) {
+        if(attempts - wanted >= RETRY_BURST_THRESHOLD) {
+            RetryBurst event = new RetryBurst();
+            if(event.shouldCommit()) {
+                event.site = site;
+                event.wanted = wanted;
+                event.attempts = attempts;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.jason.wordmasher;
+
+import java.util.Random;
+
+/**
+ * A small, fast pseudorandom number generator (SplitMix64) whose entire state is a single long.
+ *
+ * Because the state can be read and restored, a generation run can be checkpointed and resumed exactly where it left
+ * off. Extends java.util.Random so it can be handed to Collections.shuffle and friends. Not thread-safe; App keeps
+ * one instance per thread.
+ */
+final class Prng extends Random {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final long serialVersionUID = 1L;
+
+    private long state;
+
+    /**
+     * Create a new generator.
+     *
+     * @param seed The initial state
+     */
+    Prng(long seed) {
+        super(0); // java.util.Random's own state is never used
+        this.state = seed;
+    }
+
+    /**
+     * The state of the independent stream for output i of a seeded run. Depends only on (seed, i), so output i comes
+     * out the same no matter which thread makes it, or in what order.
+     *
+     * @param seed The run's seed
+     * @param i    The output index
+     * @return     The stream's initial state
+     */
+    static long streamState(long seed, long i) {
+        return mix(seed + mix(i + GOLDEN_GAMMA));
+    }
+
+    /**
+     * @return the current state
+     */
+    long getState() {
+        return state;
+    }
+
+    /**
+     * Restore a state previously returned by getState.
+     *
+     * @param state The state to restore
+     */
+    void setState(long state) {
+        this.state = state;
+    }
+
+    /**
+     * java.util.Random calls this from its constructor. Treat it as a state reset so that setSeed behaves sensibly.
+     */
+    @Override
+    public synchronized void setSeed(long seed) {
+        this.state = seed;
+    }
+
+    @Override
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix(state);
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    /**
+     * The SplitMix64 finalizer: a bijective scramble of 64 bits.
+     *
+     * @param z The value to scramble
+     * @return  The scrambled value
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
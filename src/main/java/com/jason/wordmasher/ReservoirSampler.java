@@ -0,0 +1,217 @@
+package com.jason.wordmasher;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Picks a uniform random sample of the eligible words in a words file, in one sequential pass, without ever holding
+ * more than the sample in memory. Used for words files too large to load (see App.STREAM_ARG).
+ *
+ * The sample is a reservoir filled by Li's Algorithm L: once the reservoir is full, the number of eligible words to
+ * skip before the next replacement is drawn directly from its geometric-like distribution, so the random number
+ * generator is called O(k log(n / k)) times instead of once per word. Lines are split like ChannelLineReader splits
+ * them, and reading stops at the first blank line. A line made only of ASCII is judged by its byte length and never
+ * decoded; only the lines that enter the reservoir (and the rare non-ASCII line) become Strings.
+ */
+final class ReservoirSampler {
+
+    static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private static final boolean[] ASCII_WHITESPACE = new boolean[128];
+
+    static {
+        for(char c = 0; c < 128; c++) {
+            ASCII_WHITESPACE[c] = Character.isWhitespace(c);
+        }
+    }
+
+    private final List<String> reservoir;
+    private final int size;
+    private final int minLength;
+    private final int maxLength;
+    private final Random random;
+    private long eligibleSeen = 0;
+    private long nextReplacement;
+    private double w;
+
+    /**
+     * @param size      The size of the sample
+     * @param minLength The shortest eligible word
+     * @param maxLength The longest eligible word
+     * @param random    The random number generator to sample with
+     */
+    private ReservoirSampler(int size, int minLength, int maxLength, Random random) {
+        this.reservoir = new ArrayList<>(size);
+        this.size = size;
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.random = random;
+    }
+
+    /**
+     * Sample the eligible words of a channel. Does not close the channel.
+     *
+     * @param channel    The channel to read
+     * @param size       The size of the sample (fewer words are returned if there are fewer eligible words)
+     * @param minLength  The shortest eligible word
+     * @param maxLength  The longest eligible word
+     * @param random     The random number generator to sample with
+     * @param bufferSize The size of the direct read buffer
+     * @return           The sample, in no particular order
+     */
+    static List<String> sample(ReadableByteChannel channel, int size, int minLength, int maxLength, Random random,
+                               int bufferSize) throws IOException, IllegalStateException { // tested
+        if(channel == null || size < 1 || minLength > maxLength || random == null || bufferSize < 1) {
+            throw new IllegalStateException("Error: ReservoirSampler received an illegal argument.");
+        }
+        ReservoirSampler sampler = new ReservoirSampler(size, minLength, maxLength, random);
+        sampler.scan(channel, bufferSize);
+        App.logEntry("ReservoirSampler kept " + sampler.reservoir.size() + " of " + sampler.eligibleSeen +
+                " eligible words.");
+        return sampler.reservoir;
+    }
+
+    private void scan(ReadableByteChannel channel, int bufferSize) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        // Each chunk is copied out of the direct buffer in bulk; scanning a byte array is much faster than get() per
+        // byte. The scan only looks for line endings, and each line is judged once it is complete.
+        byte[] chunk = new byte[bufferSize];
+        // A line cut in two by the end of a chunk is carried over. Only lines of at most 4 bytes per eligible
+        // character can be eligible, so only that much of a line is ever kept.
+        byte[] carry = new byte[4 * maxLength];
+        int carryLength = 0;
+        boolean afterCarriageReturn = false;
+        while(channel.read(buffer) != -1) {
+            buffer.flip();
+            int chunkLength = buffer.remaining();
+            buffer.get(chunk, 0, chunkLength);
+            buffer.clear();
+            int start = 0;
+            for(int k = 0; k < chunkLength; k++) {
+                byte b = chunk[k];
+                if(b != '\n' && b != '\r') {
+                    continue;
+                }
+                int length = carryLength + k - start;
+                // The "\n" of a "\r\n" ends nothing; the "\r" already ended the line.
+                if(!(b == '\n' && afterCarriageReturn && length == 0)) {
+                    boolean more;
+                    if(carryLength == 0) {
+                        more = endLine(chunk, start, length);
+                    } else {
+                        carryLength = append(carry, carryLength, chunk, start, k - start);
+                        more = endLine(carry, 0, length);
+                    }
+                    if(!more) {
+                        return;
+                    }
+                }
+                afterCarriageReturn = b == '\r';
+                carryLength = 0;
+                start = k + 1;
+            }
+            if(start < chunkLength) {
+                carryLength = append(carry, carryLength, chunk, start, chunkLength - start);
+                afterCarriageReturn = false;
+            }
+        }
+        if(carryLength > 0) {
+            endLine(carry, 0, carryLength);
+        }
+    }
+
+    /**
+     * Copy as much of a piece of a line into the carry buffer as fits. Returns the line's full length so far, which
+     * may be more than the carry buffer holds.
+     */
+    private static int append(byte[] carry, int carryLength, byte[] chunk, int from, int count) {
+        if(carryLength < carry.length) {
+            System.arraycopy(chunk, from, carry, carryLength, Math.min(count, carry.length - carryLength));
+        }
+        return carryLength + count;
+    }
+
+    /**
+     * Offer a line to the reservoir.
+     *
+     * @param bytes  Holds the line, if it is short enough to be eligible
+     * @param offset The start of the line in bytes
+     * @param length The length of the line in bytes
+     * @return       false if the line is blank and reading should stop, true otherwise
+     */
+    private boolean endLine(byte[] bytes, int offset, int length) {
+        if(length > 4 * maxLength) {
+            return true; // too long to be eligible (a line of that many spaces is not treated as blank)
+        }
+        boolean ascii = true;
+        boolean blank = true;
+        for(int i = offset; i < offset + length; i++) {
+            byte b = bytes[i];
+            if(b < 0) {
+                ascii = false;
+                blank = false;
+            } else {
+                blank &= ASCII_WHITESPACE[b];
+            }
+        }
+        if(ascii) {
+            if(blank) {
+                return false;
+            }
+            if(length >= minLength && length <= maxLength) {
+                offer(bytes, offset, length, null);
+            }
+            return true;
+        }
+        String word = new String(bytes, offset, length, Charset.defaultCharset());
+        if(StringUtils.isBlank(word)) {
+            return false;
+        }
+        if(word.length() >= minLength && word.length() <= maxLength) {
+            offer(bytes, offset, length, word);
+        }
+        return true;
+    }
+
+    /**
+     * Offer an eligible word. Decodes it only if it enters the reservoir.
+     */
+    private void offer(byte[] bytes, int offset, int length, String decoded) {
+        long i = eligibleSeen++;
+        if(i < size) {
+            reservoir.add(decoded != null ? decoded : new String(bytes, offset, length, Charset.defaultCharset()));
+            if(i == size - 1) {
+                w = Math.exp(Math.log(uniform()) / size);
+                nextReplacement = skipFrom(i);
+            }
+        } else if(i == nextReplacement) {
+            reservoir.set(random.nextInt(size), decoded != null ? decoded :
+                    new String(bytes, offset, length, Charset.defaultCharset()));
+            w *= Math.exp(Math.log(uniform()) / size);
+            nextReplacement = skipFrom(i);
+        }
+    }
+
+    /**
+     * @return the index of the next eligible word to enter the reservoir, after word i
+     */
+    private long skipFrom(long i) {
+        double skip = Math.floor(Math.log(uniform()) / Math.log(1 - w));
+        // A huge (or infinite) skip means no later word will ever be picked.
+        return skip >= Long.MAX_VALUE - i - 1 ? Long.MAX_VALUE : i + (long) skip + 1;
+    }
+
+    /**
+     * @return a uniform random double in (0, 1]
+     */
+    private double uniform() {
+        return 1 - random.nextDouble();
+    }
+}
@@ -0,0 +1,305 @@
+package com.jason.wordmasher;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Measures how each stage of a run scales with the size of the words file, over synthetic dictionaries (see
+ * SyntheticDictionary) spanning several orders of magnitude.
+ *
+ * For each size the sweep writes a words file, then times three stages and measures the memory each one allocates
+ * and keeps: loading the file (App.readFileIntoListOfStrings), building the WordIndex, and generating batches of
+ * frankenwords through sessions (App.getWordsToMash with a fresh used-word bitset per batch, as in Benchmark). Each
+ * stage also gets a growth exponent against the size before it: the log of its time ratio over the log of the size
+ * ratio. Loading and indexing should grow linearly (1.00), and generating a fixed number of frankenwords should not
+ * grow at all (0.00); a stage well above that is flagged. A size that would not fit in the heap, judged from the
+ * memory kept per word at the size before it, is skipped along with every bigger size.
+ */
+final class ScalingSweep {
+
+    static final String SIZES_ARG = "-sizes";
+    static final String NUM_TO_PRINT_ARG = "-numtoprint";
+    static final String DIRECTORY_ARG = "-dir";
+    static final long[] DEFAULT_SIZES = {10000, 100000, 1000000, 10000000};
+    static final int DEFAULT_FRANKENWORDS = 1000;
+    static final int MEASURED_BATCHES = 3;
+
+    // How far a growth exponent may exceed the expected one before it is flagged.
+    private static final double GROWTH_TOLERANCE = 0.2;
+
+    // Headroom for garbage and for the allocations of the stages, on top of the memory the stages keep.
+    private static final double HEAP_HEADROOM = 1.5;
+
+    /**
+     * The measurements of one stage at one size.
+     */
+    static final class Stage {
+        final String name;
+        final double expectedGrowth;
+        long nanos = 0;
+        long allocatedBytes = -1; // -1 if the JVM cannot measure allocation
+        long retainedBytes = 0;
+
+        Stage(String name, double expectedGrowth) {
+            this.name = name;
+            this.expectedGrowth = expectedGrowth;
+        }
+    }
+
+    /**
+     * The measurements at one size.
+     */
+    static final class Row {
+        final long size;
+        long fileBytes = 0;
+        long writeNanos = 0;
+        int eligible = 0;
+        long sessionBytes = 0;
+        long wordNanosP99 = 0;
+        String skipped = null;
+        final Stage load = new Stage("load", 1);
+        final Stage index = new Stage("index", 1);
+        final Stage generate = new Stage("generate", 0);
+
+        Row(long size) {
+            this.size = size;
+        }
+
+        Stage[] stages() {
+            return new Stage[] {load, index, generate};
+        }
+    }
+
+    private ScalingSweep() {
+    }
+
+    /**
+     * Tool entry point. Prints a report to stdout and logs each size.
+     *
+     * @param args Optionally SIZES_ARG (comma-separated word counts), NUM_TO_PRINT_ARG (frankenwords per batch),
+     *             DIRECTORY_ARG (where to write the words files, default the temporary directory), and any option
+     *             of SyntheticDictionary.main, each with its value
+     */
+    public static void main(String[] args) {
+        App.startLog();
+        try {
+            Map<String, String> options = SyntheticDictionary.parseOptions(args, 0);
+            long[] sizes = options.containsKey(SIZES_ARG) ? parseSizes(options.get(SIZES_ARG)) : DEFAULT_SIZES;
+            int frankenwords = (int) SyntheticDictionary.parseLong(options.getOrDefault(NUM_TO_PRINT_ARG,
+                    String.valueOf(DEFAULT_FRANKENWORDS)), 1, App.MAX_FRANKENWORDS);
+            Path directory = Paths.get(options.getOrDefault(DIRECTORY_ARG, System.getProperty("java.io.tmpdir")));
+            App.print(String.format(Locale.ROOT, "Scaling sweep: batches of %d frankenwords, %s max heap.%n",
+                    frankenwords, formatBytes(Runtime.getRuntime().maxMemory())));
+            List<Row> rows = new ArrayList<>();
+            run(SyntheticDictionary.fromOptions(options), sizes, frankenwords, directory, row -> {
+                String report = format(row, rows.isEmpty() ? null : rows.get(rows.size() - 1));
+                rows.add(row);
+                App.logEntry("Scaling sweep " + report);
+                App.print(report + "\n");
+            });
+        } catch (IOException | IllegalStateException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Run the sweep. Each words file is deleted once it has been measured.
+     *
+     * @param dictionary   Writes the words files
+     * @param sizes        The numbers of words, smallest first
+     * @param frankenwords The number of frankenwords per generated batch
+     * @param directory    Where to write the words files
+     * @param progress     Receives each size's measurements as soon as they are made
+     * @return             The measurements at every size
+     */
+    static List<Row> run(SyntheticDictionary dictionary, long[] sizes, int frankenwords, Path directory,
+                         Consumer<Row> progress) throws IOException, IllegalStateException { // tested
+        if(dictionary == null || sizes == null || frankenwords < 1 || directory == null || progress == null) {
+            throw new IllegalStateException("Error: ScalingSweep.run received an illegal argument.");
+        }
+        List<Row> rows = new ArrayList<>();
+        double retainedPerWord = 0;
+        String skipped = null;
+        for(long size : sizes) {
+            Row row = new Row(size);
+            long needed = (long) (retainedPerWord * size * HEAP_HEADROOM);
+            if(skipped == null && needed > Runtime.getRuntime().maxMemory()) {
+                skipped = "skipped: needs about " + formatBytes(needed) + " of heap; run with a bigger -Xmx";
+            }
+            if(skipped != null || size > Integer.MAX_VALUE) {
+                row.skipped = skipped != null ? skipped : "skipped: more words than a list can hold";
+            } else {
+                measure(row, dictionary, frankenwords, directory);
+                retainedPerWord = (double) (row.load.retainedBytes + row.index.retainedBytes) / size;
+            }
+            rows.add(row);
+            progress.accept(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Measure every stage at one size.
+     */
+    private static void measure(Row row, SyntheticDictionary dictionary, int frankenwords, Path directory)
+            throws IOException {
+        Path file = Files.createTempFile(directory, "synthetic_words_" + row.size + "_", ".txt");
+        try {
+            long start = System.nanoTime();
+            row.fileBytes = dictionary.write(file, row.size);
+            row.writeNanos = System.nanoTime() - start;
+
+            long baseline = usedHeapAfterGc();
+            long allocatedBefore = allocatedBytes();
+            start = System.nanoTime();
+            List<String> words = App.readFileIntoListOfStrings(file.toFile());
+            finish(row.load, start, allocatedBefore, baseline);
+
+            baseline = usedHeapAfterGc();
+            allocatedBefore = allocatedBytes();
+            start = System.nanoTime();
+            WordIndex index = new WordIndex(words, null);
+            finish(row.index, start, allocatedBefore, baseline);
+            row.eligible = index.eligibleCount();
+            row.sessionBytes = new SessionRegistry(new AtomicReference<>(index))
+                    .get("sweep").memoryBytes();
+
+            if((long) frankenwords * App.MAX_WORDS_PER_FRANKENWORD > index.eligibleCount()) {
+                row.generate.nanos = -1;
+            } else {
+                baseline = usedHeapAfterGc();
+                Benchmark.Result result = Benchmark.run("generate", index, frankenwords, true, false, 1,
+                        MEASURED_BATCHES, batch -> { });
+                row.generate.nanos = result.nanos / MEASURED_BATCHES;
+                row.generate.allocatedBytes = result.allocatedBytes < 0 ? -1
+                        : result.allocatedBytes / MEASURED_BATCHES;
+                row.generate.retainedBytes = Math.max(0, usedHeapAfterGc() - baseline);
+                row.wordNanosP99 = result.perWord.percentile(99);
+            }
+            // Keep the words and the index reachable until every stage has been measured against them.
+            if(words.size() != row.size || index.words.size() != row.size) {
+                throw new IllegalStateException("Error: ScalingSweep read back " + words.size() + " of " + row.size
+                        + " words.");
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void finish(Stage stage, long start, long allocatedBefore, long baseline) {
+        stage.nanos = System.nanoTime() - start;
+        long allocatedAfter = allocatedBytes();
+        stage.allocatedBytes = allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore;
+        stage.retainedBytes = Math.max(0, usedHeapAfterGc() - baseline);
+    }
+
+    /**
+     * @return the bytes allocated so far by the current thread, or -1 if the JVM cannot tell
+     */
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean counter = Benchmark.allocationCounter();
+        return counter == null ? -1 : counter.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * @return the heap in use once garbage has been collected (as well as System.gc can promise)
+     */
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for(int k = 0; k < 3; k++) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    /**
+     * Format one size's measurements.
+     *
+     * @param row      The measurements
+     * @param previous The measurements at the size before (can be null)
+     * @return         A human-readable report
+     */
+    static String format(Row row, Row previous) { // tested
+        StringBuilder s = new StringBuilder(String.format(Locale.ROOT, "%,d words", row.size));
+        if(row.skipped != null) {
+            return s.append("\n  ").append(row.skipped).toString();
+        }
+        s.append(String.format(Locale.ROOT, " (%s file written in %s, %,d eligible; used-word bitset %s per " +
+                        "session)%n", formatBytes(row.fileBytes), Benchmark.formatNanos(row.writeNanos), row.eligible,
+                formatBytes(row.sessionBytes)));
+        Stage[] stages = row.stages();
+        for(int k = 0; k < stages.length; k++) {
+            Stage stage = stages[k];
+            if(stage.nanos < 0) {
+                s.append(String.format(Locale.ROOT, "  %-9s skipped: too few eligible words%n", stage.name));
+                continue;
+            }
+            s.append(String.format(Locale.ROOT, "  %-9s %9s", stage.name, Benchmark.formatNanos(stage.nanos)));
+            if(stage == row.generate) {
+                s.append(String.format(Locale.ROOT, " per batch (p99 %s per frankenword)",
+                        Benchmark.formatNanos(row.wordNanosP99)));
+            } else {
+                s.append(String.format(Locale.ROOT, " (%s per word)", Benchmark.formatNanos(stage.nanos / row.size)));
+            }
+            s.append(String.format(Locale.ROOT, ", allocated %s, kept %s",
+                    stage.allocatedBytes < 0 ? "n/a" : formatBytes(stage.allocatedBytes),
+                    formatBytes(stage.retainedBytes)));
+            Stage before = previous == null || previous.skipped != null ? null : previous.stages()[k];
+            if(before != null && before.nanos > 0 && stage.nanos > 0 && previous.size < row.size) {
+                double growth = Math.log((double) stage.nanos / before.nanos)
+                        / Math.log((double) row.size / previous.size);
+                s.append(String.format(Locale.ROOT, ", growth %.2f", growth));
+                if(growth > stage.expectedGrowth + GROWTH_TOLERANCE) {
+                    s.append(String.format(Locale.ROOT, " (expected %.2f: not scaling)", stage.expectedGrowth));
+                }
+            }
+            s.append('\n');
+        }
+        return s.toString().trim();
+    }
+
+    /**
+     * Parse a comma-separated list of sizes.
+     *
+     * @param sizes The list
+     * @return      The sizes
+     */
+    static long[] parseSizes(String sizes) throws IllegalStateException { // tested
+        String[] parts = sizes.split(",");
+        long[] parsed = new long[parts.length];
+        for(int k = 0; k < parts.length; k++) {
+            parsed[k] = SyntheticDictionary.parseLong(parts[k].trim(), 1, Long.MAX_VALUE);
+            if(k > 0 && parsed[k] < parsed[k - 1]) {
+                throw new IllegalStateException("Error: " + SIZES_ARG + " must be listed smallest first.");
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * @return a number of bytes in the most readable unit
+     */
+    static String formatBytes(long bytes) { // tested
+        if(bytes < 1024) {
+            return bytes + " B";
+        }
+        if(bytes < 1024 * 1024) {
+            return String.format(Locale.ROOT, "%.1f KB", bytes / 1024.0);
+        }
+        if(bytes < 1024L * 1024 * 1024) {
+            return String.format(Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024));
+        }
+        return String.format(Locale.ROOT, "%.2f GB", bytes / (1024.0 * 1024 * 1024));
+    }
+}
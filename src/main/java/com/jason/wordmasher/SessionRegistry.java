@@ -0,0 +1,273 @@
+package com.jason.wordmasher;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps per-session uniqueness state, so that several clients can share one warm dictionary without drawing from
+ * the same pool of unused words.
+ *
+ * Each session holds a compact bitset over the eligible words of the shared WordIndex; the index itself is never
+ * copied. Sessions are created lazily on first use. Sessions idle for longer than the idle timeout are evicted, and
+ * when the total memory held by all sessions exceeds the memory budget, the least recently used sessions are
+ * evicted until it fits again. An evicted session simply starts over with a fresh bitset the next time it is used.
+ */
+final class SessionRegistry {
+
+    static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 10 * 60 * 1000;
+    static final long DEFAULT_MEMORY_BUDGET_BYTES = 64L * 1024 * 1024;
+
+    // Rough cost of a session beyond its bitset: the Session and BitSet objects, the map entry, and the id.
+    private static final long SESSION_OVERHEAD_BYTES = 128;
+
+    /**
+     * Provides the current time in milliseconds. Injectable for testing.
+     */
+    interface Clock {
+        long millis();
+    }
+
+    /**
+     * The uniqueness state of one session.
+     */
+    static final class Session {
+        final String id;
+        private WordIndex index;
+        private BitSet used;
+        private long lastAccess;
+
+        // Accounted once at creation; not updated if a hot reload migrates the session to a bigger or smaller index.
+        private final long memoryBytes;
+
+        private Session(String id, WordIndex index, long now) {
+            this.id = id;
+            this.index = index;
+            this.used = new BitSet(index.eligibleCount());
+            this.lastAccess = now;
+            this.memoryBytes = ((long) index.eligibleCount() + 63) / 64 * 8 + SESSION_OVERHEAD_BYTES;
+        }
+
+        /**
+         * Claim words this session has never used before.
+         *
+         * @param numberOfWordsToMash The number of words to claim
+         * @param current             The current dictionary snapshot
+         * @return                    The claimed words
+         */
+        synchronized List<String> claim(int numberOfWordsToMash, WordIndex current) throws IllegalStateException {
+            int[] slots = claimSlots(numberOfWordsToMash, current);
+            return App.wordsAt(index, slots);
+        }
+
+        /**
+         * Claim words this session has never used before, by eligible slot.
+         *
+         * @param numberOfWordsToMash The number of words to claim
+         * @param current             The current dictionary snapshot
+         * @return                    The eligible slots of the claimed words, in the current snapshot
+         */
+        synchronized int[] claimSlots(int numberOfWordsToMash, WordIndex current) throws IllegalStateException {
+            if(current != index) {
+                migrate(current);
+            }
+            return App.getSlotsToMash(numberOfWordsToMash, index, used);
+        }
+
+        /**
+         * Claim one particular word, if this session has never used it before.
+         *
+         * @param slot    The eligible slot of the word, in the current snapshot
+         * @param current The current dictionary snapshot
+         * @return        True if the word was claimed, false if it was already used.
+         */
+        synchronized boolean claimSlot(int slot, WordIndex current) {
+            if(current != index) {
+                migrate(current);
+            }
+            if(used.get(slot)) {
+                return false;
+            }
+            used.set(slot);
+            return true;
+        }
+
+        /**
+         * @return the number of words this session has used
+         */
+        synchronized int usedCount() {
+            return used.cardinality();
+        }
+
+        /**
+         * @return the fingerprint of the dictionary snapshot this session's used words refer to
+         */
+        synchronized long dictionaryFingerprint() {
+            return index.fingerprint;
+        }
+
+        /**
+         * @return a copy of this session's used-word bitmap (see BitSet.toLongArray)
+         */
+        synchronized long[] usedBits() {
+            return used.toLongArray();
+        }
+
+        /**
+         * Replace this session's used-word bitmap, e.g. when resuming from a checkpoint.
+         *
+         * @param bits The bitmap to restore (see BitSet.toLongArray)
+         */
+        synchronized void restoreUsedBits(long[] bits) {
+            used = BitSet.valueOf(bits);
+        }
+
+        /**
+         * @return the bytes held by this session's uniqueness state
+         */
+        long memoryBytes() {
+            return memoryBytes;
+        }
+
+        /**
+         * Carry this session's used words over to a new dictionary snapshot after a hot reload.
+         *
+         * @param current The new snapshot
+         */
+        private void migrate(WordIndex current) {
+            Set<String> usedWords = new HashSet<>();
+            for(int slot = used.nextSetBit(0); slot >= 0; slot = used.nextSetBit(slot + 1)) {
+                usedWords.add(index.words.get(index.eligible[slot]));
+            }
+            BitSet migrated = new BitSet(current.eligibleCount());
+            if(!usedWords.isEmpty()) {
+                for(int slot = 0; slot < current.eligibleCount(); slot++) {
+                    if(usedWords.contains(current.words.get(current.eligible[slot]))) {
+                        migrated.set(slot);
+                    }
+                }
+            }
+            index = current;
+            used = migrated;
+        }
+    }
+
+    private final AtomicReference<WordIndex> source;
+    private final long idleTimeoutMillis;
+    private final long memoryBudgetBytes;
+    private final Clock clock;
+    private final LinkedHashMap<String, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes = 0;
+
+    /**
+     * Create a new registry with the default idle timeout and memory budget.
+     *
+     * @param source The reference holding the current dictionary snapshot
+     */
+    SessionRegistry(AtomicReference<WordIndex> source) {
+        this(source, DEFAULT_IDLE_TIMEOUT_MILLIS, DEFAULT_MEMORY_BUDGET_BYTES, System::currentTimeMillis);
+    }
+
+    /**
+     * Create a new registry.
+     *
+     * @param source            The reference holding the current dictionary snapshot
+     * @param idleTimeoutMillis Evict sessions idle for longer than this
+     * @param memoryBudgetBytes Evict least recently used sessions while all sessions together hold more than this
+     * @param clock             The clock to measure idle time with
+     */
+    SessionRegistry(AtomicReference<WordIndex> source, long idleTimeoutMillis, long memoryBudgetBytes, Clock clock)
+            throws IllegalStateException {
+        if(source == null || idleTimeoutMillis < 1 || memoryBudgetBytes < 1 || clock == null) {
+            throw new IllegalStateException("Error: SessionRegistry received an illegal argument.");
+        }
+        this.source = source;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.clock = clock;
+    }
+
+    /**
+     * Get a session, creating it if it does not exist (or was evicted).
+     *
+     * @param id The session id
+     * @return   The session
+     */
+    synchronized Session get(String id) throws IllegalStateException {
+        WordIndex current = source.get();
+        if(id == null || current == null) {
+            throw new IllegalStateException("Error: SessionRegistry.get received a null id or has no dictionary.");
+        }
+        long now = clock.millis();
+        evictIdle(now);
+        Session session = sessions.get(id);
+        if(session == null) {
+            session = new Session(id, current, now);
+            sessions.put(id, session);
+            memoryBytes += session.memoryBytes();
+            evictOverBudget(session);
+        }
+        session.lastAccess = now;
+        return session;
+    }
+
+    /**
+     * Remove a session, e.g. when its client disconnects.
+     *
+     * @param id The session id
+     */
+    synchronized void remove(String id) {
+        Session session = sessions.remove(id);
+        if(session != null) {
+            memoryBytes -= session.memoryBytes();
+        }
+    }
+
+    /**
+     * @return the number of live sessions
+     */
+    synchronized int size() {
+        return sessions.size();
+    }
+
+    /**
+     * @return the bytes held by all live sessions
+     */
+    synchronized long memoryBytes() {
+        return memoryBytes;
+    }
+
+    /**
+     * Evict sessions that have been idle for too long. The map is in access order, so stop at the first session
+     * that is still fresh.
+     *
+     * @param now The current time in milliseconds
+     */
+    private void evictIdle(long now) {
+        Iterator<Session> iterator = sessions.values().iterator();
+        while(iterator.hasNext()) {
+            Session session = iterator.next();
+            if(now - session.lastAccess <= idleTimeoutMillis) {
+                return;
+            }
+            iterator.remove();
+            memoryBytes -= session.memoryBytes();
+        }
+    }
+
+    /**
+     * Evict least recently used sessions until the memory budget is met. Never evicts the session being handed out.
+     *
+     * @param keep The session to keep
+     */
+    private void evictOverBudget(Session keep) {
+        Iterator<Session> iterator = sessions.values().iterator();
+        while(memoryBytes > memoryBudgetBytes && iterator.hasNext()) {
+            Session session = iterator.next();
+            if(session != keep) {
+                iterator.remove();
+                memoryBytes -= session.memoryBytes();
+                App.logEntry("SessionRegistry evicted session " + session.id + " to stay within its memory budget.");
+            }
+        }
+    }
+}
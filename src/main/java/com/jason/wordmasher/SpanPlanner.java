@@ -0,0 +1,130 @@
+package com.jason.wordmasher;
+
+import java.util.Random;
+
+/**
+ * Plans frankenwords of an exact length before any word is picked: how long each word's subword (span) should be,
+ * then which word length to take each span from.
+ *
+ * A span of length s can be cut from any eligible word of length len >= s, at any of len - s + 1 offsets, so it has
+ * weight(s) = sum over len >= s of count(len) * (len - s + 1) ways to be made. A small DP counts the ways to make a
+ * whole frankenword: ways[j][t] = sum over s of weight(s) * ways[j - 1][t - s]. Sampling spans backwards through that
+ * table picks every (word, offset) combination of the target length with equal probability, in time that does not
+ * depend on how rare the target length is, and with nothing generated and thrown away.
+ */
+final class SpanPlanner {
+
+    static final int MAX_LENGTH = App.MAX_WORDS_PER_FRANKENWORD * WordIndex.MAX_ELIGIBLE_LENGTH;
+
+    final int[][] slotsByLength;
+    private final double[] weights;
+    private final double[][] ways;
+
+    /**
+     * Build the planner for a dictionary snapshot.
+     *
+     * @param index The dictionary snapshot
+     */
+    SpanPlanner(WordIndex index) throws IllegalStateException {
+        if(index == null) {
+            throw new IllegalStateException("Error: SpanPlanner received a null index.");
+        }
+        int[] counts = new int[WordIndex.MAX_ELIGIBLE_LENGTH + 1];
+        for(int slot = 0; slot < index.eligibleCount(); slot++) {
+            counts[index.words.get(index.eligible[slot]).length()]++;
+        }
+        slotsByLength = new int[WordIndex.MAX_ELIGIBLE_LENGTH + 1][];
+        for(int length = 0; length <= WordIndex.MAX_ELIGIBLE_LENGTH; length++) {
+            slotsByLength[length] = new int[counts[length]];
+        }
+        int[] filled = new int[WordIndex.MAX_ELIGIBLE_LENGTH + 1];
+        for(int slot = 0; slot < index.eligibleCount(); slot++) {
+            int length = index.words.get(index.eligible[slot]).length();
+            slotsByLength[length][filled[length]++] = slot;
+        }
+
+        weights = new double[WordIndex.MAX_ELIGIBLE_LENGTH + 1];
+        for(int span = 1; span <= WordIndex.MAX_ELIGIBLE_LENGTH; span++) {
+            for(int length = span; length <= WordIndex.MAX_ELIGIBLE_LENGTH; length++) {
+                weights[span] += (double) counts[length] * (length - span + 1);
+            }
+        }
+        ways = new double[App.MAX_WORDS_PER_FRANKENWORD + 1][MAX_LENGTH + 1];
+        ways[0][0] = 1;
+        for(int words = 1; words <= App.MAX_WORDS_PER_FRANKENWORD; words++) {
+            for(int total = 1; total <= MAX_LENGTH; total++) {
+                for(int span = 1; span <= Math.min(total, WordIndex.MAX_ELIGIBLE_LENGTH); span++) {
+                    ways[words][total] += weights[span] * ways[words - 1][total - span];
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if a frankenword of the given length can be made from the given number of words
+     */
+    boolean canPlan(int words, int length) { // tested
+        return words >= 1 && words <= App.MAX_WORDS_PER_FRANKENWORD && length >= 0 && length <= MAX_LENGTH
+                && ways[words][length] > 0;
+    }
+
+    /**
+     * Pick span lengths that add up to the target length.
+     *
+     * @param words  The number of words (spans)
+     * @param length The target length
+     * @param random The PRNG to use
+     * @return       The span lengths, in order
+     */
+    int[] planSpans(int words, int length, Random random) throws IllegalStateException { // tested
+        if(!canPlan(words, length)) {
+            throw new IllegalStateException("Error: SpanPlanner cannot make a frankenword of length " + length
+                    + " from " + words + " words.");
+        }
+        int[] spans = new int[words];
+        int remaining = length;
+        for(int j = words; j >= 1; j--) {
+            double pick = random.nextDouble() * ways[j][remaining];
+            int span = 1;
+            int lastPossible = 1;
+            for(; span <= Math.min(remaining, WordIndex.MAX_ELIGIBLE_LENGTH); span++) {
+                double w = weights[span] * ways[j - 1][remaining - span];
+                if(w > 0) {
+                    lastPossible = span;
+                    if(pick < w) {
+                        break;
+                    }
+                    pick -= w;
+                }
+            }
+            // Rounding can leave pick a hair above the last weight; fall back to the last possible span.
+            span = Math.min(span, lastPossible);
+            spans[j - 1] = span;
+            remaining -= span;
+        }
+        return spans;
+    }
+
+    /**
+     * Pick the length of the word to cut a span from, weighted by the number of (word, offset) pairs of each length.
+     *
+     * @param span   The span length
+     * @param random The PRNG to use
+     * @return       The word length
+     */
+    int pickWordLength(int span, Random random) { // tested
+        double pick = random.nextDouble() * weights[span];
+        int lastPossible = span;
+        for(int length = span; length <= WordIndex.MAX_ELIGIBLE_LENGTH; length++) {
+            double w = (double) slotsByLength[length].length * (length - span + 1);
+            if(w > 0) {
+                lastPossible = length;
+                if(pick < w) {
+                    return length;
+                }
+                pick -= w;
+            }
+        }
+        return lastPossible;
+    }
+}
@@ -0,0 +1,255 @@
+package com.jason.wordmasher;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A suffix array, with its LCP array, over the lower-cased eligible words of a dictionary snapshot, each followed by a
+ * separator so that no match ever runs from one word into the next.
+ *
+ * Every occurrence of a pattern in the eligible words is one contiguous interval of the suffix array. The interval
+ * starts at the first suffix not below the pattern (a binary search) and runs for as long as neighbouring suffixes
+ * share at least pattern-length characters (a scan of the LCP array, with no further string comparisons). Intervals
+ * are cached per pattern, so after the first lookup, picking a random occurrence of a pattern is O(1).
+ */
+final class SuffixIndex {
+
+    private static final char SEPARATOR = '\0';
+    private static final int ALPHABET = Character.MAX_VALUE + 1;
+
+    private final char[] text;
+    private final int[] suffixes;
+    private final int[] lcp;
+    private final int[] wordStarts;
+    private final ConcurrentHashMap<String, int[]> ranges = new ConcurrentHashMap<>();
+
+    /**
+     * Build the index for a dictionary snapshot.
+     *
+     * @param index The dictionary snapshot
+     */
+    SuffixIndex(WordIndex index) throws IllegalStateException {
+        if(index == null) {
+            throw new IllegalStateException("Error: SuffixIndex received a null index.");
+        }
+        int length = 0;
+        for(int slot : index.eligible) {
+            length += index.words.get(slot).length() + 1;
+        }
+        text = new char[length];
+        wordStarts = new int[index.eligibleCount() + 1];
+        int position = 0;
+        for(int slot = 0; slot < index.eligibleCount(); slot++) {
+            wordStarts[slot] = position;
+            String word = index.words.get(index.eligible[slot]);
+            for(int i = 0; i < word.length(); i++) {
+                text[position++] = Character.toLowerCase(word.charAt(i));
+            }
+            text[position++] = SEPARATOR;
+        }
+        wordStarts[index.eligibleCount()] = position;
+        suffixes = buildSuffixArray(text);
+        lcp = buildLcpArray(text, suffixes);
+    }
+
+    /**
+     * Find the suffix array interval of every occurrence of a pattern, ignoring case.
+     *
+     * @param pattern The pattern (no separators)
+     * @return        {lo, hi}: suffixes[lo .. hi - 1] are the occurrences (empty if lo == hi)
+     */
+    int[] range(String pattern) { // tested
+        return ranges.computeIfAbsent(pattern.toLowerCase(Locale.ROOT), p -> {
+            int lo = 0;
+            int hi = suffixes.length;
+            while(lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if(compare(suffixes[mid], p) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            if(lo == suffixes.length || compare(suffixes[lo], p) != 0) {
+                return new int[] {lo, lo};
+            }
+            int end = lo + 1;
+            while(end < suffixes.length && lcp[end] >= p.length()) {
+                end++;
+            }
+            return new int[] {lo, end};
+        });
+    }
+
+    /**
+     * @return the text position of the k-th smallest suffix
+     */
+    int position(int k) {
+        return suffixes[k];
+    }
+
+    /**
+     * @return the eligible slot of the word a text position falls in
+     */
+    int slotAt(int position) {
+        int lo = 0;
+        int hi = wordStarts.length - 2;
+        while(lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if(wordStarts[mid] <= position) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * @return the offset of a text position within its word
+     */
+    int offsetAt(int position, int slot) {
+        return position - wordStarts[slot];
+    }
+
+    /**
+     * Compare the suffix at a position with a pattern, looking only at the pattern's length.
+     */
+    private int compare(int position, String pattern) {
+        for(int i = 0; i < pattern.length(); i++) {
+            if(position + i == text.length) {
+                return -1;
+            }
+            int diff = text[position + i] - pattern.charAt(i);
+            if(diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Sort the suffixes of a text by prefix doubling: after round k, suffixes are ranked by their first 2^k
+     * characters, and each round is two stable counting sorts on (rank, rank 2^k further on). O(n log n).
+     *
+     * @param text The text
+     * @return     The start positions of the suffixes, in sorted order
+     */
+    static int[] buildSuffixArray(char[] text) { // tested
+        int n = text.length;
+        int[] suffixes = new int[n];
+        int[] rank = new int[n];
+        int[] next = new int[n];
+        if(n == 0) {
+            return suffixes;
+        }
+        for(int i = 0; i < n; i++) {
+            rank[i] = text[i];
+        }
+        countingSort(identity(n), rank, suffixes, ALPHABET);
+        int ranks = rerank(suffixes, rank, next, 0);
+        int[] swap = rank;
+        rank = next;
+        next = swap;
+        for(int k = 1; ranks < n; k <<= 1) {
+            // Order by the second key first: suffixes too short to have one come first, then the rest in the order
+            // of the suffix k further on, which the previous round already sorted.
+            int p = 0;
+            for(int i = n - k; i < n; i++) {
+                next[p++] = i;
+            }
+            for(int suffix : suffixes) {
+                if(suffix >= k) {
+                    next[p++] = suffix - k;
+                }
+            }
+            countingSort(next, rank, suffixes, ranks);
+            ranks = rerank(suffixes, rank, next, k);
+            swap = rank;
+            rank = next;
+            next = swap;
+        }
+        return suffixes;
+    }
+
+    /**
+     * Compute the LCP array with Kasai's algorithm: lcp[k] is the length of the common prefix of suffixes[k - 1] and
+     * suffixes[k], not counting separators (lcp[0] is 0). O(n).
+     *
+     * @param text     The text
+     * @param suffixes The suffix array of the text
+     * @return         The LCP array
+     */
+    static int[] buildLcpArray(char[] text, int[] suffixes) { // tested
+        int n = text.length;
+        int[] rankOf = new int[n];
+        for(int k = 0; k < n; k++) {
+            rankOf[suffixes[k]] = k;
+        }
+        int[] lcp = new int[n];
+        int h = 0;
+        for(int i = 0; i < n; i++) {
+            if(rankOf[i] == 0) {
+                h = 0;
+                continue;
+            }
+            int j = suffixes[rankOf[i] - 1];
+            while(i + h < n && j + h < n && text[i + h] == text[j + h] && text[i + h] != SEPARATOR) {
+                h++;
+            }
+            lcp[rankOf[i]] = h;
+            if(h > 0) {
+                h--;
+            }
+        }
+        return lcp;
+    }
+
+    private static int[] identity(int n) {
+        int[] order = new int[n];
+        for(int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        return order;
+    }
+
+    /**
+     * Stable counting sort of positions by key.
+     */
+    private static void countingSort(int[] positions, int[] key, int[] out, int keys) {
+        int[] count = new int[keys + 1];
+        for(int position : positions) {
+            count[key[position] + 1]++;
+        }
+        for(int i = 1; i <= keys; i++) {
+            count[i] += count[i - 1];
+        }
+        for(int position : positions) {
+            out[count[key[position]]++] = position;
+        }
+    }
+
+    /**
+     * Give sorted suffixes new dense ranks by (rank, rank k further on).
+     *
+     * @return the number of distinct ranks
+     */
+    private static int rerank(int[] suffixes, int[] rank, int[] out, int k) {
+        int n = suffixes.length;
+        out[suffixes[0]] = 0;
+        for(int s = 1; s < n; s++) {
+            int a = suffixes[s - 1];
+            int b = suffixes[s];
+            boolean same = rank[a] == rank[b] && secondKey(rank, a, k) == secondKey(rank, b, k);
+            out[b] = out[a] + (same ? 0 : 1);
+        }
+        return out[suffixes[n - 1]] + 1;
+    }
+
+    private static int secondKey(int[] rank, int i, int k) {
+        if(k == 0) {
+            return 0;
+        }
+        return i + k < rank.length ? rank[i + k] : -1;
+    }
+}
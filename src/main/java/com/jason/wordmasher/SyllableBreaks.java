@@ -0,0 +1,170 @@
+package com.jason.wordmasher;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Syllable break points of words, found with Liang's pattern hyphenation algorithm (as in TeX). The breaks of a
+ * snapshot's eligible words are precomputed once into a table indexed by eligible slot (see WordIndex.syllableBreaks),
+ * so generation only has to look them up.
+ *
+ * A pattern is a short string of letters with digits between them, e.g. "1b2l": wherever its letters appear in a
+ * word, each digit votes on the gap it sits in. The highest vote in each gap wins: odd means a break is allowed, even
+ * means it is not. The breaks of a word are packed into an int bitmask: bit p is set if a subword may start or end at
+ * position p. Bits 0 and word.length() are always set, so any word can be used whole.
+ */
+final class SyllableBreaks {
+
+    static final String PATTERNS_RESOURCE = "/hyphenation_patterns.txt";
+
+    // No break leaves fewer than this many letters on either side (TeX's \lefthyphenmin and \righthyphenmin).
+    private static final int MIN_LETTERS = 2;
+
+    private static volatile SyllableBreaks embedded;
+
+    private final Map<String, byte[]> patterns = new HashMap<>();
+    private final int maxPatternLength;
+
+    /**
+     * Compile a set of hyphenation patterns.
+     *
+     * @param patterns The hyphenation patterns, in TeX notation
+     */
+    SyllableBreaks(List<String> patterns) throws IllegalStateException {
+        if(patterns == null) {
+            throw new IllegalStateException("Error: SyllableBreaks received a null list.");
+        }
+        int longest = 0;
+        for(String pattern : patterns) {
+            StringBuilder letters = new StringBuilder();
+            byte[] values = new byte[pattern.length() + 1];
+            for(int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if(c >= '0' && c <= '9') {
+                    values[letters.length()] = (byte) (c - '0');
+                } else {
+                    letters.append(Character.toLowerCase(c));
+                }
+            }
+            if(letters.length() == 0) {
+                throw new IllegalStateException("Error: SyllableBreaks received an illegal pattern: " + pattern);
+            }
+            // Patterns with the same letters (e.g. "2ted." and "t3ed.") add up to one pattern ("2t3ed.").
+            this.patterns.merge(letters.toString(), Arrays.copyOf(values, letters.length() + 1), (old, added) -> {
+                for(int k = 0; k < old.length; k++) {
+                    old[k] = (byte) Math.max(old[k], added[k]);
+                }
+                return old;
+            });
+            longest = Math.max(longest, letters.length());
+        }
+        maxPatternLength = longest;
+    }
+
+    /**
+     * Get the embedded patterns (see PATTERNS_RESOURCE), compiling them on first use.
+     *
+     * @return the compiled patterns
+     */
+    static SyllableBreaks embedded() throws IllegalStateException {
+        SyllableBreaks compiled = embedded;
+        if(compiled == null) {
+            synchronized(SyllableBreaks.class) {
+                compiled = embedded;
+                if(compiled == null) {
+                    compiled = new SyllableBreaks(readEmbeddedPatterns());
+                    embedded = compiled;
+                }
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Read the patterns embedded in the jar (see PATTERNS_RESOURCE).
+     *
+     * @return The patterns, in TeX notation
+     */
+    static List<String> readEmbeddedPatterns() throws IllegalStateException { // tested
+        InputStream in = SyllableBreaks.class.getResourceAsStream(PATTERNS_RESOURCE);
+        if(in == null) {
+            throw new IllegalStateException("Error: SyllableBreaks could not find " + PATTERNS_RESOURCE + ".");
+        }
+        List<String> patterns = new ArrayList<>();
+        try(BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                int comment = line.indexOf('%');
+                if(comment >= 0) {
+                    line = line.substring(0, comment);
+                }
+                for(String pattern : line.trim().split("\\s+")) {
+                    if(!pattern.isEmpty()) {
+                        patterns.add(pattern);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Error: SyllableBreaks could not read " + PATTERNS_RESOURCE + ": "
+                    + e.getMessage());
+        }
+        return patterns;
+    }
+
+    /**
+     * Compute the breaks of every eligible word of a dictionary snapshot.
+     *
+     * @param index The dictionary snapshot
+     * @return      The break bitmasks, indexed by eligible slot
+     */
+    int[] of(WordIndex index) { // tested
+        int[] masks = new int[index.eligibleCount()];
+        for(int slot = 0; slot < masks.length; slot++) {
+            masks[slot] = of(index.words.get(index.eligible[slot]));
+        }
+        return masks;
+    }
+
+    /**
+     * Run the patterns over a word.
+     *
+     * @param word The word
+     * @return     The break bitmask
+     */
+    int of(String word) { // tested
+        String padded = "." + word.toLowerCase(Locale.ROOT) + ".";
+        byte[] votes = new byte[padded.length() + 1];
+        for(int start = 0; start < padded.length(); start++) {
+            for(int end = start + 1; end <= Math.min(padded.length(), start + maxPatternLength); end++) {
+                byte[] values = patterns.get(padded.substring(start, end));
+                if(values != null) {
+                    for(int k = 0; k < values.length; k++) {
+                        votes[start + k] = (byte) Math.max(votes[start + k], values[k]);
+                    }
+                }
+            }
+        }
+        int mask = 1 | 1 << word.length();
+        for(int p = MIN_LETTERS; p <= word.length() - MIN_LETTERS; p++) {
+            // Gap p of the word is gap p + 1 of the padded word.
+            if(votes[p + 1] % 2 == 1) {
+                mask |= 1 << p;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Pick a random set bit of a mask.
+     *
+     * @param mask The mask (not 0)
+     * @return     The position of the bit
+     */
+    static int randomBreak(int mask) { // tested
+        for(int skip = App.getRandomIntInInclusiveRange(0, Integer.bitCount(mask) - 1); skip > 0; skip--) {
+            mask &= mask - 1;
+        }
+        return Integer.numberOfTrailingZeros(mask);
+    }
+}
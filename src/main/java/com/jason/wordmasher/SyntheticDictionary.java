@@ -0,0 +1,201 @@
+package com.jason.wordmasher;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes synthetic words files of any size, for measuring how the program behaves on dictionaries far bigger than
+ * english_words.txt (see ScalingSweep).
+ *
+ * Each word is a random string over an alphabet, with a length drawn from a weighted distribution. By default the
+ * weights follow the word lengths of english_words.txt, so about the same share of words is eligible for mashing.
+ * The same seed always writes the same file. Words are not guaranteed to be distinct, but with the default alphabet
+ * repeats are rare enough not to matter.
+ */
+final class SyntheticDictionary {
+
+    static final String LENGTHS_ARG = "-lengths";
+    static final String ALPHABET_ARG = "-alphabet";
+    static final String SEED_ARG = "-seed";
+    static final String ENGLISH_LENGTHS = "english";
+    static final String DEFAULT_ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+    static final long DEFAULT_SEED = 1;
+    static final int MAX_LENGTH = 64;
+
+    // The number of words of each length (the index) in english_words.txt, per 10 words.
+    static final int[] ENGLISH_LENGTH_WEIGHTS = {0, 0, 5, 59, 229, 427, 694, 920, 940, 770, 638, 456, 310, 188, 92,
+            49, 19, 10, 4, 1, 1};
+
+    private static final int WRITER_BUFFER_SIZE = 1024 * 1024;
+
+    private final long[] cumulativeWeights;
+    private final char[] alphabet;
+    private final long seed;
+
+    /**
+     * @param lengthWeights The relative weight of each word length (the index); lengths past the end weigh 0
+     * @param alphabet      The characters words are made of
+     * @param seed          The seed of the random number generator
+     */
+    SyntheticDictionary(int[] lengthWeights, char[] alphabet, long seed) throws IllegalStateException {
+        if(lengthWeights == null || lengthWeights.length < 2 || lengthWeights.length > MAX_LENGTH + 1
+                || alphabet == null || alphabet.length == 0) {
+            throw new IllegalStateException("Error: SyntheticDictionary received an illegal argument.");
+        }
+        cumulativeWeights = new long[lengthWeights.length];
+        long total = 0;
+        for(int length = 0; length < lengthWeights.length; length++) {
+            if(lengthWeights[length] < 0 || (length == 0 && lengthWeights[0] != 0)) {
+                throw new IllegalStateException("Error: SyntheticDictionary received an illegal length weight.");
+            }
+            total += lengthWeights[length];
+            cumulativeWeights[length] = total;
+        }
+        if(total == 0) {
+            throw new IllegalStateException("Error: SyntheticDictionary received no positive length weight.");
+        }
+        this.alphabet = alphabet.clone();
+        this.seed = seed;
+    }
+
+    /**
+     * Tool entry point. Writes a synthetic words file.
+     *
+     * @param args The file to write and the number of words, then optionally LENGTHS_ARG (ENGLISH_LENGTHS, INT or
+     *             MIN-MAX), ALPHABET_ARG (a string of characters) and SEED_ARG (a long), each with its value
+     */
+    public static void main(String[] args) {
+        try {
+            if(args.length < 2) {
+                throw new IllegalStateException("Usage: SyntheticDictionary FILE WORDS [" + LENGTHS_ARG + " " +
+                        ENGLISH_LENGTHS + "|INT|MIN-MAX] [" + ALPHABET_ARG + " STRING] [" + SEED_ARG + " LONG]");
+            }
+            Path file = Paths.get(args[0]);
+            long count = parseLong(args[1], 1, Long.MAX_VALUE);
+            long start = System.nanoTime();
+            long bytes = fromOptions(parseOptions(args, 2)).write(file, count);
+            App.print(String.format("Wrote %,d words (%,d bytes) to %s in %s.", count, bytes, file,
+                    Benchmark.formatNanos(System.nanoTime() - start)));
+        } catch (IOException | IllegalStateException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Build a dictionary from the options of main (or ScalingSweep.main).
+     *
+     * @param options The options, by name
+     * @return        The dictionary
+     */
+    static SyntheticDictionary fromOptions(Map<String, String> options) throws IllegalStateException { // tested
+        String alphabet = options.getOrDefault(ALPHABET_ARG, DEFAULT_ALPHABET);
+        return new SyntheticDictionary(parseLengths(options.getOrDefault(LENGTHS_ARG, ENGLISH_LENGTHS)),
+                alphabet.toCharArray(), options.containsKey(SEED_ARG)
+                        ? parseLong(options.get(SEED_ARG), Long.MIN_VALUE, Long.MAX_VALUE) : DEFAULT_SEED);
+    }
+
+    /**
+     * Parse a length distribution: ENGLISH_LENGTHS, a single length, or a uniform range MIN-MAX.
+     *
+     * @param lengths The distribution
+     * @return        The weight of each length (the index)
+     */
+    static int[] parseLengths(String lengths) throws IllegalStateException { // tested
+        if(lengths.equalsIgnoreCase(ENGLISH_LENGTHS)) {
+            return ENGLISH_LENGTH_WEIGHTS.clone();
+        }
+        int dash = lengths.indexOf('-', 1);
+        int min = (int) parseLong(dash < 0 ? lengths : lengths.substring(0, dash), 1, MAX_LENGTH);
+        int max = dash < 0 ? min : (int) parseLong(lengths.substring(dash + 1), min, MAX_LENGTH);
+        int[] weights = new int[max + 1];
+        Arrays.fill(weights, min, max + 1, 1);
+        return weights;
+    }
+
+    /**
+     * Write a words file, one word per line, in the default charset (as App.readFileIntoListOfStrings reads it).
+     *
+     * @param file  The file to write (replaced if it exists)
+     * @param count The number of words
+     * @return      The size of the file in bytes
+     */
+    long write(Path file, long count) throws IOException { // tested
+        Prng random = new Prng(Prng.mix(seed));
+        char[] line = new char[cumulativeWeights.length];
+        long total = cumulativeWeights[cumulativeWeights.length - 1];
+        try(Writer out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file),
+                Charset.defaultCharset()), WRITER_BUFFER_SIZE)) {
+            for(long i = 0; i < count; i++) {
+                int length = lengthOf(1 + (long) (random.nextDouble() * total));
+                // One 64-bit draw picks four characters, 16 bits each.
+                long bits = 0;
+                for(int k = 0; k < length; k++) {
+                    if((k & 3) == 0) {
+                        bits = random.nextLong();
+                    }
+                    line[k] = alphabet[(int) (((bits & 0xFFFF) * alphabet.length) >>> 16)];
+                    bits >>>= 16;
+                }
+                line[length] = '\n';
+                out.write(line, 0, length + 1);
+            }
+        }
+        return Files.size(file);
+    }
+
+    /**
+     * @return the shortest length whose cumulative weight reaches a draw from 1 to the total weight
+     */
+    private int lengthOf(long draw) {
+        int found = Arrays.binarySearch(cumulativeWeights, draw);
+        if(found < 0) {
+            return -found - 1;
+        }
+        // Lengths of weight 0 share their cumulative weight with the length before them; take the first.
+        while(found > 0 && cumulativeWeights[found - 1] == cumulativeWeights[found]) {
+            found--;
+        }
+        return found;
+    }
+
+    /**
+     * Collect "-name value" pairs into a map.
+     *
+     * @param args  The arguments
+     * @param first The index of the first option
+     * @return      The options, by name
+     */
+    static Map<String, String> parseOptions(String[] args, int first) throws IllegalStateException { // tested
+        Map<String, String> options = new HashMap<>();
+        for(int i = first; i < args.length; i += 2) {
+            if(!args[i].startsWith("-") || i + 1 == args.length) {
+                throw new IllegalStateException("Error: expected an option and its value, found " + args[i] + ".");
+            }
+            options.put(args[i], args[i + 1]);
+        }
+        return options;
+    }
+
+    /**
+     * @return a long parsed from a string, if it is in range
+     */
+    static long parseLong(String value, long min, long max) throws IllegalStateException {
+        long parsed;
+        try {
+            parsed = Long.parseLong(value.trim().replace("_", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Error: " + value + " is not a number.");
+        }
+        if(parsed < min || parsed > max) {
+            throw new IllegalStateException("Error: " + value + " is out of range (" + min + " to " + max + ").");
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,135 @@
+package com.jason.wordmasher;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A flight recorder for the log: a fixed-size ring of binary records that hot code can write to on every
+ * frankenword, and that is only turned into text when something has gone wrong (see App.handleMainException) or
+ * when asked to (see App.TRACE_ARG).
+ *
+ * A record is a timestamp, the writing thread, a Code and three long arguments, stored in one preallocated long[]
+ * with a cache line per record, so writers on different threads never share a line. Writing takes no lock and
+ * allocates nothing: a writer claims a sequence number with one atomic increment, fills the record, then publishes
+ * it by storing its stamp (sequence + 1) with release semantics. A reader accepts a record only if its stamp is the
+ * one expected both before and after reading it, so a record being overwritten is skipped, never decoded torn. Once
+ * the ring is full, each new record replaces the oldest.
+ */
+final class TraceRing {
+
+    static final int DEFAULT_CAPACITY = 4096;
+
+    private static final int RECORD_SHIFT = 3; // 8 longs (64 bytes) per record
+    private static final int STAMP = 0;
+    private static final int TIME = 1;
+    private static final int THREAD = 2;
+    private static final int CODE = 3;
+    private static final int ARGUMENTS = 4;
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * What a record means. Each code's format receives the record's three arguments, in order.
+     */
+    enum Code {
+        DICTIONARY_LOADED("dictionary loaded: %d words, %d bytes"),
+        INDEX_BUILT("index built: %d words, %d eligible, fingerprint %x"),
+        BATCH_STARTED("batch started: %d frankenwords"),
+        WORDS_DRAWN("needed %2$d attempts to draw %1$d unused words from %3$d eligible"),
+        SPECIAL_CHARACTERS_ADDED("needed %2$d attempts to add %1$d special characters to a frankenword of length %3$d"),
+        FRANKENWORD_MADE("made a frankenword of length %d after %d rejections"),
+        OUTPUT_FLUSHED("flushed %d bytes"),
+        CHECKPOINT_WRITTEN("checkpoint written after %d frankenwords at offset %d");
+
+        final String format;
+
+        Code(String format) {
+            this.format = format;
+        }
+    }
+
+    private static final Code[] CODES = Code.values();
+
+    private final long[] records;
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+    private final long epochMillis = System.currentTimeMillis();
+    private final long epochNanos = System.nanoTime();
+
+    /**
+     * @param capacity The number of records kept (a power of two)
+     */
+    TraceRing(int capacity) throws IllegalStateException {
+        if(capacity < 1 || Integer.bitCount(capacity) != 1 || capacity > (1 << (30 - RECORD_SHIFT))) {
+            throw new IllegalStateException("Error: TraceRing received an illegal capacity: " + capacity + ".");
+        }
+        this.records = new long[capacity << RECORD_SHIFT];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Write a record. Lock-free and allocation-free; safe to call from any number of threads.
+     *
+     * @param code The meaning of the record
+     * @param a    The first argument
+     * @param b    The second argument
+     * @param c    The third argument
+     */
+    void record(Code code, long a, long b, long c) { // tested
+        long sequence = next.getAndIncrement();
+        int base = (int) (sequence & mask) << RECORD_SHIFT;
+        // Invalidate the slot before touching it, so a reader never takes the old stamp for the new fields.
+        LONGS.setOpaque(records, base + STAMP, 0L);
+        VarHandle.storeStoreFence();
+        records[base + TIME] = System.nanoTime();
+        records[base + THREAD] = Thread.currentThread().getId();
+        records[base + CODE] = code.ordinal();
+        records[base + ARGUMENTS] = a;
+        records[base + ARGUMENTS + 1] = b;
+        records[base + ARGUMENTS + 2] = c;
+        LONGS.setRelease(records, base + STAMP, sequence + 1);
+    }
+
+    /**
+     * @return the number of records written since the ring was made (including those since overwritten)
+     */
+    long written() {
+        return next.get();
+    }
+
+    /**
+     * Decode the records still in the ring, oldest first. Records being written while this runs are skipped.
+     *
+     * @return One line per record: wall-clock time, thread and message
+     */
+    List<String> decode() { // tested
+        long end = next.get();
+        long start = Math.max(0, end - (mask + 1));
+        List<String> lines = new ArrayList<>((int) (end - start));
+        SimpleDateFormat time = new SimpleDateFormat("kk:mm:ss:SSS");
+        long[] fields = new long[ARGUMENTS + 3];
+        for(long sequence = start; sequence < end; sequence++) {
+            int base = (int) (sequence & mask) << RECORD_SHIFT;
+            if((long) LONGS.getAcquire(records, base + STAMP) != sequence + 1) {
+                continue;
+            }
+            System.arraycopy(records, base, fields, 0, fields.length);
+            VarHandle.loadLoadFence();
+            if((long) LONGS.getOpaque(records, base + STAMP) != sequence + 1 || fields[CODE] < 0
+                    || fields[CODE] >= CODES.length) {
+                continue;
+            }
+            long nanos = fields[TIME] - epochNanos;
+            String when = time.format(new Date(epochMillis + Math.floorDiv(nanos, 1000000)));
+            lines.add(String.format(Locale.ROOT, "%s.%03d t%d %s", when, Math.floorMod(nanos, 1000000) / 1000,
+                    fields[THREAD], String.format(Locale.ROOT, CODES[(int) fields[CODE]].format,
+                            fields[ARGUMENTS], fields[ARGUMENTS + 1], fields[ARGUMENTS + 2])));
+        }
+        return lines;
+    }
+}
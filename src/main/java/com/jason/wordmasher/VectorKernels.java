@@ -0,0 +1,69 @@
+package com.jason.wordmasher;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * BatchDecorator.Kernels on the Vector API (jdk.incubator.vector): each pass works on as many bytes at a time as the
+ * CPU's preferred SIMD registers hold (16 with SSE or NEON, 32 with AVX2, 64 with AVX-512), with the bytes left over
+ * at the end done by BatchDecorator.ScalarKernels.
+ *
+ * Only loaded, by BatchDecorator, when the JVM was started with --add-modules jdk.incubator.vector.
+ */
+final class VectorKernels implements BatchDecorator.Kernels {
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+    private static final int MIN_USEFUL_BITS = 128;
+    private static final byte SIGN_BIT = (byte) 0x80;
+
+    private final BatchDecorator.ScalarKernels tail = new BatchDecorator.ScalarKernels();
+
+    /**
+     * @return whether the CPU has SIMD registers wide enough to be worth it (without them, the Vector API falls
+     *         back to slow Java code)
+     */
+    static boolean worthUsing() {
+        return SPECIES.vectorBitSize() >= MIN_USEFUL_BITS;
+    }
+
+    @Override
+    public void capitalize(byte[] data, byte[] noise, int from, int to, int threshold) { // tested
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        // An unsigned comparison, as a signed one with the sign bits flipped (JDK 17 has no unsigned compare).
+        byte signedThreshold = (byte) (threshold ^ SIGN_BIT);
+        for(; i < bound; i += SPECIES.length()) {
+            ByteVector v = ByteVector.fromArray(SPECIES, data, i);
+            VectorMask<Byte> upper = v.compare(VectorOperators.GE, (byte) 'A')
+                    .and(v.compare(VectorOperators.LE, (byte) 'Z'));
+            v = v.lanewise(VectorOperators.OR, (byte) 0x20, upper);
+            VectorMask<Byte> pick = v.compare(VectorOperators.GE, (byte) 'a')
+                    .and(v.compare(VectorOperators.LE, (byte) 'z'))
+                    .and(ByteVector.fromArray(SPECIES, noise, i).lanewise(VectorOperators.XOR, SIGN_BIT)
+                            .compare(VectorOperators.LT, signedThreshold));
+            v.lanewise(VectorOperators.AND, (byte) ~0x20, pick).intoArray(data, i);
+        }
+        tail.capitalize(data, noise, i, to, threshold);
+    }
+
+    @Override
+    public void substitute(byte[] data, byte[] substitutions, int from, int to) { // tested
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for(; i < bound; i += SPECIES.length()) {
+            ByteVector s = ByteVector.fromArray(SPECIES, substitutions, i);
+            VectorMask<Byte> replace = s.compare(VectorOperators.NE, (byte) 0);
+            if(replace.anyTrue()) {
+                ByteVector.fromArray(SPECIES, data, i).blend(s, replace).intoArray(data, i);
+            }
+        }
+        tail.substitute(data, substitutions, i, to);
+    }
+
+    @Override
+    public String name() {
+        return "vector (" + SPECIES.vectorBitSize() + "-bit)";
+    }
+}
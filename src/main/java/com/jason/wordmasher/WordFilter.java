@@ -0,0 +1,176 @@
+package com.jason.wordmasher;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable set of dictionary positions, stored as a bitset with one bit per word. Used to decide which words are
+ * eligible for mashing.
+ *
+ * Each predicate (length range, ASCII letters only, regex, exclude list) is evaluated exactly once per word, when a
+ * dictionary is loaded. Filters then combine with and, or and not, 64 words at a time. The result is turned into a
+ * select table (the positions of the set bits, in order), which becomes WordIndex.eligible, so every sampler draws
+ * only from words that passed, and a filter costs nothing at generation time.
+ */
+final class WordFilter {
+
+    final int size;
+    private final long[] bits;
+
+    private WordFilter(int size, long[] bits) {
+        this.size = size;
+        this.bits = bits;
+    }
+
+    /**
+     * Evaluate a predicate once for every word.
+     *
+     * @param words     The dictionary
+     * @param predicate The predicate
+     * @return          The positions of the words that pass
+     */
+    static WordFilter of(List<String> words, Predicate<String> predicate) { // tested
+        long[] bits = new long[(words.size() + 63) / 64];
+        for(int i = 0; i < words.size(); i++) {
+            if(predicate.test(words.get(i))) {
+                bits[i >>> 6] |= 1L << i;
+            }
+        }
+        return new WordFilter(words.size(), bits);
+    }
+
+    /**
+     * @return the positions of the words with a length in [min, max]
+     */
+    static WordFilter lengthBetween(List<String> words, int min, int max) { // tested
+        return of(words, word -> word.length() >= min && word.length() <= max);
+    }
+
+    /**
+     * @return the positions of the words made only of ASCII letters
+     */
+    static WordFilter asciiLettersOnly(List<String> words) { // tested
+        return of(words, word -> {
+            for(int i = 0; i < word.length(); i++) {
+                char c = word.charAt(i);
+                if(!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'))) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    /**
+     * @return the positions of the words the regex matches in full
+     */
+    static WordFilter matching(List<String> words, Pattern regex) { // tested
+        return of(words, word -> regex.matcher(word).matches());
+    }
+
+    /**
+     * @return the positions of the words that are not in a list, ignoring case
+     */
+    static WordFilter excluding(List<String> words, Collection<String> excluded) { // tested
+        Set<String> lowerCase = new HashSet<>();
+        for(String word : excluded) {
+            lowerCase.add(word.toLowerCase(Locale.ROOT));
+        }
+        return of(words, word -> !lowerCase.contains(word.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * @return exactly the given positions, out of size words
+     */
+    static WordFilter ofPositions(int size, int[] positions) throws IllegalStateException {
+        long[] bits = new long[(size + 63) / 64];
+        for(int i : positions) {
+            if(i < 0 || i >= size) {
+                throw new IllegalStateException("Error: WordFilter received a position out of range: " + i);
+            }
+            bits[i >>> 6] |= 1L << i;
+        }
+        return new WordFilter(size, bits);
+    }
+
+    /**
+     * @return the words in both this filter and the other
+     */
+    WordFilter and(WordFilter other) throws IllegalStateException { // tested
+        checkSameSize(other);
+        long[] combined = new long[bits.length];
+        for(int w = 0; w < bits.length; w++) {
+            combined[w] = bits[w] & other.bits[w];
+        }
+        return new WordFilter(size, combined);
+    }
+
+    /**
+     * @return the words in either this filter or the other
+     */
+    WordFilter or(WordFilter other) throws IllegalStateException { // tested
+        checkSameSize(other);
+        long[] combined = new long[bits.length];
+        for(int w = 0; w < bits.length; w++) {
+            combined[w] = bits[w] | other.bits[w];
+        }
+        return new WordFilter(size, combined);
+    }
+
+    /**
+     * @return the words not in this filter
+     */
+    WordFilter not() { // tested
+        long[] inverted = new long[bits.length];
+        for(int w = 0; w < bits.length; w++) {
+            inverted[w] = ~bits[w];
+        }
+        if(size % 64 != 0) {
+            inverted[bits.length - 1] &= (1L << size) - 1;
+        }
+        return new WordFilter(size, inverted);
+    }
+
+    /**
+     * @return true if the word at position i is in this filter
+     */
+    boolean get(int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * @return the number of words in this filter
+     */
+    int cardinality() {
+        int count = 0;
+        for(long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Build the select table: entry k is the position of the k-th word in this filter.
+     *
+     * @return the positions of the words in this filter, in ascending order
+     */
+    int[] select() { // tested
+        int[] positions = new int[cardinality()];
+        int k = 0;
+        for(int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while(word != 0) {
+                positions[k++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return positions;
+    }
+
+    private void checkSameSize(WordFilter other) throws IllegalStateException {
+        if(other == null || other.size != size) {
+            throw new IllegalStateException("Error: WordFilter can only combine filters over the same dictionary.");
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.jason.wordmasher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * An immutable snapshot of the loaded dictionary: every word read from the words file, the indices of the words
+ * that are eligible for mashing, and the special characters read from the special characters file.
+ *
+ * Snapshots are never modified after construction, so any number of threads may read one without locking. A hot
+ * reload (see DictionaryWatcher) builds a brand new snapshot and swaps it in; readers holding the old snapshot keep
+ * using it until they are done, after which it is garbage collected.
+ */
+final class WordIndex {
+
+    // Same bounds as App.getWordsToMash: {len | MIN_ELIGIBLE_LENGTH - 1 < len < MAX_ELIGIBLE_LENGTH + 1}
+    static final int MIN_ELIGIBLE_LENGTH = 3;
+    static final int MAX_ELIGIBLE_LENGTH = 9;
+
+    final List<String> words;
+    final int[] eligible;
+    final char[] specialCharacters;
+    final long fingerprint;
+    private volatile Dawg realWords;
+    private volatile SuffixIndex suffixIndex;
+    private volatile SpanPlanner spanPlanner;
+    private volatile int[] syllableBreaks;
+
+    /**
+     * Build a new index in which every word of an eligible length is eligible.
+     *
+     * @param words             All words read from the words file
+     * @param specialCharacters The special characters read from the special characters file (can be null)
+     */
+    WordIndex(List<String> words, char[] specialCharacters) throws IllegalStateException {
+        this(words, specialCharacters, null);
+    }
+
+    /**
+     * Build a new index.
+     *
+     * @param words             All words read from the words file
+     * @param specialCharacters The special characters read from the special characters file (can be null)
+     * @param filter            Builds the extra filter a word must also pass to be eligible (can be null)
+     */
+    WordIndex(List<String> words, char[] specialCharacters, Function<List<String>, WordFilter> filter)
+            throws IllegalStateException {
+        if(words == null || words.isEmpty()) {
+            throw new IllegalStateException("Error: WordIndex received a null or empty list of words.");
+        }
+        PipelineEvents.IndexBuild event = new PipelineEvents.IndexBuild();
+        event.begin();
+        this.words = Collections.unmodifiableList(new ArrayList<>(words));
+        WordFilter eligibleLength = WordFilter.lengthBetween(this.words, MIN_ELIGIBLE_LENGTH, MAX_ELIGIBLE_LENGTH);
+        this.eligible = (filter == null ? eligibleLength : eligibleLength.and(filter.apply(this.words))).select();
+        this.specialCharacters = specialCharacters == null ? null : specialCharacters.clone();
+        this.fingerprint = fingerprint(this.words, this.eligible);
+        event.end();
+        if(event.shouldCommit()) {
+            event.words = this.words.size();
+            event.eligible = this.eligible.length;
+            event.commit();
+        }
+        App.TRACE.record(TraceRing.Code.INDEX_BUILT, this.words.size(), this.eligible.length, this.fingerprint);
+    }
+
+    /**
+     * @return the number of words eligible for mashing
+     */
+    int eligibleCount() {
+        return eligible.length;
+    }
+
+    /**
+     * Get an automaton of every word in the dictionary (not just the eligible ones), building it on first use.
+     *
+     * @return the automaton
+     */
+    Dawg realWords() {
+        Dawg built = realWords;
+        if(built == null) {
+            synchronized(this) {
+                built = realWords;
+                if(built == null) {
+                    built = new Dawg(words);
+                    realWords = built;
+                }
+            }
+        }
+        return built;
+    }
+
+    /**
+     * Get a suffix array over the eligible words, building it on first use.
+     *
+     * @return the suffix index
+     */
+    SuffixIndex suffixIndex() {
+        SuffixIndex built = suffixIndex;
+        if(built == null) {
+            synchronized(this) {
+                built = suffixIndex;
+                if(built == null) {
+                    built = new SuffixIndex(this);
+                    suffixIndex = built;
+                }
+            }
+        }
+        return built;
+    }
+
+    /**
+     * Get a span planner for exact-length frankenwords, building it on first use.
+     *
+     * @return the span planner
+     */
+    SpanPlanner spanPlanner() {
+        SpanPlanner built = spanPlanner;
+        if(built == null) {
+            synchronized(this) {
+                built = spanPlanner;
+                if(built == null) {
+                    built = new SpanPlanner(this);
+                    spanPlanner = built;
+                }
+            }
+        }
+        return built;
+    }
+
+    /**
+     * Get the syllable breaks of the eligible words (see SyllableBreaks), computing them on first use.
+     *
+     * @return the break bitmasks, indexed by eligible slot
+     */
+    int[] syllableBreaks() {
+        int[] built = syllableBreaks;
+        if(built == null) {
+            synchronized(this) {
+                built = syllableBreaks;
+                if(built == null) {
+                    built = SyllableBreaks.embedded().of(this);
+                    syllableBreaks = built;
+                }
+            }
+        }
+        return built;
+    }
+
+    /**
+     * Compute a fingerprint of the eligible words, so that state keyed by eligible slot (e.g. a checkpoint's used-word
+     * bitmap) can tell whether it still refers to the same dictionary.
+     *
+     * @param words    All words
+     * @param eligible The indices of the eligible words
+     * @return         The fingerprint
+     */
+    static long fingerprint(List<String> words, int[] eligible) { // tested
+        long hash = eligible.length;
+        for(int i : eligible) {
+            hash = Prng.mix(hash + words.get(i).hashCode());
+        }
+        return hash;
+    }
+
+    /**
+     * Find the indices of all words with an eligible length.
+     *
+     * @param words The words to analyze
+     * @return      The indices of eligible words, in dictionary order
+     */
+    static int[] findEligibleWords(List<String> words) { // tested
+        return WordFilter.lengthBetween(words, MIN_ELIGIBLE_LENGTH, MAX_ELIGIBLE_LENGTH).select();
+    }
+}
@@ -5,7 +5,9 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 
 import java.io.*;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Unit test suite for WordMasher App.
@@ -48,6 +50,232 @@ public class AppTest extends TestCase {
         assertFalse(App.correctNumberOfArgsReceived(mockList));
     }
 
+    /**
+     * Asserts App.extractExtendedArgs removes extended args from the args list and leaves the core args in place.
+     */
+    public void testExtractExtendedArgs() {
+        mockList.clear();
+        mockList.add(App.WORDS_FILE_ARG);
+        mockList.add("words_file.txt");
+        mockList.add(App.WATCH_ARG);
+        mockList.add(App.NUM_TO_PRINT_ARG);
+        mockList.add("100");
+        mockList.add(App.POOL_LOW_ARG);
+        mockList.add("8");
+        Map<String, String> extracted = App.extractExtendedArgs(mockList);
+        assertNotNull(extracted);
+        assertTrue(extracted.containsKey(App.WATCH_ARG));
+        assertEquals("8", extracted.get(App.POOL_LOW_ARG));
+        assertEquals(4, mockList.size());
+        assertFalse(mockList.contains(App.WATCH_ARG));
+        assertTrue(App.correctNumberOfArgsReceived(mockList));
+
+        // File names keep their case once argument names are lower-cased.
+        mockList.clear();
+        mockList.addAll(Arrays.asList("-OutputFile", "MyWords.txt", "-Checkpoint", "Run.ckpt", "-BlockList",
+                "Blocked.txt", "-ExcludeFile", "Excluded.txt"));
+        App.lowerCaseArgNames(mockList);
+        extracted = App.extractExtendedArgs(mockList);
+        assertNotNull(extracted);
+        assertEquals("MyWords.txt", extracted.get(App.OUTPUT_FILE_ARG));
+        assertEquals("Run.ckpt", extracted.get(App.CHECKPOINT_ARG));
+        assertEquals("Blocked.txt", extracted.get(App.BLOCKLIST_ARG));
+        assertEquals("Excluded.txt", extracted.get(App.EXCLUDE_FILE_ARG));
+        assertTrue(mockList.isEmpty());
+
+        // An extended option with no value should return null.
+        mockList.clear();
+        mockList.add(App.POOL_LOW_ARG);
+        assertNull(App.extractExtendedArgs(mockList));
+    }
+
+    /**
+     * Asserts App.lowerCaseArgNames lower-cases argument names but leaves values, such as patterns, as they are.
+     */
+    public void testLowerCaseArgNames() {
+        List<String> args = new ArrayList<>(Arrays.asList("-WordsFile", "words_file.txt", "-AddSpaces", "-REGEX",
+                "\\D+", "-NumToPrint", "100", "-Watch"));
+        App.lowerCaseArgNames(args);
+        assertEquals(Arrays.asList(App.WORDS_FILE_ARG, "words_file.txt", App.SPACES_ARG, App.REGEX_ARG, "\\D+",
+                App.NUM_TO_PRINT_ARG, "100", App.WATCH_ARG), args);
+
+        // A value that happens to look like an argument name is still a value.
+        args = new ArrayList<>(Arrays.asList("-prefix", "-Watch"));
+        App.lowerCaseArgNames(args);
+        assertEquals(Arrays.asList(App.PREFIX_ARG, "-Watch"), args);
+    }
+
+    /**
+     * Asserts App.extendedArgsAreCompatible rejects -resume without -checkpoint, and any two of -pregenerate,
+     * -checkpoint, and -threads together.
+     */
+    public void testExtendedArgsAreCompatible() {
+        Map<String, String> extended = new HashMap<>();
+        assertTrue(App.extendedArgsAreCompatible(extended));
+        extended.put(App.RESUME_ARG, "");
+        assertFalse(App.extendedArgsAreCompatible(extended));
+        extended.put(App.CHECKPOINT_ARG, "checkpoint.bin");
+        assertTrue(App.extendedArgsAreCompatible(extended));
+        extended.put(App.THREADS_ARG, "4");
+        assertFalse(App.extendedArgsAreCompatible(extended));
+        extended.clear();
+        extended.put(App.THREADS_ARG, "4");
+        extended.put(App.PREGENERATE_ARG, "");
+        assertFalse(App.extendedArgsAreCompatible(extended));
+
+        // -seed may only be combined with -threads.
+        extended.clear();
+        extended.put(App.SEED_ARG, "7");
+        extended.put(App.THREADS_ARG, "4");
+        assertTrue(App.extendedArgsAreCompatible(extended));
+        extended.remove(App.THREADS_ARG);
+        extended.put(App.CHECKPOINT_ARG, "checkpoint.bin");
+        assertFalse(App.extendedArgsAreCompatible(extended));
+
+        // -workers takes -seed but not -unique or -threads.
+        extended.clear();
+        extended.put(App.WORKERS_ARG, "4");
+        extended.put(App.SEED_ARG, "7");
+        assertTrue(App.extendedArgsAreCompatible(extended));
+        extended.put(App.UNIQUE_ARG, "");
+        assertFalse(App.extendedArgsAreCompatible(extended));
+        extended.remove(App.UNIQUE_ARG);
+        extended.put(App.THREADS_ARG, "4");
+        assertFalse(App.extendedArgsAreCompatible(extended));
+
+        // -syllables does not apply to modes that cut their own subwords.
+        extended.clear();
+        extended.put(App.SYLLABLES_ARG, "");
+        extended.put(App.THREADS_ARG, "4");
+        assertTrue(App.extendedArgsAreCompatible(extended));
+        extended.put(App.LENGTH_ARG, "12");
+        assertFalse(App.extendedArgsAreCompatible(extended));
+
+        // Output to stdout cannot be written in place.
+        extended.clear();
+        extended.put(App.OUTPUT_FILE_ARG, App.STDIO);
+        extended.put(App.THREADS_ARG, "4");
+        assertTrue(App.extendedArgsAreCompatible(extended));
+        extended.put(App.MMAP_ARG, "");
+        assertFalse(App.extendedArgsAreCompatible(extended));
+        extended.put(App.OUTPUT_FILE_ARG, "frankenwords.txt");
+        assertTrue(App.extendedArgsAreCompatible(extended));
+
+        // A streamed sample cannot be reloaded or filtered after the fact.
+        extended.clear();
+        extended.put(App.STREAM_ARG, "");
+        extended.put(App.SEED_ARG, "7");
+        extended.put(App.MIN_WORD_LENGTH_ARG, "4");
+        assertTrue(App.extendedArgsAreCompatible(extended));
+        extended.put(App.REGEX_ARG, "a.*");
+        assertFalse(App.extendedArgsAreCompatible(extended));
+        extended.remove(App.REGEX_ARG);
+        extended.put(App.WATCH_ARG, "");
+        assertFalse(App.extendedArgsAreCompatible(extended));
+
+        // -bench is a mode of its own, and its options need it.
+        extended.clear();
+        extended.put(App.BENCH_WARMUP_ARG, "2");
+        assertFalse(App.extendedArgsAreCompatible(extended));
+        extended.put(App.BENCH_ARG, "");
+        extended.put(App.SYLLABLES_ARG, "");
+        assertTrue(App.extendedArgsAreCompatible(extended));
+        extended.put(App.THREADS_ARG, "4");
+        assertFalse(App.extendedArgsAreCompatible(extended));
+
+        // -columnar makes its own words on one thread, so it can be benchmarked and watched, but not seeded or filtered
+        // per frankenword.
+        extended.clear();
+        extended.put(App.COLUMNAR_ARG, "");
+        extended.put(App.BENCH_ARG, "");
+        extended.put(App.WATCH_ARG, "");
+        assertTrue(App.extendedArgsAreCompatible(extended));
+        extended.put(App.SEED_ARG, "7");
+        assertFalse(App.extendedArgsAreCompatible(extended));
+        extended.remove(App.SEED_ARG);
+        extended.put(App.REJECT_REAL_WORDS_ARG, "");
+        assertFalse(App.extendedArgsAreCompatible(extended));
+    }
+
+    /**
+     * Asserts App.wordsFromStdinIsCompatible rejects -watch and -workers, which need to read the words file again.
+     */
+    public void testWordsFromStdinIsCompatible() {
+        Map<String, String> extended = new HashMap<>();
+        extended.put(App.SEED_ARG, "7");
+        assertTrue(App.wordsFromStdinIsCompatible(extended));
+        extended.put(App.WORKERS_ARG, "4");
+        assertFalse(App.wordsFromStdinIsCompatible(extended));
+        extended.clear();
+        extended.put(App.WATCH_ARG, "");
+        assertFalse(App.wordsFromStdinIsCompatible(extended));
+    }
+
+    /**
+     * Asserts App.STDIO is accepted as a file name: it is neither an illegal arg nor a dash arg.
+     */
+    public void testStdioIsNotADashArg() {
+        assertTrue(App.isDashArg(App.WORDS_FILE_ARG));
+        assertFalse(App.isDashArg(App.STDIO));
+        assertFalse(App.isDashArg("words_file.txt"));
+        mockList.clear();
+        mockList.add(App.NUM_TO_PRINT_ARG);
+        mockList.add("100");
+        mockList.add(App.WORDS_FILE_ARG);
+        mockList.add(App.STDIO);
+        assertFalse(App.illegalArgsReceived(mockList));
+        assertTrue(App.argsAreInGoodOrder(mockList));
+        App.ARGS_ARE_IN_GOOD_ORDER = false;
+    }
+
+    /**
+     * Asserts App.getExtendedInt returns the default for a missing arg, the parsed value for a legal arg, and throws
+     * for an illegal arg.
+     */
+    public void testGetExtendedInt() {
+        App.extendedArgs = new HashMap<>();
+        assertEquals(7, App.getExtendedInt(App.POOL_LOW_ARG, 7, 0, 10));
+        App.extendedArgs.put(App.POOL_LOW_ARG, "3");
+        assertEquals(3, App.getExtendedInt(App.POOL_LOW_ARG, 7, 0, 10));
+        App.extendedArgs.put(App.POOL_LOW_ARG, "11");
+        try {
+            App.getExtendedInt(App.POOL_LOW_ARG, 7, 0, 10);
+            fail("App.getExtendedInt should throw for an out of range value.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        App.extendedArgs.put(App.POOL_LOW_ARG, "x");
+        try {
+            App.getExtendedInt(App.POOL_LOW_ARG, 7, 0, 10);
+            fail("App.getExtendedInt should throw for a non-integer value.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        App.extendedArgs = new HashMap<>();
+    }
+
+    /**
+     * Asserts App.getSessionIdleTimeoutMillis and App.getSessionMemoryBudgetBytes fall back to the SessionRegistry
+     * defaults, convert seconds and megabytes, and throw for an illegal value.
+     */
+    public void testGetSessionLimits() {
+        App.extendedArgs = new HashMap<>();
+        assertEquals(SessionRegistry.DEFAULT_IDLE_TIMEOUT_MILLIS, App.getSessionIdleTimeoutMillis());
+        assertEquals(SessionRegistry.DEFAULT_MEMORY_BUDGET_BYTES, App.getSessionMemoryBudgetBytes());
+        App.extendedArgs.put(App.SESSION_IDLE_ARG, "90");
+        App.extendedArgs.put(App.SESSION_MEMORY_ARG, "4096");
+        assertEquals(90000L, App.getSessionIdleTimeoutMillis());
+        assertEquals(4096L * 1024 * 1024, App.getSessionMemoryBudgetBytes());
+        App.extendedArgs.put(App.SESSION_MEMORY_ARG, "0");
+        try {
+            App.getSessionMemoryBudgetBytes();
+            fail("App.getSessionMemoryBudgetBytes should throw for a budget of 0 megabytes.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        App.extendedArgs = new HashMap<>();
+    }
+
     /**
      * Asserts that App.illegalArgsReceived returns true if illegal args are found, false otherwise.
      */
@@ -336,6 +564,256 @@ public class AppTest extends TestCase {
         assertFalse(wordMockSub.equals(thisWordsToMashSub));
     }
 
+    /**
+     * Asserts the WordIndex overload of App.getWordsToMash only returns distinct, eligible words, and marks them used.
+     */
+    public void testGetWordsToMash_fromIndex() {
+        List<String> words = new ArrayList<>(Arrays.asList("ab", "one", "two", "three", "abcdefghijk", "four"));
+        WordIndex index = new WordIndex(words, null);
+        BitSet used = new BitSet();
+        List<String> picked = App.getWordsToMash(4, index, used);
+        assertEquals(new HashSet<>(Arrays.asList("one", "two", "three", "four")), new HashSet<>(picked));
+        assertEquals(4, used.cardinality());
+        try {
+            App.getWordsToMash(1, index, used);
+            fail("App.getWordsToMash should throw once every eligible word has been used.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Asserts App.makeSeededFrankenwords makes byte-identical output for a given seed on 1 thread or many, and
+     * different output for a different seed.
+     */
+    public void testMakeSeededFrankenwords_sameOnAnyThreadCount() {
+        List<String> words = new ArrayList<>();
+        for(int i = 0; i < 600; i++) {
+            words.add("seed" + Integer.toString(i * 7919, 36));
+        }
+        WordIndex index = new WordIndex(words, specialCharactersMock);
+        List<String> single = App.makeSeededFrankenwords(index, 42L, 200, 1, true, true);
+        List<String> several = App.makeSeededFrankenwords(index, 42L, 200, 8, true, true);
+        List<String> other = App.makeSeededFrankenwords(index, 43L, 200, 8, true, true);
+        assertEquals(200, single.size());
+        assertEquals(single, several);
+        assertFalse(single.equals(other));
+    }
+
+    /**
+     * Asserts App.REJECT_REAL_WORDS_ARG keeps real words out of a run from a dictionary that is almost sure to make
+     * some.
+     */
+    public void testRejectRealWords() {
+        List<String> words = new ArrayList<>();
+        for(int length = 3; length <= 5; length++) {
+            for(int bits = 0; bits < 1 << length; bits++) {
+                StringBuilder word = new StringBuilder();
+                for(int b = 0; b < length; b++) {
+                    word.append((bits >> b & 1) == 0 ? 'a' : 'b');
+                }
+                words.add(word.toString());
+            }
+        }
+        WordIndex index = new WordIndex(words, null);
+        App.extendedArgs = new HashMap<>();
+        int realWords = 0;
+        for(String frankenword : App.makeUniqueFrankenwords(index, 5L, 0, 200, 1, false, false)) {
+            realWords += index.realWords().contains(frankenword) ? 1 : 0;
+        }
+        assertTrue(realWords > 0);
+        App.extendedArgs.put(App.REJECT_REAL_WORDS_ARG, "");
+        try {
+            for(String frankenword : App.makeUniqueFrankenwords(index, 5L, 0, 200, 1, false, false)) {
+                assertFalse(index.realWords().contains(frankenword));
+            }
+        } finally {
+            App.extendedArgs = new HashMap<>();
+        }
+    }
+
+    /**
+     * Asserts a loaded blocklist keeps its patterns out of every frankenword, spaces or not.
+     */
+    public void testBlocklist() {
+        List<String> words = new ArrayList<>();
+        for(int i = 0; i < 200; i++) {
+            words.add("ab" + Integer.toString(i, 3).replace('0', 'a').replace('1', 'b').replace('2', 'c'));
+        }
+        WordIndex index = new WordIndex(words, null);
+        App.extendedArgs = new HashMap<>();
+        App.blocklist = new Blocklist(Arrays.asList("bc", "CA"));
+        try {
+            assertTrue(App.isRejected("xB cx", null));
+            assertTrue(App.isRejected("Cab", null));
+            assertFalse(App.isRejected("abba", null));
+            for(String frankenword : App.makeUniqueFrankenwords(index, 11L, 0, 300, 1, true, false)) {
+                assertFalse(frankenword, App.blocklist.matches(frankenword));
+            }
+
+            // When every frankenword is blocked the run fails, and the thread's PRNG is back on its own stream.
+            App.blocklist = new Blocklist(Arrays.asList("a", "b", "c"));
+            long state = App.random().getState();
+            try {
+                App.makeUniqueFrankenwords(index, 11L, 0, 1, 1, false, false);
+                fail("App.makeUniqueFrankenwords should throw when every frankenword is blocked.");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+            assertEquals(state, App.random().getState());
+        } finally {
+            App.blocklist = null;
+        }
+    }
+
+    /**
+     * Asserts App.makeConstrainedFrankenword meets every combination of constraints, with spaces and special
+     * characters, without reusing a word.
+     */
+    public void testMakeConstrainedFrankenword() {
+        List<String> words = new ArrayList<>();
+        for(int i = 0; i < 400; i++) {
+            String filler = Integer.toString(i * 7919, 36);
+            words.add("pro" + filler);
+            words.add(filler + "lux");
+            words.add("de" + filler + "ing");
+            words.add("fill" + filler);
+        }
+        WordIndex index = new WordIndex(words, specialCharactersMock);
+        SessionRegistry.Session session = new SessionRegistry(new AtomicReference<>(index)).get("constrained");
+        String[][] constraints = {{"pro", null, null}, {null, "lux", null}, {null, null, "ING"},
+                {"pro", null, "ing"}, {"Pro", "lux", "ing"}};
+        for(String[] c : constraints) {
+            for(int i = 0; i < 50; i++) {
+                String frankenword = App.makeConstrainedFrankenword(session, index, c[0], c[1], c[2], true, true);
+                assertTrue(frankenword, App.meetsConstraints(frankenword, c[0], c[1], c[2]));
+            }
+        }
+        try {
+            App.makeConstrainedFrankenword(session, index, "qqq", null, null, false, false);
+            fail("App.makeConstrainedFrankenword should throw when no word contains the pattern.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Asserts App.makeFrankenwordOfLength hits every length exactly, spaces and special characters included.
+     */
+    public void testMakeFrankenwordOfLength() {
+        List<String> words = new ArrayList<>();
+        for(int i = 0; i < 2000; i++) {
+            words.add("len" + Integer.toString(i * 7919, 36));
+        }
+        WordIndex index = new WordIndex(words, specialCharactersMock);
+        SessionRegistry.Session session = new SessionRegistry(new AtomicReference<>(index)).get("length");
+        for(int length = 3; length <= 20; length++) {
+            for(int i = 0; i < 20; i++) {
+                assertEquals(length, App.makeFrankenwordOfLength(session, index, length, true, true).length());
+            }
+        }
+    }
+
+    /**
+     * Asserts App.getLengthRange reads an exact length or a range, and throws for anything else.
+     */
+    public void testGetLengthRange() {
+        App.extendedArgs = new HashMap<>();
+        App.extendedArgs.put(App.LENGTH_ARG, "12");
+        assertTrue(Arrays.equals(new int[] {12, 12}, App.getLengthRange()));
+        App.extendedArgs.put(App.LENGTH_ARG, "10-14");
+        assertTrue(Arrays.equals(new int[] {10, 14}, App.getLengthRange()));
+        for(String illegal : Arrays.asList("2", "14-10", "x", "10-", "-5", "28")) {
+            App.extendedArgs.put(App.LENGTH_ARG, illegal);
+            try {
+                App.getLengthRange();
+                fail("App.getLengthRange should throw for " + illegal);
+            } catch (IllegalStateException e) {
+                // expected
+            }
+        }
+        App.extendedArgs = new HashMap<>();
+    }
+
+    /**
+     * Asserts App.getEligibilityFilter returns null when no filter was requested, ANDs together the filters that were,
+     * and throws for illegal values.
+     */
+    public void testGetEligibilityFilter() throws IOException {
+        App.extendedArgs = new HashMap<>();
+        assertNull(App.getEligibilityFilter());
+        File excludeFile = File.createTempFile("exclude", ".txt");
+        try {
+            Files.write(excludeFile.toPath(), Collections.singletonList("GRAPE"));
+            App.extendedArgs.put(App.MIN_WORD_LENGTH_ARG, "4");
+            App.extendedArgs.put(App.ASCII_ONLY_ARG, "");
+            App.extendedArgs.put(App.REGEX_ARG, "g.*");
+            App.extendedArgs.put(App.EXCLUDE_FILE_ARG, excludeFile.getPath());
+            List<String> words = Arrays.asList("goat", "gnu", "grape", "Gooseberry", "gâteau", "Guava", "melon");
+            WordIndex index = new WordIndex(words, null, App.getEligibilityFilter());
+            assertTrue(Arrays.equals(new int[] {0, 5}, index.eligible));
+
+            // Upper-case character classes keep their meaning: \\D+ is any run of non-digits.
+            App.extendedArgs = new HashMap<>();
+            App.extendedArgs.put(App.REGEX_ARG, "\\D+");
+            index = new WordIndex(Arrays.asList("goat", "g0at", "melon"), null, App.getEligibilityFilter());
+            assertTrue(Arrays.equals(new int[] {0, 2}, index.eligible));
+        } finally {
+            excludeFile.delete();
+        }
+        for(String[] illegal : new String[][] {{App.REGEX_ARG, "(unclosed"}, {App.MIN_WORD_LENGTH_ARG, "2"},
+                {App.MAX_WORD_LENGTH_ARG, "10"}, {App.MIN_WORD_LENGTH_ARG, "7"}}) {
+            App.extendedArgs = new HashMap<>();
+            App.extendedArgs.put(App.MAX_WORD_LENGTH_ARG, "6");
+            App.extendedArgs.put(illegal[0], illegal[1]);
+            try {
+                App.getEligibilityFilter();
+                fail("App.getEligibilityFilter should throw for " + illegal[0] + " " + illegal[1]);
+            } catch (IllegalStateException e) {
+                // expected
+            }
+        }
+        App.extendedArgs = new HashMap<>();
+    }
+
+    /**
+     * Asserts App.meetsConstraints ignores case and treats null as no constraint.
+     */
+    public void testMeetsConstraints() {
+        assertTrue(App.meetsConstraints("PROfLuXing", "pro", "lux", "ING"));
+        assertTrue(App.meetsConstraints("anything", null, null, null));
+        assertFalse(App.meetsConstraints("pr oflux", "pro", null, null));
+        assertFalse(App.meetsConstraints("proflux", null, null, "ing"));
+    }
+
+    /**
+     * Asserts App.makeUniqueFrankenwords can make any range of a run on its own, with the same result as making the
+     * whole run at once.
+     */
+    public void testMakeUniqueFrankenwords_rangesAreIndependent() {
+        List<String> words = new ArrayList<>();
+        for(int i = 0; i < 50; i++) {
+            words.add("uniq" + Integer.toString(i * 7919, 36));
+        }
+        WordIndex index = new WordIndex(words, null);
+        List<String> whole = App.makeUniqueFrankenwords(index, 3L, 0, 100, 4, true, false);
+        List<String> tail = App.makeUniqueFrankenwords(index, 3L, 60, 40, 1, true, false);
+        assertEquals(whole.subList(60, 100), tail);
+    }
+
+    /**
+     * Asserts App.getSeed parses integer seeds as is and hashes anything else consistently.
+     */
+    public void testGetSeed() {
+        App.extendedArgs = new HashMap<>();
+        App.extendedArgs.put(App.SEED_ARG, "12345");
+        assertEquals(12345L, App.getSeed());
+        App.extendedArgs.put(App.SEED_ARG, "audit-2026");
+        long hashed = App.getSeed();
+        assertEquals(hashed, App.getSeed());
+        App.extendedArgs = new HashMap<>();
+    }
+
     /**
      * Asserts App.makeSubword properly implements case 1. (See README.)
      */
@@ -414,6 +892,66 @@ public class AppTest extends TestCase {
         assertEquals(subWordsSet.size(), 10);
     }
 
+    /**
+     * Asserts App.makeSubword with syllable breaks makes every subword that starts and ends at a break, and no other.
+     */
+    public void testMakeSubword_syllables() {
+        String word = "computer";
+        int breaks = 1 | 1 << 3 | 1 << 5 | 1 << 8; // com-pu-ter
+        Set<String> prefixes = new HashSet<>();
+        Set<String> suffixes = new HashSet<>();
+        Set<String> middles = new HashSet<>();
+        for(int i = 0; i < 300; i++) {
+            prefixes.add(App.makeSubword(word, 1, breaks));
+            suffixes.add(App.makeSubword(word, 2, breaks));
+            middles.add(App.makeSubword(word, 3, breaks));
+        }
+        assertEquals(new HashSet<>(Arrays.asList("com", "compu", "computer")), prefixes);
+        assertEquals(new HashSet<>(Arrays.asList("computer", "puter", "ter")), suffixes);
+        assertEquals(new HashSet<>(Arrays.asList("com", "compu", "computer", "pu", "puter", "ter")), middles);
+        try {
+            App.makeSubword(word, 1, 1 << 3);
+            fail("App.makeSubword should throw for breaks without the word's ends.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Asserts App.mashWords keeps each word's syllable breaks with it when shuffling, and shuffles the words as it
+     * does without breaks.
+     */
+    public void testMashWords_syllables() {
+        int whole = 1 | 1 << 3;
+        for(int i = 0; i < 100; i++) {
+            // "cat" may only be used whole; "dog" may be cut anywhere.
+            String mashed = App.mashWords(new ArrayList<>(Arrays.asList("cat", "dog")),
+                    new int[] {whole, 1 | 1 << 1 | 1 << 2 | 1 << 3});
+            assertTrue(mashed, mashed.startsWith("cat") || mashed.endsWith("cat"));
+        }
+        Prng random = App.random();
+        long saved = random.getState();
+        try {
+            for(long stream = 0; stream < 20; stream++) {
+                List<String> plain = new ArrayList<>(Arrays.asList("table", "pocket", "wanted"));
+                random.setState(Prng.streamState(40, stream));
+                App.mashWords(plain);
+                List<String> withBreaks = new ArrayList<>(Arrays.asList("table", "pocket", "wanted"));
+                random.setState(Prng.streamState(40, stream));
+                App.mashWords(withBreaks, new int[] {0x3f, 0x7f, 0x7f});
+                assertEquals(plain, withBreaks);
+            }
+        } finally {
+            random.setState(saved);
+        }
+        try {
+            App.mashWords(new ArrayList<>(Arrays.asList("cat", "dog")), new int[] {whole});
+            fail("App.mashWords should throw when the breaks do not match the words.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
     /**
      * Asserts App.oneInNChance returns true 100% (or 1 in 1) of the time.
      */
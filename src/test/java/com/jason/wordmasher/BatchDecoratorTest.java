@@ -0,0 +1,165 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Unit test suite for BatchDecorator and its kernels.
+ */
+public class BatchDecoratorTest extends TestCase {
+
+    /**
+     * Asserts the scalar kernels lowercase everything, then uppercase only letters with noise below the threshold.
+     */
+    public void testScalarKernels() {
+        BatchDecorator.Kernels kernels = new BatchDecorator.ScalarKernels();
+        byte[] data = "ABC-xyz\n@Q[".getBytes(StandardCharsets.US_ASCII);
+        byte[] noise = {0, 50, (byte) 200, 0, 22, 23, 0, 0, 0, 0, 0};
+        kernels.capitalize(data, noise, 0, data.length, BatchDecorator.WEIRD_THRESHOLD);
+        assertEquals("Abc-XyZ\n@Q[", new String(data, StandardCharsets.US_ASCII));
+        byte[] substitutions = new byte[data.length];
+        substitutions[1] = '#';
+        substitutions[10] = '!';
+        kernels.substitute(data, substitutions, 0, 9);
+        assertEquals("A#c-XyZ\n@Q[", new String(data, StandardCharsets.US_ASCII));
+        assertEquals("scalar", kernels.name());
+    }
+
+    /**
+     * Asserts whatever kernels were loaded give the same bytes as the scalar kernels, for every alignment and
+     * length around the vector width.
+     */
+    public void testLoadedKernelsMatchScalarKernels() {
+        BatchDecorator.Kernels scalar = new BatchDecorator.ScalarKernels();
+        Random random = new Random(48);
+        for(int length = 0; length < 300; length++) {
+            for(int from = 0; from < 3; from++) {
+                byte[] data = new byte[from + length];
+                byte[] noise = new byte[data.length];
+                byte[] substitutions = new byte[data.length];
+                random.nextBytes(data);
+                random.nextBytes(noise);
+                for(int i = 0; i < substitutions.length; i++) {
+                    substitutions[i] = random.nextInt(5) == 0 ? (byte) random.nextInt(128) : 0;
+                }
+                byte[] expected = data.clone();
+                byte[] actual = data.clone();
+                int threshold = random.nextInt(256);
+                scalar.capitalize(expected, noise, from, data.length, threshold);
+                BatchDecorator.KERNELS.capitalize(actual, noise, from, data.length, threshold);
+                assertTrue(Arrays.equals(expected, actual));
+                scalar.substitute(expected, substitutions, from, data.length);
+                BatchDecorator.KERNELS.substitute(actual, substitutions, from, data.length);
+                assertTrue(Arrays.equals(expected, actual));
+            }
+        }
+    }
+
+    /**
+     * Asserts the vector kernels are used when the incubator module is present (as it is under Maven).
+     */
+    public void testVectorKernelsLoadedWithModule() {
+        if(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent() && VectorKernels.worthUsing()) {
+            assertTrue(BatchDecorator.KERNELS.name(), BatchDecorator.KERNELS.name().startsWith("vector"));
+        }
+    }
+
+    /**
+     * Asserts a decorated batch keeps every frankenword's letters and separators, gives each one a capitalization
+     * App could have given it, adds at most two special characters, and comes out the same with either kernels.
+     */
+    public void testDecorate() {
+        char[] specialCharacters = {'#', '$', '%'};
+        List<String> words = new ArrayList<>();
+        Random random = new Random(7);
+        for(int k = 0; k < 2000; k++) {
+            StringBuilder word = new StringBuilder();
+            int length = 3 + random.nextInt(15);
+            for(int i = 0; i < length; i++) {
+                word.append((char) ((random.nextBoolean() ? 'a' : 'A') + random.nextInt(26)));
+            }
+            words.add(word.toString());
+        }
+        StringBuilder packed = new StringBuilder();
+        int[] offsets = new int[words.size()];
+        int[] lengths = new int[words.size()];
+        for(int k = 0; k < words.size(); k++) {
+            offsets[k] = packed.length();
+            lengths[k] = words.get(k).length();
+            packed.append(words.get(k)).append('\n');
+        }
+        byte[] scalarData = packed.toString().getBytes(StandardCharsets.US_ASCII);
+        byte[] loadedData = scalarData.clone();
+        new BatchDecorator(specialCharacters, new BatchDecorator.ScalarKernels())
+                .decorate(scalarData, offsets, lengths, words.size(), new Random(1));
+        BatchDecorator decorator = new BatchDecorator(specialCharacters);
+        decorator.decorate(loadedData, offsets, lengths, words.size(), new Random(1));
+        assertTrue(Arrays.equals(scalarData, loadedData));
+
+        String[] decorated = new String(scalarData, StandardCharsets.US_ASCII).split("\n");
+        assertEquals(words.size(), decorated.length);
+        int standard = 0;
+        int special = 0;
+        for(int k = 0; k < words.size(); k++) {
+            String word = words.get(k);
+            String result = decorated[k];
+            assertEquals(word.length(), result.length());
+            int replaced = 0;
+            for(int i = 0; i < word.length(); i++) {
+                if(Character.toLowerCase(result.charAt(i)) != Character.toLowerCase(word.charAt(i))) {
+                    assertTrue(result, new String(specialCharacters).indexOf(result.charAt(i)) >= 0);
+                    replaced++;
+                }
+            }
+            assertTrue(result, replaced <= (word.length() < 6 ? 1 : 2));
+            special += replaced > 0 ? 1 : 0;
+            if(result.substring(1).equals(result.substring(1).toLowerCase())) {
+                standard++;
+            }
+        }
+        // Half standard, plus the weird ones (about two in five) that happened to uppercase nothing past the first
+        // letter; about a quarter with special characters.
+        assertTrue("standard " + standard, standard > 1250 && standard < 1650);
+        assertTrue("special " + special, special > 400 && special < 600);
+
+        // The substitution buffer is cleared after each batch, so later batches only get their own special
+        // characters.
+        for(int k = 0; k < 200; k++) {
+            byte[] again = "abcdefgh".getBytes(StandardCharsets.US_ASCII);
+            decorator.decorate(again, new int[]{0}, new int[]{8}, 1, random);
+            String added = new String(again, StandardCharsets.US_ASCII).toLowerCase().replaceAll("[a-h]", "");
+            assertTrue(added, added.length() <= 2);
+        }
+    }
+
+    /**
+     * Asserts illegal special characters and frankenwords are rejected.
+     */
+    public void testIllegalArguments() {
+        assertTrue(BatchDecorator.supports(null));
+        assertTrue(BatchDecorator.supports(new char[]{'#', '~'}));
+        assertFalse(BatchDecorator.supports(new char[]{'#', '\u00e9'}));
+        assertFalse(BatchDecorator.supports(new char[]{0}));
+        try {
+            new BatchDecorator(new char[]{'\u00e9'});
+            fail();
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+        BatchDecorator decorator = new BatchDecorator(null);
+        try {
+            decorator.decorate(new byte[2], new int[]{0}, new int[]{2}, 1, new Random());
+            fail();
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+        try {
+            decorator.decorate(new byte[4], new int[]{2}, new int[]{3}, 1, new Random());
+            fail();
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+    }
+}
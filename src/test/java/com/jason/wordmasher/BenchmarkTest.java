@@ -0,0 +1,62 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.util.*;
+
+/**
+ * Unit test suite for Benchmark.
+ */
+public class BenchmarkTest extends TestCase {
+
+    /**
+     * Asserts a benchmark outputs every batch it makes, warmup included, and measures only the measured batches.
+     * Fresh sessions mean a small dictionary never runs out of words, however many batches are run.
+     */
+    public void testRun() {
+        List<String> words = new ArrayList<>();
+        for(char a = 'a'; a <= 'z'; a++) {
+            words.add("word" + a);
+        }
+        List<List<String>> batches = new ArrayList<>();
+        Benchmark.Result result = Benchmark.run("test", new WordIndex(words, new char[] {'#'}), 5, true, true, 3, 10,
+                batches::add);
+        assertEquals(13, batches.size());
+        for(List<String> batch : batches) {
+            assertEquals(5, batch.size());
+        }
+        assertEquals(50, result.words);
+        assertEquals(50, result.perWord.count());
+        assertEquals(10, result.perBatch.count());
+        assertTrue(result.wordsPerSecond() > 0);
+        assertTrue(result.format().contains("p99.9"));
+    }
+
+    /**
+     * Asserts a columnar benchmark outputs every batch it makes and measures only the measured batches, per batch.
+     */
+    public void testRunColumnar() {
+        List<String> words = new ArrayList<>();
+        for(char a = 'a'; a <= 'z'; a++) {
+            words.add("word" + a);
+        }
+        List<Integer> batches = new ArrayList<>();
+        Benchmark.Result result = Benchmark.runColumnar("test", new WordIndex(words, new char[] {'#'}), 5, true, true,
+                3, 10, arena -> batches.add(arena.count()));
+        assertEquals(Collections.nCopies(13, 5), batches);
+        assertEquals(50, result.words);
+        assertEquals(0, result.perWord.count());
+        assertEquals(10, result.perBatch.count());
+        assertTrue(result.format().contains("made a batch at a time"));
+    }
+
+    /**
+     * Asserts durations are shown in a readable unit.
+     */
+    public void testFormatNanos() {
+        assertEquals("999 ns", Benchmark.formatNanos(999));
+        assertEquals("1.5 us", Benchmark.formatNanos(1500));
+        assertEquals("2.0 ms", Benchmark.formatNanos(2000000));
+        assertEquals("3.25 s", Benchmark.formatNanos(3250000000L));
+    }
+}
@@ -0,0 +1,71 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.util.*;
+
+/**
+ * Unit test suite for Blocklist.
+ */
+public class BlocklistTest extends TestCase {
+
+    /**
+     * Asserts a Blocklist finds its patterns anywhere in a string, including patterns that end inside other patterns
+     * (which only a failure link can find), and nothing else.
+     */
+    public void testMatches() {
+        Blocklist blocklist = new Blocklist(Arrays.asList("he", "she", "hers", "his"));
+        assertTrue(blocklist.matches("ushers"));
+        assertTrue(blocklist.matches("ahis"));
+        assertTrue(blocklist.matches("xxxhe"));
+        assertFalse(blocklist.matches("hi"));
+        assertFalse(blocklist.matches("sh"));
+        assertFalse(blocklist.matches(""));
+        assertTrue(new Blocklist(Arrays.asList("abcd", "bc")).matches("xabcx"));
+    }
+
+    /**
+     * Asserts matching ignores case and spaces, in the patterns and in the strings scanned.
+     */
+    public void testIgnoresCaseAndSpaces() {
+        Blocklist blocklist = new Blocklist(Arrays.asList("BaD", "wo rd", "ÉTÉ"));
+        assertTrue(blocklist.matches("xxBAdxx"));
+        assertTrue(blocklist.matches("Ba d"));
+        assertTrue(blocklist.matches("w Ord"));
+        assertTrue(blocklist.matches("Été"));
+        assertFalse(blocklist.matches("B#ad"));
+        assertFalse(new Blocklist(Arrays.asList(" ", "")).matches("anything at all"));
+        assertFalse(new Blocklist(new ArrayList<>()).matches("anything at all"));
+    }
+
+    /**
+     * Asserts a large random blocklist agrees with a brute-force search on many random strings.
+     */
+    public void testAgreesWithBruteForce() {
+        Random random = new Random(7);
+        List<String> patterns = new ArrayList<>();
+        for(int p = 0; p < 2000; p++) {
+            patterns.add(randomString(random, 3 + random.nextInt(4)));
+        }
+        Blocklist blocklist = new Blocklist(patterns);
+        int hits = 0;
+        for(int s = 0; s < 5000; s++) {
+            String candidate = randomString(random, 3 + random.nextInt(20));
+            boolean expected = false;
+            for(String pattern : patterns) {
+                expected |= candidate.contains(pattern);
+            }
+            assertEquals(candidate, expected, blocklist.matches(candidate));
+            hits += expected ? 1 : 0;
+        }
+        assertTrue(hits > 0);
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder s = new StringBuilder(length);
+        for(int i = 0; i < length; i++) {
+            s.append((char) ('a' + random.nextInt(6)));
+        }
+        return s.toString();
+    }
+}
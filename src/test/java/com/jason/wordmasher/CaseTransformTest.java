@@ -0,0 +1,78 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Unit test suite for CaseTransform.
+ */
+public class CaseTransformTest extends TestCase {
+
+    /**
+     * Asserts the ASCII tables match Character's case mapping, and non-ASCII words are detected.
+     */
+    public void testAscii() {
+        for(char c = 0; c < 128; c++) {
+            String s = String.valueOf(c);
+            assertEquals(String.valueOf(Character.toLowerCase(c)), CaseTransform.toLowerCase(s));
+            assertEquals(String.valueOf(Character.toUpperCase(c)), CaseTransform.capitalize(s));
+        }
+        assertTrue(CaseTransform.isAscii("eclipse-123"));
+        assertFalse(CaseTransform.isAscii("café"));
+        assertEquals("eclipse", CaseTransform.toLowerCase("EcLiPSE"));
+        assertEquals("Eclipse", CaseTransform.capitalize("eCLIPSE"));
+    }
+
+    /**
+     * Asserts non-ASCII words are mapped a code point at a time, without the default locale.
+     */
+    public void testNonAscii() {
+        assertEquals("été", CaseTransform.toLowerCase("ÉTÉ"));
+        assertEquals("Été", CaseTransform.capitalize("éTÉ"));
+        // A character outside the Basic Multilingual Plane (DESERET CAPITAL LETTER LONG I and its small letter).
+        assertEquals("𐐀ab", CaseTransform.capitalize("𐐨AB"));
+        String weird = CaseTransform.randomCase("𐐀ÉAB", new Random(1), 1);
+        assertEquals("𐐀ÉAB", weird);
+    }
+
+    /**
+     * Asserts the output is the same under a Turkish default locale, where String.toLowerCase() gives a dotless i.
+     */
+    public void testLocaleIndependent() {
+        Locale saved = Locale.getDefault();
+        try {
+            Locale.setDefault(new Locale("tr", "TR"));
+            assertEquals("ı", "I".toLowerCase());
+            assertEquals("ilik", CaseTransform.toLowerCase("ILIK"));
+            assertEquals("Ilik", CaseTransform.capitalize("iLIK"));
+            assertEquals("ILIK", CaseTransform.randomCase("ilik", new Random(1), 1));
+            assertEquals("ilikç", CaseTransform.toLowerCase("ILIKÇ"));
+        } finally {
+            Locale.setDefault(saved);
+        }
+    }
+
+    /**
+     * Asserts randomCase makes the same draws, and gives the same word, as the per-character loop it replaced.
+     */
+    public void testRandomCaseMatchesPerCharacterLoop() {
+        Random random = new Random(49);
+        for(int k = 0; k < 1000; k++) {
+            StringBuilder word = new StringBuilder();
+            for(int i = 0; i < 3 + k % 12; i++) {
+                word.append((char) ((random.nextBoolean() ? 'a' : 'A') + random.nextInt(26)));
+            }
+            long seed = random.nextLong();
+            Random expectedRandom = new Random(seed);
+            char[] expected = word.toString().toLowerCase(Locale.ROOT).toCharArray();
+            for(int i = 0; i < expected.length; i++) {
+                expected[i] = expectedRandom.nextInt(11) == 0 ? Character.toUpperCase(expected[i]) : expected[i];
+            }
+            Random actualRandom = new Random(seed);
+            assertEquals(String.valueOf(expected), CaseTransform.randomCase(word.toString(), actualRandom, 11));
+            assertEquals(expectedRandom.nextLong(), actualRandom.nextLong());
+        }
+    }
+}
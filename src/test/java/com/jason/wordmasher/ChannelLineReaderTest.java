@@ -0,0 +1,54 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.util.*;
+
+/**
+ * Unit test suite for ChannelLineReader.
+ */
+public class ChannelLineReaderTest extends TestCase {
+
+    /**
+     * Asserts lines are split on every kind of line ending, including endings that straddle two reads.
+     */
+    public void testReadLines() throws IOException {
+        List<String> expected = Arrays.asList("alpha", "beta", "gamma", "delta", "epsilon");
+        for(int bufferSize : new int[] {1, 2, 3, 7, 1024}) {
+            assertEquals(expected, read("alpha\nbeta\r\ngamma\rdelta\r\nepsilon", bufferSize));
+            assertEquals(expected, read("alpha\nbeta\r\ngamma\rdelta\r\nepsilon\r\n", bufferSize));
+        }
+    }
+
+    /**
+     * Asserts reading stops at the first blank line, like App.readFileIntoListOfStrings.
+     */
+    public void testStopsAtBlankLine() throws IOException {
+        assertEquals(Arrays.asList("one", "two"), read("one\ntwo\n\nthree\n", 4));
+        assertEquals(Arrays.asList("one"), read("one\r\n  \r\ntwo", 4));
+        assertEquals(new ArrayList<String>(), read("", 4));
+    }
+
+    /**
+     * Asserts lines are decoded with the default charset, even when a character is split across two reads. (Only
+     * checked where the default charset can encode the test words.)
+     */
+    public void testDecodesDefaultCharset() throws IOException {
+        List<String> expected = Arrays.asList("café", "naïve");
+        if(!Charset.defaultCharset().newEncoder().canEncode("éï")) {
+            return;
+        }
+        for(int bufferSize : new int[] {1, 4, 1024}) {
+            assertEquals(expected, read("café\nnaïve\n", bufferSize));
+        }
+    }
+
+    private static List<String> read(String input, int bufferSize) throws IOException {
+        return ChannelLineReader.readLines(Channels.newChannel(new ByteArrayInputStream(
+                input.getBytes(Charset.defaultCharset()))), bufferSize);
+    }
+}
@@ -0,0 +1,107 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit test suite for ChannelOutputWriter.
+ */
+public class ChannelOutputWriterTest extends TestCase {
+
+    /**
+     * Asserts the output is byte-identical to PrintWriter's, for any buffer size, including lines longer than the
+     * buffer and lines outside ASCII.
+     */
+    public void testAppendMatchesPrintWriter() {
+        List<String> lines = Arrays.asList("cat", "dog house", "crème brûlée", "", "a much longer line than the buffer");
+        StringWriter expected = new StringWriter();
+        PrintWriter printWriter = new PrintWriter(expected);
+        for(String line : lines) {
+            printWriter.println(line);
+        }
+        printWriter.close();
+        for(int bufferSize : new int[] {1, 5, 16, 1024}) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try(ChannelOutputWriter out = new ChannelOutputWriter(Channels.newChannel(bytes), bufferSize)) {
+                for(String line : lines) {
+                    assertTrue(out.append(line));
+                }
+            }
+            assertTrue(Arrays.equals(expected.toString().getBytes(Charset.defaultCharset()), bytes.toByteArray()));
+        }
+    }
+
+    /**
+     * Asserts a whole arena is appended as is, even one bigger than the buffer.
+     */
+    public void testAppendArena() {
+        List<String> words = new ArrayList<>();
+        for(char a = 'a'; a <= 'z'; a++) {
+            words.add("word" + a);
+        }
+        WordIndex index = new WordIndex(words, null);
+        CharArena arena = new CharArena(false);
+        new ColumnarGenerator(index, true, false, new Prng(50))
+                .generate(8, new SessionRegistry(new AtomicReference<>(index)).get("a"), arena);
+        StringBuilder expected = new StringBuilder();
+        for(int k = 0; k < arena.count(); k++) {
+            expected.append(arena.get(k)).append(System.lineSeparator());
+        }
+        for(int bufferSize : new int[] {16, 1024}) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try(ChannelOutputWriter out = new ChannelOutputWriter(Channels.newChannel(bytes), bufferSize)) {
+                assertTrue(out.append("first"));
+                assertTrue(out.append(arena));
+            }
+            assertEquals("first" + System.lineSeparator() + expected, bytes.toString());
+        }
+    }
+
+    /**
+     * Asserts the writer stops quietly once its reader has gone away (as with a broken pipe), and says so.
+     */
+    public void testStopsWhenReaderGoesAway() {
+        ClosingStream stream = new ClosingStream(20);
+        ChannelOutputWriter out = new ChannelOutputWriter(Channels.newChannel(stream), 8);
+        int appended = 0;
+        while(out.append("frankenword")) {
+            appended++;
+        }
+        assertFalse(out.isOpen());
+        assertFalse(out.flush());
+        assertFalse(out.append("more"));
+        assertTrue(appended < 3);
+        assertTrue(stream.written <= 20);
+        out.close();
+    }
+
+    /**
+     * An output stream that accepts a number of bytes and then fails like a pipe with no reader.
+     */
+    private static final class ClosingStream extends OutputStream {
+
+        private final int limit;
+        private int written = 0;
+
+        ClosingStream(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if(written == limit) {
+                throw new IOException("Broken pipe");
+            }
+            written++;
+        }
+    }
+}
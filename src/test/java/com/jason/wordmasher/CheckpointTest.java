@@ -0,0 +1,55 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Unit test suite for Checkpoint.
+ */
+public class CheckpointTest extends TestCase {
+
+    /**
+     * Asserts a checkpoint reads back exactly as it was written, and leaves no temp file behind.
+     */
+    public void testWriteThenRead() throws IOException {
+        File file = File.createTempFile("wordmasher", ".checkpoint");
+        try {
+            BitSet used = new BitSet();
+            used.set(3);
+            used.set(700);
+            new Checkpoint(123L, 1000, 250, 4096L, -5L, true, false, used.toLongArray()).write(file);
+            Checkpoint read = Checkpoint.read(file);
+            assertEquals(123L, read.dictionaryFingerprint);
+            assertEquals(1000, read.total);
+            assertEquals(250, read.produced);
+            assertEquals(4096L, read.outputOffset);
+            assertEquals(-5L, read.prngState);
+            assertTrue(read.spaces);
+            assertFalse(read.specialCharacters);
+            assertEquals(used, BitSet.valueOf(read.usedBits));
+            assertFalse(new File(file.getPath() + ".tmp").exists());
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Asserts Checkpoint.read refuses a file that is not a checkpoint.
+     */
+    public void testReadRejectsOtherFiles() throws IOException {
+        File file = File.createTempFile("wordmasher", ".checkpoint");
+        try {
+            PrintWriter out = new PrintWriter(file);
+            out.println("not a checkpoint at all");
+            out.close();
+            Checkpoint.read(file);
+            fail("Checkpoint.read should throw for a file that is not a checkpoint.");
+        } catch (IllegalStateException e) {
+            // expected
+        } finally {
+            file.delete();
+        }
+    }
+}
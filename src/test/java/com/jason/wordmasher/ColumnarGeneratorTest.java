@@ -0,0 +1,155 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit test suite for ColumnarGenerator and CharArena.
+ */
+public class ColumnarGeneratorTest extends TestCase {
+
+    private static final char[] SPECIAL_CHARACTERS = {'#', '$'};
+
+    /**
+     * Asserts every frankenword is made of subwords of its source words, in some order, with at most two special
+     * characters and two spaces, and that the arena holds exactly the lines to output.
+     */
+    public void testGenerate() {
+        List<String> words = new ArrayList<>();
+        Random random = new Random(50);
+        for(int k = 0; k < 5000; k++) {
+            StringBuilder word = new StringBuilder();
+            for(int i = 0; i < 2 + random.nextInt(10); i++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words.add(word.toString());
+        }
+        WordIndex index = new WordIndex(words, SPECIAL_CHARACTERS);
+        SessionRegistry.Session session = new SessionRegistry(new AtomicReference<>(index)).get("columnar");
+        ColumnarGenerator generator = new ColumnarGenerator(index, true, true, new Prng(50));
+        CharArena arena = new CharArena(true);
+        Set<Integer> used = new HashSet<>();
+        int spaced = 0;
+        for(int batch = 0; batch < 3; batch++) {
+            generator.generate(500, session, arena);
+            assertEquals(500, arena.count());
+            StringBuilder lines = new StringBuilder();
+            for(int k = 0; k < arena.count(); k++) {
+                String frankenword = arena.get(k);
+                lines.append(frankenword).append(System.lineSeparator());
+                List<String> sources = new ArrayList<>();
+                for(int w = 0; w < CharArena.MAX_SOURCES; w++) {
+                    int slot = arena.sources[k * CharArena.MAX_SOURCES + w];
+                    if(slot >= 0) {
+                        assertTrue("word used twice", used.add(slot));
+                        sources.add(index.words.get(index.eligible[slot]));
+                    }
+                }
+                assertTrue(sources.size() == 2 || sources.size() == 3);
+                int spaces = frankenword.length() - frankenword.replace(" ", "").length();
+                assertTrue(frankenword, spaces <= 2 && !frankenword.startsWith(" ") && !frankenword.endsWith(" "));
+                spaced += spaces > 0 ? 1 : 0;
+                String letters = frankenword.replace(" ", "").toLowerCase(Locale.ROOT);
+                assertTrue(frankenword, letters.length() >= 3 && letters.length() <= 27);
+                assertTrue(frankenword, letters.replaceAll("[a-z]", "").length() <= 2);
+                assertTrue(frankenword + " from " + sources, isMashOf(letters, sources));
+            }
+            assertEquals(lines.toString(), new String(arena.chars, 0, arena.size(), StandardCharsets.ISO_8859_1));
+        }
+        assertTrue("spaced " + spaced, spaced > 250 && spaced < 500);
+    }
+
+    /**
+     * Asserts dictionaries outside ASCII are refused, and illegal arguments rejected.
+     */
+    public void testSupports() {
+        assertTrue(ColumnarGenerator.supports(new WordIndex(Arrays.asList("cat", "dog", "mouse"), null)));
+        assertFalse(ColumnarGenerator.supports(new WordIndex(Arrays.asList("cat", "cr\u00e8me"), null)));
+        assertFalse(ColumnarGenerator.supports(new WordIndex(Arrays.asList("cat", "dog"), new char[]{'\u00e9'})));
+        try {
+            new ColumnarGenerator(new WordIndex(Arrays.asList("cat", "cr\u00e8me"), null), false, false, new Prng(1));
+            fail();
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+        WordIndex index = new WordIndex(Arrays.asList("cat", "dog", "mouse"), null);
+        ColumnarGenerator generator = new ColumnarGenerator(index, false, false, new Prng(1));
+        SessionRegistry.Session session = new SessionRegistry(new AtomicReference<>(index)).get("small");
+        try {
+            generator.generate(0, session, new CharArena(false));
+            fail();
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+        // Three words last for one frankenword at most.
+        try {
+            generator.generate(2, session, new CharArena(false));
+            fail();
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+        try {
+            new CharArena(false).get(0);
+            fail();
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+    }
+
+    /**
+     * @return whether letters can be cut into one non-empty substring of each source, in some order, with up to two
+     *         letters replaced by special characters and one random letter appended
+     */
+    private static boolean isMashOf(String letters, List<String> sources) {
+        List<List<String>> orders = new ArrayList<>();
+        permute(new ArrayList<>(sources), 0, orders);
+        for(List<String> order : orders) {
+            if(matches(letters, 0, order, 0, 0) || (letters.length() == 3 && matches(letters.substring(0, 2), 0,
+                    order, 0, 0))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(String letters, int at, List<String> order, int w, int mismatches) {
+        if(w == order.size()) {
+            return at == letters.length();
+        }
+        String source = order.get(w);
+        for(int begin = 0; begin < source.length(); begin++) {
+            for(int end = begin + 1; end <= source.length() && at + end - begin <= letters.length(); end++) {
+                int extra = 0;
+                for(int i = begin; i < end; i++) {
+                    char c = letters.charAt(at + i - begin);
+                    if(c != source.charAt(i)) {
+                        if(c >= 'a' && c <= 'z') {
+                            extra = Integer.MAX_VALUE / 2;
+                            break;
+                        }
+                        extra++;
+                    }
+                }
+                if(mismatches + extra <= 2 && matches(letters, at + end - begin, order, w + 1, mismatches + extra)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void permute(List<String> words, int k, List<List<String>> orders) {
+        if(k == words.size()) {
+            orders.add(new ArrayList<>(words));
+            return;
+        }
+        for(int i = k; i < words.size(); i++) {
+            Collections.swap(words, k, i);
+            permute(words, k + 1, orders);
+            Collections.swap(words, k, i);
+        }
+    }
+}
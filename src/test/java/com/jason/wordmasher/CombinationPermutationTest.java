@@ -0,0 +1,73 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.util.*;
+
+/**
+ * Unit test suite for CombinationPermutation.
+ */
+public class CombinationPermutationTest extends TestCase {
+
+    /**
+     * Asserts every output index maps to a distinct, sorted combination of distinct slots, covering the whole
+     * combination space exactly once.
+     */
+    public void testEveryCombinationExactlyOnce() {
+        int eligible = 12; // C(12, 2) = 66 pairs, C(12, 3) = 220 triples
+        CombinationPermutation permutation = new CombinationPermutation(eligible, 99L);
+        assertEquals(132, permutation.capacity());
+        Set<String> seen = new HashSet<>();
+        for(long i = 0; i < permutation.capacity(); i++) {
+            int[] slots = permutation.slotsFor(i);
+            assertEquals(i % 2 == 0 ? 2 : 3, slots.length);
+            for(int s = 0; s < slots.length; s++) {
+                assertTrue(slots[s] >= 0 && slots[s] < eligible);
+                if(s > 0) {
+                    assertTrue(slots[s - 1] < slots[s]);
+                }
+            }
+            assertTrue(seen.add(Arrays.toString(slots)));
+        }
+
+        // All 66 pairs are used.
+        int pairs = 0;
+        for(String s : seen) {
+            if(s.split(",").length == 2) {
+                pairs++;
+            }
+        }
+        assertEquals(66, pairs);
+    }
+
+    /**
+     * Asserts CombinationPermutation.unrank is the inverse of the combinatorial number system ranking.
+     */
+    public void testUnrank() {
+        CombinationPermutation permutation = new CombinationPermutation(10, 1L);
+        long rank = 0;
+        for(int c = 2; c < 10; c++) {
+            for(int b = 1; b < c; b++) {
+                for(int a = 0; a < b; a++) {
+                    assertTrue(Arrays.equals(new int[] {a, b, c}, permutation.unrank(rank, 3)));
+                    rank++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Asserts the order depends on the key and is the same for the same key.
+     */
+    public void testKeyedOrder() {
+        CombinationPermutation a = new CombinationPermutation(1000, 5L);
+        CombinationPermutation b = new CombinationPermutation(1000, 5L);
+        CombinationPermutation c = new CombinationPermutation(1000, 6L);
+        boolean differs = false;
+        for(long i = 0; i < 50; i++) {
+            assertTrue(Arrays.equals(a.slotsFor(i), b.slotsFor(i)));
+            differs |= !Arrays.equals(a.slotsFor(i), c.slotsFor(i));
+        }
+        assertTrue(differs);
+    }
+}
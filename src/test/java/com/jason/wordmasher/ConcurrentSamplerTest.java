@@ -0,0 +1,109 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Unit test suite for ConcurrentSampler.
+ */
+public class ConcurrentSamplerTest extends TestCase {
+
+    private static final int WORDS_MOCK = 10000;
+    private static final int THREADS = 8;
+
+    /**
+     * Asserts that threads claiming concurrently (with stealing) hand out every slot exactly once.
+     */
+    public void testEverySlotClaimedExactlyOnce() throws Exception {
+        ConcurrentSampler sampler = new ConcurrentSampler(createIndex(WORDS_MOCK), THREADS, new Prng(1));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<List<Integer>>> results = new ArrayList<>();
+        for(int t = 0; t < THREADS; t++) {
+            final int shard = t;
+
+            // Uneven appetites force the hungry threads to steal from the others.
+            final int perClaim = 1 + t % 3;
+            results.add(executor.submit(() -> {
+                List<Integer> claimed = new ArrayList<>();
+                int[] out = new int[perClaim];
+                try {
+                    while(true) {
+                        sampler.claim(shard, out);
+                        for(int slot : out) {
+                            claimed.add(slot);
+                        }
+                    }
+                } catch (IllegalStateException e) {
+                    // ran out of words
+                }
+                return claimed;
+            }));
+        }
+        boolean[] seen = new boolean[WORDS_MOCK];
+        int total = 0;
+        for(Future<List<Integer>> result : results) {
+            for(int slot : result.get()) {
+                assertFalse(seen[slot]);
+                seen[slot] = true;
+                total++;
+            }
+        }
+        executor.shutdown();
+
+        // A claim that runs out partway through may strand up to two slots per thread.
+        assertTrue(total >= WORDS_MOCK - 2 * THREADS);
+        assertTrue(sampler.remaining() <= 0);
+    }
+
+    /**
+     * Asserts a single shard steals nothing and hands out a shuffled order.
+     */
+    public void testSingleShardIsShuffled() {
+        ConcurrentSampler sampler = new ConcurrentSampler(createIndex(100), 1, new Prng(5));
+        int[] out = new int[100];
+        sampler.claim(0, out);
+        boolean inOrder = true;
+        Set<Integer> distinct = new HashSet<>();
+        for(int i = 0; i < out.length; i++) {
+            inOrder &= out[i] == i;
+            distinct.add(out[i]);
+        }
+        assertFalse(inOrder);
+        assertEquals(100, distinct.size());
+        assertEquals(0, sampler.remaining());
+    }
+
+
+    /**
+     * Asserts ConcurrentSampler.shuffledSlots is a permutation, and is the same for the same PRNG state.
+     */
+    public void testShuffledSlotsIsReproduciblePermutation() {
+        int[] a = ConcurrentSampler.shuffledSlots(500, new Prng(11));
+        int[] b = ConcurrentSampler.shuffledSlots(500, new Prng(11));
+        assertTrue(Arrays.equals(a, b));
+        int[] sorted = a.clone();
+        Arrays.sort(sorted);
+        for(int i = 0; i < sorted.length; i++) {
+            assertEquals(i, sorted[i]);
+        }
+    }
+
+
+    //**************************//
+    //***** HELPER METHODS *****//
+    //**************************//
+
+
+    /**
+     * @return an index of n distinct eligible words
+     */
+    private WordIndex createIndex(int n) {
+        List<String> words = new ArrayList<>();
+        for(int i = 0; i < n; i++) {
+            words.add("wrd" + i);
+        }
+        return new WordIndex(words, null);
+    }
+}
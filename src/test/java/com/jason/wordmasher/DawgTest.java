@@ -0,0 +1,48 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Unit test suite for Dawg.
+ */
+public class DawgTest extends TestCase {
+
+    /**
+     * Asserts a Dawg accepts its words in any case, and nothing else: not their prefixes, not their extensions.
+     */
+    public void testContains() {
+        Dawg dawg = new Dawg(Arrays.asList("bomber", "Bomb", "agical", "cat", "cat", "cats"));
+        for(String word : Arrays.asList("bomber", "BOMBER", "bomb", "bOmB", "agical", "cat", "Cats")) {
+            assertTrue(word, dawg.contains(word));
+        }
+        for(String word : Arrays.asList("", "bom", "bombers", "agicalblanc", "ca", "catss", "bom ber")) {
+            assertFalse(word, dawg.contains(word));
+        }
+    }
+
+    /**
+     * Asserts common suffixes are shared as well as common prefixes: bat, bats, cat, cats need only 5 states.
+     */
+    public void testMinimal() {
+        Dawg dawg = new Dawg(Arrays.asList("cats", "bat", "cat", "bats"));
+        assertEquals(5, dawg.stateCount());
+    }
+
+    /**
+     * Asserts the automaton of the shipped dictionary accepts every word in it, and is far smaller than the words
+     * themselves.
+     */
+    public void testEnglishWords() throws IOException {
+        List<String> words = App.readFileIntoListOfStrings(new File("english_words.txt"));
+        Dawg dawg = new Dawg(words);
+        long chars = 0;
+        for(String word : words) {
+            assertTrue(word, dawg.contains(word));
+            chars += word.length();
+        }
+        assertTrue(dawg.memoryBytes() < chars * 2);
+    }
+}
@@ -0,0 +1,125 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit test suite for DictionaryWatcher.
+ */
+public class DictionaryWatcherTest extends TestCase {
+
+    private static final long SWAP_TIMEOUT_MILLIS = 10000;
+
+    /**
+     * Asserts DictionaryWatcher swaps in a new index after the words file changes, and that a snapshot taken
+     * before the swap is left untouched.
+     */
+    public void testSwapsIndexOnChange() throws Exception {
+        File dir = createTempDir();
+        File wordsFile = new File(dir, "words.txt");
+        writeLines(wordsFile, Arrays.asList("alpha", "bravo", "charlie"));
+
+        AtomicReference<WordIndex> reference = new AtomicReference<>();
+        DictionaryWatcher watcher = new DictionaryWatcher(wordsFile, null, reference);
+        reference.set(watcher.rebuild());
+        WordIndex snapshot = reference.get();
+        watcher.start();
+        try {
+            writeLines(wordsFile, Arrays.asList("delta", "echo", "foxtrot", "golf"));
+            long deadline = System.currentTimeMillis() + SWAP_TIMEOUT_MILLIS;
+            while(reference.get() == snapshot && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertNotSame(snapshot, reference.get());
+            assertEquals(4, reference.get().words.size());
+            assertEquals(3, snapshot.words.size());
+        } finally {
+            watcher.close();
+            deleteTree(dir);
+        }
+    }
+
+    /**
+     * Asserts DictionaryWatcher ignores a file in one watched directory that shares its name with the watched file of
+     * the other directory.
+     */
+    public void testIgnoresSameNameInOtherDirectory() throws Exception {
+        File wordsDir = createTempDir();
+        File specialsDir = createTempDir();
+        File wordsFile = new File(wordsDir, "words.txt");
+        File specialCharactersFile = new File(specialsDir, "specials.txt");
+        writeLines(wordsFile, Arrays.asList("alpha", "bravo", "charlie"));
+        writeLines(specialCharactersFile, Collections.singletonList("#"));
+
+        AtomicReference<WordIndex> reference = new AtomicReference<>();
+        DictionaryWatcher watcher = new DictionaryWatcher(wordsFile, specialCharactersFile, reference);
+        reference.set(watcher.rebuild());
+        WordIndex snapshot = reference.get();
+        watcher.start();
+        try {
+            writeLines(new File(specialsDir, "words.txt"), Arrays.asList("delta", "echo"));
+            Thread.sleep(1000);
+            assertSame(snapshot, reference.get());
+
+            writeLines(wordsFile, Arrays.asList("delta", "echo", "foxtrot", "golf"));
+            long deadline = System.currentTimeMillis() + SWAP_TIMEOUT_MILLIS;
+            while(reference.get() == snapshot && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(4, reference.get().words.size());
+        } finally {
+            watcher.close();
+            deleteTree(wordsDir);
+            deleteTree(specialsDir);
+        }
+    }
+
+
+    //**************************//
+    //***** HELPER METHODS *****//
+    //**************************//
+
+
+    /**
+     * @return a new, empty temporary directory
+     */
+    private File createTempDir() throws IOException {
+        File dir = File.createTempFile("wordmasher", "");
+        if(!dir.delete() || !dir.mkdir()) {
+            throw new IllegalStateException("createTempDir was unable to create a temporary directory.");
+        }
+        return dir;
+    }
+
+    /**
+     * Write a list of lines to a file, overwriting it.
+     *
+     * @param file  The file to write
+     * @param lines The lines to write
+     */
+    private void writeLines(File file, List<String> lines) throws IOException {
+        PrintWriter out = new PrintWriter(new FileWriter(file));
+        for(String s : lines) {
+            out.println(s);
+        }
+        out.close();
+    }
+
+    /**
+     * Delete a directory and the files in it.
+     *
+     * @param dir The directory to delete
+     */
+    private void deleteTree(File dir) {
+        File[] files = dir.listFiles();
+        if(files != null) {
+            for(File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+}
@@ -0,0 +1,194 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit test suite for DistributedCoordinator and DistributedWorker. Workers run as threads in this JVM.
+ */
+public class DistributedCoordinatorTest extends TestCase {
+
+    private static final int WORDS_MOCK = 3000;
+    private static final int FRANKENWORDS_MOCK = 500;
+    private static final long SEED = 42;
+
+    private File wordsFile;
+    private WordIndex index;
+
+    @Override
+    protected void setUp() throws Exception {
+        List<String> words = new ArrayList<>();
+        for(int i = 0; i < WORDS_MOCK; i++) {
+            words.add("wrd" + i);
+        }
+        wordsFile = File.createTempFile("distributed", ".txt");
+        Files.write(wordsFile.toPath(), words);
+        index = new WordIndex(words, null);
+    }
+
+    @Override
+    protected void tearDown() {
+        wordsFile.delete();
+    }
+
+    /**
+     * Asserts DistributedCoordinator.plan covers every output exactly once, gives each task three slots per output
+     * from a range no other task touches, and refuses a run the dictionary cannot cover.
+     */
+    public void testPlan() {
+        List<DistributedCoordinator.Task> plan = DistributedCoordinator.plan(10, 30, 4);
+        assertEquals(4, plan.size());
+        long nextStart = 0;
+        for(DistributedCoordinator.Task task : plan) {
+            assertEquals(nextStart, task.start);
+            assertEquals(task.start * 3, task.slotLo);
+            assertEquals((task.start + task.count) * 3, task.slotHi);
+            nextStart += task.count;
+        }
+        assertEquals(10, nextStart);
+        assertEquals(2, DistributedCoordinator.plan(2, 30, 4).size());
+        try {
+            DistributedCoordinator.plan(11, 30, 4);
+            fail("DistributedCoordinator.plan should throw when there are too few eligible words.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Asserts a distributed run makes exactly what a seeded run with the same seed makes.
+     */
+    public void testRunMatchesSeededRun() {
+        List<String> distributed = new DistributedCoordinator(index, wordsFile, null, true, SEED, 3,
+                DistributedCoordinatorTest::launchWorkerThread).run(FRANKENWORDS_MOCK);
+        assertEquals(App.makeSeededFrankenwords(index, SEED, FRANKENWORDS_MOCK, 1, true, false), distributed);
+    }
+
+    /**
+     * Asserts the task of a worker that dies partway through is redone by a replacement, with the same results.
+     */
+    public void testLostWorkerTaskIsRedone() {
+        AtomicInteger launches = new AtomicInteger();
+        List<String> distributed = new DistributedCoordinator(index, wordsFile, null, false, SEED, 1, (port, id) ->
+                launches.getAndIncrement() == 0 ? launchDyingWorkerThread(port, id) : launchWorkerThread(port, id)
+        ).run(FRANKENWORDS_MOCK);
+        assertEquals(2, launches.get());
+        assertEquals(App.makeSeededFrankenwords(index, SEED, FRANKENWORDS_MOCK, 1, false, false), distributed);
+    }
+
+    /**
+     * Asserts a worker that exits before it connects is replaced at once, rather than waited on until the run times
+     * out, and that a cluster whose workers all exit before connecting fails promptly.
+     */
+    public void testWorkerThatNeverConnectsIsReplaced() {
+        AtomicInteger launches = new AtomicInteger();
+        List<String> distributed = new DistributedCoordinator(index, wordsFile, null, true, SEED, 2, (port, id) ->
+                launches.getAndIncrement() == 0 ? CompletableFuture.completedFuture(null) : launchWorkerThread(port, id)
+        ).run(FRANKENWORDS_MOCK);
+        assertEquals(3, launches.get());
+        assertEquals(App.makeSeededFrankenwords(index, SEED, FRANKENWORDS_MOCK, 1, true, false), distributed);
+
+        launches.set(0);
+        long started = System.currentTimeMillis();
+        try {
+            new DistributedCoordinator(index, wordsFile, null, true, SEED, 2, (port, id) -> {
+                launches.incrementAndGet();
+                return CompletableFuture.completedFuture(null);
+            }).run(FRANKENWORDS_MOCK);
+            fail("DistributedCoordinator.run should throw when no worker ever connects.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals(2 + 2 * 2, launches.get());
+        assertTrue(System.currentTimeMillis() - started < 10 * 1000);
+    }
+
+    /**
+     * Asserts a run whose workers report that the words file does not match the coordinator's is stopped at once,
+     * rather than retried with replacement workers that would fail the same way.
+     */
+    public void testWorkerFailureStopsTheRun() {
+        List<String> changed = new ArrayList<>();
+        for(int i = 0; i < WORDS_MOCK; i++) {
+            changed.add("wrd" + i + "x");
+        }
+        AtomicInteger launches = new AtomicInteger();
+        long started = System.currentTimeMillis();
+        try {
+            new DistributedCoordinator(new WordIndex(changed, null), wordsFile, null, false, SEED, 2, (port, id) -> {
+                launches.incrementAndGet();
+                return launchWorkerThread(port, id);
+            }).run(FRANKENWORDS_MOCK);
+            fail("DistributedCoordinator.run should throw when a worker reports a failure.");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("words file changed"));
+        }
+        assertEquals(2, launches.get());
+        assertTrue(System.currentTimeMillis() - started < 10 * 1000);
+    }
+
+    /**
+     * @return a future that completes when the worker thread ends
+     */
+    private static CompletableFuture<?> launchWorkerThread(int port, int id) {
+        CompletableFuture<Void> exit = new CompletableFuture<>();
+        Thread worker = new Thread(() -> {
+            try {
+                DistributedWorker.run(port, id);
+            } catch (IOException e) {
+                // the coordinator hung up
+            } finally {
+                exit.complete(null);
+            }
+        });
+        worker.setDaemon(true);
+        worker.start();
+        return exit;
+    }
+
+    /**
+     * A worker that takes a task, sends back one bogus result, and dies.
+     */
+    private static CompletableFuture<?> launchDyingWorkerThread(int port, int id) {
+        CompletableFuture<Void> exit = new CompletableFuture<>();
+        Thread worker = new Thread(() -> {
+            try(Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                out.writeByte(DistributedCoordinator.HELLO);
+                out.writeInt(id);
+                out.flush();
+                in.readByte();
+                in.readUTF();
+                in.readUTF();
+                in.readBoolean();
+                in.readBoolean();
+                in.readBoolean();
+                in.readUTF();
+                in.readLong();
+                in.readLong();
+                in.skipBytes(4 * in.readInt());
+                out.writeByte(DistributedCoordinator.READY);
+                out.flush();
+                assertEquals(DistributedCoordinator.TASK, in.readByte());
+                out.writeByte(DistributedCoordinator.RESULT);
+                out.writeUTF("bogus");
+                out.flush();
+            } catch (IOException e) {
+                // dying anyway
+            } finally {
+                exit.complete(null);
+            }
+        });
+        worker.setDaemon(true);
+        worker.start();
+        return exit;
+    }
+}
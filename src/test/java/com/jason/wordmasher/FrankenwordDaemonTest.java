@@ -0,0 +1,146 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.util.*;
+
+/**
+ * Unit test suite for FrankenwordDaemon and DaemonClient.
+ */
+public class FrankenwordDaemonTest extends TestCase {
+
+    /**
+     * Asserts pipelined requests on one connection are all answered, in order, and a failed request does not spoil
+     * the requests after it.
+     */
+    public void testPipelinedRequests() throws Exception {
+        File dir = createTempDir();
+        File wordsFile = new File(dir, "words.txt");
+        PrintWriter writer = new PrintWriter(new FileWriter(wordsFile));
+        for(char a = 'a'; a <= 'z'; a++) {
+            for(char b = 'a'; b <= 'z'; b++) {
+                writer.println("w" + a + b + "xyz");
+            }
+        }
+        writer.close();
+        FrankenwordDaemon daemon = new FrankenwordDaemon(new File(dir, "daemon.sock").toPath());
+        Thread server = new Thread(() -> {
+            try {
+                daemon.serve();
+            } catch (IOException e) {
+                // the test fails on the client side
+            }
+        });
+        server.start();
+        try(DaemonClient client = new DaemonClient(new File(dir, "daemon.sock").toPath())) {
+            int first = client.send(Arrays.asList(App.WORDS_FILE_ARG, wordsFile.getPath(), App.NUM_TO_PRINT_ARG,
+                    "100", App.SPACES_ARG));
+            int second = client.send(Arrays.asList(App.WORDS_FILE_ARG, wordsFile.getPath(), "-bogus", "1"));
+            int third = client.send(Arrays.asList(App.NUM_TO_PRINT_ARG, "5", App.WORDS_FILE_ARG,
+                    wordsFile.getPath()));
+
+            List<String> frankenwords = new ArrayList<>();
+            client.receive(first, frankenwords::add);
+            assertEquals(100, frankenwords.size());
+            try {
+                client.receive(second, frankenwords::add);
+                fail("DaemonClient.receive should throw for a request the daemon could not serve.");
+            } catch (IllegalStateException e) {
+                assertTrue(e.getMessage().contains("-bogus"));
+            }
+            frankenwords.clear();
+            client.receive(third, frankenwords::add);
+            assertEquals(5, frankenwords.size());
+        } finally {
+            daemon.close();
+            server.join(5000);
+            new File(dir, "words.txt").delete();
+            dir.delete();
+        }
+        assertFalse(server.isAlive());
+        assertFalse(new File(dir, "daemon.sock").exists());
+    }
+
+    /**
+     * Asserts the daemon replaces a socket file left behind by a daemon that is gone, but never deletes a file that is
+     * not a socket.
+     */
+    public void testSocketPathIsOnlyReplacedIfStale() throws IOException {
+        File dir = createTempDir();
+        File socketFile = new File(dir, "daemon.sock");
+        File wordsFile = new File(dir, "words.txt");
+        PrintWriter writer = new PrintWriter(new FileWriter(wordsFile));
+        writer.println("alpha");
+        writer.close();
+        try {
+            try {
+                new FrankenwordDaemon(wordsFile.toPath()).close();
+                fail("FrankenwordDaemon should refuse a socket path that is a regular file.");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+            assertTrue(wordsFile.exists());
+
+            ServerSocketChannel stale = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            stale.bind(UnixDomainSocketAddress.of(socketFile.toPath()));
+            stale.close();
+            assertTrue(socketFile.exists());
+            new FrankenwordDaemon(socketFile.toPath()).close();
+            assertFalse(socketFile.exists());
+        } finally {
+            socketFile.delete();
+            wordsFile.delete();
+            dir.delete();
+        }
+    }
+
+    /**
+     * Asserts the daemon parses the core App args like App does, and refuses anything else.
+     */
+    public void testParse() throws IOException {
+        File dir = createTempDir();
+        File wordsFile = new File(dir, "Words.txt");
+        PrintWriter writer = new PrintWriter(new FileWriter(wordsFile));
+        writer.println("alpha");
+        writer.close();
+        try {
+            FrankenwordDaemon.Job job = FrankenwordDaemon.parse(dir.getPath(), Arrays.asList("-NumToPrint", "7",
+                    App.SPACES_ARG, App.WORDS_FILE_ARG, "Words.txt"));
+            assertEquals(wordsFile.getAbsolutePath(), job.wordsFile.getAbsolutePath());
+            assertNull(job.specialCharactersFile);
+            assertEquals(7, job.count);
+            assertTrue(job.addSpaces);
+            for(List<String> args : Arrays.asList(
+                    Arrays.asList(App.WORDS_FILE_ARG, "Words.txt"),
+                    Arrays.asList(App.WORDS_FILE_ARG, "words.txt", App.NUM_TO_PRINT_ARG, "7"),
+                    Arrays.asList(App.WORDS_FILE_ARG, "Words.txt", App.NUM_TO_PRINT_ARG, "1001"),
+                    Arrays.asList(App.WORDS_FILE_ARG, "Words.txt", App.NUM_TO_PRINT_ARG, "7", App.SEED_ARG, "1"),
+                    Arrays.asList(App.WORDS_FILE_ARG, "Words.txt", App.NUM_TO_PRINT_ARG))) {
+                try {
+                    FrankenwordDaemon.parse(dir.getPath(), args);
+                    fail("FrankenwordDaemon.parse should throw for " + args);
+                } catch (IllegalStateException e) {
+                    // expected
+                }
+            }
+        } finally {
+            wordsFile.delete();
+            dir.delete();
+        }
+    }
+
+    /**
+     * @return a new, empty temporary directory
+     */
+    private File createTempDir() throws IOException {
+        File dir = File.createTempFile("wordmasher", "");
+        if(!dir.delete() || !dir.mkdir()) {
+            throw new IllegalStateException("createTempDir was unable to create a temporary directory.");
+        }
+        return dir;
+    }
+}
@@ -0,0 +1,113 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit test suite for FrankenwordPool.
+ */
+public class FrankenwordPoolTest extends TestCase {
+
+    private static final long REFILL_TIMEOUT_MILLIS = 10000;
+
+    /**
+     * Asserts FrankenwordPool refills a primed configuration up to its high watermark, and leaves the other
+     * configurations alone.
+     */
+    public void testPrimeFillsToHighWatermark() throws InterruptedException {
+        AtomicInteger generated = new AtomicInteger();
+        FrankenwordPool pool = new FrankenwordPool(countingGenerator(generated), 4, 16);
+        try {
+            pool.prime(true, false);
+            waitForSize(pool, true, false, 16);
+            assertEquals(16, pool.size(true, false));
+            assertEquals(0, pool.size(false, false));
+            assertEquals(0, pool.size(false, true));
+            assertEquals(0, pool.size(true, true));
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * Asserts FrankenwordPool.take returns frankenwords for the requested configuration, and generates inline
+     * rather than blocking when the pool is empty.
+     */
+    public void testTakeReturnsRequestedConfiguration() {
+        FrankenwordPool pool = new FrankenwordPool(countingGenerator(new AtomicInteger()), 4, 16);
+        try {
+            for(int i = 0; i < 100; i++) {
+                assertTrue(pool.take(false, true).startsWith("spaces=false,specials=true"));
+                assertTrue(pool.take(true, true).startsWith("spaces=true,specials=true"));
+            }
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * Asserts FrankenwordPool never reports a negative size while consumers take from a pool that is refilling.
+     */
+    public void testSizeNeverNegativeDuringRefill() throws InterruptedException {
+        FrankenwordPool pool = new FrankenwordPool(countingGenerator(new AtomicInteger()), 1, 2);
+        AtomicInteger lowest = new AtomicInteger();
+        try {
+            Thread[] consumers = new Thread[4];
+            for(int t = 0; t < consumers.length; t++) {
+                consumers[t] = new Thread(() -> {
+                    for(int i = 0; i < 20000; i++) {
+                        pool.take(true, false);
+                        lowest.accumulateAndGet(pool.size(true, false), Math::min);
+                    }
+                });
+                consumers[t].start();
+            }
+            for(Thread consumer : consumers) {
+                consumer.join();
+            }
+            assertEquals(0, lowest.get());
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * Asserts FrankenwordPool refuses watermarks that are out of order.
+     */
+    public void testIllegalWatermarksThrow() {
+        try {
+            new FrankenwordPool(countingGenerator(new AtomicInteger()), 16, 16);
+            fail("FrankenwordPool should throw when the low watermark is not below the high watermark.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+
+    //**************************//
+    //***** HELPER METHODS *****//
+    //**************************//
+
+
+    /**
+     * @param generated Incremented for every generated frankenword
+     * @return          A generator that encodes its configuration into the frankenword
+     */
+    private FrankenwordPool.Generator countingGenerator(AtomicInteger generated) {
+        return (addSpaces, addSpecialCharacters) -> "spaces=" + addSpaces + ",specials=" + addSpecialCharacters
+                + "," + generated.incrementAndGet();
+    }
+
+    /**
+     * Wait for a pool configuration to reach a given size.
+     */
+    private void waitForSize(FrankenwordPool pool, boolean addSpaces, boolean addSpecialCharacters, int size)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + REFILL_TIMEOUT_MILLIS;
+        while(pool.size(addSpaces, addSpecialCharacters) < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.util.*;
+
+/**
+ * Unit test suite for LatencyHistogram.
+ */
+public class LatencyHistogramTest extends TestCase {
+
+    /**
+     * Asserts small values are counted exactly, and every value lands in a bucket whose top is within 1 / SUB_BUCKETS
+     * of it.
+     */
+    public void testBuckets() {
+        for(long value = 0; value < 2 * LatencyHistogram.SUB_BUCKETS; value++) {
+            assertEquals(value, LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(value)));
+        }
+        Random random = new Random(3);
+        for(int k = 0; k < 100000; k++) {
+            long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            long top = LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(value));
+            assertTrue(value + " -> " + top, top >= value);
+            assertTrue(value + " -> " + top, top - value <= value / LatencyHistogram.SUB_BUCKETS);
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(Long.MAX_VALUE)));
+    }
+
+    /**
+     * Asserts percentiles agree with the exact percentiles of the recorded values, to within the bucket precision.
+     */
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(99));
+        Random random = new Random(5);
+        long[] values = new long[10000];
+        for(int k = 0; k < values.length; k++) {
+            values[k] = (long) Math.exp(random.nextDouble() * 20);
+            histogram.record(values[k]);
+        }
+        Arrays.sort(values);
+        for(double percentile : new double[] {0, 50, 90, 99, 99.9, 100}) {
+            long exact = values[(int) Math.max(0, Math.ceil(percentile / 100 * values.length) - 1)];
+            long recorded = histogram.percentile(percentile);
+            assertTrue(percentile + ": " + exact + " vs " + recorded,
+                    recorded >= exact && recorded - exact <= exact / LatencyHistogram.SUB_BUCKETS);
+        }
+        assertEquals(values[values.length - 1], histogram.max());
+        assertEquals(values[values.length - 1], histogram.percentile(100));
+        assertEquals(values[0], histogram.min());
+        assertEquals(values.length, histogram.count());
+    }
+}
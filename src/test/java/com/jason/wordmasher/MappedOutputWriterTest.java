@@ -0,0 +1,131 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Unit test suite for MappedOutputWriter.
+ */
+public class MappedOutputWriterTest extends TestCase {
+
+    private static final int THREADS = 8;
+    private static final int LINES_PER_THREAD = 1000;
+
+    /**
+     * Asserts the mapped file comes out byte for byte the same as PrintWriter's, whether the estimate is too big or
+     * too small, and with lines that straddle windows.
+     */
+    public void testSameBytesAsPrintWriter() throws IOException {
+        List<String> lines = Arrays.asList("Agicalblanc", "bom BER", "éclairé", "x", "", "WoRdMaShEr");
+        File expected = File.createTempFile("wordmasher", ".expected");
+        File mapped = File.createTempFile("wordmasher", ".mapped");
+        try {
+            PrintWriter print = new PrintWriter(expected);
+            for(String line : lines) {
+                print.println(line);
+            }
+            print.close();
+            byte[] expectedBytes = Files.readAllBytes(expected.toPath());
+
+            for(long estimate : new long[] {0, 3, 1000}) {
+                try(MappedOutputWriter out = new MappedOutputWriter(mapped, estimate, 7)) {
+                    for(String line : lines) {
+                        out.append(line);
+                    }
+                    assertEquals(expectedBytes.length, out.size());
+                }
+                assertTrue(Arrays.equals(expectedBytes, Files.readAllBytes(mapped.toPath())));
+            }
+        } finally {
+            expected.delete();
+            mapped.delete();
+        }
+    }
+
+    /**
+     * Asserts a small run only grows the file to its estimate (or MIN_MAPPING_SIZE), not to a whole window, and that
+     * writing past the mapping remaps it larger without losing anything.
+     */
+    public void testMapsOnlyTheEstimate() throws IOException {
+        File mapped = File.createTempFile("wordmasher", ".mapped");
+        try {
+            List<String> expected = new ArrayList<>();
+            try(MappedOutputWriter out = new MappedOutputWriter(mapped, 100, MappedOutputWriter.DEFAULT_WINDOW_SIZE)) {
+                for(int i = 0; i < 3; i++) {
+                    expected.add("frankenword" + i);
+                    out.append(expected.get(i));
+                }
+                assertEquals(MappedOutputWriter.MIN_MAPPING_SIZE, mapped.length());
+                for(int i = 3; out.size() < 3 * MappedOutputWriter.MIN_MAPPING_SIZE; i++) {
+                    expected.add("frankenword" + i);
+                    out.append(expected.get(i));
+                }
+                assertEquals(4 * MappedOutputWriter.MIN_MAPPING_SIZE, mapped.length());
+            }
+            assertEquals(expected, Files.readAllLines(mapped.toPath()));
+        } finally {
+            mapped.delete();
+        }
+    }
+
+    /**
+     * Asserts closing an aborted writer deletes the file instead of keeping what was written.
+     */
+    public void testAbortDeletesOutput() throws IOException {
+        File mapped = File.createTempFile("wordmasher", ".mapped");
+        try {
+            try(MappedOutputWriter out = new MappedOutputWriter(mapped, 100, MappedOutputWriter.DEFAULT_WINDOW_SIZE)) {
+                out.append("frankenword");
+                out.abort();
+            }
+            assertFalse(mapped.exists());
+        } finally {
+            mapped.delete();
+        }
+    }
+
+    /**
+     * Asserts threads appending at once lose and garble nothing, whether they cross windows or grow one.
+     */
+    public void testConcurrentAppends() throws Exception {
+        concurrentAppends(1024, 4096);
+        concurrentAppends(0, MappedOutputWriter.DEFAULT_WINDOW_SIZE);
+    }
+
+    private void concurrentAppends(long estimate, int windowSize) throws Exception {
+        File mapped = File.createTempFile("wordmasher", ".mapped");
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            try(MappedOutputWriter out = new MappedOutputWriter(mapped, estimate, windowSize)) {
+                List<Future<?>> writers = new ArrayList<>();
+                for(int t = 0; t < THREADS; t++) {
+                    final int thread = t;
+                    writers.add(executor.submit(() -> {
+                        for(int i = 0; i < LINES_PER_THREAD; i++) {
+                            out.append("thread" + thread + "line" + i);
+                        }
+                    }));
+                }
+                for(Future<?> writer : writers) {
+                    writer.get();
+                }
+            }
+            Set<String> expected = new HashSet<>();
+            for(int t = 0; t < THREADS; t++) {
+                for(int i = 0; i < LINES_PER_THREAD; i++) {
+                    expected.add("thread" + t + "line" + i);
+                }
+            }
+            List<String> read = Files.readAllLines(mapped.toPath());
+            assertEquals(THREADS * LINES_PER_THREAD, read.size());
+            assertEquals(expected, new HashSet<>(read));
+        } finally {
+            executor.shutdown();
+            mapped.delete();
+        }
+    }
+}
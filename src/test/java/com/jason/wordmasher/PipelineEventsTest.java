@@ -0,0 +1,70 @@
+package com.jason.wordmasher;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Unit test suite for PipelineEvents.
+ */
+public class PipelineEventsTest extends TestCase {
+
+    /**
+     * Asserts each stage of a run is recorded, only sampled frankenwords have their stages recorded, and only retry
+     * loops past the threshold are recorded.
+     */
+    public void testEventsAreRecorded() throws IOException {
+        List<String> words = new ArrayList<>();
+        for(int i = 0; i < 1000; i++) {
+            words.add(String.format("w%05d", i));
+        }
+        Path file = Files.createTempFile("events", ".jfr");
+        List<RecordedEvent> events;
+        try(Recording recording = new Recording()) {
+            for(String name : new String[] {"DictionaryLoad", "IndexBuild", "FrankenwordStage", "RetryBurst",
+                    "OutputFlush", "Batch"}) {
+                recording.enable("com.jason.wordmasher." + name).withThreshold(java.time.Duration.ZERO);
+            }
+            recording.start();
+            WordIndex index = new WordIndex(words, new char[] {'#'});
+            App.makeSeededFrankenwords(index, 3, 256, 1, true, true);
+            PipelineEvents.retries("test", 2, 2 + PipelineEvents.RETRY_BURST_THRESHOLD - 1);
+            PipelineEvents.retries("test", 2, 2 + PipelineEvents.RETRY_BURST_THRESHOLD);
+            recording.stop();
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        } finally {
+            Files.delete(file);
+        }
+        Map<String, Integer> counts = new HashMap<>();
+        Set<String> stages = new HashSet<>();
+        for(RecordedEvent event : events) {
+            String name = event.getEventType().getName().replace("com.jason.wordmasher.", "");
+            counts.merge(name, 1, Integer::sum);
+            if(name.equals("FrankenwordStage")) {
+                stages.add(event.getString("stage"));
+            } else if(name.equals("IndexBuild")) {
+                assertEquals(1000, event.getInt("words"));
+            } else if(name.equals("Batch")) {
+                assertEquals("seeded", event.getString("mode"));
+                assertEquals(256, event.getInt("frankenwords"));
+            } else if(name.equals("RetryBurst") && event.getString("site").equals("test")) {
+                assertEquals(2 + PipelineEvents.RETRY_BURST_THRESHOLD, event.getInt("attempts"));
+            }
+        }
+        assertEquals(Integer.valueOf(1), counts.get("IndexBuild"));
+        assertEquals(Integer.valueOf(1), counts.get("Batch"));
+        assertEquals(new HashSet<>(Arrays.asList("mash", "capitalization", "special characters", "spaces")), stages);
+        // 256 frankenwords, one in STAGE_SAMPLE_INTERVAL sampled, four stages each (more if a real word is retried).
+        int stageEvents = counts.get("FrankenwordStage");
+        assertTrue(String.valueOf(stageEvents), stageEvents >= 4 * 256 / PipelineEvents.STAGE_SAMPLE_INTERVAL
+                && stageEvents < 256);
+        assertTrue(counts.get("RetryBurst") >= 1);
+    }
+}
@@ -0,0 +1,53 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.util.*;
+
+/**
+ * Unit test suite for Prng.
+ */
+public class PrngTest extends TestCase {
+
+    /**
+     * Asserts restoring a saved state replays exactly the same sequence.
+     */
+    public void testRestoredStateReplaysSequence() {
+        Prng prng = new Prng(42);
+        for(int i = 0; i < 10; i++) {
+            prng.nextInt();
+        }
+        long saved = prng.getState();
+        List<Integer> first = new ArrayList<>();
+        for(int i = 0; i < 100; i++) {
+            first.add(prng.nextInt(1000));
+        }
+        prng.setState(saved);
+        for(int i = 0; i < 100; i++) {
+            assertEquals(first.get(i).intValue(), prng.nextInt(1000));
+        }
+    }
+
+    /**
+     * Asserts Prng.nextInt covers a small range evenly enough to hit every value.
+     */
+    public void testNextIntCoversRange() {
+        Prng prng = new Prng(7);
+        Set<Integer> seen = new HashSet<>();
+        for(int i = 0; i < 200; i++) {
+            seen.add(prng.nextInt(10));
+        }
+        assertEquals(10, seen.size());
+    }
+
+    /**
+     * Asserts Prng works with Collections.shuffle, and that two generators with the same state shuffle alike.
+     */
+    public void testShuffleIsReproducible() {
+        List<Integer> a = new ArrayList<>(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9));
+        List<Integer> b = new ArrayList<>(a);
+        Collections.shuffle(a, new Prng(99));
+        Collections.shuffle(b, new Prng(99));
+        assertEquals(a, b);
+    }
+}
@@ -0,0 +1,78 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.util.*;
+
+/**
+ * Unit test suite for ReservoirSampler.
+ */
+public class ReservoirSamplerTest extends TestCase {
+
+    /**
+     * Asserts a reservoir bigger than the input keeps exactly the eligible words, and reading stops at the first
+     * blank line.
+     */
+    public void testKeepsEveryEligibleWord() throws IOException {
+        String input = "ab\r\ncat\r\nhorse\relephants\nzebra\n\nmouse\n";
+        for(int bufferSize : new int[] {1, 3, 1024}) {
+            List<String> sample = sample(input, 10, 3, 5, new Prng(1), bufferSize);
+            Collections.sort(sample);
+            assertEquals(Arrays.asList("cat", "horse", "zebra"), sample);
+        }
+        assertEquals(Arrays.asList("dog"), sample("dog", 10, 3, 9, new Prng(1), 2));
+    }
+
+    /**
+     * Asserts every eligible word is equally likely to be sampled, whether it comes before or after the reservoir
+     * fills up.
+     */
+    public void testSampleIsUniform() throws IOException {
+        StringBuilder input = new StringBuilder();
+        int words = 100;
+        for(int i = 0; i < words; i++) {
+            input.append(String.format("w%03d", i)).append('\n');
+            input.append("x\n"); // too short to be eligible, never sampled
+        }
+        int size = 10;
+        int trials = 20000;
+        int[] counts = new int[words];
+        Prng random = new Prng(42);
+        for(int t = 0; t < trials; t++) {
+            List<String> sample = sample(input.toString(), size, 3, 9, random, 64);
+            assertEquals(size, new HashSet<>(sample).size());
+            for(String word : sample) {
+                counts[Integer.parseInt(word.substring(1))]++;
+            }
+        }
+        double expected = (double) trials * size / words;
+        for(int i = 0; i < words; i++) {
+            assertTrue("word " + i + " was sampled " + counts[i] + " times",
+                    Math.abs(counts[i] - expected) < 5 * Math.sqrt(expected));
+        }
+    }
+
+    /**
+     * Asserts the same random state gives the same sample.
+     */
+    public void testSameSeedSameSample() throws IOException {
+        StringBuilder input = new StringBuilder();
+        for(int i = 0; i < 5000; i++) {
+            input.append("word").append(i).append('\n');
+        }
+        assertEquals(sample(input.toString(), 30, 3, 9, new Prng(9), 100),
+                sample(input.toString(), 30, 3, 9, new Prng(9), 4096));
+        assertFalse(sample(input.toString(), 30, 3, 9, new Prng(9), 100)
+                .equals(sample(input.toString(), 30, 3, 9, new Prng(10), 100)));
+    }
+
+    private static List<String> sample(String input, int size, int minLength, int maxLength, Random random,
+                                       int bufferSize) throws IOException {
+        return ReservoirSampler.sample(Channels.newChannel(new ByteArrayInputStream(
+                input.getBytes(Charset.defaultCharset()))), size, minLength, maxLength, random, bufferSize);
+    }
+}
@@ -0,0 +1,63 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Unit test suite for ScalingSweep.
+ */
+public class ScalingSweepTest extends TestCase {
+
+    /**
+     * Asserts every stage is measured at every size, a stage is skipped when there are too few eligible words, and
+     * the words files are cleaned up.
+     */
+    public void testRun() throws IOException {
+        Path directory = Files.createTempDirectory("sweep");
+        try {
+            List<ScalingSweep.Row> reported = new ArrayList<>();
+            List<ScalingSweep.Row> rows = ScalingSweep.run(SyntheticDictionary.fromOptions(new HashMap<>()),
+                    new long[] {20, 2000, 4000}, 50, directory, reported::add);
+            assertEquals(rows, reported);
+            assertEquals(3, rows.size());
+            assertEquals(-1, rows.get(0).generate.nanos);
+            for(ScalingSweep.Row row : rows.subList(1, 3)) {
+                assertNull(row.skipped);
+                assertTrue(row.fileBytes > row.size);
+                assertTrue(row.eligible > 0 && row.eligible < row.size);
+                for(ScalingSweep.Stage stage : row.stages()) {
+                    assertTrue(stage.name, stage.nanos > 0);
+                }
+            }
+            String report = ScalingSweep.format(rows.get(2), rows.get(1));
+            assertTrue(report, report.startsWith("4,000 words"));
+            assertTrue(report, report.contains("growth"));
+            assertTrue(ScalingSweep.format(rows.get(0), null).contains("too few eligible words"));
+            assertEquals(0, new File(directory.toString()).list().length);
+        } finally {
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Asserts sizes and byte counts are parsed and formatted.
+     */
+    public void testParseAndFormat() {
+        assertTrue(Arrays.equals(new long[] {1000, 1000000}, ScalingSweep.parseSizes("1000,1_000_000")));
+        try {
+            ScalingSweep.parseSizes("100,10");
+            fail();
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+        assertEquals("512 B", ScalingSweep.formatBytes(512));
+        assertEquals("1.5 KB", ScalingSweep.formatBytes(1536));
+        assertEquals("2.0 MB", ScalingSweep.formatBytes(2 * 1024 * 1024));
+        assertEquals("3.00 GB", ScalingSweep.formatBytes(3L * 1024 * 1024 * 1024));
+    }
+}
@@ -0,0 +1,118 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit test suite for SessionRegistry.
+ */
+public class SessionRegistryTest extends TestCase {
+
+    private static final int WORDS_MOCK = 300;
+
+    // Draining every last word by random draws could exceed App.MAX_WHILE, so claim two thirds of the dictionary.
+    private static final int WORDS_TO_CLAIM = 200;
+
+    private long now = 0;
+
+    /**
+     * Asserts a session never reuses a word, while two sessions are free to use the same words.
+     */
+    public void testSessionsAreIndependent() {
+        AtomicReference<WordIndex> reference = new AtomicReference<>(createIndex(WORDS_MOCK));
+        SessionRegistry registry = new SessionRegistry(reference);
+        Set<String> first = claimMany(registry.get("first"), reference.get());
+        Set<String> second = claimMany(registry.get("second"), reference.get());
+
+        // claimMany asserts no repeats within a session. Two sessions claiming two thirds each must overlap.
+        assertEquals(WORDS_TO_CLAIM, first.size());
+        first.retainAll(second);
+        assertFalse(first.isEmpty());
+        assertEquals(2, registry.size());
+    }
+
+    /**
+     * Asserts sessions idle for longer than the idle timeout are evicted, and come back fresh.
+     */
+    public void testIdleSessionsAreEvicted() {
+        AtomicReference<WordIndex> reference = new AtomicReference<>(createIndex(WORDS_MOCK));
+        SessionRegistry registry = new SessionRegistry(reference, 1000, Long.MAX_VALUE, () -> now);
+        registry.get("idle").claim(3, reference.get());
+        now = 500;
+        registry.get("busy");
+        assertEquals(2, registry.size());
+        now = 1200;
+        registry.get("busy");
+        assertEquals(1, registry.size());
+        assertEquals(0, registry.get("idle").usedCount());
+    }
+
+    /**
+     * Asserts the least recently used sessions are evicted to stay within the memory budget.
+     */
+    public void testMemoryBudgetEvictsLeastRecentlyUsed() {
+        AtomicReference<WordIndex> reference = new AtomicReference<>(createIndex(WORDS_MOCK));
+        SessionRegistry probe = new SessionRegistry(reference);
+        long perSession = probe.get("probe").memoryBytes();
+
+        SessionRegistry registry = new SessionRegistry(reference, Long.MAX_VALUE, perSession * 3, () -> now);
+        SessionRegistry.Session a = registry.get("a");
+        registry.get("b");
+        registry.get("c");
+        assertSame(a, registry.get("a")); // "a" is now the most recently used
+        registry.get("d");                // evicts "b"
+        assertEquals(3, registry.size());
+        assertTrue(registry.memoryBytes() <= perSession * 3);
+        assertSame(a, registry.get("a"));
+    }
+
+    /**
+     * Asserts a session keeps its used words after a hot reload swaps in a new index.
+     */
+    public void testUsedWordsSurviveHotReload() {
+        WordIndex before = createIndex(WORDS_MOCK);
+        AtomicReference<WordIndex> reference = new AtomicReference<>(before);
+        SessionRegistry.Session session = new SessionRegistry(reference).get("reload");
+        List<String> claimed = session.claim(3, before);
+
+        WordIndex after = createIndex(WORDS_MOCK);
+        reference.set(after);
+        Set<String> rest = claimMany(session, after);
+        assertEquals(WORDS_TO_CLAIM - 3, rest.size());
+        for(String s : claimed) {
+            assertFalse(rest.contains(s));
+        }
+    }
+
+
+    //**************************//
+    //***** HELPER METHODS *****//
+    //**************************//
+
+
+    /**
+     * Claim words one at a time until a session has used WORDS_TO_CLAIM words, asserting no word repeats.
+     */
+    private Set<String> claimMany(SessionRegistry.Session session, WordIndex index) {
+        Set<String> claimed = new HashSet<>();
+        while(session.usedCount() < WORDS_TO_CLAIM) {
+            for(String s : session.claim(1, index)) {
+                assertTrue(claimed.add(s));
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * @return an index of n distinct eligible words, e.g. "wrd_0", "wrd_1", ...
+     */
+    private WordIndex createIndex(int n) {
+        List<String> words = new ArrayList<>();
+        for(int i = 0; i < n; i++) {
+            words.add("wrd_" + i);
+        }
+        return new WordIndex(words, null);
+    }
+}
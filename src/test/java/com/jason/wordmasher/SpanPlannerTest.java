@@ -0,0 +1,44 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.util.*;
+
+/**
+ * Unit test suite for SpanPlanner.
+ */
+public class SpanPlannerTest extends TestCase {
+
+    /**
+     * Asserts SpanPlanner only plans lengths its words can reach, and that planned spans add up to the target and fit
+     * in the word lengths it picks for them.
+     */
+    public void testPlanSpans() {
+        // Only 3- and 4-letter words: 2 words reach at most 8 letters, 3 words at most 12.
+        WordIndex index = new WordIndex(Arrays.asList("abc", "defg", "hij", "klmn", "xy"), null);
+        SpanPlanner planner = new SpanPlanner(index);
+        assertTrue(planner.canPlan(2, 2));
+        assertTrue(planner.canPlan(2, 8));
+        assertFalse(planner.canPlan(2, 9));
+        assertTrue(planner.canPlan(3, 12));
+        assertFalse(planner.canPlan(3, 13));
+        Random random = new Prng(3);
+        for(int length = 3; length <= 12; length++) {
+            int[] spans = planner.planSpans(3, length, random);
+            int total = 0;
+            for(int span : spans) {
+                assertTrue(span >= 1 && span <= 4);
+                int wordLength = planner.pickWordLength(span, random);
+                assertTrue(wordLength >= span && planner.slotsByLength[wordLength].length > 0);
+                total += span;
+            }
+            assertEquals(length, total);
+        }
+        try {
+            planner.planSpans(2, 9, random);
+            fail("SpanPlanner.planSpans should throw for a length it cannot plan.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+}
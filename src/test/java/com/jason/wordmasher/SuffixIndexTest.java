@@ -0,0 +1,64 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.util.*;
+
+/**
+ * Unit test suite for SuffixIndex.
+ */
+public class SuffixIndexTest extends TestCase {
+
+    /**
+     * Asserts the suffix array and LCP array match a naive sort of all suffixes of a random text.
+     */
+    public void testAgainstNaiveSort() {
+        Random random = new Prng(11);
+        char[] text = new char[2000];
+        for(int i = 0; i < text.length; i++) {
+            text[i] = random.nextInt(8) == 0 ? '\0' : (char) ('a' + random.nextInt(3));
+        }
+        int[] suffixes = SuffixIndex.buildSuffixArray(text);
+        String s = new String(text);
+        Integer[] naive = new Integer[text.length];
+        for(int i = 0; i < naive.length; i++) {
+            naive[i] = i;
+        }
+        Arrays.sort(naive, (a, b) -> s.substring(a).compareTo(s.substring(b)));
+        int[] lcp = SuffixIndex.buildLcpArray(text, suffixes);
+        for(int k = 0; k < text.length; k++) {
+            assertEquals(naive[k].intValue(), suffixes[k]);
+            if(k > 0) {
+                int h = 0;
+                while(suffixes[k] + h < text.length && suffixes[k - 1] + h < text.length
+                        && text[suffixes[k] + h] == text[suffixes[k - 1] + h] && text[suffixes[k] + h] != '\0') {
+                    h++;
+                }
+                assertEquals(h, lcp[k]);
+            }
+        }
+    }
+
+    /**
+     * Asserts SuffixIndex.range finds every occurrence of a pattern in the eligible words, ignoring case, and never
+     * one that runs from one word into the next.
+     */
+    public void testRange() {
+        WordIndex index = new WordIndex(Arrays.asList("Prolux", "improve", "xy", "luxpro", "approval", "pr", "opro"),
+                null);
+        SuffixIndex suffixIndex = new SuffixIndex(index);
+        int[] range = suffixIndex.range("PRO");
+        Set<String> found = new HashSet<>();
+        for(int k = range[0]; k < range[1]; k++) {
+            int position = suffixIndex.position(k);
+            int slot = suffixIndex.slotAt(position);
+            String word = index.words.get(index.eligible[slot]);
+            int offset = suffixIndex.offsetAt(position, slot);
+            assertEquals("pro", word.substring(offset, offset + 3).toLowerCase());
+            found.add(word + "@" + offset);
+        }
+        assertEquals(new HashSet<>(Arrays.asList("Prolux@0", "improve@2", "luxpro@3", "approval@2", "opro@1")), found);
+        range = suffixIndex.range("xlu");
+        assertEquals(range[0], range[1]);
+    }
+}
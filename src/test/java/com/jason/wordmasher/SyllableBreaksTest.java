@@ -0,0 +1,76 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.util.*;
+
+/**
+ * Unit test suite for SyllableBreaks.
+ */
+public class SyllableBreaksTest extends TestCase {
+
+    /**
+     * Asserts the embedded patterns break common words where a reader would.
+     */
+    public void testEmbeddedPatterns() {
+        SyllableBreaks breaks = new SyllableBreaks(SyllableBreaks.readEmbeddedPatterns());
+        assertEquals("ta-ble", hyphenate("table", breaks));
+        assertEquals("tea-cher", hyphenate("teacher", breaks));
+        assertEquals("want-ed", hyphenate("wanted", breaks));
+        assertEquals("pock-et", hyphenate("pocket", breaks));
+        assertEquals("com-pu-ter", hyphenate("computer", breaks));
+        assertEquals("To-ge-ther", hyphenate("Together", breaks));
+        assertEquals("baked", hyphenate("baked", breaks));
+        assertEquals("rab-bit", hyphenate("rabbit", breaks));
+    }
+
+    /**
+     * Asserts a snapshot's table holds the breaks of each eligible word at its slot, and is built once.
+     */
+    public void testTableBySlot() {
+        List<String> words = Arrays.asList("table", "at", "computer", "rabbit", "encyclopedia", "wanted");
+        WordIndex index = new WordIndex(words, null);
+        int[] table = index.syllableBreaks();
+        assertEquals(index.eligibleCount(), table.length);
+        for(int slot = 0; slot < table.length; slot++) {
+            assertEquals(SyllableBreaks.embedded().of(index.words.get(index.eligible[slot])), table[slot]);
+        }
+        assertSame(table, index.syllableBreaks());
+    }
+
+    /**
+     * Asserts the highest vote wins, patterns with the same letters are merged, and no break leaves fewer than two
+     * letters on either side.
+     */
+    public void testVotes() {
+        SyllableBreaks breaks = new SyllableBreaks(Arrays.asList("1b", "b2c", "1de.", "d2e."));
+        assertEquals("ab-bc", hyphenate("abbc", breaks));
+        assertEquals("abo-de", hyphenate("abode", breaks));
+        assertEquals("abc", hyphenate("abc", breaks));
+        assertEquals(1 | 1 << 3, breaks.of("abc"));
+    }
+
+    /**
+     * Asserts SyllableBreaks.randomBreak only picks set bits, and picks every one of them.
+     */
+    public void testRandomBreak() {
+        int mask = 1 | 1 << 4 | 1 << 9;
+        Set<Integer> picked = new HashSet<>();
+        for(int i = 0; i < 200; i++) {
+            picked.add(SyllableBreaks.randomBreak(mask));
+        }
+        assertEquals(new HashSet<>(Arrays.asList(0, 4, 9)), picked);
+    }
+
+    private static String hyphenate(String word, SyllableBreaks breaks) {
+        int mask = breaks.of(word);
+        StringBuilder hyphenated = new StringBuilder();
+        for(int i = 0; i < word.length(); i++) {
+            if(i > 0 && (mask >> i & 1) == 1) {
+                hyphenated.append('-');
+            }
+            hyphenated.append(word.charAt(i));
+        }
+        return hyphenated.toString();
+    }
+}
@@ -0,0 +1,89 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Unit test suite for SyntheticDictionary.
+ */
+public class SyntheticDictionaryTest extends TestCase {
+
+    /**
+     * Asserts a file holds exactly the words asked for, of the lengths and alphabet asked for, and the same seed
+     * writes the same file.
+     */
+    public void testWrite() throws IOException {
+        Map<String, String> options = SyntheticDictionary.parseOptions(new String[] {"-lengths", "2-4", "-alphabet",
+                "xyz", "-seed", "7"}, 0);
+        Path first = Files.createTempFile("synthetic", ".txt");
+        Path second = Files.createTempFile("synthetic", ".txt");
+        try {
+            long bytes = SyntheticDictionary.fromOptions(options).write(first, 5000);
+            SyntheticDictionary.fromOptions(options).write(second, 5000);
+            assertEquals(Files.size(first), bytes);
+            assertTrue(Arrays.equals(Files.readAllBytes(first), Files.readAllBytes(second)));
+            List<String> words = App.readFileIntoListOfStrings(first.toFile());
+            assertEquals(5000, words.size());
+            Set<Integer> lengths = new HashSet<>();
+            Set<Character> characters = new HashSet<>();
+            for(String word : words) {
+                lengths.add(word.length());
+                for(char c : word.toCharArray()) {
+                    characters.add(c);
+                }
+            }
+            assertEquals(new HashSet<>(Arrays.asList(2, 3, 4)), lengths);
+            assertEquals(new HashSet<>(Arrays.asList('x', 'y', 'z')), characters);
+        } finally {
+            Files.delete(first);
+            Files.delete(second);
+        }
+    }
+
+    /**
+     * Asserts the default distribution makes about as many eligible words as english_words.txt.
+     */
+    public void testEnglishLengths() throws IOException {
+        Path file = Files.createTempFile("synthetic", ".txt");
+        try {
+            SyntheticDictionary.fromOptions(new HashMap<>()).write(file, 20000);
+            double synthetic = new WordIndex(App.readFileIntoListOfStrings(file.toFile()), null).eligibleCount()
+                    / 20000.0;
+            List<String> english = App.readFileIntoListOfStrings(new File("english_words.txt"));
+            double real = (double) new WordIndex(english, null).eligibleCount() / english.size();
+            assertEquals(real, synthetic, 0.03);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Asserts length distributions and options are parsed, and bad ones are rejected.
+     */
+    public void testParse() {
+        assertTrue(Arrays.equals(new int[] {0, 0, 0, 1, 1}, SyntheticDictionary.parseLengths("3-4")));
+        assertTrue(Arrays.equals(new int[] {0, 0, 1}, SyntheticDictionary.parseLengths("2")));
+        assertTrue(Arrays.equals(SyntheticDictionary.ENGLISH_LENGTH_WEIGHTS,
+                SyntheticDictionary.parseLengths("english")));
+        for(String lengths : new String[] {"0", "5-3", "x", "1-65"}) {
+            try {
+                SyntheticDictionary.parseLengths(lengths);
+                fail(lengths);
+            } catch (IllegalStateException expected) {
+                // expected
+            }
+        }
+        assertEquals(1000000, SyntheticDictionary.parseLong("1_000_000", 1, Long.MAX_VALUE));
+        try {
+            SyntheticDictionary.parseOptions(new String[] {"-seed"}, 0);
+            fail();
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+    }
+}
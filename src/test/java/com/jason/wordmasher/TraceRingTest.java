@@ -0,0 +1,88 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Unit test suite for TraceRing.
+ */
+public class TraceRingTest extends TestCase {
+
+    /**
+     * Asserts records are decoded oldest first, and only the newest capacity records are kept.
+     */
+    public void testDecode() {
+        TraceRing ring = new TraceRing(8);
+        assertTrue(ring.decode().isEmpty());
+        ring.record(TraceRing.Code.DICTIONARY_LOADED, 58110, 620000, 0);
+        ring.record(TraceRing.Code.WORDS_DRAWN, 3, 17, 1000);
+        List<String> lines = ring.decode();
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0), lines.get(0).matches("\\d\\d:\\d\\d:\\d\\d:\\d{3}\\.\\d{3} t\\d+ " +
+                "dictionary loaded: 58110 words, 620000 bytes"));
+        assertTrue(lines.get(1), lines.get(1).endsWith("needed 17 attempts to draw 3 unused words from 1000 eligible"));
+        for(int i = 0; i < 20; i++) {
+            ring.record(TraceRing.Code.BATCH_STARTED, i, 0, 0);
+        }
+        lines = ring.decode();
+        assertEquals(22, ring.written());
+        assertEquals(8, lines.size());
+        for(int k = 0; k < 8; k++) {
+            assertTrue(lines.get(k), lines.get(k).endsWith("batch started: " + (12 + k) + " frankenwords"));
+        }
+        try {
+            new TraceRing(12);
+            fail();
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+    }
+
+    /**
+     * Asserts a reader racing several writers never decodes a torn record.
+     */
+    public void testConcurrentWritersNeverTear() throws InterruptedException {
+        TraceRing ring = new TraceRing(64);
+        AtomicBoolean done = new AtomicBoolean();
+        List<Thread> writers = new ArrayList<>();
+        for(int t = 0; t < 4; t++) {
+            final long offset = t * 1000000L;
+            Thread writer = new Thread(() -> {
+                for(long k = 0; k < 200000; k++) {
+                    ring.record(TraceRing.Code.FRANKENWORD_MADE, offset + k, offset + k + 1, 0);
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        Thread joiner = new Thread(() -> {
+            for(Thread writer : writers) {
+                try {
+                    writer.join();
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            done.set(true);
+        });
+        joiner.start();
+        Pattern message = Pattern.compile("made a frankenword of length (\\d+) after (\\d+) rejections$");
+        int decoded = 0;
+        while(!done.get()) {
+            for(String line : ring.decode()) {
+                Matcher matcher = message.matcher(line);
+                assertTrue(line, matcher.find());
+                assertEquals(line, Long.parseLong(matcher.group(1)) + 1, Long.parseLong(matcher.group(2)));
+                decoded++;
+            }
+        }
+        joiner.join();
+        assertEquals(800000, ring.written());
+        assertEquals(64, ring.decode().size());
+        assertTrue(decoded > 0);
+    }
+}
@@ -0,0 +1,80 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Unit test suite for WordFilter.
+ */
+public class WordFilterTest extends TestCase {
+
+    private static final List<String> WORDS = Arrays.asList("cat", "Dog", "café", "elephant", "x-ray", "ox", "Zebra");
+
+    /**
+     * Asserts each predicate filter picks up exactly the words it should.
+     */
+    public void testPredicates() {
+        assertTrue(Arrays.equals(new int[] {0, 1, 2, 4, 6}, WordFilter.lengthBetween(WORDS, 3, 5).select()));
+        assertTrue(Arrays.equals(new int[] {0, 1, 3, 5, 6}, WordFilter.asciiLettersOnly(WORDS).select()));
+        assertTrue(Arrays.equals(new int[] {1, 3, 5},
+                WordFilter.matching(WORDS, Pattern.compile(".*o.*|e.*", Pattern.CASE_INSENSITIVE)).select()));
+        assertTrue(Arrays.equals(new int[] {0, 2, 3, 4, 5},
+                WordFilter.excluding(WORDS, Arrays.asList("DOG", "zebra", "unicorn")).select()));
+    }
+
+    /**
+     * Asserts and, or and not combine filters like set intersection, union and complement.
+     */
+    public void testCombinators() {
+        WordFilter length = WordFilter.lengthBetween(WORDS, 3, 5);
+        WordFilter ascii = WordFilter.asciiLettersOnly(WORDS);
+        assertTrue(Arrays.equals(new int[] {0, 1, 6}, length.and(ascii).select()));
+        assertTrue(Arrays.equals(new int[] {0, 1, 2, 3, 4, 5, 6}, length.or(ascii).select()));
+        assertTrue(Arrays.equals(new int[] {2, 4}, ascii.not().select()));
+        assertEquals(0, length.and(length.not()).cardinality());
+    }
+
+    /**
+     * Asserts not() never sets bits past the end of the dictionary, for sizes around a 64-bit word boundary.
+     */
+    public void testNotKeepsSize() {
+        for(int size : new int[] {1, 63, 64, 65, 128, 130}) {
+            WordFilter none = WordFilter.ofPositions(size, new int[0]);
+            WordFilter all = none.not();
+            assertEquals(size, all.cardinality());
+            assertEquals(size - 1, all.select()[size - 1]);
+            assertEquals(0, all.not().cardinality());
+        }
+    }
+
+    /**
+     * Asserts select() lists exactly the positions that were set, in order, across many 64-bit words.
+     */
+    public void testSelect() {
+        int[] positions = {0, 5, 63, 64, 127, 500, 999};
+        WordFilter filter = WordFilter.ofPositions(1000, positions);
+        assertTrue(Arrays.equals(positions, filter.select()));
+        assertTrue(filter.get(500));
+        assertFalse(filter.get(501));
+    }
+
+    /**
+     * Asserts filters over different dictionaries cannot be combined, and out-of-range positions are refused.
+     */
+    public void testIllegalArgumentsThrow() {
+        try {
+            WordFilter.ofPositions(10, new int[0]).and(WordFilter.ofPositions(11, new int[0]));
+            fail("WordFilter.and should throw for filters of different sizes.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            WordFilter.ofPositions(10, new int[] {10});
+            fail("WordFilter.ofPositions should throw for a position out of range.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+}
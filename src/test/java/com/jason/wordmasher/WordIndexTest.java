@@ -0,0 +1,65 @@
+package com.jason.wordmasher;
+
+import junit.framework.TestCase;
+
+import java.util.*;
+
+/**
+ * Unit test suite for WordIndex.
+ */
+public class WordIndexTest extends TestCase {
+
+    /**
+     * Asserts WordIndex.findEligibleWords only picks up words with an eligible length.
+     */
+    public void testFindEligibleWords() {
+        List<String> words = new ArrayList<>(Arrays.asList("ab", "abc", "abcdefghi", "abcdefghij", "cosmos"));
+        int[] eligible = WordIndex.findEligibleWords(words);
+        assertEquals(3, eligible.length);
+        assertEquals(1, eligible[0]);
+        assertEquals(2, eligible[1]);
+        assertEquals(4, eligible[2]);
+    }
+
+    /**
+     * Asserts a WordIndex is not affected by later changes to the lists and arrays it was built from.
+     */
+    public void testIndexIsImmutable() {
+        List<String> words = new ArrayList<>(Arrays.asList("one", "two", "three"));
+        char[] specialCharacters = new char[] {'!', '#'};
+        WordIndex index = new WordIndex(words, specialCharacters);
+        words.clear();
+        specialCharacters[0] = '$';
+        assertEquals(3, index.words.size());
+        assertEquals('!', index.specialCharacters[0]);
+        try {
+            index.words.add("four");
+            fail("WordIndex.words should be unmodifiable.");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Asserts WordIndex.fingerprint tells different dictionaries apart, and ignores words that are not eligible.
+     */
+    public void testFingerprint() {
+        WordIndex a = new WordIndex(Arrays.asList("one", "two", "three"), null);
+        WordIndex b = new WordIndex(Arrays.asList("one", "two", "three", "ab"), null);
+        WordIndex c = new WordIndex(Arrays.asList("one", "three", "two"), null);
+        assertEquals(a.fingerprint, b.fingerprint);
+        assertFalse(a.fingerprint == c.fingerprint);
+    }
+
+    /**
+     * Asserts WordIndex refuses an empty list of words.
+     */
+    public void testEmptyWordsThrows() {
+        try {
+            new WordIndex(new ArrayList<String>(), null);
+            fail("WordIndex should throw on an empty list of words.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+}